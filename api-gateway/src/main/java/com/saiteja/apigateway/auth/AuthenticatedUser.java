@@ -0,0 +1,4 @@
+package com.saiteja.apigateway.auth;
+
+public record AuthenticatedUser(String userId, String email, String role) {
+}
@@ -0,0 +1,17 @@
+package com.saiteja.apigateway.auth;
+
+public class InvalidTokenException extends RuntimeException {
+
+	private final String reason;
+
+	// No stack trace: these are thrown for every bad token a client sends
+	public InvalidTokenException(String reason) {
+		super("Invalid access token: " + reason, null, false, false);
+		this.reason = reason;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.saiteja.apigateway.auth;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.auth.token")
+public class TokenProperties {
+
+	// Key id to base64 HMAC-SHA256 key, as configured for booking-service; list the next key here
+	// before booking-service starts signing with it, and drop the old one once its tokens expired
+	private Map<String, String> keys = new HashMap<>();
+
+	// Tolerated clock drift between booking-service and the gateway
+	private Duration clockSkew = Duration.ofSeconds(30);
+
+	public Map<String, String> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(Map<String, String> keys) {
+		this.keys = keys;
+	}
+
+	public Duration getClockSkew() {
+		return clockSkew;
+	}
+
+	public void setClockSkew(Duration clockSkew) {
+		this.clockSkew = clockSkew;
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.saiteja.apigateway.auth;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks the access tokens booking-service issues on login without leaving the gateway. A token
+ * reads {@code keyId.claims.signature}, where claims is the base64url of user id, role, expiry in
+ * epoch seconds and email, one per line, and signature the HMAC-SHA256 of {@code keyId.claims}.
+ * Keys are decoded once at startup and each thread keeps its own initialised {@link Mac} per key,
+ * so a check is one base64 decode and one HMAC over about 150 bytes.
+ */
+@Component
+public class TokenVerifier {
+
+	static final String ALGORITHM = "HmacSHA256";
+	static final int MIN_KEY_BYTES = 32;
+
+	private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+	private final Map<String, ThreadLocal<Mac>> macs = new HashMap<>();
+	private final long clockSkewSeconds;
+
+	public TokenVerifier(TokenProperties properties) {
+		if (properties.getKeys().isEmpty()) {
+			throw new IllegalStateException("gateway.auth.token.keys has no key configured");
+		}
+		properties.getKeys().forEach((keyId, secret) -> {
+			byte[] key = Base64.getDecoder().decode(secret);
+			if (key.length < MIN_KEY_BYTES) {
+				throw new IllegalStateException("gateway.auth.token.keys." + keyId + " must decode to at least "
+						+ MIN_KEY_BYTES + " bytes");
+			}
+			SecretKeySpec spec = new SecretKeySpec(key, ALGORITHM);
+			macs.put(keyId, ThreadLocal.withInitial(() -> newMac(spec)));
+		});
+		this.clockSkewSeconds = properties.getClockSkew().toSeconds();
+	}
+
+	public AuthenticatedUser verify(String token) {
+		int claimsStart = token.indexOf('.') + 1;
+		int signatureStart = token.indexOf('.', claimsStart) + 1;
+		if (claimsStart <= 1 || signatureStart <= claimsStart || token.indexOf('.', signatureStart) >= 0) {
+			throw new InvalidTokenException("malformed");
+		}
+		ThreadLocal<Mac> mac = macs.get(token.substring(0, claimsStart - 1));
+		if (mac == null) {
+			throw new InvalidTokenException("unknown_key");
+		}
+
+		byte[] signature;
+		byte[] claims;
+		try {
+			signature = BASE64URL.decode(token.substring(signatureStart));
+			claims = BASE64URL.decode(token.substring(claimsStart, signatureStart - 1));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidTokenException("malformed");
+		}
+		byte[] expected = mac.get().doFinal(token.substring(0, signatureStart - 1).getBytes(StandardCharsets.US_ASCII));
+		if (!MessageDigest.isEqual(expected, signature)) {
+			throw new InvalidTokenException("bad_signature");
+		}
+
+		// user id, role, expiry, email; the email goes last as the only field that may hold any character
+		String[] fields = new String(claims, StandardCharsets.UTF_8).split("\n", 4);
+		if (fields.length != 4) {
+			throw new InvalidTokenException("malformed");
+		}
+		long expiresAt;
+		try {
+			expiresAt = Long.parseLong(fields[2]);
+		} catch (NumberFormatException e) {
+			throw new InvalidTokenException("malformed");
+		}
+		if (expiresAt + clockSkewSeconds < Instant.now().getEpochSecond()) {
+			throw new InvalidTokenException("expired");
+		}
+		return new AuthenticatedUser(fields[0], fields[3], fields[1]);
+	}
+
+	private static Mac newMac(SecretKeySpec key) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC-SHA256 is not available", e);
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.saiteja.apigateway.cache;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Least recently used responses up to a fixed count, each tagged with the schedules it lists so one
+ * seat change can drop every response that shows it. All access goes through one lock; every operation
+ * is a few map updates.
+ */
+class ResponseStore {
+
+	private final int maximumEntries;
+	private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Set<String>> keysByTag = new HashMap<>();
+
+	ResponseStore(int maximumEntries) {
+		this.maximumEntries = maximumEntries;
+	}
+
+	// Null when absent or expired
+	synchronized CachedResponse get(String key, Instant now) {
+		CachedResponse response = entries.get(key);
+		if (response != null && !response.expiresAt().isAfter(now)) {
+			remove(key);
+			return null;
+		}
+		return response;
+	}
+
+	synchronized void put(String key, CachedResponse response) {
+		remove(key);
+		entries.put(key, response);
+		response.tags().forEach(tag -> keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key));
+		Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+		while (entries.size() > maximumEntries) {
+			Map.Entry<String, CachedResponse> evicted = eldest.next();
+			eldest.remove();
+			untag(evicted.getKey(), evicted.getValue());
+		}
+	}
+
+	// Returns how many responses were dropped
+	synchronized int invalidate(String tag) {
+		Set<String> keys = keysByTag.remove(tag);
+		if (keys == null) {
+			return 0;
+		}
+		keys.forEach(this::remove);
+		return keys.size();
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	private void remove(String key) {
+		CachedResponse removed = entries.remove(key);
+		if (removed != null) {
+			untag(key, removed);
+		}
+	}
+
+	private void untag(String key, CachedResponse response) {
+		for (String tag : response.tags()) {
+			Set<String> keys = keysByTag.get(tag);
+			if (keys != null && keys.remove(key) && keys.isEmpty()) {
+				keysByTag.remove(tag);
+			}
+		}
+	}
+
+	record CachedResponse(HttpStatusCode status, MediaType contentType, byte[] body, String etag, Instant expiresAt,
+			Set<String> tags) {
+	}
+
+}
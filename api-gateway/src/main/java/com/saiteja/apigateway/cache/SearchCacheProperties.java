@@ -0,0 +1,65 @@
+package com.saiteja.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "gateway.search-cache")
+public class SearchCacheProperties {
+
+	private boolean enabled = true;
+
+	// POST endpoints whose responses depend only on the request body
+	private List<String> paths = List.of("/api/v1.0/flight/admin/search");
+
+	// Upper bound on how long a response is served; flight-service may ask for less
+	private Duration ttl = Duration.ofSeconds(10);
+
+	// Responses kept before the least recently used ones are dropped
+	private int maximumEntries = 10_000;
+
+	// Larger responses are passed through without being cached
+	private int maximumResponseBytes = 256 * 1024;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getPaths() {
+		return paths;
+	}
+
+	public void setPaths(List<String> paths) {
+		this.paths = paths;
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(Duration ttl) {
+		this.ttl = ttl;
+	}
+
+	public int getMaximumEntries() {
+		return maximumEntries;
+	}
+
+	public void setMaximumEntries(int maximumEntries) {
+		this.maximumEntries = maximumEntries;
+	}
+
+	public int getMaximumResponseBytes() {
+		return maximumResponseBytes;
+	}
+
+	public void setMaximumResponseBytes(int maximumResponseBytes) {
+		this.maximumResponseBytes = maximumResponseBytes;
+	}
+
+}
@@ -0,0 +1,299 @@
+package com.saiteja.apigateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.saiteja.apigateway.cache.ResponseStore.CachedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Answers repeated flight searches from memory instead of forwarding them to flight-service. A response
+ * is keyed on the path, the Accept header and the request body with its fields sorted and its values
+ * trimmed and upper-cased, as flight-service itself normalizes a search. It is kept for the TTL set here
+ * or the max-age flight-service sends, whichever is shorter, and not at all under no-store. Any
+ * flight-service response carrying X-Cache-Invalidate drops every cached search listing one of those
+ * schedules. Cached responses carry an ETag, so clients revalidating with If-None-Match get a 304.
+ */
+@Component
+public class SearchResponseCache implements GlobalFilter, Ordered {
+
+	static final String CACHE_TAGS_HEADER = "X-Cache-Tags";
+	static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+	static final String CACHE_STATUS_HEADER = "X-Cache";
+
+	private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final SearchCacheProperties properties;
+	private final ResponseStore store;
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter uncacheable;
+	private final Counter notModified;
+	private final Counter invalidated;
+
+	public SearchResponseCache(SearchCacheProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.store = new ResponseStore(properties.getMaximumEntries());
+		this.hits = lookup(meterRegistry, "hit");
+		this.misses = lookup(meterRegistry, "miss");
+		this.uncacheable = lookup(meterRegistry, "uncacheable");
+		this.notModified = Counter.builder("gateway.search.cache.not_modified")
+				.description("Searches answered with 304 because the client already had the response")
+				.register(meterRegistry);
+		this.invalidated = Counter.builder("gateway.search.cache.invalidated")
+				.description("Cached searches dropped because flight-service reported a seat change")
+				.register(meterRegistry);
+		Gauge.builder("gateway.search.cache.size", store, ResponseStore::size)
+				.description("Searches currently cached")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (!properties.isEnabled()) {
+			return chain.filter(exchange);
+		}
+		// any response may report a seat change, and neither header is meant for clients
+		ServerHttpResponse response = exchange.getResponse();
+		response.beforeCommit(() -> Mono.fromRunnable(() -> {
+			List<String> changed = response.getHeaders().get(INVALIDATE_HEADER);
+			if (changed != null) {
+				changed.stream()
+						.flatMap(value -> Arrays.stream(value.split(",")))
+						.map(String::trim)
+						.forEach(scheduleId -> invalidated.increment(store.invalidate(scheduleId)));
+			}
+			response.getHeaders().remove(INVALIDATE_HEADER);
+			response.getHeaders().remove(CACHE_TAGS_HEADER);
+		}));
+
+		ServerHttpRequest request = exchange.getRequest();
+		if (request.getMethod() != HttpMethod.POST || !properties.getPaths().contains(request.getPath().value())) {
+			return chain.filter(exchange);
+		}
+		return DataBufferUtils.join(request.getBody())
+				.map(buffer -> {
+					byte[] bytes = new byte[buffer.readableByteCount()];
+					buffer.read(bytes);
+					DataBufferUtils.release(buffer);
+					return bytes;
+				})
+				.defaultIfEmpty(new byte[0])
+				.flatMap(body -> {
+					String key = key(request, body);
+					if (key == null) {
+						// flight-service answers what it cannot parse with a 400, which is not worth keeping
+						uncacheable.increment();
+						return forward(exchange, chain, body, null);
+					}
+					CachedResponse cached = store.get(key, Instant.now());
+					if (cached != null) {
+						hits.increment();
+						return answer(exchange, cached);
+					}
+					misses.increment();
+					return forward(exchange, chain, body, key);
+				});
+	}
+
+	// After authentication, so a rejected token is never answered from the cache
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 200;
+	}
+
+	private Mono<Void> answer(ServerWebExchange exchange, CachedResponse cached) {
+		ServerHttpResponse response = exchange.getResponse();
+		HttpHeaders headers = response.getHeaders();
+		headers.setETag(cached.etag());
+		headers.setCacheControl("max-age=" + Math.max(0, Duration.between(Instant.now(), cached.expiresAt()).toSeconds()));
+		headers.set(CACHE_STATUS_HEADER, "HIT");
+		if (matches(exchange.getRequest(), cached.etag())) {
+			notModified.increment();
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			return response.setComplete();
+		}
+		response.setStatusCode(cached.status());
+		headers.setContentType(cached.contentType());
+		headers.setContentLength(cached.body().length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+	}
+
+	// Sends the already read body on, and stores what comes back when key is set and the response allows it
+	private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, byte[] body, String key) {
+		ServerHttpRequest request = exchange.getRequest();
+		ServerHttpRequest replayed = new ServerHttpRequestDecorator(request) {
+			@Override
+			public Flux<DataBuffer> getBody() {
+				return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+			}
+		};
+		if (key == null) {
+			return chain.filter(exchange.mutate().request(replayed).build());
+		}
+
+		ServerHttpResponse capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+			@Override
+			public Mono<Void> writeWith(Publisher<? extends DataBuffer> responseBody) {
+				Duration ttl = ttl(getStatusCode(), getHeaders());
+				if (ttl.isZero()) {
+					return super.writeWith(responseBody);
+				}
+				return DataBufferUtils.join(responseBody)
+						.flatMap(joined -> {
+							byte[] bytes = new byte[joined.readableByteCount()];
+							joined.read(bytes);
+							DataBufferUtils.release(joined);
+							if (bytes.length > properties.getMaximumResponseBytes()) {
+								return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+							}
+
+							String etag = etag(bytes);
+							store.put(key, new CachedResponse(getStatusCode(), getHeaders().getContentType(), bytes, etag,
+									Instant.now().plus(ttl), tags(getHeaders())));
+							getHeaders().setETag(etag);
+							getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+							if (matches(request, etag)) {
+								notModified.increment();
+								setStatusCode(HttpStatus.NOT_MODIFIED);
+								getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+								return setComplete();
+							}
+							getHeaders().setContentLength(bytes.length);
+							return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+						});
+			}
+		};
+		return chain.filter(exchange.mutate().request(replayed).response(capturing).build());
+	}
+
+	// Zero when the response must not be cached
+	private Duration ttl(HttpStatusCode status, HttpHeaders headers) {
+		if (status == null || status.value() != HttpStatus.OK.value()
+				|| !MediaType.APPLICATION_JSON.isCompatibleWith(headers.getContentType())) {
+			return Duration.ZERO;
+		}
+		String cacheControl = headers.getCacheControl();
+		if (cacheControl == null) {
+			return properties.getTtl();
+		}
+		if (cacheControl.contains("no-store") || cacheControl.contains("no-cache") || cacheControl.contains("private")) {
+			return Duration.ZERO;
+		}
+		Matcher maxAge = MAX_AGE.matcher(cacheControl);
+		if (maxAge.find()) {
+			Duration requested = Duration.ofSeconds(Long.parseLong(maxAge.group(1)));
+			return requested.compareTo(properties.getTtl()) < 0 ? requested : properties.getTtl();
+		}
+		return properties.getTtl();
+	}
+
+	private static Set<String> tags(HttpHeaders headers) {
+		List<String> values = headers.get(CACHE_TAGS_HEADER);
+		if (values == null) {
+			return Set.of();
+		}
+		return values.stream()
+				.flatMap(value -> Arrays.stream(value.split(",")))
+				.map(String::trim)
+				.filter(tag -> !tag.isEmpty())
+				.collect(Collectors.toSet());
+	}
+
+	private static boolean matches(ServerHttpRequest request, String etag) {
+		return request.getHeaders().getIfNoneMatch().stream()
+				.anyMatch(candidate -> candidate.equals(etag) || candidate.equals("*"));
+	}
+
+	// Null when the body is not JSON
+	static String key(ServerHttpRequest request, byte[] body) {
+		try {
+			JsonNode search = MAPPER.readTree(body);
+			if (search == null || !search.isObject()) {
+				return null;
+			}
+			return request.getPath().value() + '\n'
+					+ MediaType.toString(request.getHeaders().getAccept()) + '\n'
+					+ MAPPER.writeValueAsString(normalize(search));
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static JsonNode normalize(JsonNode node) {
+		if (node.isObject()) {
+			Map<String, JsonNode> sorted = new TreeMap<>();
+			node.fields().forEachRemaining(field -> sorted.put(field.getKey(), normalize(field.getValue())));
+			ObjectNode normalized = JsonNodeFactory.instance.objectNode();
+			sorted.forEach(normalized::set);
+			return normalized;
+		}
+		if (node.isArray()) {
+			ArrayNode normalized = JsonNodeFactory.instance.arrayNode();
+			node.forEach(element -> normalized.add(normalize(element)));
+			return normalized;
+		}
+		if (node.isTextual()) {
+			return JsonNodeFactory.instance.textNode(node.asText().trim().toUpperCase());
+		}
+		return node;
+	}
+
+	private static String etag(byte[] body) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static Counter lookup(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("gateway.search.cache.requests")
+				.description("Searches seen by the gateway cache, by whether flight-service had to answer them")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+}
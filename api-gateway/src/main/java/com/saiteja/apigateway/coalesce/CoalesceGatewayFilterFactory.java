@@ -0,0 +1,282 @@
+package com.saiteja.apigateway.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges identical requests that are in flight at the same time into one upstream call. The first
+ * request for a key goes upstream; every identical request arriving before its response does waits
+ * for it and is answered with a copy. Requests are identical when route, method, path, query, the
+ * configured headers and the body all match. A waiter whose leader cannot share its response (too
+ * large, sets a cookie, fails or takes longer than maxWait) makes its own call instead.
+ * Opt in per route with {@code filters[n]=Coalesce}; only the configured methods are merged.
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+	private static final Set<String> HOP_BY_HOP = Set.of(HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+			HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONNECTION.toLowerCase());
+
+	private final Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+
+	public CoalesceGatewayFilterFactory(MeterRegistry meterRegistry) {
+		super(Config.class);
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("gateway.coalesce.in_flight", inFlight, Map::size)
+				.description("Upstream calls other identical requests can currently wait for")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		return (exchange, chain) -> {
+			ServerHttpRequest request = exchange.getRequest();
+			HttpMethod method = request.getMethod();
+			if (!config.getMethods().contains(method.name())) {
+				return chain.filter(exchange);
+			}
+			long length = request.getHeaders().getContentLength();
+			boolean bodiless = method == HttpMethod.GET || method == HttpMethod.HEAD;
+			if (length > config.getMaxBodyBytes() || (length < 0 && !bodiless)) {
+				// too large to keep around for comparison, or streamed without a length
+				count(config, "bypassed");
+				return chain.filter(exchange);
+			}
+			if (length <= 0) {
+				return coalesce(exchange, chain, config, new byte[0]);
+			}
+			return DataBufferUtils.join(request.getBody())
+					.map(buffer -> {
+						byte[] bytes = new byte[buffer.readableByteCount()];
+						buffer.read(bytes);
+						DataBufferUtils.release(buffer);
+						return bytes;
+					})
+					.defaultIfEmpty(new byte[0])
+					.flatMap(body -> coalesce(exchange, chain, config, body));
+		};
+	}
+
+	private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, Config config, byte[] body) {
+		String key = key(exchange.getRequest(), config, body);
+		Sinks.One<SharedResponse> sink = Sinks.one();
+		Sinks.One<SharedResponse> leader = inFlight.putIfAbsent(key, sink);
+		if (leader == null) {
+			count(config, "leader");
+			return lead(exchange, chain, config, body, key, sink);
+		}
+		return leader.asMono()
+				.timeout(config.getMaxWait())
+				.onErrorResume(TimeoutException.class, e -> Mono.empty())
+				.flatMap(shared -> {
+					count(config, "merged");
+					return write(exchange.getResponse(), shared).thenReturn(shared);
+				})
+				.switchIfEmpty(Mono.defer(() -> {
+					count(config, "fallback");
+					return forward(exchange, chain, body, exchange.getResponse()).then(Mono.empty());
+				}))
+				.then();
+	}
+
+	// Makes the upstream call and hands a copy of its response to everyone waiting on the key
+	private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Config config, byte[] body, String key,
+			Sinks.One<SharedResponse> sink) {
+		// anything already on the response was set by the gateway for this caller, not by the service
+		Set<String> ownHeaders = Set.copyOf(exchange.getResponse().getHeaders().keySet());
+		ServerHttpResponse capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+			@Override
+			public Mono<Void> writeWith(Publisher<? extends DataBuffer> responseBody) {
+				if (getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+					release(key, sink);
+					return super.writeWith(responseBody);
+				}
+				return DataBufferUtils.join(responseBody)
+						.flatMap(joined -> {
+							byte[] bytes = new byte[joined.readableByteCount()];
+							joined.read(bytes);
+							DataBufferUtils.release(joined);
+							inFlight.remove(key, sink);
+							if (bytes.length <= config.getMaxResponseBytes()) {
+								sink.tryEmitValue(new SharedResponse(getStatusCode(), upstreamHeaders(getHeaders(), ownHeaders), bytes));
+							}
+							sink.tryEmitEmpty();
+							return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+						});
+			}
+
+			// streamed responses (NDJSON, SSE) go out as they come; waiters make their own call right away
+			@Override
+			public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> responseBody) {
+				release(key, sink);
+				return super.writeAndFlushWith(responseBody);
+			}
+		};
+		return forward(exchange, chain, body, capturing)
+				.doFinally(signal -> release(key, sink));
+	}
+
+	// Once the leader is done, later requests start a new call and remaining waiters make their own
+	private void release(String key, Sinks.One<SharedResponse> sink) {
+		inFlight.remove(key, sink);
+		sink.tryEmitEmpty();
+	}
+
+	private static Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, byte[] body,
+			ServerHttpResponse response) {
+		ServerHttpRequest replayed = new ServerHttpRequestDecorator(exchange.getRequest()) {
+			@Override
+			public Flux<DataBuffer> getBody() {
+				return body.length == 0 ? Flux.empty()
+						: Flux.defer(() -> Flux.just(response.bufferFactory().wrap(body)));
+			}
+		};
+		return chain.filter(exchange.mutate().request(replayed).response(response).build());
+	}
+
+	private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+		response.setStatusCode(shared.status());
+		shared.headers().forEach((name, values) -> {
+			if (!response.getHeaders().containsKey(name)) {
+				response.getHeaders().put(name, values);
+			}
+		});
+		response.getHeaders().setContentLength(shared.body().length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+	}
+
+	private static HttpHeaders upstreamHeaders(HttpHeaders headers, Set<String> ownHeaders) {
+		HttpHeaders upstream = new HttpHeaders();
+		headers.forEach((name, values) -> {
+			if (!ownHeaders.contains(name) && !HOP_BY_HOP.contains(name.toLowerCase())) {
+				upstream.put(name, List.copyOf(values));
+			}
+		});
+		return upstream;
+	}
+
+	static String key(ServerHttpRequest request, Config config, byte[] body) {
+		StringBuilder key = new StringBuilder()
+				.append(config.getRouteId()).append('\n')
+				.append(request.getMethod().name()).append(' ').append(request.getURI().getRawPath());
+		if (request.getURI().getRawQuery() != null) {
+			key.append('?').append(request.getURI().getRawQuery());
+		}
+		key.append('\n');
+		for (String header : config.getKeyHeaders()) {
+			key.append(header).append(": ").append(request.getHeaders().getOrEmpty(header)).append('\n');
+		}
+		return key.append(new String(body, StandardCharsets.UTF_8)).toString();
+	}
+
+	private void count(Config config, String result) {
+		Counter.builder("gateway.coalesce.requests")
+				.description("Requests on coalescing routes, by whether they shared another request's upstream call")
+				.tag("route", String.valueOf(config.getRouteId()))
+				.tag("result", result)
+				.register(meterRegistry)
+				.increment();
+	}
+
+	record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+	}
+
+	public static class Config implements HasRouteId {
+
+		private String routeId;
+
+		// idempotent methods only; POST belongs here just on routes that merely read
+		private Set<String> methods = Set.of("GET", "HEAD");
+
+		// the caller's identity is part of the key, so one user is never sent another's ticket
+		private List<String> keyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.AUTHORIZATION, "X-User-Id",
+				"X-User-Role");
+
+		private int maxBodyBytes = 16 * 1024;
+
+		private int maxResponseBytes = 1024 * 1024;
+
+		private Duration maxWait = Duration.ofSeconds(5);
+
+		@Override
+		public void setRouteId(String routeId) {
+			this.routeId = routeId;
+		}
+
+		@Override
+		public String getRouteId() {
+			return routeId;
+		}
+
+		public Set<String> getMethods() {
+			return methods;
+		}
+
+		public void setMethods(Set<String> methods) {
+			this.methods = methods;
+		}
+
+		public List<String> getKeyHeaders() {
+			return keyHeaders;
+		}
+
+		public void setKeyHeaders(List<String> keyHeaders) {
+			this.keyHeaders = keyHeaders;
+		}
+
+		public int getMaxBodyBytes() {
+			return maxBodyBytes;
+		}
+
+		public void setMaxBodyBytes(int maxBodyBytes) {
+			this.maxBodyBytes = maxBodyBytes;
+		}
+
+		public int getMaxResponseBytes() {
+			return maxResponseBytes;
+		}
+
+		public void setMaxResponseBytes(int maxResponseBytes) {
+			this.maxResponseBytes = maxResponseBytes;
+		}
+
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+	}
+
+}
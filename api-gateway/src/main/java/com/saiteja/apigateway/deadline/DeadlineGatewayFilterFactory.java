@@ -0,0 +1,103 @@
+package com.saiteja.apigateway.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Stamps each request with how long the caller still waits for it, as milliseconds in {@link #HEADER}:
+ * the route's timeout, or less if the client sent a smaller budget of its own. A budget rather than an
+ * instant, so no two hosts need agreeing clocks; each service counts it from the moment the request
+ * arrives, passes what is left of it on, and drops work once it has run out. A request arriving with
+ * no budget left is answered with 504 here and never forwarded.
+ * Opt in per route with {@code filters[n]=Deadline=5s}; pair it with a matching response-timeout in the
+ * route's metadata so the gateway itself stops waiting at the same time.
+ */
+@Component
+public class DeadlineGatewayFilterFactory extends AbstractGatewayFilterFactory<DeadlineGatewayFilterFactory.Config> {
+
+	public static final String HEADER = "X-Request-Timeout";
+
+	private final MeterRegistry meterRegistry;
+
+	public DeadlineGatewayFilterFactory(MeterRegistry meterRegistry) {
+		super(Config.class);
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return List.of("timeout");
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		Counter expired = Counter.builder("gateway.deadline.expired")
+				.description("Requests rejected because they arrived with no time budget left")
+				.tag("route", String.valueOf(config.getRouteId()))
+				.register(meterRegistry);
+		return (exchange, chain) -> {
+			Duration budget = config.getTimeout();
+			Duration requested = parse(exchange.getRequest().getHeaders().getFirst(HEADER));
+			if (requested != null && requested.compareTo(budget) < 0) {
+				if (!requested.isPositive()) {
+					expired.increment();
+					exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+					return exchange.getResponse().setComplete();
+				}
+				budget = requested;
+			}
+			String header = String.valueOf(budget.toMillis());
+			return chain.filter(exchange.mutate()
+					.request(request -> request.headers(headers -> headers.set(HEADER, header)))
+					.build());
+		};
+	}
+
+	// Null when the header is missing or not a number, in which case the route's timeout applies
+	static Duration parse(String header) {
+		if (header == null) {
+			return null;
+		}
+		try {
+			return Duration.ofMillis(Long.parseLong(header.trim()));
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public static class Config implements HasRouteId {
+
+		private String routeId;
+
+		private Duration timeout = Duration.ofSeconds(10);
+
+		@Override
+		public void setRouteId(String routeId) {
+			this.routeId = routeId;
+		}
+
+		@Override
+		public String getRouteId() {
+			return routeId;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.saiteja.apigateway.loadbalancer;
+
+/**
+ * What {@link PeakEwmaLoadBalancer} knows about one instance behind an {@code lb://} route, as seen
+ * from this gateway's proxied requests: calls in flight, a latency estimate
+ * that jumps to any slower response at once and decays towards faster ones over the decay time,
+ * and consecutive failures. Guarded by this; every method is a handful of arithmetic operations.
+ */
+class InstanceStats {
+
+	private final long decayNanos;
+
+	private int outstanding;
+	private double costNanos;
+	private long updatedNanos;
+	private int failures;
+	private long quarantinedUntilNanos;
+
+	InstanceStats(long decayNanos, long nowNanos) {
+		this.decayNanos = decayNanos;
+		this.updatedNanos = nowNanos;
+	}
+
+	synchronized void start() {
+		outstanding++;
+	}
+
+	// Returns true when this failure took the instance out of rotation
+	synchronized boolean complete(long latencyNanos, boolean failed, long nowNanos, int failureThreshold,
+			long quarantineNanos) {
+		outstanding = Math.max(0, outstanding - 1);
+		if (latencyNanos >= 0) {
+			double decayed = decayedCost(nowNanos);
+			if (latencyNanos > decayed) {
+				costNanos = latencyNanos;
+			} else {
+				double weight = Math.exp(-(double) (nowNanos - updatedNanos) / decayNanos);
+				costNanos = decayed * weight + latencyNanos * (1 - weight);
+			}
+			updatedNanos = nowNanos;
+		}
+		if (!failed) {
+			failures = 0;
+			return false;
+		}
+		failures++;
+		if (failures >= failureThreshold && quarantinedUntilNanos - nowNanos <= 0) {
+			quarantinedUntilNanos = nowNanos + quarantineNanos;
+			return true;
+		}
+		return false;
+	}
+
+	// Expected wait for one more call: the latency estimate times the calls it would queue behind
+	synchronized double load(long nowNanos) {
+		return decayedCost(nowNanos) * (outstanding + 1);
+	}
+
+	synchronized boolean isQuarantined(long nowNanos) {
+		return quarantinedUntilNanos - nowNanos > 0;
+	}
+
+	// Without new samples the estimate drifts back down, so an instance that was slow is tried again
+	private double decayedCost(long nowNanos) {
+		return costNanos * Math.exp(-(double) (nowNanos - updatedNanos) / decayNanos);
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.saiteja.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two instances at random and sends the call to the one with the lower expected wait: its
+ * peak-EWMA latency times its calls in flight plus one. A slow instance is found after one slow
+ * response and gets fewer calls until it is fast again, while comparing only two keeps any single
+ * instance from being flooded when the estimates are stale. Instances that fail
+ * {@link PeakEwmaProperties#getFailureThreshold()} times in a row are skipped for the quarantine
+ * period, unless every instance is. Here it picks the instance for every {@code lb://} route, and
+ * learns latency and failures from the load balancer lifecycle callbacks that the gateway's
+ * ReactiveLoadBalancerClientFilter reports once the proxied response completes.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+		LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	private final ObjectProvider<ServiceInstanceListSupplier> instances;
+	private final String serviceId;
+	private final PeakEwmaProperties properties;
+	private final Counter quarantined;
+	private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+	public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instances, String serviceId,
+			PeakEwmaProperties properties, MeterRegistry meterRegistry) {
+		this.instances = instances;
+		this.serviceId = serviceId;
+		this.properties = properties;
+		this.quarantined = Counter.builder("gateway.load_balancer.quarantined")
+				.description("Times an instance was taken out of rotation after failing repeatedly")
+				.tag("service", serviceId)
+				.register(meterRegistry);
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		ServiceInstanceListSupplier supplier = instances.getIfAvailable(NoopServiceInstanceListSupplier::new);
+		return supplier.get(request).next().map(this::choose);
+	}
+
+	Response<ServiceInstance> choose(List<ServiceInstance> candidates) {
+		long now = System.nanoTime();
+		List<ServiceInstance> available = candidates.stream()
+				.filter(instance -> !stats(instance).isQuarantined(now))
+				.toList();
+		if (available.isEmpty()) {
+			// better to try a failing instance than to fail every call outright
+			available = candidates;
+		}
+		if (available.isEmpty()) {
+			return new EmptyResponse();
+		}
+		if (available.size() == 1) {
+			return new DefaultResponse(available.get(0));
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(available.size());
+		int second = random.nextInt(available.size() - 1);
+		if (second >= first) {
+			second++;
+		}
+		ServiceInstance a = available.get(first);
+		ServiceInstance b = available.get(second);
+		return new DefaultResponse(stats(a).load(now) <= stats(b).load(now) ? a : b);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+		if (!lbResponse.hasServer()) {
+			return;
+		}
+		if (request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() == 0) {
+			timed.setRequestStartTime(System.nanoTime());
+		}
+		stats(lbResponse.getServer()).start();
+	}
+
+	@Override
+	public void onComplete(CompletionContext<Object, ServiceInstance, Object> completion) {
+		Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+		if (completion.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		long now = System.nanoTime();
+		long latency = -1;
+		if (completion.getLoadBalancerRequest() != null
+				&& completion.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+				&& timed.getRequestStartTime() != 0) {
+			latency = now - timed.getRequestStartTime();
+		}
+		boolean failed = completion.status() == CompletionContext.Status.FAILED
+				|| (completion.getClientResponse() instanceof ResponseData response
+				&& response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+		if (stats(lbResponse.getServer()).complete(latency, failed, now, properties.getFailureThreshold(),
+				properties.getQuarantine().toNanos())) {
+			quarantined.increment();
+		}
+	}
+
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	private InstanceStats stats(ServiceInstance instance) {
+		return stats.computeIfAbsent(instance.getHost() + ':' + instance.getPort(),
+				key -> new InstanceStats(properties.getDecay().toNanos(), System.nanoTime()));
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.saiteja.apigateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class PeakEwmaProperties {
+
+	// How quickly an instance's latency estimate forgets a slow response once it answers quickly again
+	private Duration decay = Duration.ofSeconds(10);
+
+	// Consecutive failures (connection errors, timeouts, 5xx) before an instance is taken out of rotation
+	private int failureThreshold = 5;
+
+	// How long a failing instance is left out; after that it gets one call, and another failure takes it out again
+	private Duration quarantine = Duration.ofSeconds(30);
+
+	public Duration getDecay() {
+		return decay;
+	}
+
+	public void setDecay(Duration decay) {
+		this.decay = decay;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public Duration getQuarantine() {
+		return quarantine;
+	}
+
+	public void setQuarantine(Duration quarantine) {
+		this.quarantine = quarantine;
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.saiteja.apigateway.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link TokenBucket} per client, spread over stripes so that keeping the number of clients
+ * bounded only ever scans one small stripe. A client's first request creates its bucket full; once
+ * a stripe holds its share of maximumClients, buckets that have refilled completely are dropped,
+ * since a new full bucket behaves the same.
+ */
+public class ClientBuckets {
+
+	private static final int STRIPES = 16;
+
+	private final Map<String, TokenBucket>[] stripes;
+	private final int maximumPerStripe;
+	private final long intervalNanos;
+	private final long capacityNanos;
+
+	@SuppressWarnings("unchecked")
+	public ClientBuckets(double replenishRate, int burstCapacity, int maximumClients) {
+		this.stripes = new Map[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ConcurrentHashMap<>();
+		}
+		this.maximumPerStripe = Math.max(1, maximumClients / STRIPES);
+		this.intervalNanos = (long) (1_000_000_000L / replenishRate);
+		this.capacityNanos = intervalNanos * burstCapacity;
+	}
+
+	// Zero when the client may go ahead, otherwise how long until it may
+	public long tryAcquire(String client, long nowNanos) {
+		Map<String, TokenBucket> stripe = stripes[(client.hashCode() ^ (client.hashCode() >>> 16)) & (STRIPES - 1)];
+		TokenBucket bucket = stripe.get(client);
+		if (bucket == null) {
+			if (stripe.size() >= maximumPerStripe) {
+				evict(stripe, nowNanos);
+			}
+			bucket = stripe.computeIfAbsent(client, key -> new TokenBucket(nowNanos));
+		}
+		return bucket.tryAcquire(nowNanos, intervalNanos, capacityNanos);
+	}
+
+	public int size() {
+		int size = 0;
+		for (Map<String, TokenBucket> stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	private void evict(Map<String, TokenBucket> stripe, long nowNanos) {
+		stripe.values().removeIf(bucket -> bucket.isFull(nowNanos));
+		// every client is still busy, as under a flood of spoofed addresses; forget some rather than grow
+		Iterator<TokenBucket> buckets = stripe.values().iterator();
+		while (stripe.size() >= maximumPerStripe && buckets.hasNext()) {
+			buckets.next();
+			buckets.remove();
+		}
+	}
+
+}
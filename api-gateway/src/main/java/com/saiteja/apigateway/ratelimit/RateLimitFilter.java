@@ -0,0 +1,109 @@
+package com.saiteja.apigateway.ratelimit;
+
+import com.saiteja.apigateway.auth.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Admission control in front of every route, kept in memory on each gateway instance. Requests
+ * over the gateway's in-flight limit for their route's {@link RoutePriority} are shed with 503, so
+ * under overload search goes first and bookings last. Clients over their rate are answered with 429;
+ * signed-in users are limited by user id, anonymous callers by address. Both answers carry
+ * Retry-After.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+	private final RateLimitProperties properties;
+	private final ClientBuckets buckets;
+	private final MeterRegistry meterRegistry;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+	public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.buckets = new ClientBuckets(properties.getReplenishRate(), properties.getBurstCapacity(),
+				properties.getMaximumClients());
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("gateway.rate_limit.in_flight", inFlight, AtomicInteger::get)
+				.description("Requests admitted by the gateway and not yet answered")
+				.register(meterRegistry);
+		Gauge.builder("gateway.rate_limit.clients", buckets, ClientBuckets::size)
+				.description("Clients the gateway currently tracks a rate for")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (!properties.isEnabled()) {
+			return chain.filter(exchange);
+		}
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		String routeId = route == null ? "none" : route.getId();
+		RoutePriority priority = properties.getRoutePriorities().getOrDefault(routeId, RoutePriority.STANDARD);
+
+		if (inFlight.incrementAndGet() > priority.admitsUpTo(properties.getMaxInFlight())) {
+			inFlight.decrementAndGet();
+			count(routeId, "shed").increment();
+			return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, 1);
+		}
+		long waitNanos = buckets.tryAcquire(client(exchange), System.nanoTime());
+		if (waitNanos > 0) {
+			inFlight.decrementAndGet();
+			count(routeId, "throttled").increment();
+			return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+		}
+		count(routeId, "allowed").increment();
+		return chain.filter(exchange)
+				.doFinally(signal -> inFlight.decrementAndGet());
+	}
+
+	// After authentication, so signed-in users are limited by who they are rather than where they are
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 150;
+	}
+
+	private static String client(ServerWebExchange exchange) {
+		String userId = exchange.getRequest().getHeaders().getFirst(TokenAuthenticationFilter.USER_ID_HEADER);
+		if (userId != null) {
+			return "user:" + userId;
+		}
+		InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+		return remote == null || remote.getAddress() == null ? "address:unknown"
+				: "address:" + remote.getAddress().getHostAddress();
+	}
+
+	private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, long retryAfterSeconds) {
+		exchange.getResponse().setStatusCode(status);
+		exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		return exchange.getResponse().setComplete();
+	}
+
+	private Counter count(String routeId, String outcome) {
+		return counters.computeIfAbsent(routeId + ' ' + outcome, key -> Counter.builder("gateway.rate_limit.requests")
+				.description("Requests seen by the gateway's admission control, by route and outcome")
+				.tag("route", routeId)
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+	}
+
+}
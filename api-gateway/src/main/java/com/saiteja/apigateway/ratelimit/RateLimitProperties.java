@@ -0,0 +1,76 @@
+package com.saiteja.apigateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	// Sustained requests a second allowed per signed-in user, or per address for anonymous callers
+	private double replenishRate = 20;
+
+	// Requests a client may send at once after being idle
+	private int burstCapacity = 40;
+
+	// Clients tracked at once; idle ones are forgotten first when it is reached
+	private int maximumClients = 100_000;
+
+	// Requests the gateway has in flight before it starts shedding; lower priority routes shed earlier
+	private int maxInFlight = 2_000;
+
+	// Route id to priority; routes not listed are STANDARD
+	private Map<String, RoutePriority> routePriorities = new HashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getReplenishRate() {
+		return replenishRate;
+	}
+
+	public void setReplenishRate(double replenishRate) {
+		this.replenishRate = replenishRate;
+	}
+
+	public int getBurstCapacity() {
+		return burstCapacity;
+	}
+
+	public void setBurstCapacity(int burstCapacity) {
+		this.burstCapacity = burstCapacity;
+	}
+
+	public int getMaximumClients() {
+		return maximumClients;
+	}
+
+	public void setMaximumClients(int maximumClients) {
+		this.maximumClients = maximumClients;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public Map<String, RoutePriority> getRoutePriorities() {
+		return routePriorities;
+	}
+
+	public void setRoutePriorities(Map<String, RoutePriority> routePriorities) {
+		this.routePriorities = routePriorities;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.saiteja.apigateway.ratelimit;
+
+/**
+ * How long a route keeps being served as the gateway fills up, as a share of its in-flight limit.
+ */
+public enum RoutePriority {
+
+	// bookings and cancellations: admitted until the gateway is full
+	CRITICAL(1.0),
+	STANDARD(0.8),
+	// search and other reads a client can simply retry
+	SHEDDABLE(0.5);
+
+	private final double share;
+
+	RoutePriority(double share) {
+		this.share = share;
+	}
+
+	int admitsUpTo(int maxInFlight) {
+		return (int) Math.ceil(maxInFlight * share);
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.saiteja.apigateway.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A token bucket kept as the one instant it will be full again, so taking a token is a single
+ * compare-and-set with no lock. Each token taken pushes that instant one interval later; a token
+ * is refused when the instant would lie more than the bucket's capacity ahead of now. Rates are
+ * passed in by {@link ClientBuckets}, which owns them for every bucket.
+ */
+final class TokenBucket {
+
+	// a field rather than an AtomicLong, one object less to reach for each of many buckets
+	private static final VarHandle FULL_AT;
+
+	static {
+		try {
+			FULL_AT = MethodHandles.lookup().findVarHandle(TokenBucket.class, "fullAt", long.class);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile long fullAt;
+
+	TokenBucket(long nowNanos) {
+		this.fullAt = nowNanos;
+	}
+
+	// Zero when a token was taken, otherwise how long until one is available
+	long tryAcquire(long nowNanos, long intervalNanos, long capacityNanos) {
+		while (true) {
+			long current = fullAt;
+			long next = Math.max(current, nowNanos) + intervalNanos;
+			long ahead = next - nowNanos;
+			if (ahead > capacityNanos) {
+				return ahead - capacityNanos;
+			}
+			if (FULL_AT.compareAndSet(this, current, next)) {
+				return 0;
+			}
+		}
+	}
+
+	boolean isFull(long nowNanos) {
+		return fullAt - nowNanos <= 0;
+	}
+
+}
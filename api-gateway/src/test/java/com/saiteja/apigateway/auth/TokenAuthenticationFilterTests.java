@@ -0,0 +1,94 @@
+package com.saiteja.apigateway.auth;
+
+import com.saiteja.apigateway.support.TestTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenAuthenticationFilterTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private TokenAuthenticationFilter filter;
+	private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+	private final GatewayFilterChain chain = exchange -> {
+		forwarded.set(exchange);
+		return Mono.empty();
+	};
+
+	@BeforeEach
+	void setUp() {
+		TokenProperties properties = new TokenProperties();
+		properties.setKeys(Map.of(TestTokens.KEY_ID, TestTokens.SECRET));
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new TokenAuthenticationFilter(new TokenVerifier(properties), meterRegistry);
+	}
+
+	@Test
+	void filter_shouldForwardIdentity_whenTokenIsValid() {
+		// Given
+		String token = TestTokens.mint("user123", "USER", Instant.now().plusSeconds(900), "test@example.com");
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("/api/v1.0/flight/booking/history")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+		// When
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		// Then
+		HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+		assertThat(headers.getFirst(TokenAuthenticationFilter.USER_ID_HEADER)).isEqualTo("user123");
+		assertThat(headers.getFirst(TokenAuthenticationFilter.USER_EMAIL_HEADER)).isEqualTo("test@example.com");
+		assertThat(headers.getFirst(TokenAuthenticationFilter.USER_ROLE_HEADER)).isEqualTo("USER");
+		assertThat(meterRegistry.get("gateway.auth.tokens").tag("outcome", "valid").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldStripSpoofedIdentity_whenNoTokenIsSent() {
+		// Given
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("/api/v1.0/flight/admin/flights")
+				.header(TokenAuthenticationFilter.USER_ID_HEADER, "someone-else")
+				.header(TokenAuthenticationFilter.USER_ROLE_HEADER, "ADMIN"));
+
+		// When
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		// Then
+		HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+		assertThat(headers.containsKey(TokenAuthenticationFilter.USER_ID_HEADER)).isFalse();
+		assertThat(headers.containsKey(TokenAuthenticationFilter.USER_ROLE_HEADER)).isFalse();
+	}
+
+	@Test
+	void filter_shouldAnswerUnauthorized_whenTokenIsInvalid() {
+		// Given
+		String token = TestTokens.mint("user123", "USER", Instant.now().minusSeconds(60), "test@example.com");
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("/api/v1.0/flight/booking/history")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+		// When
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		// Then
+		assertThat(forwarded.get()).isNull();
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE)).contains("invalid_token");
+		assertThat(meterRegistry.get("gateway.auth.tokens").tag("outcome", "expired").counter().count()).isEqualTo(1);
+	}
+
+}
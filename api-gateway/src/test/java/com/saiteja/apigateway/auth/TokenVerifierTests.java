@@ -0,0 +1,86 @@
+package com.saiteja.apigateway.auth;
+
+import com.saiteja.apigateway.support.TestTokens;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenVerifierTests {
+
+	private TokenVerifier tokenVerifier;
+
+	@BeforeEach
+	void setUp() {
+		TokenProperties properties = new TokenProperties();
+		properties.setKeys(Map.of(TestTokens.KEY_ID, TestTokens.SECRET));
+		tokenVerifier = new TokenVerifier(properties);
+	}
+
+	@Test
+	void verify_shouldReturnCaller_whenTokenIsValid() {
+		// Given
+		String token = TestTokens.mint("user123", "USER", Instant.now().plusSeconds(900), "test@example.com");
+
+		// When
+		AuthenticatedUser user = tokenVerifier.verify(token);
+
+		// Then
+		assertThat(user).isEqualTo(new AuthenticatedUser("user123", "test@example.com", "USER"));
+	}
+
+	@Test
+	void verify_shouldRejectTamperedClaims() {
+		// Given a USER token whose claims were swapped for ADMIN ones
+		String token = TestTokens.mint("user123", "USER", Instant.now().plusSeconds(900), "test@example.com");
+		String admin = TestTokens.mint("user123", "ADMIN", Instant.now().plusSeconds(900), "test@example.com");
+		String[] parts = token.split("\\.");
+		String tampered = parts[0] + "." + admin.split("\\.")[1] + "." + parts[2];
+
+		// When & Then
+		assertThatThrownBy(() -> tokenVerifier.verify(tampered))
+				.isInstanceOf(InvalidTokenException.class)
+				.extracting("reason").isEqualTo("bad_signature");
+	}
+
+	@Test
+	void verify_shouldRejectExpiredToken() {
+		// Given
+		String token = TestTokens.mint("user123", "USER", Instant.now().minusSeconds(60), "test@example.com");
+
+		// When & Then
+		assertThatThrownBy(() -> tokenVerifier.verify(token))
+				.isInstanceOf(InvalidTokenException.class)
+				.extracting("reason").isEqualTo("expired");
+	}
+
+	@Test
+	void verify_shouldRejectUnknownKeyAndMalformedTokens() {
+		String otherKey = Base64.getEncoder().encodeToString(new byte[32]);
+
+		assertThatThrownBy(() -> tokenVerifier.verify(TestTokens.mint("k2", otherKey, "user123\nUSER\n9999999999\na@b.c")))
+				.extracting("reason").isEqualTo("unknown_key");
+		assertThatThrownBy(() -> tokenVerifier.verify("not-a-token"))
+				.extracting("reason").isEqualTo("malformed");
+		assertThatThrownBy(() -> tokenVerifier.verify("k1.a.b.c"))
+				.extracting("reason").isEqualTo("malformed");
+		assertThatThrownBy(() -> tokenVerifier.verify(TestTokens.mint(TestTokens.KEY_ID, TestTokens.SECRET, "user123\nUSER")))
+				.extracting("reason").isEqualTo("malformed");
+	}
+
+	@Test
+	void constructor_shouldRejectShortKey() {
+		TokenProperties properties = new TokenProperties();
+		properties.setKeys(Map.of("k1", Base64.getEncoder().encodeToString(new byte[16])));
+
+		assertThatThrownBy(() -> new TokenVerifier(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("at least 32 bytes");
+	}
+
+}
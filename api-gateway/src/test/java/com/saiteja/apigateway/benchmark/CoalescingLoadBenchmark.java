@@ -0,0 +1,117 @@
+package com.saiteja.apigateway.benchmark;
+
+import com.saiteja.apigateway.coalesce.CoalesceGatewayFilterFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ticket lookups against a local booking-service stub that takes {@link #UPSTREAM_LATENCY} per call,
+ * offered at {@link #REQUESTS_PER_SECOND} a second across {@link #HOT_TICKETS} tickets, as when a
+ * delayed flight sends everyone on it to check their booking. Sent once straight to the stub and once
+ * through the coalescing filter; the difference in upstream calls is what coalescing saves.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=CoalescingLoadBenchmark}.
+ */
+class CoalescingLoadBenchmark {
+
+	private static final int REQUESTS_PER_SECOND = 1_000;
+	private static final int HOT_TICKETS = 20;
+	private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(50);
+	private static final Duration RUN = Duration.ofSeconds(3);
+
+	private static final AtomicInteger upstreamCalls = new AtomicInteger();
+	private static DisposableServer bookingService;
+	private static HttpClient client;
+
+	@BeforeAll
+	static void startStub() {
+		bookingService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1.0/flight/ticket/{pnr}", (request, response) -> {
+					upstreamCalls.incrementAndGet();
+					return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+							.sendString(Mono.delay(UPSTREAM_LATENCY)
+									.thenReturn("{\"pnr\":\"" + request.param("pnr") + "\",\"status\":\"CONFIRMED\"}"));
+				}))
+				.bindNow();
+		client = HttpClient.create(ConnectionProvider.builder("coalescing-benchmark")
+						.maxConnections(1_000)
+						.pendingAcquireMaxCount(-1)
+						.build())
+				.port(bookingService.port());
+	}
+
+	@AfterAll
+	static void stopStub() {
+		bookingService.disposeNow();
+	}
+
+	@Test
+	void upstreamCallsDuringTicketLookupSpike() {
+		CoalesceGatewayFilterFactory.Config config = new CoalesceGatewayFilterFactory.Config();
+		config.setRouteId("booking-service-booking-route");
+		GatewayFilter coalescing = new CoalesceGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+
+		// first pass warms up connections
+		offer((exchange, chain) -> chain.filter(exchange), Duration.ofSeconds(1));
+		int direct = offer((exchange, chain) -> chain.filter(exchange), RUN);
+		int coalesced = offer(coalescing, RUN);
+
+		long offered = RUN.toMillis() * REQUESTS_PER_SECOND / 1000;
+		System.out.printf("[direct   ] offered=%d upstream calls=%d%n", offered, direct);
+		System.out.printf("[coalesced] offered=%d upstream calls=%d (%.0f%% fewer)%n", offered, coalesced,
+				100.0 * (direct - coalesced) / direct);
+
+		assertThat(coalesced).isLessThan(direct / 2);
+	}
+
+	// Sends lookups at a fixed rate through the filter, waits for all of them and returns how many reached the stub
+	private static int offer(GatewayFilter filter, Duration duration) {
+		upstreamCalls.set(0);
+		long requests = duration.toMillis() * REQUESTS_PER_SECOND / 1000;
+		Flux.interval(Duration.ofNanos(1_000_000_000L / REQUESTS_PER_SECOND))
+				.take(requests)
+				.flatMap(request -> {
+					String pnr = "PNR" + (request % HOT_TICKETS);
+					MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+							.get("/api/v1.0/flight/ticket/" + pnr)
+							.header("X-User-Id", "user-" + pnr)
+							.accept(MediaType.APPLICATION_JSON));
+					return filter.filter(exchange, upstream);
+				}, Integer.MAX_VALUE)
+				.blockLast();
+		return upstreamCalls.get();
+	}
+
+	private static final GatewayFilterChain upstream = exchange -> client.get()
+			.uri(exchange.getRequest().getURI().getRawPath())
+			.responseContent()
+			.aggregate()
+			.asByteArray()
+			.flatMap(body -> {
+				ServerHttpResponse response = exchange.getResponse();
+				response.setStatusCode(HttpStatus.OK);
+				response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+				return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+			});
+
+}
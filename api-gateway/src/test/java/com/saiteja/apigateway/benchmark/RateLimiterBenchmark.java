@@ -0,0 +1,87 @@
+package com.saiteja.apigateway.benchmark;
+
+import com.saiteja.apigateway.ratelimit.ClientBuckets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate limit decision at the gateway: one client hammering alone, as a scraper would,
+ * the same client from four threads at once, and {@link #CLIENTS} clients picked at random so buckets
+ * are looked up across every stripe. The budget is {@link #BUDGET_NANOS}ns per decision;
+ * {@link #main} fails when the many-clients case, the slowest on a single thread, exceeds it.
+ * Run {@link #main} from the IDE or via {@code exec:java} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+	static final double BUDGET_NANOS = 1_000;
+	static final int CLIENTS = 50_000;
+
+	private ClientBuckets buckets;
+	private String[] clients;
+
+	@Setup
+	public void setUp() {
+		buckets = new ClientBuckets(20, 40, 100_000);
+		clients = new String[CLIENTS];
+		for (int i = 0; i < CLIENTS; i++) {
+			clients[i] = "address:10." + (i >> 16) + '.' + ((i >> 8) & 0xff) + '.' + (i & 0xff);
+		}
+	}
+
+	@Benchmark
+	public long hotClient() {
+		return buckets.tryAcquire("address:203.0.113.7", System.nanoTime());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long hotClientContended() {
+		return hotClient();
+	}
+
+	@Benchmark
+	public long manyClients() {
+		return buckets.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)], System.nanoTime());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(RateLimiterBenchmark.class.getSimpleName())
+				.build())
+				.run();
+		double manyClients = results.stream()
+				.filter(result -> result.getParams().getBenchmark().endsWith(".manyClients"))
+				.findFirst()
+				.orElseThrow()
+				.getPrimaryResult()
+				.getScore();
+		if (manyClients > BUDGET_NANOS) {
+			throw new IllegalStateException(String.format("A rate limit decision takes %.0fns, over the %.0fns budget",
+					manyClients, BUDGET_NANOS));
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.saiteja.apigateway.benchmark;
+
+import com.saiteja.apigateway.auth.AuthenticatedUser;
+import com.saiteja.apigateway.auth.InvalidTokenException;
+import com.saiteja.apigateway.auth.TokenProperties;
+import com.saiteja.apigateway.auth.TokenVerifier;
+import com.saiteja.apigateway.support.TestTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one access token at the gateway: a valid token, one with a forged signature,
+ * and valid tokens on four threads at once. The budget is {@link #BUDGET_MICROS}µs per check,
+ * which keeps verification under 2% of one core at 2,000 requests a second per core;
+ * {@link #main} fails when the single-threaded valid case exceeds it.
+ * Run {@link #main} from the IDE or via {@code exec:java} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerifierBenchmark {
+
+	static final double BUDGET_MICROS = 10;
+
+	private TokenVerifier tokenVerifier;
+	private String validToken;
+	private String forgedToken;
+
+	@Setup
+	public void setUp() {
+		TokenProperties properties = new TokenProperties();
+		properties.setKeys(Map.of(TestTokens.KEY_ID, TestTokens.SECRET));
+		tokenVerifier = new TokenVerifier(properties);
+		validToken = TestTokens.mint("65f1c2a9e4b0a1b2c3d4e5f6", "USER", Instant.now().plusSeconds(3600),
+				"frequent.flyer@example.com");
+		forgedToken = validToken.substring(0, validToken.length() - 4) + "AAAA";
+	}
+
+	@Benchmark
+	public AuthenticatedUser valid() {
+		return tokenVerifier.verify(validToken);
+	}
+
+	@Benchmark
+	public Object forged() {
+		try {
+			return tokenVerifier.verify(forgedToken);
+		} catch (InvalidTokenException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public AuthenticatedUser validContended() {
+		return valid();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(TokenVerifierBenchmark.class.getSimpleName())
+				.build())
+				.run();
+		double valid = results.stream()
+				.filter(result -> result.getParams().getBenchmark().endsWith(".valid"))
+				.findFirst()
+				.orElseThrow()
+				.getPrimaryResult()
+				.getScore();
+		if (valid > BUDGET_MICROS) {
+			throw new IllegalStateException(String.format("Token verification takes %.2fµs, over the %.0fµs budget",
+					valid, BUDGET_MICROS));
+		}
+	}
+
+}
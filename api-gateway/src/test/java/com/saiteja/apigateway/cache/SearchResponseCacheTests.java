@@ -0,0 +1,158 @@
+package com.saiteja.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResponseCacheTests {
+
+	private static final String SEARCH = "/api/v1.0/flight/admin/search";
+	private static final String RESULTS = "[{\"scheduleId\":\"s1\",\"availableSeats\":40}]";
+
+	private SimpleMeterRegistry meterRegistry;
+	private SearchResponseCache cache;
+	private final AtomicInteger backendCalls = new AtomicInteger();
+	private String cacheControl = "max-age=10";
+	private String invalidate;
+
+	// Stands in for flight-service: answers every search with the same tagged results
+	private final GatewayFilterChain chain = exchange -> {
+		backendCalls.incrementAndGet();
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.OK);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		response.getHeaders().set(SearchResponseCache.CACHE_TAGS_HEADER, "s1");
+		if (cacheControl != null) {
+			response.getHeaders().setCacheControl(cacheControl);
+		}
+		if (invalidate != null) {
+			response.getHeaders().set(SearchResponseCache.INVALIDATE_HEADER, invalidate);
+		}
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(RESULTS.getBytes(StandardCharsets.UTF_8))));
+	};
+
+	@BeforeEach
+	void setUp() {
+		SearchCacheProperties properties = new SearchCacheProperties();
+		properties.setTtl(Duration.ofSeconds(30));
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new SearchResponseCache(properties, meterRegistry);
+	}
+
+	@Test
+	void filter_shouldAnswerRepeatedSearchFromCache() {
+		// Given
+		MockServerWebExchange first = search("{\"fromPlace\":\"DEL\",\"toPlace\":\"BOM\",\"journeyDate\":\"2026-11-01\"}");
+		MockServerWebExchange second = search("{\"journeyDate\":\"2026-11-01\",\"toPlace\":\" bom \",\"fromPlace\":\"del\"}");
+
+		// When
+		StepVerifier.create(cache.filter(first, chain)).verifyComplete();
+		StepVerifier.create(cache.filter(second, chain)).verifyComplete();
+
+		// Then
+		assertThat(backendCalls).hasValue(1);
+		assertThat(first.getResponse().getHeaders().getFirst(SearchResponseCache.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+		assertThat(second.getResponse().getHeaders().getFirst(SearchResponseCache.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+		assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(RESULTS);
+		assertThat(second.getResponse().getHeaders().getETag()).isEqualTo(first.getResponse().getHeaders().getETag());
+		assertThat(second.getResponse().getHeaders().containsKey(SearchResponseCache.CACHE_TAGS_HEADER)).isFalse();
+		assertThat(meterRegistry.get("gateway.search.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldAnswerNotModified_whenClientHasTheResponse() {
+		// Given
+		MockServerWebExchange first = search("{\"fromPlace\":\"DEL\"}");
+		StepVerifier.create(cache.filter(first, chain)).verifyComplete();
+		String etag = first.getResponse().getHeaders().getETag();
+		MockServerWebExchange revalidation = MockServerWebExchange.from(MockServerHttpRequest.post(SEARCH)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_NONE_MATCH, etag)
+				.body("{\"fromPlace\":\"DEL\"}"));
+
+		// When
+		StepVerifier.create(cache.filter(revalidation, chain)).verifyComplete();
+
+		// Then
+		assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(meterRegistry.get("gateway.search.cache.not_modified").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldNotKeepResponse_whenFlightServiceForbidsStoring() {
+		// Given
+		cacheControl = "no-store";
+
+		// When
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+
+		// Then
+		assertThat(backendCalls).hasValue(2);
+	}
+
+	@Test
+	void filter_shouldNotKeepResponse_onceMaxAgeIsZero() {
+		// Given
+		cacheControl = "max-age=0";
+
+		// When
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+
+		// Then
+		assertThat(backendCalls).hasValue(2);
+	}
+
+	@Test
+	void filter_shouldDropCachedSearches_whenScheduleSeatsChange() {
+		// Given
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+		invalidate = "s1";
+		MockServerWebExchange hold = MockServerWebExchange.from(MockServerHttpRequest
+				.post("/api/v1.0/flight/admin/schedules/s1/holds"));
+
+		// When
+		StepVerifier.create(cache.filter(hold, chain)).verifyComplete();
+		invalidate = null;
+		StepVerifier.create(cache.filter(search("{\"fromPlace\":\"DEL\"}"), chain)).verifyComplete();
+
+		// Then
+		assertThat(backendCalls).hasValue(3);
+		assertThat(hold.getResponse().getHeaders().containsKey(SearchResponseCache.INVALIDATE_HEADER)).isFalse();
+		assertThat(meterRegistry.get("gateway.search.cache.invalidated").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldForwardUncached_whenBodyIsNotJson() {
+		// When
+		StepVerifier.create(cache.filter(search("not json"), chain)).verifyComplete();
+		StepVerifier.create(cache.filter(search("not json"), chain)).verifyComplete();
+
+		// Then
+		assertThat(backendCalls).hasValue(2);
+		assertThat(meterRegistry.get("gateway.search.cache.requests").tag("result", "uncacheable").counter().count()).isEqualTo(2);
+	}
+
+	private static MockServerWebExchange search(String body) {
+		return MockServerWebExchange.from(MockServerHttpRequest.post(SEARCH)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(body));
+	}
+
+}
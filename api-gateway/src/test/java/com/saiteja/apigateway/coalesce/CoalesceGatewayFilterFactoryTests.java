@@ -0,0 +1,166 @@
+package com.saiteja.apigateway.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalesceGatewayFilterFactoryTests {
+
+	private static final String TICKET = "{\"pnr\":\"PNR001\",\"status\":\"CONFIRMED\"}";
+
+	private SimpleMeterRegistry meterRegistry;
+	private CoalesceGatewayFilterFactory.Config config;
+	private GatewayFilter filter;
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private final Sinks.Empty<Void> upstreamReply = Sinks.empty();
+	private String cookie;
+
+	// Stands in for booking-service: every call waits for upstreamReply, then answers with the same ticket
+	private final GatewayFilterChain chain = exchange -> {
+		upstreamCalls.incrementAndGet();
+		return upstreamReply.asMono().then(Mono.defer(() -> {
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			if (cookie != null) {
+				response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+			}
+			return response.writeWith(Mono.just(response.bufferFactory().wrap(TICKET.getBytes(StandardCharsets.UTF_8))));
+		}));
+	};
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		CoalesceGatewayFilterFactory factory = new CoalesceGatewayFilterFactory(meterRegistry);
+		config = new CoalesceGatewayFilterFactory.Config();
+		config.setRouteId("booking-service-booking-route");
+		config.setMaxWait(Duration.ofSeconds(2));
+		filter = factory.apply(config);
+	}
+
+	@Test
+	void filter_shouldShareOneUpstreamCall_betweenConcurrentIdenticalRequests() {
+		// Given
+		MockServerWebExchange first = ticket("user123");
+		MockServerWebExchange second = ticket("user123");
+
+		// When
+		StepVerifier.create(Mono.when(filter.filter(first, chain), filter.filter(second, chain)))
+				.then(upstreamReply::tryEmitEmpty)
+				.verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(TICKET);
+		assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(TICKET);
+		assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(second.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(requests("leader")).isEqualTo(1);
+		assertThat(requests("merged")).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldNotMerge_requestsFromDifferentUsers() {
+		// When
+		StepVerifier.create(Mono.when(filter.filter(ticket("user123"), chain), filter.filter(ticket("user456"), chain)))
+				.then(upstreamReply::tryEmitEmpty)
+				.verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(2);
+	}
+
+	@Test
+	void filter_shouldNotMerge_methodsTheRouteDidNotOptInto() {
+		// Given
+		upstreamReply.tryEmitEmpty();
+		MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1.0/flight/booking/F1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"seats\":1}"));
+		MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1.0/flight/booking/F1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"seats\":1}"));
+
+		// When
+		StepVerifier.create(Mono.when(filter.filter(first, chain), filter.filter(second, chain))).verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(2);
+	}
+
+	@Test
+	void filter_shouldCallUpstreamAgain_onceTheSharedCallHasFinished() {
+		// Given
+		upstreamReply.tryEmitEmpty();
+
+		// When
+		StepVerifier.create(filter.filter(ticket("user123"), chain)).verifyComplete();
+		StepVerifier.create(filter.filter(ticket("user123"), chain)).verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(requests("leader")).isEqualTo(2);
+	}
+
+	@Test
+	void filter_shouldMakeOwnCall_whenLeaderOutlastsMaxWait() {
+		// Given
+		config.setMaxWait(Duration.ofMillis(50));
+		Mono<Void> leader = filter.filter(ticket("user123"), chain);
+		MockServerWebExchange waiter = ticket("user123");
+
+		// When
+		StepVerifier.create(Mono.when(leader, filter.filter(waiter, chain)))
+				.then(() -> Mono.delay(Duration.ofMillis(150)).subscribe(tick -> upstreamReply.tryEmitEmpty()))
+				.verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo(TICKET);
+		assertThat(requests("fallback")).isEqualTo(1);
+	}
+
+	@Test
+	void filter_shouldNotShare_responsesThatSetCookies() {
+		// Given
+		cookie = "session=abc";
+
+		// When
+		StepVerifier.create(Mono.when(filter.filter(ticket("user123"), chain), filter.filter(ticket("user123"), chain)))
+				.then(upstreamReply::tryEmitEmpty)
+				.verifyComplete();
+
+		// Then
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(requests("fallback")).isEqualTo(1);
+	}
+
+	private static MockServerWebExchange ticket(String userId) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1.0/flight/ticket/PNR001")
+				.header("X-User-Id", userId)
+				.accept(MediaType.APPLICATION_JSON));
+	}
+
+	private double requests(String result) {
+		return meterRegistry.get("gateway.coalesce.requests").tag("result", result).counter().count();
+	}
+
+}
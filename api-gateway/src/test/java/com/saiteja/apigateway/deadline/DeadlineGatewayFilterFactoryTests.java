@@ -0,0 +1,93 @@
+package com.saiteja.apigateway.deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineGatewayFilterFactoryTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private GatewayFilter filter;
+	private final AtomicReference<String> forwardedBudget = new AtomicReference<>();
+
+	private final GatewayFilterChain chain = exchange -> {
+		forwardedBudget.set(exchange.getRequest().getHeaders().getFirst(DeadlineGatewayFilterFactory.HEADER));
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		return Mono.empty();
+	};
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		DeadlineGatewayFilterFactory factory = new DeadlineGatewayFilterFactory(meterRegistry);
+		DeadlineGatewayFilterFactory.Config config = new DeadlineGatewayFilterFactory.Config();
+		config.setRouteId("booking-service-booking-route");
+		config.setTimeout(Duration.ofSeconds(5));
+		filter = factory.apply(config);
+	}
+
+	@Test
+	void filter_shouldSetBudgetFromRouteTimeout() {
+		// When
+		StepVerifier.create(filter.filter(exchange(null), chain)).verifyComplete();
+
+		// Then
+		assertThat(forwardedBudget).hasValue("5000");
+	}
+
+	@Test
+	void filter_shouldKeepSmallerBudgetSentByClient() {
+		// When
+		StepVerifier.create(filter.filter(exchange("1000"), chain)).verifyComplete();
+
+		// Then
+		assertThat(forwardedBudget).hasValue("1000");
+	}
+
+	@Test
+	void filter_shouldNotExtendBudgetBeyondRouteTimeout() {
+		// When
+		StepVerifier.create(filter.filter(exchange("60000"), chain)).verifyComplete();
+
+		// Then
+		assertThat(forwardedBudget).hasValue("5000");
+	}
+
+	@Test
+	void filter_shouldRejectRequestWithNoBudgetLeft() {
+		// Given
+		MockServerWebExchange exchange = exchange("0");
+
+		// When
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		// Then
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+		assertThat(forwardedBudget).hasNullValue();
+		assertThat(meterRegistry.get("gateway.deadline.expired")
+				.tag("route", "booking-service-booking-route")
+				.counter()
+				.count()).isEqualTo(1);
+	}
+
+	private static MockServerWebExchange exchange(String budget) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post("/api/v1.0/flight/booking/s1");
+		if (budget != null) {
+			request.header(DeadlineGatewayFilterFactory.HEADER, budget);
+		}
+		return MockServerWebExchange.from(request);
+	}
+
+}
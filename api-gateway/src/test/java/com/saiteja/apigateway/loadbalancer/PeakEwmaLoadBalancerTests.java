@@ -0,0 +1,134 @@
+package com.saiteja.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PeakEwmaLoadBalancerTests {
+
+	private final ServiceInstance fast = instance("flight-1", "10.0.0.1");
+	private final ServiceInstance slow = instance("flight-2", "10.0.0.2");
+	private final ServiceInstance spare = instance("flight-3", "10.0.0.3");
+
+	private SimpleMeterRegistry meterRegistry;
+	private PeakEwmaLoadBalancer loadBalancer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		PeakEwmaProperties properties = new PeakEwmaProperties();
+		properties.setFailureThreshold(3);
+		properties.setQuarantine(Duration.ofMinutes(1));
+		meterRegistry = new SimpleMeterRegistry();
+		loadBalancer = new PeakEwmaLoadBalancer(mock(ObjectProvider.class), "flight-service", properties, meterRegistry);
+	}
+
+	@Test
+	void choose_shouldPreferInstanceWithLowerLatency() {
+		// Given
+		call(fast, 5, HttpStatus.OK);
+		call(slow, 200, HttpStatus.OK);
+
+		// When & Then
+		assertThat(IntStream.range(0, 50).mapToObj(i -> chosen(List.of(fast, slow))))
+				.containsOnly(fast);
+	}
+
+	@Test
+	void choose_shouldSpreadLoad_whenFasterInstanceIsBusy() {
+		// Given
+		call(fast, 10, HttpStatus.OK);
+		call(slow, 20, HttpStatus.OK);
+		for (int i = 0; i < 4; i++) {
+			loadBalancer.onStartRequest(request(0), new DefaultResponse(fast));
+		}
+
+		// When & Then
+		assertThat(chosen(List.of(fast, slow))).isEqualTo(slow);
+	}
+
+	@Test
+	void choose_shouldSkipInstance_afterRepeatedFailures() {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+		}
+
+		// When & Then
+		assertThat(IntStream.range(0, 50).mapToObj(i -> chosen(List.of(fast, slow, spare))))
+				.doesNotContain(slow);
+		assertThat(meterRegistry.get("gateway.load_balancer.quarantined").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void choose_shouldKeepInstance_whenFailuresAreNotConsecutive() {
+		// Given
+		call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+		call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+		call(slow, 1, HttpStatus.OK);
+		call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+
+		// When & Then
+		assertThat(chosen(List.of(slow))).isEqualTo(slow);
+		assertThat(meterRegistry.get("gateway.load_balancer.quarantined").counter().count()).isZero();
+	}
+
+	@Test
+	void choose_shouldUseQuarantinedInstance_whenNoOtherIsLeft() {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+		}
+
+		// When & Then
+		assertThat(chosen(List.of(slow))).isEqualTo(slow);
+	}
+
+	@Test
+	void choose_shouldAnswerEmpty_whenNoInstanceIsRegistered() {
+		assertThat(loadBalancer.choose(List.of()).hasServer()).isFalse();
+	}
+
+	private ServiceInstance chosen(List<ServiceInstance> instances) {
+		return loadBalancer.choose(instances).getServer();
+	}
+
+	// Reports one completed call to the instance, the way the gateway's load balancer filter does
+	private void call(ServiceInstance instance, long latencyMillis, HttpStatus status) {
+		Request<Object> request = request(latencyMillis);
+		DefaultResponse lbResponse = new DefaultResponse(instance);
+		loadBalancer.onStartRequest(request, lbResponse);
+		loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse,
+				new ResponseData(status, new HttpHeaders(), null, null)));
+	}
+
+	private static Request<Object> request(long startedMillisAgo) {
+		RequestDataContext context = new RequestDataContext();
+		context.setRequestStartTime(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(startedMillisAgo));
+		return new DefaultRequest<>(context);
+	}
+
+	private static ServiceInstance instance(String id, String host) {
+		return new DefaultServiceInstance(id, "flight-service", host, 8080, false);
+	}
+
+}
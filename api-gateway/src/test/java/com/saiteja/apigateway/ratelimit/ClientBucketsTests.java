@@ -0,0 +1,61 @@
+package com.saiteja.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientBucketsTests {
+
+	private static final long START = 1_000_000_000_000L;
+
+	@Test
+	void tryAcquire_shouldAllowBurstThenThrottle() {
+		// Given
+		ClientBuckets buckets = new ClientBuckets(10, 3, 1_000);
+
+		// When & Then
+		assertThat(buckets.tryAcquire("user:a", START)).isZero();
+		assertThat(buckets.tryAcquire("user:a", START)).isZero();
+		assertThat(buckets.tryAcquire("user:a", START)).isZero();
+		assertThat(buckets.tryAcquire("user:a", START)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	void tryAcquire_shouldRefillAtReplenishRate() {
+		// Given
+		ClientBuckets buckets = new ClientBuckets(10, 1, 1_000);
+		buckets.tryAcquire("user:a", START);
+
+		// When & Then
+		assertThat(buckets.tryAcquire("user:a", START + TimeUnit.MILLISECONDS.toNanos(50))).isPositive();
+		assertThat(buckets.tryAcquire("user:a", START + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+	}
+
+	@Test
+	void tryAcquire_shouldKeepClientsApart() {
+		// Given
+		ClientBuckets buckets = new ClientBuckets(10, 1, 1_000);
+		buckets.tryAcquire("address:10.0.0.1", START);
+
+		// When & Then
+		assertThat(buckets.tryAcquire("address:10.0.0.1", START)).isPositive();
+		assertThat(buckets.tryAcquire("address:10.0.0.2", START)).isZero();
+	}
+
+	@Test
+	void tryAcquire_shouldStayWithinMaximumClients() {
+		// Given
+		ClientBuckets buckets = new ClientBuckets(10, 5, 160);
+
+		// When
+		for (int client = 0; client < 10_000; client++) {
+			buckets.tryAcquire("address:" + client, START);
+		}
+
+		// Then
+		assertThat(buckets.size()).isLessThanOrEqualTo(160);
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.saiteja.apigateway.ratelimit;
+
+import com.saiteja.apigateway.auth.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RateLimitFilterTests {
+
+	private static final String SEARCH_ROUTE = "flight-search-route";
+	private static final String BOOKING_ROUTE = "booking-service-booking-route";
+
+	private SimpleMeterRegistry meterRegistry;
+	private RateLimitProperties properties;
+	private final AtomicInteger forwarded = new AtomicInteger();
+	private final GatewayFilterChain chain = exchange -> {
+		forwarded.incrementAndGet();
+		return Mono.empty();
+	};
+
+	@BeforeEach
+	void setUp() {
+		properties = new RateLimitProperties();
+		properties.setRoutePriorities(Map.of(SEARCH_ROUTE, RoutePriority.SHEDDABLE, BOOKING_ROUTE, RoutePriority.CRITICAL));
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void filter_shouldAnswerTooManyRequests_onceUserIsOverRate() {
+		// Given
+		properties.setReplenishRate(1);
+		properties.setBurstCapacity(2);
+		RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+		// When
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(filter.filter(request(SEARCH_ROUTE, "user123"), chain)).verifyComplete();
+		}
+		MockServerWebExchange throttled = request(SEARCH_ROUTE, "user123");
+		StepVerifier.create(filter.filter(throttled, chain)).verifyComplete();
+		StepVerifier.create(filter.filter(request(SEARCH_ROUTE, "user456"), chain)).verifyComplete();
+
+		// Then
+		assertThat(forwarded).hasValue(3);
+		assertThat(throttled.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(throttled.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(requests(SEARCH_ROUTE, "throttled")).isEqualTo(1);
+		assertThat(requests(SEARCH_ROUTE, "allowed")).isEqualTo(3);
+	}
+
+	@Test
+	void filter_shouldShedSearchBeforeBookings_whenGatewayIsBusy() {
+		// Given
+		properties.setMaxInFlight(4);
+		RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+		Disposable first = filter.filter(request(BOOKING_ROUTE, "user1"), exchange -> Mono.never()).subscribe();
+		Disposable second = filter.filter(request(BOOKING_ROUTE, "user2"), exchange -> Mono.never()).subscribe();
+
+		// When
+		MockServerWebExchange search = request(SEARCH_ROUTE, "user3");
+		StepVerifier.create(filter.filter(search, chain)).verifyComplete();
+		MockServerWebExchange booking = request(BOOKING_ROUTE, "user4");
+		StepVerifier.create(filter.filter(booking, chain)).verifyComplete();
+
+		// Then
+		assertThat(search.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(booking.getResponse().getStatusCode()).isNull();
+		assertThat(forwarded).hasValue(1);
+		assertThat(requests(SEARCH_ROUTE, "shed")).isEqualTo(1);
+		first.dispose();
+		second.dispose();
+	}
+
+	@Test
+	void filter_shouldFreeCapacity_onceRequestsFinish() {
+		// Given
+		properties.setMaxInFlight(1);
+		RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+		Disposable pending = filter.filter(request(BOOKING_ROUTE, "user1"), exchange -> Mono.never()).subscribe();
+
+		// When
+		pending.dispose();
+		MockServerWebExchange booking = request(BOOKING_ROUTE, "user2");
+		StepVerifier.create(filter.filter(booking, chain)).verifyComplete();
+
+		// Then
+		assertThat(forwarded).hasValue(1);
+		assertThat(meterRegistry.get("gateway.rate_limit.in_flight").gauge().value()).isZero();
+	}
+
+	private static MockServerWebExchange request(String routeId, String userId) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+				.get("/api/v1.0/flight/booking/history")
+				.header(TokenAuthenticationFilter.USER_ID_HEADER, userId));
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+				.id(routeId)
+				.uri("lb://booking-service")
+				.predicate(candidate -> true)
+				.build());
+		return exchange;
+	}
+
+	private double requests(String routeId, String outcome) {
+		return meterRegistry.get("gateway.rate_limit.requests").tag("route", routeId).tag("outcome", outcome)
+				.counter().count();
+	}
+
+}
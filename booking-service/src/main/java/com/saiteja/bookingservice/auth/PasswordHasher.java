@@ -0,0 +1,101 @@
+package com.saiteja.bookingservice.auth;
+
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt off the Netty event loop, on a pool of {@link PasswordHashingProperties#getThreads()}
+ * threads sharing one queue. A hash costs ~100ms of CPU; done on an event loop it stalls every request sharing that
+ * loop. Once the pool is busy and {@link PasswordHashingProperties#getMaxQueued()} hashes are
+ * waiting, further requests are refused with 503 straight away instead of queueing into timeouts.
+ */
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    private final BCryptPasswordEncoder encoder;
+    private final Scheduler scheduler;
+    private final int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(properties.getStrength());
+        // one queue shared by every thread, so a hash waits only until any thread is free; newParallel would pin
+        // it to one thread's queue round-robin, behind a busy thread while another sits idle
+        ExecutorService executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("password-hasher-", 1).daemon(true).factory());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hasher");
+        this.capacity = properties.getThreads() + properties.getMaxQueued();
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashes refused because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queued", () -> Math.max(0, inFlight.get() - running.get()))
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", running::get)
+                .description("Password hashes currently running")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return offload(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return offload(matchTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> Mono<T> offload(Timer timer, Callable<T> hash) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new ServiceUnavailableException("Too many sign-in attempts in progress, retry shortly"));
+            }
+            return Mono.fromCallable(() -> {
+                        running.incrementAndGet();
+                        try {
+                            return timer.recordCallable(hash);
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Time spent hashing passwords, excluding the wait for a thread")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
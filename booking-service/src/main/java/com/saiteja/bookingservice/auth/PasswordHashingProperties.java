@@ -0,0 +1,18 @@
+package com.saiteja.bookingservice.auth;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "booking.auth.hashing")
+public class PasswordHashingProperties {
+
+    // BCrypt is pure CPU, so more threads than cores only adds contention
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Hashes allowed to wait for a thread before new ones are refused with 503; at ~100ms per hash
+    // the default keeps a queued login under a second
+    private int maxQueued = 8 * Runtime.getRuntime().availableProcessors();
+
+    private int strength = 10;
+}
@@ -0,0 +1,66 @@
+package com.saiteja.bookingservice.auth;
+
+import com.saiteja.bookingservice.model.User;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues the access tokens handed out on login. A token reads {@code keyId.payload.signature}: the
+ * payload is the base64url of user id, role, expiry in epoch seconds and email, one per line, and the
+ * signature is HMAC-SHA256 over {@code keyId.payload}. api-gateway checks tokens against the same key
+ * and forwards the identity, so nothing downstream looks the user up per request.
+ */
+@Component
+public class TokenIssuer {
+
+    static final String ALGORITHM = "HmacSHA256";
+    static final int MIN_KEY_BYTES = 32;
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final TokenProperties properties;
+    private final SecretKeySpec key;
+
+    public TokenIssuer(TokenProperties properties) {
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalStateException("booking.auth.token.secret is not set");
+        }
+        if (properties.getKeyId().isBlank() || properties.getKeyId().contains(".")) {
+            throw new IllegalStateException("booking.auth.token.key-id must be non-blank and free of dots");
+        }
+        byte[] secret = Base64.getDecoder().decode(properties.getSecret());
+        if (secret.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("booking.auth.token.secret must decode to at least " + MIN_KEY_BYTES + " bytes");
+        }
+        this.properties = properties;
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public AccessToken issue(User user) {
+        long expiresAt = Instant.now().plus(properties.getTtl()).getEpochSecond();
+        String claims = String.join("\n", user.getId(), user.getRole().name(), String.valueOf(expiresAt), user.getEmail());
+        String signed = properties.getKeyId() + "." + BASE64URL.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return new AccessToken(signed + "." + BASE64URL.encodeToString(sign(signed)), properties.getTtl());
+    }
+
+    private byte[] sign(String content) {
+        try {
+            // a Mac is not thread-safe and a fresh one costs microseconds next to the BCrypt check before it
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public record AccessToken(String value, Duration expiresIn) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.saiteja.bookingservice.auth;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.auth.token")
+public class TokenProperties {
+
+    // Names the signing key, so api-gateway can accept the next key alongside the current one while rotating
+    private String keyId = "k1";
+
+    // Base64 HMAC-SHA256 key shared with api-gateway; at least 32 bytes once decoded
+    private String secret;
+
+    private Duration ttl = Duration.ofMinutes(15);
+}
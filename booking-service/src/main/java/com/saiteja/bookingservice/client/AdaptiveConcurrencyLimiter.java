@@ -0,0 +1,112 @@
+package com.saiteja.bookingservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the calls in flight to flight-service with an AIMD limit. Each completed call is one sample:
+ * a timeout, connection failure, 5xx or a response slower than {@link ConcurrencyLimitProperties#getTolerance()}
+ * times the no-load latency shrinks the limit by the backoff ratio, at most once per round trip;
+ * any other response grows it by one per limit's worth of calls while the limit is actually in use.
+ * The no-load latency is the lowest smoothed latency seen, drifting up slowly so a lasting change
+ * in flight-service is learned. Calls over the limit fail at once with
+ * {@link ConcurrencyLimitExceededException} instead of queueing behind a slow flight-service.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.1;
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    // Guarded by this
+    private double limit;
+    private double smoothedNanos;
+    private double baselineNanos;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.lastDecreaseNanos = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+        this.rejected = Counter.builder("booking.flight.concurrency.rejected")
+                .description("flight-service calls refused because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("booking.flight.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current limit on concurrent flight-service calls")
+                .register(meterRegistry);
+        Gauge.builder("booking.flight.concurrency.in_flight", inFlight::get)
+                .description("flight-service calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> limit(Mono<T> call) {
+        return Mono.defer(() -> {
+            int current = inFlight.incrementAndGet();
+            if (current > getLimit()) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new ConcurrencyLimitExceededException("Flight service is busy, retry shortly"));
+            }
+            long started = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> release(released, started, current, false))
+                    .doOnError(error -> release(released, started, current, isOverload(error)))
+                    // a cancelled call says nothing about flight-service's latency
+                    .doOnCancel(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+        });
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    private void release(AtomicBoolean released, long started, int inFlightAtStart, boolean overloaded) {
+        if (released.compareAndSet(false, true)) {
+            inFlight.decrementAndGet();
+            sample(System.nanoTime() - started, inFlightAtStart, overloaded);
+        }
+    }
+
+    synchronized void sample(long latencyNanos, int inFlightAtStart, boolean overloaded) {
+        long now = System.nanoTime();
+        smoothedNanos = smoothedNanos == 0 ? latencyNanos : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+        baselineNanos = baselineNanos == 0 || smoothedNanos < baselineNanos
+                ? smoothedNanos
+                : baselineNanos + BASELINE_DRIFT * (smoothedNanos - baselineNanos);
+        double slowThreshold = Math.max(properties.getMinSlowThreshold().toNanos(), properties.getTolerance() * baselineNanos);
+
+        if (overloaded || latencyNanos > slowThreshold) {
+            // one cut per round trip, so a burst of slow responses to the same overload counts once
+            if (now - lastDecreaseNanos > smoothedNanos) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlightAtStart * 2 >= limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    // Failures that say flight-service is struggling, as opposed to it answering no
+    static boolean isOverload(Throwable error) {
+        return error instanceof WebClientRequestException
+                || error instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
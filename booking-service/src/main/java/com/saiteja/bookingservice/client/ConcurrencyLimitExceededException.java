@@ -0,0 +1,10 @@
+package com.saiteja.bookingservice.client;
+
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
+
+// Thrown before the call is sent, so the caller knows flight-service never saw the request
+public class ConcurrencyLimitExceededException extends ServiceUnavailableException {
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
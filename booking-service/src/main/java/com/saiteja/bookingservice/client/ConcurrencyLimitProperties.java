@@ -0,0 +1,27 @@
+package com.saiteja.bookingservice.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.flight-client.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    // Kept at or below booking.flight-client.max-connections so the limit, not the pool, is what refuses calls
+    private int maxLimit = 64;
+
+    // Multiplies the limit on every overloaded response
+    private double backoffRatio = 0.9;
+
+    // A response slower than this multiple of the no-load latency counts as overload
+    private double tolerance = 2.0;
+
+    // Floor for that threshold, so jitter on a very fast baseline does not shrink the limit
+    private Duration minSlowThreshold = Duration.ofMillis(50);
+}
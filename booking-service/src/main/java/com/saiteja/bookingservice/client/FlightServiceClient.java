@@ -1,38 +1,104 @@
 package com.saiteja.bookingservice.client;
 
-import lombok.RequiredArgsConstructor;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.exception.DeadlineExceededException;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
 import java.util.List;
 
+/**
+ * Calls flight-service's internal seat endpoints over one long-lived WebClient on a bounded
+ * connection pool, behind an {@link AdaptiveConcurrencyLimiter}. Pool usage and the time spent waiting for a connection are exported as
+ * reactor.netty.connection.provider.* meters, tagged with the pool name "flight-service".
+ */
 @Component
-@RequiredArgsConstructor
-public class FlightServiceClient {
+public class FlightServiceClient implements DisposableBean {
 
-    private final WebClient.Builder webClientBuilder;
+    private final FlightServiceClientProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient client;
 
-    private WebClient client() {
-        return webClientBuilder.baseUrl("http://flight-service").build();
+    public FlightServiceClient(WebClient.Builder webClientBuilder, FlightServiceClientProperties properties,
+                               AdaptiveConcurrencyLimiter limiter) {
+        this.properties = properties;
+        this.limiter = limiter;
+        this.connectionProvider = ConnectionProvider.builder("flight-service")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .keepAlive(properties.isKeepAlive())
+                .protocol(properties.isHttp2()
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+        // cloned so the load-balancer filter of the shared builder is kept without changing the builder itself
+        this.client = webClientBuilder.clone()
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 
     public Mono<Void> lockSeats(String scheduleId, List<String> seatNumbers) {
-        return client().post()
-                .uri("/api/v1.0/flight/admin/internal/schedules/{id}/lock-seats", scheduleId)
-                .body(BodyInserters.fromValue(seatNumbers))
-                .retrieve()
-                .bodyToMono(Void.class);
+        return post(properties.getLockSeatsTimeout(), seatNumbers,
+                "/api/v1.0/flight/admin/internal/schedules/{id}/lock-seats", scheduleId);
+    }
+
+    // Locks every leg in one call; flight-service locks all of them or none
+    public Mono<Void> lockSeats(List<LegSeats> legs) {
+        return post(properties.getLockSeatsTimeout(), legs, "/api/v1.0/flight/admin/internal/schedules/lock-seats");
     }
 
     public Mono<Void> releaseSeats(String scheduleId, List<String> seatNumbers) {
-        return client().post()
-                .uri("/api/v1.0/flight/admin/internal/schedules/{id}/release-seats", scheduleId)
-                .body(BodyInserters.fromValue(seatNumbers))
-                .retrieve()
-                .bodyToMono(Void.class);
+        return post(properties.getReleaseSeatsTimeout(), seatNumbers,
+                "/api/v1.0/flight/admin/internal/schedules/{id}/release-seats", scheduleId);
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
     }
-}
 
+    // Waits no longer than the caller's deadline allows and passes the time left on; a call whose
+    // deadline has already passed is never sent, nor counted by the limiter
+    private Mono<Void> post(Duration timeout, Object body, String uri, Object... uriVariables) {
+        return Mono.deferContextual(context -> {
+            Duration budget = RequestDeadline.budget(context, timeout);
+            if (!budget.isPositive()) {
+                return Mono.error(new DeadlineExceededException("Request deadline passed before calling flight-service"));
+            }
+            return limiter.limit(client.post()
+                    .uri(uri, uriVariables)
+                    .headers(headers -> {
+                        if (RequestDeadline.of(context) != null) {
+                            headers.set(RequestDeadline.HEADER, RequestDeadline.header(budget));
+                        }
+                    })
+                    .httpRequest(request -> responseTimeout(request.getNativeRequest(), budget))
+                    .body(BodyInserters.fromValue(body))
+                    .retrieve()
+                    .bodyToMono(Void.class));
+        });
+    }
 
+    private static void responseTimeout(HttpClientRequest request, Duration timeout) {
+        request.responseTimeout(timeout);
+    }
+}
@@ -0,0 +1,41 @@
+package com.saiteja.bookingservice.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.flight-client")
+public class FlightServiceClientProperties {
+
+    // Resolved through the load balancer
+    private String baseUrl = "http://flight-service";
+
+    private int maxConnections = 64;
+
+    // Requests allowed to wait for a pooled connection; past that they fail at once instead of queueing
+    private int pendingAcquireMaxCount = 256;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    // Closed before flight-service or a proxy in between drops them, so a request never lands on a dead socket
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    // Bounds how long a connection stays pinned to one instance after new ones are registered
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    private Duration evictionInterval = Duration.ofSeconds(15);
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    private boolean keepAlive = true;
+
+    // Cleartext HTTP/2, multiplexing calls over few connections; flight-service needs server.http2.enabled
+    private boolean http2 = false;
+
+    private Duration lockSeatsTimeout = Duration.ofSeconds(3);
+
+    // Releases run from the saga relay and cancellations, off the user's critical path
+    private Duration releaseSeatsTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,14 @@
+package com.saiteja.bookingservice.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Seats on one leg of an itinerary; with a hold token flight-service confirms that hold instead of locking afresh
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LegSeats(String scheduleId, List<String> seatNumbers, String holdToken) {
+
+    public LegSeats(String scheduleId, List<String> seatNumbers) {
+        this(scheduleId, seatNumbers, null);
+    }
+}
@@ -1,8 +1,14 @@
 package com.saiteja.bookingservice.controller;
 
 import com.saiteja.bookingservice.dto.ApiResponse;
+import com.saiteja.bookingservice.dto.PageResponse;
 import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
+import com.saiteja.bookingservice.dto.booking.BookingResponse;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.exception.ForbiddenException;
+import com.saiteja.bookingservice.exception.UnauthorizedException;
+import com.saiteja.bookingservice.model.enums.UserRole;
+import com.saiteja.bookingservice.pagination.Pagination;
 import com.saiteja.bookingservice.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,16 +23,57 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    static final String USER_EMAIL_HEADER = "X-User-Email";
+    static final String USER_ROLE_HEADER = "X-User-Role";
+
     private final BookingService bookingService;
 
     @PostMapping("/booking/{scheduleId}")
     public Mono<ResponseEntity<TicketResponse>> bookFlight(
             @PathVariable String scheduleId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody BookingCreateRequest request
     ) {
         request.setScheduleIds(List.of(scheduleId));
-        return bookingService.createBooking(request)
-                .map(response -> ResponseEntity.status(201).body(response));
+        return book(request, idempotencyKey);
+    }
+
+    // Multi-leg itinerary: scheduleIds in travel order, each passenger with one connecting seat per later leg
+    @PostMapping("/booking")
+    public Mono<ResponseEntity<TicketResponse>> bookItinerary(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BookingCreateRequest request
+    ) {
+        return book(request, idempotencyKey);
+    }
+
+    private Mono<ResponseEntity<TicketResponse>> book(BookingCreateRequest request, String idempotencyKey) {
+        Mono<TicketResponse> booking = idempotencyKey == null
+                ? bookingService.createBooking(request)
+                : bookingService.createBooking(request, idempotencyKey);
+        return booking.map(response -> ResponseEntity.status(201).body(response));
+    }
+
+    // Newest bookings first, one keyset page at a time; fields=a,b trims each booking.
+    // The caller comes from the headers api-gateway sets after checking the token: users see only
+    // their own history, admins anyone's.
+    @GetMapping("/booking/history/{emailId}")
+    public Mono<ResponseEntity<PageResponse<BookingResponse>>> getBookingHistory(
+            @PathVariable String emailId,
+            @RequestHeader(value = USER_EMAIL_HEADER, required = false) String callerEmail,
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String callerRole,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        if (callerEmail == null) {
+            return Mono.error(new UnauthorizedException("Sign in to view booking history"));
+        }
+        if (!UserRole.ADMIN.name().equals(callerRole) && !callerEmail.equalsIgnoreCase(emailId)) {
+            return Mono.error(new ForbiddenException("Booking history of another user"));
+        }
+        return bookingService.getBookingHistory(emailId, cursor, limit, fields)
+                .map(ResponseEntity::ok);
     }
 
     @DeleteMapping("/booking/cancel/{pnr}")
@@ -0,0 +1,97 @@
+package com.saiteja.bookingservice.deadline;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.saiteja.bookingservice.exception.DeadlineExceededException;
+import org.reactivestreams.Publisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * The instant by which the caller stops waiting for a request. It travels as the milliseconds the
+ * caller still waits in {@link #HEADER}, so no two hosts need agreeing clocks: api-gateway sets it on
+ * the booking route, {@link RequestDeadlineFilter} turns it into a local instant in the request's
+ * Reactor context, and FlightServiceClient sends what is left of it to flight-service and caps each
+ * seat call's response timeout with it. Every MongoDB call made for the request is bounded by it,
+ * through {@link #find} for queries and {@link #within} for everything else.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private RequestDeadline() {
+    }
+
+    // Null when the request carries no deadline
+    public static Instant of(ContextView context) {
+        return context.getOrDefault(RequestDeadline.class, null);
+    }
+
+    // The smaller of timeout and the time left before the request's deadline; zero or negative once it has passed
+    public static Duration budget(ContextView context, Duration timeout) {
+        Instant deadline = of(context);
+        if (deadline == null) {
+            return timeout;
+        }
+        Duration remaining = Duration.between(Instant.now(), deadline);
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    // Runs the query with maxTimeMS set to what is left of the request's deadline; once that has passed, it is not run at all
+    public static <T> Flux<T> find(Query query, Function<Query, Publisher<T>> find) {
+        return Flux.deferContextual(context -> {
+            Instant deadline = of(context);
+            if (deadline == null) {
+                return find.apply(query);
+            }
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (!remaining.isPositive()) {
+                return Flux.error(new DeadlineExceededException("Request deadline passed before querying MongoDB"));
+            }
+            return Flux.from(find.apply(query.maxTime(remaining)))
+                    .onErrorMap(e -> NestedExceptionUtils.getMostSpecificCause(e) instanceof MongoExecutionTimeoutException,
+                            e -> new DeadlineExceededException("Request deadline passed while querying MongoDB"));
+        });
+    }
+
+    // Bounds a MongoDB call that takes no maxTimeMS, such as a write or a derived repository query: it is not sent
+    // once the deadline has passed, and given up on when the deadline passes meanwhile. A write given up on may
+    // still land, just as one whose reply was lost
+    public static <T> Mono<T> within(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Instant deadline = of(context);
+            if (deadline == null) {
+                return call;
+            }
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (!remaining.isPositive()) {
+                return Mono.error(new DeadlineExceededException("Request deadline passed before calling MongoDB"));
+            }
+            return call.timeout(remaining,
+                    Mono.error(() -> new DeadlineExceededException("Request deadline passed while waiting for MongoDB")));
+        });
+    }
+
+    // The header value for a call that may take at most budget
+    public static String header(Duration budget) {
+        return String.valueOf(budget.toMillis());
+    }
+
+    // The local deadline for a request that arrived at now; null when the header is missing or not a number
+    static Instant parse(String header, Instant now) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return now.plusMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
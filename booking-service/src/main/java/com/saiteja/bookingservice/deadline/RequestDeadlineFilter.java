@@ -0,0 +1,53 @@
+package com.saiteja.bookingservice.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Turns the budget in {@link RequestDeadline#HEADER}, as set by api-gateway, into a deadline on this
+ * host's clock and puts it into the request's Reactor context. A booking request that arrives with no
+ * budget left is answered with 504 at once, before any seat is locked, since nobody is waiting for
+ * whatever it would do.
+ */
+@Component
+public class RequestDeadlineFilter implements WebFilter, Ordered {
+
+    private final Counter expired;
+
+    public RequestDeadlineFilter(MeterRegistry meterRegistry) {
+        this.expired = Counter.builder("booking.deadline.expired")
+                .description("Requests dropped because they arrived with no time budget left")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Instant now = Instant.now();
+        Instant deadline = RequestDeadline.parse(exchange.getRequest().getHeaders().getFirst(RequestDeadline.HEADER), now);
+        if (deadline == null) {
+            return chain.filter(exchange);
+        }
+        if (!deadline.isAfter(now)) {
+            expired.increment();
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestDeadline.class, deadline));
+    }
+
+    // Ahead of everything else, so an expired request costs nothing
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
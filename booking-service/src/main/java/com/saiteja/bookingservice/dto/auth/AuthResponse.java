@@ -1,14 +1,21 @@
 package com.saiteja.bookingservice.dto.auth;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AuthResponse {
     private String message;
     private String email;
     private String role;
+
+    // Only set on login
+    private String accessToken;
+    private String tokenType;
+    private Long expiresIn;
 }
 
 
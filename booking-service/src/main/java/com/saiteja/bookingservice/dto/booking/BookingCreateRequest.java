@@ -20,6 +20,9 @@ public class BookingCreateRequest {
 
     @NotEmpty
     private List<@Valid PassengerRequest> passengers;
+
+    // Seat hold taken in flight-service while paying; the booking confirms it instead of locking the seats again
+    private String holdToken;
 }
 
 
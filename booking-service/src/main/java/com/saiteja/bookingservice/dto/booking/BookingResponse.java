@@ -1,5 +1,6 @@
 package com.saiteja.bookingservice.dto.booking;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.saiteja.bookingservice.dto.passenger.PassengerResponse;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
 public class BookingResponse {
 
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class PassengerRequest {
 
@@ -21,9 +23,13 @@ public class PassengerRequest {
     @Max(120)
     private Integer age;
 
+    // Seat on the first leg
     @NotBlank
     private String seatNumber;
 
+    // Seats on the following legs of a multi-leg itinerary, in schedule order
+    private List<@NotBlank String> connectingSeatNumbers;
+
     @NotNull
     private MealOption mealOption;
 }
@@ -5,6 +5,8 @@ import com.saiteja.bookingservice.model.enums.MealOption;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 public class PassengerResponse {
@@ -12,6 +14,7 @@ public class PassengerResponse {
     private Gender gender;
     private Integer age;
     private String seatNumber;
+    private List<String> connectingSeatNumbers;
     private MealOption mealOption;
 }
 
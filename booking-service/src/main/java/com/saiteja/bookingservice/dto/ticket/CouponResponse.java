@@ -0,0 +1,14 @@
+package com.saiteja.bookingservice.dto.ticket;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CouponResponse {
+    private String scheduleId;
+    private List<String> seatNumbers;
+    private String status;
+}
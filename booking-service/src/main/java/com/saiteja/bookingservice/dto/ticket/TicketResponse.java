@@ -13,6 +13,7 @@ public class TicketResponse {
     private String pnr;
     private String bookingId;
     private List<PassengerResponse> passengers;
+    private List<CouponResponse> coupons;
     private LocalDateTime issuedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
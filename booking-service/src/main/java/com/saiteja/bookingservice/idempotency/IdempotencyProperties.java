@@ -0,0 +1,19 @@
+package com.saiteja.bookingservice.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.idempotency")
+public class IdempotencyProperties {
+
+    // How long an execution may hold a key before another instance may take it over; must exceed a slow booking
+    private Duration lease = Duration.ofSeconds(30);
+
+    // How long a duplicate waits for the original execution to finish before answering 409
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    private Duration pollInterval = Duration.ofMillis(100);
+}
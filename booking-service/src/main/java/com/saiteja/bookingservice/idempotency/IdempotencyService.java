@@ -0,0 +1,199 @@
+package com.saiteja.bookingservice.idempotency;
+
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.exception.BadRequestException;
+import com.saiteja.bookingservice.exception.DuplicateResourceException;
+import com.saiteja.bookingservice.model.IdempotencyRecord;
+import com.saiteja.bookingservice.model.enums.IdempotencyStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a booking at most once per Idempotency-Key.
+ * The first request for a key claims it by inserting an IN_PROGRESS record, runs, and stores its
+ * response on the record; replays get that stored response back. Duplicates arriving while it runs
+ * share the same execution on this instance, or poll the record when it runs on another one.
+ * A failed execution releases the key so the client can retry, and a key whose owner died is taken
+ * over once its lease runs out. Records expire after a day.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final IdempotencyProperties properties;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter takenOver;
+
+    // Executions running on this instance, so concurrent duplicates never race each other on the collection
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(ReactiveMongoTemplate mongoTemplate, IdempotencyProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.executed = outcome(meterRegistry, "executed");
+        this.replayed = outcome(meterRegistry, "replayed");
+        this.joined = outcome(meterRegistry, "joined");
+        this.takenOver = outcome(meterRegistry, "taken_over");
+    }
+
+    public Mono<TicketResponse> execute(String key, String requestHash, Supplier<Mono<TicketResponse>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+        return Mono.deferContextual(context -> {
+            InFlight execution = new InFlight(requestHash, new CompletableFuture<>());
+            InFlight running = inFlight.putIfAbsent(key, execution);
+            if (running != null) {
+                if (!running.requestHash().equals(requestHash)) {
+                    return Mono.error(keyReused());
+                }
+                joined.increment();
+                return Mono.fromFuture(running.response(), true);
+            }
+
+            // detached from the caller, so a client that disconnects mid-booking still finds the result on retry,
+            // but still bounded by the caller's deadline
+            claim(key, requestHash, action)
+                    .contextWrite(context)
+                    .subscribe(execution.response()::complete, execution.response()::completeExceptionally);
+            execution.response().whenComplete((response, error) -> inFlight.remove(key, execution));
+            return Mono.fromFuture(execution.response(), true);
+        });
+    }
+
+    public static String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Mono<TicketResponse> claim(String key, String requestHash, Supplier<Mono<TicketResponse>> action) {
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .owner(owner)
+                .lockedUntil(now.plus(properties.getLease()))
+                .createdAt(now)
+                .build();
+
+        return RequestDeadline.within(mongoTemplate.insert(record))
+                .flatMap(claimed -> run(key, owner, action))
+                .onErrorResume(DuplicateKeyException.class, e -> awaitExisting(key, requestHash, action));
+    }
+
+    private Mono<TicketResponse> run(String key, String owner, Supplier<Mono<TicketResponse>> action) {
+        executed.increment();
+        return Mono.defer(action)
+                .flatMap(response -> mongoTemplate.updateFirst(owned(key, owner),
+                                new Update()
+                                        .set("status", IdempotencyStatus.COMPLETED)
+                                        .set("response", response)
+                                        .set("completedAt", Instant.now()),
+                                IdempotencyRecord.class)
+                        .thenReturn(response))
+                // a failed booking leaves nothing to replay, so the key is freed for the client's retry
+                .onErrorResume(error -> mongoTemplate.remove(owned(key, owner), IdempotencyRecord.class)
+                        .onErrorResume(removeError -> {
+                            log.warn("Could not release idempotency key {}", key, removeError);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(error)));
+    }
+
+    // Polls the record of an execution running elsewhere until it completes, disappears or is abandoned
+    private Mono<TicketResponse> awaitExisting(String key, String requestHash, Supplier<Mono<TicketResponse>> action) {
+        Instant giveUpAt = Instant.now().plus(properties.getWaitTimeout());
+        return Mono.defer(() -> RequestDeadline.within(mongoTemplate.findById(key, IdempotencyRecord.class)))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> {
+                    if (found.isEmpty()) {
+                        // the owner failed and released the key
+                        return claim(key, requestHash, action);
+                    }
+                    IdempotencyRecord record = found.get();
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        return Mono.error(keyReused());
+                    }
+                    if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                        replayed.increment();
+                        return Mono.just(record.getResponse());
+                    }
+                    if (record.getLockedUntil().isBefore(Instant.now())) {
+                        return takeOver(key, record.getOwner(), action);
+                    }
+                    return Mono.empty();
+                })
+                .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Instant.now().isAfter(giveUpAt)
+                        ? Mono.error(new DuplicateResourceException("Request with this Idempotency-Key is still being processed"))
+                        : Mono.delay(properties.getPollInterval())));
+    }
+
+    // Empty when another instance took the key over first
+    private Mono<TicketResponse> takeOver(String key, String staleOwner, Supplier<Mono<TicketResponse>> action) {
+        String owner = UUID.randomUUID().toString();
+        return RequestDeadline.within(mongoTemplate.findAndModify(
+                        owned(key, staleOwner).addCriteria(Criteria.where("status").is(IdempotencyStatus.IN_PROGRESS)),
+                        new Update()
+                                .set("owner", owner)
+                                .set("lockedUntil", Instant.now().plus(properties.getLease())),
+                        IdempotencyRecord.class))
+                .flatMap(abandoned -> {
+                    log.warn("Taking over idempotency key {} abandoned by {}", key, staleOwner);
+                    takenOver.increment();
+                    return run(key, owner, action);
+                });
+    }
+
+    private static Query owned(String key, String owner) {
+        return Query.query(Criteria.where("key").is(key).and("owner").is(owner));
+    }
+
+    private static BadRequestException keyReused() {
+        return new BadRequestException("Idempotency-Key was already used for a different request");
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("booking.idempotency.requests")
+                .description("Idempotent booking requests by how they were answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<TicketResponse> response) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.saiteja.bookingservice.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// GET /actuator/mongoindexes on booking-service - declared vs. missing vs. unused indexes per booking collection
+@Component
+@Endpoint(id = "mongoindexes")
+@RequiredArgsConstructor
+public class MongoIndexEndpoint {
+
+    private final MongoIndexManager indexManager;
+
+    @ReadOperation
+    public Mono<List<CollectionIndexReport>> indexes() {
+        return indexManager.report().collectList();
+    }
+}
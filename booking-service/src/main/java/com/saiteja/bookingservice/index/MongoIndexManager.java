@@ -0,0 +1,123 @@
+package com.saiteja.bookingservice.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared with {@code @Indexed} / {@code @CompoundIndex} on booking-service's
+ * documents (bookings, tickets, users, outbox entries, idempotency records and the PNR sequence)
+ * and reports drift between those declarations and what the collections actually have.
+ * Index builds run in the background once the application is ready, so a slow build on a large
+ * collection never holds up startup or readiness.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexManager {
+
+    private static final String ID_INDEX = "_id_";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesInBackground() {
+        createIndexes().subscribe(
+                null,
+                e -> log.error("Index bootstrap failed", e),
+                () -> log.info("Mongo indexes are in place")
+        );
+    }
+
+    public Mono<Void> createIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        return Flux.fromIterable(documentEntities())
+                .concatMap(entity -> Flux.fromIterable(resolver.resolveIndexFor(entity.getType()))
+                        .concatMap(index -> mongoTemplate.indexOps(entity.getCollection()).createIndex(index)
+                                .doOnNext(name -> log.debug("Ensured index {} on {}", name, entity.getCollection()))
+                                // e.g. duplicates blocking a unique index; keep going with the rest
+                                .onErrorResume(e -> {
+                                    log.error("Could not create index {} on {}",
+                                            signature(index.getIndexKeys(), index.getIndexOptions()), entity.getCollection(), e);
+                                    return Mono.empty();
+                                })))
+                .then();
+    }
+
+    public Flux<CollectionIndexReport> report() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        return Flux.fromIterable(documentEntities())
+                .concatMap(entity -> report(entity, resolver));
+    }
+
+    private Mono<CollectionIndexReport> report(MongoPersistentEntity<?> entity, IndexResolver resolver) {
+        String collection = entity.getCollection();
+        List<String> declared = new ArrayList<>();
+        for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+            declared.add(signature(index.getIndexKeys(), index.getIndexOptions()));
+        }
+
+        Mono<Map<String, String>> existing = mongoTemplate.getCollection(collection)
+                .flatMapMany(c -> Flux.from(c.listIndexes()))
+                .collectMap(index -> index.getString("name"),
+                        index -> signature(index.get("key", Document.class), index))
+                // listIndexes fails with NamespaceNotFound before the first insert
+                .onErrorResume(e -> Mono.just(Map.of()));
+
+        Mono<Map<String, Long>> usage = mongoTemplate.getCollection(collection)
+                .flatMapMany(c -> Flux.from(c.aggregate(List.of(new Document("$indexStats", new Document())))))
+                .collectMap(stats -> stats.getString("name"),
+                        stats -> ((Number) stats.get("accesses", Document.class).get("ops")).longValue())
+                .onErrorResume(e -> {
+                    log.debug("$indexStats unavailable for {}", collection, e);
+                    return Mono.just(Map.of());
+                });
+
+        return Mono.zip(existing, usage).map(tuple -> {
+            Set<String> present = Set.copyOf(tuple.getT1().values());
+            return CollectionIndexReport.builder()
+                    .collection(collection)
+                    .declared(declared)
+                    .missing(declared.stream().filter(index -> !present.contains(index)).toList())
+                    .unused(tuple.getT2().entrySet().stream()
+                            .filter(stats -> !ID_INDEX.equals(stats.getKey()) && stats.getValue() == 0)
+                            .map(Map.Entry::getKey)
+                            .sorted()
+                            .toList())
+                    .build();
+        });
+    }
+
+    private List<MongoPersistentEntity<?>> documentEntities() {
+        return mappingContext.getPersistentEntities().stream()
+                .filter(entity -> entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class))
+                .sorted(Comparator.comparing(MongoPersistentEntity::getCollection))
+                .collect(Collectors.toList());
+    }
+
+    // Key order matters for compound indexes, so compare the rendered key list rather than the maps
+    static String signature(Document keys, Document options) {
+        String rendered = keys.entrySet().stream()
+                .map(key -> key.getKey() + ": " + (key.getValue() instanceof Number n ? n.intValue() : key.getValue()))
+                .collect(Collectors.joining(", ", "{", "}"));
+        return Boolean.TRUE.equals(options.get("unique")) ? rendered + " unique" : rendered;
+    }
+}
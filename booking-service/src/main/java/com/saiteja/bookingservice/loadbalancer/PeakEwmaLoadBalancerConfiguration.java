@@ -0,0 +1,26 @@
+package com.saiteja.bookingservice.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer for every service called through the {@code @LoadBalanced} WebClient, registered as
+ * the default in {@link com.saiteja.bookingservice.config.WebClientConfig}. Deliberately not a
+ * {@code @Configuration}: Spring Cloud creates it once per service in that service's own context.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    // Declared as the concrete type so the context also finds it as the lifecycle that reports latencies to it
+    @Bean
+    public PeakEwmaLoadBalancer peakEwmaLoadBalancer(Environment environment,
+                                                     LoadBalancerClientFactory loadBalancerClientFactory,
+                                                     PeakEwmaProperties properties, MeterRegistry meterRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.saiteja.bookingservice.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.load-balancer")
+public class PeakEwmaProperties {
+
+    // How quickly an instance's latency estimate forgets a slow response once it answers quickly again
+    private Duration decay = Duration.ofSeconds(10);
+
+    // Consecutive failures (connection errors, timeouts, 5xx) before an instance is taken out of rotation
+    private int failureThreshold = 5;
+
+    // How long a failing instance is left out; after that it gets one call, and another failure takes it out again
+    private Duration quarantine = Duration.ofSeconds(30);
+}
@@ -13,6 +13,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -23,11 +25,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "bookings")
+// newest first per contact email, so booking history pages seek on the index without a sort
+@CompoundIndex(name = "contact_email_id_idx", def = "{'contactEmail': 1, '_id': -1}")
 public class Booking {
 
     @Id
     private String id;
 
+    @Indexed(name = "pnr_idx", unique = true)
     @NotBlank(message = "PNR cannot be empty")
     private String pnr;
 
@@ -49,6 +54,12 @@ public class Booking {
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    // Legs the passengers hold seats on; bookings made before connecting seats were recorded locked only the first
+    public int seatedLegs() {
+        List<String> connecting = passengers.get(0).getConnectingSeatNumbers();
+        return connecting == null ? 1 : connecting.size() + 1;
+    }
 }
 
 
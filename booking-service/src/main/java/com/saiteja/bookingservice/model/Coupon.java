@@ -0,0 +1,23 @@
+package com.saiteja.bookingservice.model;
+
+import com.saiteja.bookingservice.model.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One leg of a ticket: the flight it is good for and the seats taken on it, in passenger order
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Coupon {
+
+    private String scheduleId;
+
+    private List<String> seatNumbers;
+
+    private TicketStatus status;
+}
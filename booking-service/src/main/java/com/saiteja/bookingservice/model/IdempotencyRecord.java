@@ -0,0 +1,43 @@
+package com.saiteja.bookingservice.model;
+
+import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.model.enums.IdempotencyStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // The client's Idempotency-Key; as the _id it is unique without a separate index
+    @Id
+    private String key;
+
+    // Hash of the request the key was first used with, so a reused key with another payload is rejected
+    private String requestHash;
+
+    private IdempotencyStatus status;
+
+    // Execution that currently holds the key; only it may complete or release the record
+    private String owner;
+
+    // An IN_PROGRESS record past this instant is treated as abandoned and can be taken over
+    private Instant lockedUntil;
+
+    private TicketResponse response;
+
+    @Indexed(name = "idempotency_ttl_idx", expireAfter = "24h")
+    private Instant createdAt;
+
+    private Instant completedAt;
+}
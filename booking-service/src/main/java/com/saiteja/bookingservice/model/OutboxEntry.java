@@ -0,0 +1,55 @@
+package com.saiteja.bookingservice.model;
+
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.model.enums.SagaType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "booking_outbox")
+// the relay's poll: due ARMED / PENDING entries, oldest first
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxEntry {
+
+    @Id
+    private String id;
+
+    private SagaType type;
+
+    private String pnr;
+
+    // Seats the compensation releases
+    private String scheduleId;
+    private List<String> seats;
+
+    private OutboxStatus status;
+
+    // Last step the saga recorded
+    private SagaStep step;
+
+    private int attempts;
+
+    // When the relay may pick the entry up: the lease of a running saga, or the next retry
+    private Instant nextAttemptAt;
+
+    private String lastError;
+
+    private Instant createdAt;
+
+    // Finished entries are kept a week for troubleshooting
+    @Indexed(name = "outbox_ttl_idx", expireAfter = "7d")
+    private Instant completedAt;
+}
@@ -11,6 +11,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,11 +30,19 @@ public class Passenger {
     @Max(value = 120, message = "passenger age cannot exceed 120")
     private Integer age;
 
+    // Seat on the first leg
     @NotBlank(message = "seat number is required")
     private String seatNumber;
 
+    // Seats on the following legs of the itinerary, in schedule order
+    private List<@NotBlank String> connectingSeatNumbers;
+
     @NotNull(message = "meal option is required")
     private MealOption mealOption;
+
+    public String seatOnLeg(int leg) {
+        return leg == 0 ? seatNumber : connectingSeatNumbers.get(leg - 1);
+    }
 }
 
 
@@ -0,0 +1,22 @@
+package com.saiteja.bookingservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "pnr_sequences")
+public class PnrSequence {
+
+    @Id
+    private String id;
+
+    // First sequence number not yet leased to any node
+    private long next;
+}
@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -27,15 +28,20 @@ public class Ticket {
     @Id
     private String id;
 
+    @Indexed(name = "pnr_idx", unique = true)
     @NotBlank(message = "PNR cannot be empty")
     private String pnr;
 
     @NotBlank(message = "Booking ID is required")
     private String bookingId;
 
+    // First leg of the itinerary
     @NotBlank(message = "Schedule ID is required")
     private String scheduleId;
 
+    // One per leg, in itinerary order
+    private List<@Valid Coupon> coupons;
+
     private TicketStatus status;
 
     @NotEmpty(message = "Passenger list cannot be empty")
@@ -49,6 +55,13 @@ public class Ticket {
 
     @NotNull(message = "Issued time is required")
     private LocalDateTime issuedAt;
+
+    public void cancel() {
+        status = TicketStatus.CANCELLED;
+        if (coupons != null) {
+            coupons.forEach(coupon -> coupon.setStatus(TicketStatus.CANCELLED));
+        }
+    }
 }
 
 
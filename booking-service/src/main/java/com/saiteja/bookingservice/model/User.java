@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document("users")
@@ -15,6 +16,7 @@ public class User {
     @Id
     private String id;
 
+    @Indexed(name = "email_idx", unique = true)
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
     private String email;
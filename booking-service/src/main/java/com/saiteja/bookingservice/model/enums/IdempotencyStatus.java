@@ -0,0 +1,6 @@
+package com.saiteja.bookingservice.model.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
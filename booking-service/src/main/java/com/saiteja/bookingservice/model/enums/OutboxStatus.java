@@ -0,0 +1,9 @@
+package com.saiteja.bookingservice.model.enums;
+
+public enum OutboxStatus {
+    // saga still running; the compensation only becomes due if the saga outlives its lease
+    ARMED,
+    // compensation is due and waits for the relay
+    PENDING,
+    DONE
+}
@@ -0,0 +1,11 @@
+package com.saiteja.bookingservice.model.enums;
+
+public enum SagaStep {
+    STARTED,
+    SEATS_LOCKED,
+    LOCK_REJECTED,
+    CANCELLATION_SAVED,
+    COMPLETED,
+    ABORTED,
+    COMPENSATED
+}
@@ -0,0 +1,6 @@
+package com.saiteja.bookingservice.model.enums;
+
+public enum SagaType {
+    CREATE_BOOKING,
+    CANCEL_BOOKING
+}
@@ -0,0 +1,145 @@
+package com.saiteja.bookingservice.pnr;
+
+import com.saiteja.bookingservice.model.PnrSequence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Issues 6 character PNRs in Crockford base 32 (no I, L, O or U, so codes read back unambiguously).
+ * Each code encodes a number of a global sequence, which nodes lease from the pnr_sequences
+ * collection in blocks: codes are unique across nodes without coordinating per booking, and a node
+ * only goes to Mongo once per {@link PnrProperties#getBlockSize() block}. Sequence numbers pass through
+ * a fixed permutation of the 30 bit code space, so consecutive bookings get unrelated codes.
+ * Codes made of hex characters only are skipped, as that is where the older UUID based PNRs live.
+ */
+@Component
+public class PnrGenerator {
+
+    static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    static final int LENGTH = 6;
+    static final long SPACE = 1L << (5 * LENGTH);
+
+    private static final String SEQUENCE_ID = "pnr";
+    private static final long MASK = SPACE - 1;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PnrProperties properties;
+    private final Counter leases;
+
+    private final AtomicReference<Block> block = new AtomicReference<>(Block.EXHAUSTED);
+    // The lease in flight, so a burst that drains the block waits on one round trip
+    private final AtomicReference<CompletableFuture<Block>> leasing = new AtomicReference<>();
+
+    public PnrGenerator(ReactiveMongoTemplate mongoTemplate, PnrProperties properties, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.leases = Counter.builder("booking.pnr.leases")
+                .description("Sequence blocks leased for PNR generation")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> next() {
+        return Mono.defer(() -> {
+            Block current = block.get();
+            long sequence;
+            while ((sequence = current.take()) >= 0) {
+                String pnr = encode(permute(sequence));
+                if (!isLegacy(pnr)) {
+                    return Mono.just(pnr);
+                }
+            }
+            return lease(current).then(next());
+        });
+    }
+
+    private Mono<Block> lease(Block exhausted) {
+        CompletableFuture<Block> lease = new CompletableFuture<>();
+        CompletableFuture<Block> running = leasing.compareAndExchange(null, lease);
+        if (running != null) {
+            return Mono.fromFuture(running, true);
+        }
+        if (block.get() != exhausted) {
+            // another caller finished a lease in the meantime
+            leasing.set(null);
+            return Mono.just(block.get());
+        }
+
+        int blockSize = properties.getBlockSize();
+        mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("id").is(SEQUENCE_ID)),
+                        new Update().inc("next", blockSize),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true),
+                        PnrSequence.class)
+                .map(sequence -> {
+                    if (sequence.getNext() > SPACE) {
+                        throw new IllegalStateException("PNR sequence exhausted");
+                    }
+                    return new Block(sequence.getNext() - blockSize, sequence.getNext());
+                })
+                .switchIfEmpty(Mono.error(new IllegalStateException("PNR sequence lease returned nothing")))
+                .subscribe(leased -> {
+                    leases.increment();
+                    block.set(leased);
+                    leasing.set(null);
+                    lease.complete(leased);
+                }, error -> {
+                    leasing.set(null);
+                    lease.completeExceptionally(error);
+                });
+        return Mono.fromFuture(lease, true);
+    }
+
+    // Bijective on [0, SPACE): odd multipliers and xor-shifts are each invertible modulo 2^30
+    static long permute(long sequence) {
+        long x = sequence & MASK;
+        x = (x * 0x2C1B3C6DL) & MASK;
+        x ^= x >>> 15;
+        x = (x * 0x297A2D39L) & MASK;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    static String encode(long value) {
+        char[] code = new char[LENGTH];
+        for (int index = LENGTH - 1; index >= 0; index--) {
+            code[index] = ALPHABET.charAt((int) (value & 31));
+            value >>>= 5;
+        }
+        return new String(code);
+    }
+
+    static boolean isLegacy(String pnr) {
+        for (int index = 0; index < pnr.length(); index++) {
+            if (Character.digit(pnr.charAt(index), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Block(AtomicLong cursor, long end) {
+
+        static final Block EXHAUSTED = new Block(0, 0);
+
+        Block(long start, long end) {
+            this(new AtomicLong(start), end);
+        }
+
+        // -1 once the block is used up
+        long take() {
+            long sequence = cursor.getAndIncrement();
+            return sequence < end ? sequence : -1;
+        }
+    }
+}
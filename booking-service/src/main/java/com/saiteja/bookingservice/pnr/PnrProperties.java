@@ -0,0 +1,12 @@
+package com.saiteja.bookingservice.pnr;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "booking.pnr")
+public class PnrProperties {
+
+    // Sequence numbers a node leases per round trip; a restart forfeits the rest of its block
+    private int blockSize = 1000;
+}
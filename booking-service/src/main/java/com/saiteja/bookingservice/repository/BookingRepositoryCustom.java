@@ -0,0 +1,20 @@
+package com.saiteja.bookingservice.repository;
+
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.Ticket;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    // Up to limit bookings of the email older than beforeId (null for the newest), newest first; empty fields loads every field
+    Flux<Booking> findPageByContactEmail(String email, ObjectId beforeId, int limit, Collection<String> fields);
+
+    // Inserts a new booking and its ticket and closes the booking saga's outbox entries, returning the inserted
+    // ticket: one command on MongoDB 8.0 and later; before that, two concurrent inserts and then the outbox update
+    Mono<Ticket> insertWithTicket(Booking booking, Ticket ticket, List<String> outboxEntryIds);
+}
@@ -0,0 +1,140 @@
+package com.saiteja.bookingservice.repository;
+
+import com.mongodb.ClientBulkWriteException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.bulk.ClientBulkWriteOptions;
+import com.mongodb.client.model.bulk.ClientNamespacedWriteModel;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.saga.BookingSaga;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    // MongoDB 8.0, the first server to take one bulkWrite command across collections
+    private static final int CLIENT_BULK_WRITE_WIRE_VERSION = 25;
+
+    // position of the outbox update in the bulkWrite, after the booking and ticket inserts
+    private static final int OUTBOX_MODEL = 2;
+
+    private static final MongoExceptionTranslator EXCEPTION_TRANSLATOR = new MongoExceptionTranslator();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoClient mongoClient;
+
+    private final Mono<Boolean> clientBulkWrite;
+
+    public BookingRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate, MongoClient mongoClient) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoClient = mongoClient;
+        // asked once per process; a failed check is asked again on the next insert
+        this.clientBulkWrite = Mono.defer(() -> mongoTemplate.executeCommand(new Document("hello", 1)))
+                .map(hello -> hello.get("maxWireVersion", 0) >= CLIENT_BULK_WRITE_WIRE_VERSION)
+                .cache(supported -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    @Override
+    public Flux<Booking> findPageByContactEmail(String email, ObjectId beforeId, int limit, Collection<String> fields) {
+        Criteria criteria = Criteria.where("contactEmail").is(email);
+        if (beforeId != null) {
+            criteria.and("_id").lt(beforeId);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(limit);
+        if (!fields.isEmpty()) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return RequestDeadline.find(query, bounded -> mongoTemplate.find(bounded, Booking.class));
+    }
+
+    @Override
+    public Mono<Ticket> insertWithTicket(Booking booking, Ticket ticket, List<String> outboxEntryIds) {
+        Query outbox = BookingSaga.armed(outboxEntryIds);
+        Update completed = BookingSaga.closed(SagaStep.COMPLETED);
+        return clientBulkWrite.flatMap(supported -> supported
+                ? bulkInsert(booking, ticket, outboxEntryIds, outbox, completed)
+                // Both inserts are in flight at once, as the ticket already carries the booking's id. There is no
+                // transaction (that needs a replica set): if only one lands, the booking saga compensates.
+                : Mono.zip(mongoTemplate.insert(booking), mongoTemplate.insert(ticket))
+                        .flatMap(inserted -> mongoTemplate.updateMulti(outbox, completed, OutboxEntry.class)
+                                .onErrorResume(e -> outboxNotClosed(outboxEntryIds, e))
+                                .thenReturn(inserted.getT2())));
+    }
+
+    // One ordered bulkWrite command for all three collections, so the ticket is only written once the booking is,
+    // and the saga's outbox entries only closed once both are
+    private Mono<Ticket> bulkInsert(Booking booking, Ticket ticket, List<String> outboxEntryIds, Query outbox, Update completed) {
+        // these writes bypass the template, and with it auditing
+        LocalDateTime now = LocalDateTime.now();
+        booking.setUpdatedAt(now);
+        if (ticket.getId() == null) {
+            ticket.setId(new ObjectId().toHexString());
+        }
+        ticket.setCreatedAt(now);
+        ticket.setUpdatedAt(now);
+
+        MongoConverter converter = mongoTemplate.getConverter();
+        MongoPersistentEntity<?> outboxEntity = converter.getMappingContext().getRequiredPersistentEntity(OutboxEntry.class);
+        return mongoTemplate.getMongoDatabase()
+                .map(database -> List.of(
+                        ClientNamespacedWriteModel.insertOne(namespace(database, Booking.class), toDocument(booking)),
+                        ClientNamespacedWriteModel.insertOne(namespace(database, Ticket.class), toDocument(ticket)),
+                        ClientNamespacedWriteModel.updateMany(namespace(database, OutboxEntry.class),
+                                new QueryMapper(converter).getMappedObject(outbox.getQueryObject(), outboxEntity),
+                                new UpdateMapper(converter).getMappedObject(completed.getUpdateObject(), outboxEntity))))
+                .flatMap(models -> Mono.from(mongoClient.bulkWrite(models, ClientBulkWriteOptions.clientBulkWriteOptions().ordered(true))))
+                // only the outbox update failed: the booking and its ticket are in, and the relay closes the entries
+                .onErrorResume(ClientBulkWriteException.class, e -> e.getWriteConcernErrors().isEmpty()
+                                && !e.getWriteErrors().isEmpty()
+                                && e.getWriteErrors().keySet().stream().allMatch(index -> index == OUTBOX_MODEL)
+                        ? outboxNotClosed(outboxEntryIds, e)
+                        : Mono.error(e))
+                .onErrorMap(RuntimeException.class, e -> {
+                    DataAccessException translated = EXCEPTION_TRANSLATOR.translateExceptionIfPossible(e);
+                    return translated != null ? translated : e;
+                })
+                .thenReturn(ticket);
+    }
+
+    private static <T> Mono<T> outboxNotClosed(List<String> entries, Throwable cause) {
+        log.warn("Could not close outbox entries {} with their booking", entries, cause);
+        return Mono.empty();
+    }
+
+    private MongoNamespace namespace(MongoDatabase database, Class<?> entity) {
+        return new MongoNamespace(database.getName(), mongoTemplate.getCollectionName(entity));
+    }
+
+    private Document toDocument(Object entity) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        return document;
+    }
+}
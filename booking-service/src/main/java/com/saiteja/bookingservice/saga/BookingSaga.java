@@ -0,0 +1,152 @@
+package com.saiteja.bookingservice.saga;
+
+import com.saiteja.bookingservice.client.ConcurrencyLimitExceededException;
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.LegSeats;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.exception.DeadlineExceededException;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.model.enums.SagaType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Coordinates the seat inventory in flight-service with the bookings stored here.
+ * Every saga first writes an ARMED entry per leg to the booking_outbox collection, each holding the
+ * seat release that undoes it, and only then touches the seats. A saga that completes marks its entries
+ * DONE; one that fails hands them to the {@link OutboxRelay} as PENDING; one whose instance dies leaves
+ * them ARMED, and the relay picks them up once their lease runs out. A booking's entries are closed by the
+ * write that persists the booking, so a booking costs that write and the first insert. Apart from that
+ * first insert, the outbox writes are best effort: a lost update only delays the relay until the lease expires.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingSaga {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final FlightServiceClient flightServiceClient;
+    private final SagaProperties properties;
+
+    // Locks the seats of every leg in one call, then persists the booking and its ticket. persist is handed the ids
+    // of the saga's outbox entries and closes them, matched by armed and updated by closed(COMPLETED), with the same write
+    public Mono<TicketResponse> book(String pnr, List<LegSeats> legs, Function<List<String>, Mono<TicketResponse>> persist) {
+        return start(SagaType.CREATE_BOOKING, pnr, legs)
+                .flatMap(entries -> flightServiceClient.lockSeats(legs)
+                        // a rejected or never-sent lock changed nothing, as flight-service locks all legs or none;
+                        // anything else may have locked some of them
+                        .onErrorResume(e -> (isRejected(e) || e instanceof ConcurrencyLimitExceededException
+                                || e instanceof DeadlineExceededException
+                                ? finish(entries, SagaStep.LOCK_REJECTED)
+                                : handOver(entries, e))
+                                .then(Mono.error(e)))
+                        .then(Mono.defer(() -> persist.apply(ids(entries))
+                                // the seats are locked, so the relay need not wait for the lock to settle
+                                .onErrorResume(e -> handOver(entries, e, SagaStep.SEATS_LOCKED).then(Mono.error(e))))));
+    }
+
+    // Persists the cancellation, then releases the seats of all legs at once; a failed release is retried by the relay
+    public Mono<Void> cancel(String pnr, List<LegSeats> legs, Mono<Void> persistCancellation) {
+        return start(SagaType.CANCEL_BOOKING, pnr, legs)
+                .flatMap(entries -> persistCancellation
+                        // the write may still have landed, so the relay checks the booking before releasing
+                        .onErrorResume(e -> handOver(entries, e).then(Mono.error(e)))
+                        .then(Mono.defer(() -> record(entries, SagaStep.CANCELLATION_SAVED)
+                                .thenMany(Flux.fromIterable(entries))
+                                // each leg settles on its own, so one failed release leaves only that leg to the relay
+                                .flatMap(entry -> flightServiceClient.releaseSeats(entry.getScheduleId(), entry.getSeats())
+                                        .then(Mono.defer(() -> finish(List.of(entry), SagaStep.COMPLETED)))
+                                        .onErrorResume(e -> handOver(List.of(entry), e)))
+                                .then())));
+    }
+
+    static boolean isRejected(Throwable error) {
+        return error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    // One entry per leg, so the relay compensates each schedule on its own
+    private Mono<List<OutboxEntry>> start(SagaType type, String pnr, List<LegSeats> legs) {
+        Instant now = Instant.now();
+        return Flux.fromIterable(legs)
+                .concatMap(leg -> RequestDeadline.within(mongoTemplate.insert(OutboxEntry.builder()
+                        .type(type)
+                        .pnr(pnr)
+                        .scheduleId(leg.scheduleId())
+                        .seats(leg.seatNumbers())
+                        .status(OutboxStatus.ARMED)
+                        .step(SagaStep.STARTED)
+                        .nextAttemptAt(now.plus(properties.getLease()))
+                        .createdAt(now)
+                        .build())))
+                .collectList();
+    }
+
+    // Only while ARMED: once the relay owns an entry the saga no longer writes to it
+    public static Query armed(List<String> entryIds) {
+        return Query.query(Criteria.where("id").in(entryIds).and("status").is(OutboxStatus.ARMED));
+    }
+
+    public static Update closed(SagaStep step) {
+        return new Update()
+                .set("status", OutboxStatus.DONE)
+                .set("step", step)
+                .set("completedAt", Instant.now());
+    }
+
+    // Bounded by the request's deadline like the cancellation it follows; the settling writes below are not,
+    // as they only record what already happened
+    private Mono<Void> record(List<OutboxEntry> entries, SagaStep step) {
+        return update(entries, new Update().set("step", step), true);
+    }
+
+    private Mono<Void> finish(List<OutboxEntry> entries, SagaStep step) {
+        return update(entries, closed(step), false);
+    }
+
+    private Mono<Void> handOver(List<OutboxEntry> entries, Throwable cause) {
+        return update(entries, pending(entries, cause), false);
+    }
+
+    private Mono<Void> handOver(List<OutboxEntry> entries, Throwable cause, SagaStep step) {
+        return update(entries, pending(entries, cause).set("step", step), false);
+    }
+
+    private static Update pending(List<OutboxEntry> entries, Throwable cause) {
+        OutboxEntry first = entries.get(0);
+        log.warn("Saga {} for booking {} failed, compensation queued: {}", first.getType(), first.getPnr(), cause.toString());
+        return new Update()
+                .set("status", OutboxStatus.PENDING)
+                .set("nextAttemptAt", Instant.now())
+                .set("lastError", cause.toString());
+    }
+
+    private Mono<Void> update(List<OutboxEntry> entries, Update update, boolean bounded) {
+        List<String> ids = ids(entries);
+        Mono<?> write = mongoTemplate.updateMulti(armed(ids), update, OutboxEntry.class);
+        return (bounded ? RequestDeadline.within(write) : write)
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Could not update outbox entries {} of booking {}", ids, entries.get(0).getPnr(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private static List<String> ids(List<OutboxEntry> entries) {
+        return entries.stream().map(OutboxEntry::getId).toList();
+    }
+}
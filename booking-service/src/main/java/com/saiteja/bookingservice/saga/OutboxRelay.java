@@ -0,0 +1,267 @@
+package com.saiteja.bookingservice.saga;
+
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.model.enums.SagaType;
+import com.saiteja.bookingservice.model.enums.TicketStatus;
+import com.saiteja.bookingservice.repository.BookingRepository;
+import com.saiteja.bookingservice.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Replays the compensations queued in booking_outbox by {@link BookingSaga}: PENDING entries of failed
+ * sagas and ARMED entries whose saga outlived its lease, which after a restart covers every saga the
+ * previous process left half done. Each entry is resolved against the booking as it is now, so a saga
+ * that in fact completed is left alone and seats another booking holds are never released. Releases
+ * of one batch are sent as one call per schedule.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final BookingRepository bookingRepository;
+    private final TicketRepository ticketRepository;
+    private final FlightServiceClient flightServiceClient;
+    private final SagaProperties properties;
+    private final Counter released;
+    private final Counter discarded;
+    private final Counter retried;
+
+    public OutboxRelay(ReactiveMongoTemplate mongoTemplate, BookingRepository bookingRepository,
+                       TicketRepository ticketRepository, FlightServiceClient flightServiceClient,
+                       SagaProperties properties, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.bookingRepository = bookingRepository;
+        this.ticketRepository = ticketRepository;
+        this.flightServiceClient = flightServiceClient;
+        this.properties = properties;
+        this.released = outcome(meterRegistry, "released");
+        this.discarded = outcome(meterRegistry, "discarded");
+        this.retried = outcome(meterRegistry, "retried");
+    }
+
+    @Scheduled(initialDelayString = "${booking.saga.relay-interval:5s}", fixedDelayString = "${booking.saga.relay-interval:5s}")
+    public Mono<Void> relay() {
+        return relayBatch()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.info("Relayed {} outbox entries", count);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("Outbox relay run failed", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Handles one batch of due entries and returns how many this instance claimed
+    public Mono<Integer> relayBatch() {
+        Query due = Query.query(Criteria.where("status").in(OutboxStatus.ARMED, OutboxStatus.PENDING)
+                        .and("nextAttemptAt").lte(Instant.now()))
+                .with(Sort.by("nextAttemptAt"))
+                .limit(properties.getBatchSize());
+
+        return mongoTemplate.find(due, OutboxEntry.class)
+                .concatMap(this::claim)
+                .concatMap(entry -> resolve(entry)
+                        .onErrorResume(e -> retryLater(entry, e).then(Mono.empty())))
+                .collectList()
+                .flatMap(releases -> Flux.fromIterable(releases.stream()
+                                .collect(Collectors.groupingBy(release -> release.entry().getScheduleId(),
+                                        LinkedHashMap::new, Collectors.toList()))
+                                .entrySet())
+                        .concatMap(group -> release(group.getKey(), group.getValue()))
+                        .then(Mono.just(releases.size())));
+    }
+
+    // Empty when another instance claimed the entry first
+    private Mono<OutboxEntry> claim(OutboxEntry entry) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(entry.getId())
+                        .and("status").is(entry.getStatus())
+                        .and("nextAttemptAt").is(entry.getNextAttemptAt())),
+                new Update()
+                        .set("status", OutboxStatus.PENDING)
+                        .set("nextAttemptAt", Instant.now().plus(properties.getClaimTimeout()))
+                        .inc("attempts", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                OutboxEntry.class);
+    }
+
+    // Works out from the booking's current state what is left to undo
+    private Mono<Release> resolve(OutboxEntry entry) {
+        return bookingRepository.findByPnr(entry.getPnr())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> {
+                    Booking booking = found.orElse(null);
+                    boolean confirmed = booking != null && booking.getStatus() == BookingStatus.CONFIRMED;
+                    if (confirmed && entry.getType() == SagaType.CANCEL_BOOKING) {
+                        // the cancellation was never persisted, so the seats still belong to the booking
+                        return Mono.just(new Release(entry, List.of(), SagaStep.ABORTED));
+                    }
+                    if (confirmed) {
+                        return ticketRepository.findByPnr(entry.getPnr())
+                                .hasElement()
+                                .flatMap(issued -> issued
+                                        ? Mono.just(new Release(entry, List.of(), SagaStep.COMPLETED))
+                                        : retire(booking).then(unheldSeats(entry)));
+                    }
+                    return cancelTicket(entry.getPnr()).then(unheldSeats(entry));
+                });
+    }
+
+    // A booking saved without its ticket never reached the customer
+    private Mono<Void> retire(Booking booking) {
+        booking.setStatus(BookingStatus.CANCELLED);
+        return bookingRepository.save(booking).then();
+    }
+
+    private Mono<Void> cancelTicket(String pnr) {
+        return ticketRepository.findByPnr(pnr)
+                .filter(ticket -> ticket.getStatus() != TicketStatus.CANCELLED)
+                .flatMap(ticket -> {
+                    ticket.cancel();
+                    return ticketRepository.save(ticket);
+                })
+                .then();
+    }
+
+    // The entry's seats minus those a confirmed booking or a running saga on the same schedule holds
+    private Mono<Release> unheldSeats(OutboxEntry entry) {
+        Query bookings = Query.query(Criteria.where("scheduleIds").is(entry.getScheduleId())
+                .and("status").is(BookingStatus.CONFIRMED)
+                .and("pnr").ne(entry.getPnr())
+                .orOperator(Criteria.where("passengers.seatNumber").in(entry.getSeats()),
+                        Criteria.where("passengers.connectingSeatNumbers").in(entry.getSeats())));
+        bookings.fields().include("scheduleIds").include("passengers");
+        Query sagas = Query.query(Criteria.where("scheduleId").is(entry.getScheduleId())
+                .and("type").is(SagaType.CREATE_BOOKING)
+                .and("status").is(OutboxStatus.ARMED)
+                .and("seats").in(entry.getSeats())
+                .and("id").ne(entry.getId()));
+
+        return Flux.merge(
+                        mongoTemplate.find(bookings, Booking.class)
+                                .flatMapIterable(booking -> seatsOnSchedule(booking, entry.getScheduleId())),
+                        mongoTemplate.find(sagas, OutboxEntry.class)
+                                .flatMapIterable(OutboxEntry::getSeats))
+                .collect(Collectors.toSet())
+                .map(held -> new Release(entry, entry.getSeats().stream().filter(seat -> !held.contains(seat)).toList(),
+                        SagaStep.COMPENSATED));
+    }
+
+    // The seats a booking holds on one of its legs: a seat number taken on another leg holds nothing here
+    private static List<String> seatsOnSchedule(Booking booking, String scheduleId) {
+        int leg = booking.getScheduleIds().indexOf(scheduleId);
+        if (leg >= booking.seatedLegs()) {
+            return List.of();
+        }
+        return booking.getPassengers().stream()
+                .map(passenger -> passenger.seatOnLeg(leg))
+                .toList();
+    }
+
+    private Mono<Void> release(String scheduleId, List<Release> releases) {
+        List<String> seats = releases.stream().flatMap(release -> release.seats().stream()).distinct().toList();
+        if (seats.isEmpty()) {
+            return Flux.fromIterable(releases).concatMap(this::done).then();
+        }
+        return flightServiceClient.releaseSeats(scheduleId, seats)
+                .then(Flux.fromIterable(releases).concatMap(this::done).then())
+                .onErrorResume(e -> {
+                    // flight-service releases all seats or none, so one seat that was never locked fails the
+                    // whole call; find it by releasing entry by entry
+                    if (BookingSaga.isRejected(e) && releases.size() > 1) {
+                        return Flux.fromIterable(releases)
+                                .concatMap(release -> release(scheduleId, List.of(release)))
+                                .then();
+                    }
+                    if (BookingSaga.isRejected(e) && lockMayStillLand(releases.get(0).entry())) {
+                        // a lock whose outcome is unknown may not have reached flight-service yet; releasing
+                        // again once it has is the only way to be sure its seats do not stay locked
+                        return retryLater(releases.get(0).entry(), e);
+                    }
+                    if (BookingSaga.isRejected(e)) {
+                        // nothing of this entry is locked any more, e.g. its lock never went through
+                        return done(new Release(releases.get(0).entry(), List.of(), SagaStep.COMPENSATED));
+                    }
+                    return Flux.fromIterable(releases).concatMap(release -> retryLater(release.entry(), e)).then();
+                });
+    }
+
+    // A booking's lock that failed without flight-service rejecting it (a timeout, a 5xx) and is recent enough
+    // to still be in flight
+    private boolean lockMayStillLand(OutboxEntry entry) {
+        return entry.getType() == SagaType.CREATE_BOOKING
+                && entry.getStep() == SagaStep.STARTED
+                && entry.getCreatedAt() != null
+                && entry.getCreatedAt().plus(properties.getLockSettleTime()).isAfter(Instant.now());
+    }
+
+    private Mono<Void> done(Release release) {
+        (release.seats().isEmpty() ? discarded : released).increment();
+        return mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(release.entry().getId())),
+                        new Update()
+                                .set("status", OutboxStatus.DONE)
+                                .set("step", release.step())
+                                .set("completedAt", Instant.now()),
+                        OutboxEntry.class)
+                .then();
+    }
+
+    private Mono<Void> retryLater(OutboxEntry entry, Throwable cause) {
+        log.warn("Compensation for booking {} failed on attempt {}, retrying: {}", entry.getPnr(), entry.getAttempts(),
+                cause.toString());
+        retried.increment();
+        return mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(entry.getId()).and("status").is(OutboxStatus.PENDING)),
+                        new Update()
+                                .set("nextAttemptAt", Instant.now().plus(backoff(entry.getAttempts())))
+                                .set("lastError", cause.toString()),
+                        OutboxEntry.class)
+                .then()
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return backoff.compareTo(properties.getMaxRetryBackoff()) > 0 ? properties.getMaxRetryBackoff() : backoff;
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("booking.saga.compensations")
+                .description("Outbox entries handled by the relay, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Release(OutboxEntry entry, List<String> seats, SagaStep step) {
+    }
+}
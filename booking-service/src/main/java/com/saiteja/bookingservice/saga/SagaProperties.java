@@ -0,0 +1,30 @@
+package com.saiteja.bookingservice.saga;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "booking.saga")
+public class SagaProperties {
+
+    // How long a saga may run before the relay treats it as abandoned, e.g. by a crashed instance
+    private Duration lease = Duration.ofMinutes(2);
+
+    // How often the relay polls for due compensations (read by @Scheduled)
+    private Duration relayInterval = Duration.ofSeconds(5);
+
+    private int batchSize = 100;
+
+    // How long a relay instance owns an entry it picked up before another instance may retry it
+    private Duration claimTimeout = Duration.ofMinutes(1);
+
+    // A lock that timed out may still land on flight-service this long after the saga started, so until
+    // then a release flight-service rejects is retried rather than taken as nothing being locked
+    private Duration lockSettleTime = Duration.ofMinutes(1);
+
+    // Retry backoff doubles per failed attempt up to the maximum
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+}
@@ -1,18 +1,21 @@
 package com.saiteja.bookingservice.service;
 
+import com.saiteja.bookingservice.dto.PageResponse;
 import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
 import com.saiteja.bookingservice.dto.booking.BookingResponse;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface BookingService {
 
     Mono<TicketResponse> createBooking(BookingCreateRequest request);
 
+    // Replays of the same idempotency key return the first response instead of booking again
+    Mono<TicketResponse> createBooking(BookingCreateRequest request, String idempotencyKey);
+
     Mono<BookingResponse> getBookingByPnr(String pnr);
 
-    Flux<BookingResponse> getBookingsByEmail(String email);
+    Mono<PageResponse<BookingResponse>> getBookingHistory(String email, String cursor, int limit, String fields);
 
     Mono<String> cancelBooking(String pnr);
 }
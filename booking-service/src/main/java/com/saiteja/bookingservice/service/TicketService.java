@@ -1,12 +1,19 @@
 package com.saiteja.bookingservice.service;
 
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.model.Booking;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface TicketService {
 
     Mono<TicketResponse> generateTicket(String bookingId);
 
+    // Persists a new booking (its id already assigned) together with the ticket built from it, closing the
+    // booking saga's outbox entries in the same write
+    Mono<TicketResponse> issueTicket(Booking booking, List<String> outboxEntryIds);
+
     Mono<TicketResponse> getTicketByPnr(String pnr);
 }
 
@@ -1,5 +1,8 @@
 package com.saiteja.bookingservice.service.impl;
 
+import com.saiteja.bookingservice.auth.PasswordHasher;
+import com.saiteja.bookingservice.auth.TokenIssuer;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
 import com.saiteja.bookingservice.dto.auth.AuthResponse;
 import com.saiteja.bookingservice.dto.auth.UserLoginRequest;
 import com.saiteja.bookingservice.dto.auth.UserRegisterRequest;
@@ -11,7 +14,6 @@ import com.saiteja.bookingservice.model.enums.UserRole;
 import com.saiteja.bookingservice.repository.UserRepository;
 import com.saiteja.bookingservice.service.AuthService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -20,23 +22,26 @@ import reactor.core.publisher.Mono;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-
-    private static final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
+    private final TokenIssuer tokenIssuer;
 
     @Override
     public Mono<AuthResponse> register(UserRegisterRequest request) {
 
-        return userRepository.existsByEmail(request.getEmail())
+        return RequestDeadline.within(userRepository.existsByEmail(request.getEmail()))
                 .flatMap(exists -> {
                     if (exists)
                         throw new DuplicateResourceException("Email already registered");
 
-                    User user = new User();
-                    user.setEmail(request.getEmail().trim());
-                    user.setPassword(encoder.encode(request.getPassword()));
-                    user.setRole(UserRole.USER);
+                    return passwordHasher.encode(request.getPassword())
+                            .flatMap(hash -> {
+                                User user = new User();
+                                user.setEmail(request.getEmail().trim());
+                                user.setPassword(hash);
+                                user.setRole(UserRole.USER);
 
-                    return userRepository.save(user)
+                                return RequestDeadline.within(userRepository.save(user));
+                            })
                             .map(saved -> AuthResponse.builder()
                                     .message("Registration successful")
                                     .email(saved.getEmail())
@@ -48,20 +53,23 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public Mono<AuthResponse> login(UserLoginRequest request) {
 
-        return userRepository.findByEmail(request.getEmail())
+        return RequestDeadline.within(userRepository.findByEmail(request.getEmail()))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found")))
-                .flatMap(user -> {
-                    if (!encoder.matches(request.getPassword(), user.getPassword())) {
-                        return Mono.error(new BadRequestException("Invalid credentials"));
-                    }
+                .flatMap(user -> passwordHasher.matches(request.getPassword(), user.getPassword())
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                return Mono.error(new BadRequestException("Invalid credentials"));
+                            }
 
-                    return Mono.just(AuthResponse.builder()
-                            .message("Login successful")
-                            .email(user.getEmail())
-                            .role(user.getRole().name())
-                            .build());
-                });
+                            TokenIssuer.AccessToken token = tokenIssuer.issue(user);
+                            return Mono.just(AuthResponse.builder()
+                                    .message("Login successful")
+                                    .email(user.getEmail())
+                                    .role(user.getRole().name())
+                                    .accessToken(token.value())
+                                    .tokenType("Bearer")
+                                    .expiresIn(token.expiresIn().toSeconds())
+                                    .build());
+                        }));
     }
 }
-
-
@@ -1,36 +1,48 @@
 package com.saiteja.bookingservice.service.impl;
 
-import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.LegSeats;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.dto.PageResponse;
 import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
 import com.saiteja.bookingservice.dto.booking.BookingResponse;
+import com.saiteja.bookingservice.dto.passenger.PassengerRequest;
 import com.saiteja.bookingservice.dto.passenger.PassengerResponse;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
 import com.saiteja.bookingservice.exception.BadRequestException;
 import com.saiteja.bookingservice.exception.ResourceNotFoundException;
+import com.saiteja.bookingservice.idempotency.IdempotencyService;
 import com.saiteja.bookingservice.model.Booking;
 import com.saiteja.bookingservice.model.Passenger;
 import com.saiteja.bookingservice.model.enums.BookingStatus;
-import com.saiteja.bookingservice.model.enums.TicketStatus;
+import com.saiteja.bookingservice.pagination.Pagination;
+import com.saiteja.bookingservice.pnr.PnrGenerator;
 import com.saiteja.bookingservice.repository.BookingRepository;
 import com.saiteja.bookingservice.repository.TicketRepository;
+import com.saiteja.bookingservice.saga.BookingSaga;
 import com.saiteja.bookingservice.service.BookingService;
 import com.saiteja.bookingservice.service.TicketService;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    static final Set<String> BOOKING_FIELDS = Set.of("pnr", "contactEmail", "scheduleIds", "passengers", "status", "createdAt");
+
     private final BookingRepository bookingRepository;
     private final TicketService ticketService;
     private final TicketRepository ticketRepository;
-    private final FlightServiceClient flightServiceClient;
+    private final IdempotencyService idempotencyService;
+    private final BookingSaga bookingSaga;
+    private final PnrGenerator pnrGenerator;
 
     @Override
     public Mono<TicketResponse> createBooking(BookingCreateRequest request) {
@@ -39,53 +51,77 @@ public class BookingServiceImpl implements BookingService {
             return Mono.error(new BadRequestException("At least one schedule id is required"));
         }
 
-        return validateAndLockSeats(request)
-                .then(Mono.defer(() -> {
-                    String pnr = generatePNR();
+        if (request.getPassengers().isEmpty()) {
+            return Mono.error(new BadRequestException("At least one passenger is required"));
+        }
+
+        List<String> scheduleIds = request.getScheduleIds();
+        if (scheduleIds.stream().distinct().count() != scheduleIds.size()) {
+            return Mono.error(new BadRequestException("Each schedule can appear only once in an itinerary"));
+        }
+        if (request.getPassengers().stream().anyMatch(p -> connectingSeats(p).size() != scheduleIds.size() - 1)) {
+            return Mono.error(new BadRequestException("Each passenger needs one connecting seat per leg after the first"));
+        }
+        if (request.getHoldToken() != null && scheduleIds.size() > 1) {
+            return Mono.error(new BadRequestException("A seat hold covers a single leg"));
+        }
+
+        List<Passenger> passengers = mapPassengers(request);
+        List<LegSeats> legs = IntStream.range(0, scheduleIds.size())
+                .mapToObj(leg -> new LegSeats(scheduleIds.get(leg), seatsOnLeg(passengers, leg),
+                        leg == 0 ? request.getHoldToken() : null))
+                .toList();
 
+        return RequestDeadline.within(pnrGenerator.next())
+                .flatMap(pnr -> bookingSaga.book(pnr, legs, outboxEntryIds -> {
+                    // the id is assigned here so the ticket can reference it before either is written;
+                    // auditing then treats the booking as existing and leaves createdAt to us
                     Booking booking = Booking.builder()
+                            .id(new ObjectId().toHexString())
                             .pnr(pnr)
                             .contactEmail(request.getContactEmail())
                             .scheduleIds(request.getScheduleIds())
-                            .passengers(mapPassengers(request))
+                            .passengers(passengers)
                             .status(BookingStatus.CONFIRMED)
+                            .createdAt(LocalDateTime.now())
                             .build();
 
-                    return bookingRepository.save(booking)
-                            .flatMap(savedBooking -> ticketService.generateTicket(savedBooking.getId()));
+                    return ticketService.issueTicket(booking, outboxEntryIds);
                 }));
     }
 
-    private Mono<Void> validateAndLockSeats(BookingCreateRequest request) {
-        String scheduleId = request.getScheduleIds().get(0);
-        List<String> seatNumbers = request.getPassengers().stream()
-                .map(p -> p.getSeatNumber())
-                .toList();
-
-        if (seatNumbers.isEmpty()) {
-            return Mono.error(new BadRequestException("At least one passenger is required"));
-        }
-
-        return flightServiceClient.lockSeats(scheduleId, seatNumbers);
+    @Override
+    public Mono<TicketResponse> createBooking(BookingCreateRequest request, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, IdempotencyService.hash(request), () -> createBooking(request));
     }
 
     @Override
     public Mono<BookingResponse> getBookingByPnr(String pnr) {
-        return bookingRepository.findByPnr(pnr)
+        return RequestDeadline.within(bookingRepository.findByPnr(pnr))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Booking not found")))
                 .map(this::toResponse);
     }
 
     @Override
-    public Flux<BookingResponse> getBookingsByEmail(String email) {
-        return bookingRepository.findByContactEmail(email)
-                .map(this::toResponse);
+    public Mono<PageResponse<BookingResponse>> getBookingHistory(String email, String cursor, int limit, String fields) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            Set<String> selected = Pagination.selectFields(fields, BOOKING_FIELDS);
+            String[] before = Pagination.decodeCursor(cursor, 1);
+
+            return bookingRepository.findPageByContactEmail(email, before == null ? null : Pagination.objectId(before[0]),
+                            limit + 1, selected)
+                    .collectList()
+                    .map(bookings -> Pagination.page(bookings, limit,
+                            booking -> Pagination.encodeCursor(booking.getId()),
+                            booking -> selected.isEmpty() ? toResponse(booking) : toPageItem(booking)));
+        });
     }
 
     @Override
     public Mono<String> cancelBooking(String pnr) {
 
-        return bookingRepository.findByPnr(pnr)
+        return RequestDeadline.within(bookingRepository.findByPnr(pnr))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Booking not found")))
                 .flatMap(booking -> {
 
@@ -94,22 +130,21 @@ public class BookingServiceImpl implements BookingService {
 
                     booking.setStatus(BookingStatus.CANCELLED);
 
-                    List<String> seatNumbers = booking.getPassengers().stream()
-                            .map(Passenger::getSeatNumber)
+                    List<LegSeats> legs = IntStream.range(0, booking.seatedLegs())
+                            .mapToObj(leg -> new LegSeats(booking.getScheduleIds().get(leg),
+                                    seatsOnLeg(booking.getPassengers(), leg)))
                             .toList();
 
-                    Mono<Void> restoreSeats = flightServiceClient.releaseSeats(booking.getScheduleIds().get(0), seatNumbers);
-
-                    Mono<Void> cancelTicket = ticketRepository.findByPnr(pnr)
+                    Mono<Void> cancelTicket = RequestDeadline.within(ticketRepository.findByPnr(pnr))
                             .flatMap(ticket -> {
-                                ticket.setStatus(TicketStatus.CANCELLED);
-                                return ticketRepository.save(ticket).then();
+                                ticket.cancel();
+                                return RequestDeadline.within(ticketRepository.save(ticket)).then();
                             })
                             .onErrorResume(e -> Mono.empty());
 
-                    return restoreSeats
-                            .then(cancelTicket)
-                            .then(bookingRepository.save(booking))
+                    // the cancellation is persisted before the seats go back on sale
+                    return bookingSaga.cancel(pnr, legs,
+                                    RequestDeadline.within(bookingRepository.save(booking)).then(cancelTicket))
                             .thenReturn("Booking and Ticket Cancelled");
                 });
     }
@@ -122,34 +157,56 @@ public class BookingServiceImpl implements BookingService {
                         .age(p.getAge())
                         .mealOption(p.getMealOption())
                         .seatNumber(p.getSeatNumber())
+                        .connectingSeatNumbers(p.getConnectingSeatNumbers())
                         .build())
                 .toList();
     }
 
+    private static List<String> connectingSeats(PassengerRequest passenger) {
+        return passenger.getConnectingSeatNumbers() == null ? List.of() : passenger.getConnectingSeatNumbers();
+    }
+
+    private static List<String> seatsOnLeg(List<Passenger> passengers, int leg) {
+        return passengers.stream()
+                .map(passenger -> passenger.seatOnLeg(leg))
+                .toList();
+    }
+
     private BookingResponse toResponse(Booking booking) {
-        List<PassengerResponse> passengers = booking.getPassengers().stream()
+        return BookingResponse.builder()
+                .pnr(booking.getPnr())
+                .contactEmail(booking.getContactEmail())
+                .scheduleIds(booking.getScheduleIds())
+                .passengers(toPassengerResponses(booking.getPassengers()))
+                .status(booking.getStatus().name())
+                .createdAt(booking.getCreatedAt())
+                .build();
+    }
+
+    private List<PassengerResponse> toPassengerResponses(List<Passenger> passengers) {
+        return passengers.stream()
                 .map(p -> PassengerResponse.builder()
                         .fullName(p.getFullName())
                         .gender(p.getGender())
                         .age(p.getAge())
                         .seatNumber(p.getSeatNumber())
+                        .connectingSeatNumbers(p.getConnectingSeatNumbers())
                         .mealOption(p.getMealOption())
                         .build())
                 .toList();
+    }
 
+    // projected bookings can miss any field, so nothing here may assume one is set
+    private BookingResponse toPageItem(Booking booking) {
         return BookingResponse.builder()
                 .pnr(booking.getPnr())
                 .contactEmail(booking.getContactEmail())
                 .scheduleIds(booking.getScheduleIds())
-                .passengers(passengers)
-                .status(booking.getStatus().name())
+                .passengers(booking.getPassengers() == null ? null : toPassengerResponses(booking.getPassengers()))
+                .status(booking.getStatus() == null ? null : booking.getStatus().name())
                 .createdAt(booking.getCreatedAt())
                 .build();
     }
-
-    private String generatePNR() {
-        return UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-    }
 }
 
 
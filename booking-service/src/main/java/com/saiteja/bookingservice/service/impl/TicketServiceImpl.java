@@ -1,8 +1,12 @@
 package com.saiteja.bookingservice.service.impl;
 
+import com.saiteja.bookingservice.deadline.RequestDeadline;
 import com.saiteja.bookingservice.dto.passenger.PassengerResponse;
+import com.saiteja.bookingservice.dto.ticket.CouponResponse;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
 import com.saiteja.bookingservice.exception.ResourceNotFoundException;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.Coupon;
 import com.saiteja.bookingservice.model.Ticket;
 import com.saiteja.bookingservice.model.enums.TicketStatus;
 import com.saiteja.bookingservice.repository.BookingRepository;
@@ -13,6 +17,8 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,31 +30,45 @@ public class TicketServiceImpl implements TicketService {
     @Override
     public Mono<TicketResponse> generateTicket(String bookingId) {
 
-        return bookingRepository.findById(bookingId)
+        return RequestDeadline.within(bookingRepository.findById(bookingId))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Booking not found")))
-                .flatMap(booking -> {
-
-                    Ticket ticket = Ticket.builder()
-                            .pnr(booking.getPnr())
-                            .bookingId(booking.getId())
-                            .scheduleId(booking.getScheduleIds().get(0))
-                            .passengers(booking.getPassengers())
-                            .issuedAt(LocalDateTime.now())
-                            .build();
+                .flatMap(booking -> RequestDeadline.within(ticketRepository.save(toTicket(booking))))
+                .map(this::toResponse);
+    }
 
-                    return ticketRepository.save(ticket)
-                            .map(this::toResponse);
-                });
+    @Override
+    public Mono<TicketResponse> issueTicket(Booking booking, List<String> outboxEntryIds) {
+        return RequestDeadline.within(bookingRepository.insertWithTicket(booking, toTicket(booking), outboxEntryIds))
+                .map(this::toResponse);
     }
 
     @Override
     public Mono<TicketResponse> getTicketByPnr(String pnr) {
-        return ticketRepository.findByPnr(pnr)
+        return RequestDeadline.within(ticketRepository.findByPnr(pnr))
                 .filter(ticket -> ticket.getStatus() != TicketStatus.CANCELLED)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Ticket not found")))
                 .map(this::toResponse);
     }
 
+    private Ticket toTicket(Booking booking) {
+        return Ticket.builder()
+                .pnr(booking.getPnr())
+                .bookingId(booking.getId())
+                .scheduleId(booking.getScheduleIds().get(0))
+                .coupons(IntStream.range(0, booking.seatedLegs())
+                        .mapToObj(leg -> Coupon.builder()
+                                .scheduleId(booking.getScheduleIds().get(leg))
+                                .seatNumbers(booking.getPassengers().stream()
+                                        .map(passenger -> passenger.seatOnLeg(leg))
+                                        .toList())
+                                .status(TicketStatus.ACTIVE)
+                                .build())
+                        .toList())
+                .passengers(booking.getPassengers())
+                .issuedAt(LocalDateTime.now())
+                .build();
+    }
+
     private TicketResponse toResponse(Ticket ticket) {
         return TicketResponse.builder()
                 .pnr(ticket.getPnr())
@@ -61,10 +81,19 @@ public class TicketServiceImpl implements TicketService {
                                         .gender(p.getGender())
                                         .age(p.getAge())
                                         .seatNumber(p.getSeatNumber())
+                                        .connectingSeatNumbers(p.getConnectingSeatNumbers())
                                         .mealOption(p.getMealOption())
                                         .build())
                                 .toList()
                 )
+                // tickets issued before coupons existed have none
+                .coupons(ticket.getCoupons() == null ? null : ticket.getCoupons().stream()
+                        .map(coupon -> CouponResponse.builder()
+                                .scheduleId(coupon.getScheduleId())
+                                .seatNumbers(coupon.getSeatNumbers())
+                                .status(coupon.getStatus().name())
+                                .build())
+                        .toList())
                 .issuedAt(ticket.getIssuedAt())
                 .createdAt(ticket.getCreatedAt())
                 .updatedAt(ticket.getUpdatedAt())
@@ -0,0 +1,81 @@
+package com.saiteja.bookingservice.auth;
+
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setMaxQueued(1);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.destroy();
+    }
+
+    @Test
+    void encode_shouldHashOnHashingPoolAndMatchAfterwards() {
+        // Given
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        // When
+        String hash = passwordHasher.encode("password123")
+                .doOnNext(encoded -> threads.add(Thread.currentThread().getName()))
+                .block();
+
+        // Then
+        assertThat(hash).startsWith("$2a$10$");
+        assertThat(threads).singleElement().asString().startsWith("password-hasher");
+        StepVerifier.create(passwordHasher.matches("password123", hash))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(passwordHasher.matches("wrongpassword", hash))
+                .expectNext(false)
+                .verifyComplete();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void offload_shouldRejectAtOnce_whenPoolAndQueueAreFull() {
+        // Given one hash running and one queued
+        Mono<String> running = passwordHasher.encode("first").cache();
+        Mono<String> queued = passwordHasher.encode("second").cache();
+        running.subscribe();
+        queued.subscribe();
+
+        // When & Then
+        StepVerifier.create(passwordHasher.encode("third"))
+                .expectErrorMatches(throwable -> throwable instanceof ServiceUnavailableException)
+                .verify();
+        assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+        // the first hash may not have reached a worker yet, so only the total admitted is fixed
+        assertThat(meterRegistry.get("auth.password.hash.queued").gauge().value()
+                + meterRegistry.get("auth.password.hash.active").gauge().value()).isLessThanOrEqualTo(2);
+
+        // and admits again once the backlog drained
+        Mono.when(running, queued).block();
+        StepVerifier.create(passwordHasher.encode("fourth"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
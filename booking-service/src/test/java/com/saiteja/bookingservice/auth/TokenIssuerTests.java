@@ -0,0 +1,70 @@
+package com.saiteja.bookingservice.auth;
+
+import com.saiteja.bookingservice.model.User;
+import com.saiteja.bookingservice.model.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenIssuerTests {
+
+    static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private static TokenProperties properties() {
+        TokenProperties properties = new TokenProperties();
+        properties.setSecret(SECRET);
+        return properties;
+    }
+
+    @Test
+    void issue_shouldSignClaimsWithSharedKey() throws Exception {
+        // Given
+        User user = new User();
+        user.setId("user123");
+        user.setEmail("test@example.com");
+        user.setRole(UserRole.USER);
+
+        // When
+        TokenIssuer.AccessToken token = new TokenIssuer(properties()).issue(user);
+
+        // Then
+        String[] parts = token.value().split("\\.");
+        assertThat(parts).hasSize(3);
+        assertThat(parts[0]).isEqualTo("k1");
+        assertThat(token.expiresIn()).isEqualTo(Duration.ofMinutes(15));
+
+        Mac mac = Mac.getInstance(TokenIssuer.ALGORITHM);
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), TokenIssuer.ALGORITHM));
+        byte[] expected = mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+        assertThat(Base64.getUrlDecoder().decode(parts[2])).isEqualTo(expected);
+
+        String[] claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).split("\n");
+        assertThat(claims).hasSize(4);
+        assertThat(claims[0]).isEqualTo("user123");
+        assertThat(claims[1]).isEqualTo("USER");
+        assertThat(Long.parseLong(claims[2])).isCloseTo(Instant.now().plusSeconds(900).getEpochSecond(), within(5L));
+        assertThat(claims[3]).isEqualTo("test@example.com");
+    }
+
+    @Test
+    void constructor_shouldRejectMissingOrShortKey() {
+        TokenProperties missing = new TokenProperties();
+        assertThatThrownBy(() -> new TokenIssuer(missing))
+                .isInstanceOf(IllegalStateException.class);
+
+        TokenProperties tooShort = new TokenProperties();
+        tooShort.setSecret(Base64.getEncoder().encodeToString(new byte[16]));
+        assertThatThrownBy(() -> new TokenIssuer(tooShort))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least 32 bytes");
+    }
+}
@@ -0,0 +1,142 @@
+package com.saiteja.bookingservice.benchmark;
+
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.LegSeats;
+import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
+import com.saiteja.bookingservice.dto.passenger.PassengerRequest;
+import com.saiteja.bookingservice.index.MongoIndexManager;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.Passenger;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.model.enums.Gender;
+import com.saiteja.bookingservice.model.enums.MealOption;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.pnr.PnrGenerator;
+import com.saiteja.bookingservice.pnr.PnrProperties;
+import com.saiteja.bookingservice.repository.BookingRepository;
+import com.saiteja.bookingservice.repository.BookingRepositoryCustomImpl;
+import com.saiteja.bookingservice.repository.TicketRepository;
+import com.saiteja.bookingservice.saga.BookingSaga;
+import com.saiteja.bookingservice.saga.SagaProperties;
+import com.saiteja.bookingservice.service.impl.BookingServiceImpl;
+import com.saiteja.bookingservice.service.impl.TicketServiceImpl;
+import com.saiteja.bookingservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end booking throughput through the saga, PNR generator and Mongo, with flight-service
+ * answering seat locks in memory: the previous commit path (save booking, read it back, save ticket, close
+ * the outbox entry) against the single write of booking, ticket and outbox close, sequentially and with {@link #CONCURRENCY} bookings in flight.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=BookingCommitBenchmark}.
+ */
+class BookingCommitBenchmark {
+
+    private static final int BOOKINGS = 5_000;
+    private static final int CONCURRENCY = 64;
+
+    private static EmbeddedMongo mongo;
+    private static BookingRepository bookingRepository;
+    private static TicketServiceImpl ticketService;
+    private static BookingSaga bookingSaga;
+    private static PnrGenerator pnrGenerator;
+    private static BookingServiceImpl bookingService;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("booking_commit_benchmark");
+        MongoMappingContext mappingContext = (MongoMappingContext) mongo.template().getConverter().getMappingContext();
+        mappingContext.getPersistentEntity(Booking.class);
+        mappingContext.getPersistentEntity(Ticket.class);
+        new MongoIndexManager(mongo.template(), mappingContext).createIndexes().block();
+
+        bookingRepository = mongo.repository(BookingRepository.class, new BookingRepositoryCustomImpl(mongo.template(), mongo.client()));
+        TicketRepository ticketRepository = mongo.repository(TicketRepository.class);
+        FlightServiceClient flightServiceClient = mock(FlightServiceClient.class);
+        when(flightServiceClient.lockSeats(anyList())).thenReturn(Mono.empty());
+
+        ticketService = new TicketServiceImpl(ticketRepository, bookingRepository);
+        bookingSaga = new BookingSaga(mongo.template(), flightServiceClient, new SagaProperties());
+        pnrGenerator = new PnrGenerator(mongo.template(), new PnrProperties(), new SimpleMeterRegistry());
+        bookingService = new BookingServiceImpl(bookingRepository, ticketService, ticketRepository, null,
+                bookingSaga, pnrGenerator);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void bookingThroughput() {
+        // first round of each warms up the driver and the JIT
+        double[] legacy = new double[2];
+        double[] singleWrite = new double[2];
+        for (int round = 0; round < 2; round++) {
+            legacy[0] = run(BookingCommitBenchmark::legacyCommit, 1);
+            singleWrite[0] = run(() -> bookingService.createBooking(request()).then(), 1);
+            legacy[1] = run(BookingCommitBenchmark::legacyCommit, CONCURRENCY);
+            singleWrite[1] = run(() -> bookingService.createBooking(request()).then(), CONCURRENCY);
+        }
+        System.out.printf("[sequential ] read-back %8.0f bookings/s | single write %8.0f bookings/s%n", legacy[0], singleWrite[0]);
+        System.out.printf("[%2d in flight] read-back %8.0f bookings/s | single write %8.0f bookings/s%n",
+                CONCURRENCY, legacy[1], singleWrite[1]);
+
+        assertThat(singleWrite[0]).isGreaterThan(legacy[0]);
+    }
+
+    // The commit path this replaced, run inside the same saga
+    private static Mono<Void> legacyCommit() {
+        return pnrGenerator.next()
+                .flatMap(pnr -> bookingSaga.book(pnr, List.of(new LegSeats("schedule1", List.of("1A"))), outboxEntryIds -> bookingRepository.save(Booking.builder()
+                                .pnr(pnr)
+                                .contactEmail("load@example.com")
+                                .scheduleIds(List.of("schedule1"))
+                                .passengers(List.of(Passenger.builder().fullName("Load Test").seatNumber("1A").build()))
+                                .status(BookingStatus.CONFIRMED)
+                                .build())
+                        .flatMap(saved -> ticketService.generateTicket(saved.getId()))
+                        // followed by the saga's own write closing its outbox entry
+                        .flatMap(ticket -> mongo.template().updateMulti(BookingSaga.armed(outboxEntryIds),
+                                BookingSaga.closed(SagaStep.COMPLETED), OutboxEntry.class).thenReturn(ticket))))
+                .then();
+    }
+
+    private static double run(Supplier<Mono<Void>> booking, int concurrency) {
+        long started = System.nanoTime();
+        Flux.range(0, BOOKINGS)
+                .flatMap(i -> booking.get(), concurrency)
+                .blockLast();
+        return BOOKINGS / ((System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    private static BookingCreateRequest request() {
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setFullName("Load Test");
+        passenger.setGender(Gender.FEMALE);
+        passenger.setAge(34);
+        passenger.setSeatNumber("1A");
+        passenger.setMealOption(MealOption.VEG);
+
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setContactEmail("load@example.com");
+        request.setScheduleIds(List.of("schedule1"));
+        request.setPassengers(List.of(passenger));
+        return request;
+    }
+}
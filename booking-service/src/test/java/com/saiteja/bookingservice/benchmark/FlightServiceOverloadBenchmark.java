@@ -0,0 +1,185 @@
+package com.saiteja.bookingservice.benchmark;
+
+import com.saiteja.bookingservice.client.AdaptiveConcurrencyLimiter;
+import com.saiteja.bookingservice.client.ConcurrencyLimitExceededException;
+import com.saiteja.bookingservice.client.ConcurrencyLimitProperties;
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.FlightServiceClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seat locks against a local flight-service stub with {@link #STUB_WORKERS} workers, sent at a steady
+ * {@link #CALLS_PER_SECOND} per second through three phases: healthy, degraded (every lock takes
+ * {@link #DEGRADED_LATENCY} as during a Mongo election, far below the offered load) and healthy again.
+ * Without a limit, locks queue up while degraded and that backlog keeps latency high well into the
+ * recovery; with the adaptive limit the excess is refused at once and latency recovers with the stub.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=FlightServiceOverloadBenchmark}.
+ */
+class FlightServiceOverloadBenchmark {
+
+    private static final int STUB_WORKERS = 4;
+    private static final int CALLS_PER_SECOND = 150;
+    private static final Duration HEALTHY_LATENCY = Duration.ofMillis(5);
+    private static final Duration DEGRADED_LATENCY = Duration.ofMillis(100);
+    private static final Duration PHASE = Duration.ofSeconds(4);
+
+    private static final AtomicInteger stubLatencyMillis = new AtomicInteger();
+    private static Scheduler stubWorkers;
+    private static DisposableServer flightService;
+
+    @BeforeAll
+    static void startStub() {
+        stubWorkers = Schedulers.newBoundedElastic(STUB_WORKERS, Integer.MAX_VALUE, "flight-stub");
+        flightService = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/api/v1.0/flight/admin/internal/schedules/{id}/lock-seats",
+                        (request, response) -> request.receive().then(Mono.fromRunnable(() -> sleep(stubLatencyMillis.get()))
+                                        .subscribeOn(stubWorkers))
+                                .then(response.send())))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        flightService.disposeNow();
+        stubWorkers.dispose();
+    }
+
+    @Test
+    void latencyRecoveryAfterSlowdown() {
+        ConcurrencyLimitProperties unbounded = new ConcurrencyLimitProperties();
+        unbounded.setInitialLimit(100_000);
+        unbounded.setMinLimit(100_000);
+        unbounded.setMaxLimit(100_000);
+
+        Phases unlimited = run("unlimited", unbounded);
+        Phases adaptive = run("adaptive", new ConcurrencyLimitProperties());
+
+        assertThat(adaptive.recovered().p99()).isLessThan(unlimited.recovered().p99());
+        assertThat(adaptive.degraded().p99()).isLessThan(unlimited.degraded().p99());
+    }
+
+    private static Phases run(String mode, ConcurrencyLimitProperties limits) {
+        FlightServiceClientProperties properties = new FlightServiceClientProperties();
+        properties.setBaseUrl("http://localhost:" + flightService.port());
+        properties.setMaxConnections(1_000);
+        properties.setPendingAcquireMaxCount(-1);
+        properties.setPendingAcquireTimeout(Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limits, new SimpleMeterRegistry());
+        FlightServiceClient client = new FlightServiceClient(WebClient.builder(), properties, limiter);
+        try {
+            // warm up connections and the limiter's no-load latency
+            stubLatencyMillis.set((int) HEALTHY_LATENCY.toMillis());
+            offer(client, Duration.ofSeconds(1));
+
+            // one continuous run, so whatever backlog the slowdown leaves spills into the recovery
+            Disposable slowdown = Schedulers.parallel().schedule(
+                    () -> stubLatencyMillis.set((int) DEGRADED_LATENCY.toMillis()), PHASE.toMillis(), TimeUnit.MILLISECONDS);
+            Disposable recovery = Schedulers.parallel().schedule(
+                    () -> stubLatencyMillis.set((int) HEALTHY_LATENCY.toMillis()), 2 * PHASE.toMillis(), TimeUnit.MILLISECONDS);
+            List<Outcome> outcomes = offer(client, PHASE.multipliedBy(3));
+            slowdown.dispose();
+            recovery.dispose();
+
+            Phase healthy = Phase.of(outcomes, 0);
+            Phase degraded = Phase.of(outcomes, 1);
+            Phase recovered = Phase.of(outcomes, 2);
+            report(mode, "healthy", healthy);
+            report(mode, "degraded", degraded);
+            report(mode, "recovered", recovered);
+            System.out.printf("[%-9s] limit at end: %d%n", mode, limiter.getLimit());
+            return new Phases(degraded, recovered);
+        } finally {
+            client.destroy();
+        }
+    }
+
+    // Sends locks at a fixed rate for the duration, independent of how fast they complete, and waits for all of them
+    private static List<Outcome> offer(FlightServiceClient client, Duration duration) {
+        Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+        long firstCall = System.nanoTime();
+        long calls = duration.toMillis() * CALLS_PER_SECOND / 1000;
+        Flux.interval(Duration.ofNanos(1_000_000_000L / CALLS_PER_SECOND))
+                .take(calls)
+                .flatMap(call -> {
+                    long started = System.nanoTime();
+                    return client.lockSeats("schedule-" + call, List.of("1A"))
+                            .then(Mono.fromRunnable(() -> outcomes.add(new Outcome(started - firstCall, System.nanoTime() - started, Result.OK))))
+                            .onErrorResume(error -> {
+                                outcomes.add(new Outcome(started - firstCall, System.nanoTime() - started,
+                                        error instanceof ConcurrencyLimitExceededException ? Result.REFUSED : Result.FAILED));
+                                return Mono.empty();
+                            });
+                }, Integer.MAX_VALUE)
+                .blockLast();
+        return List.copyOf(outcomes);
+    }
+
+    private static void report(String mode, String phase, Phase result) {
+        System.out.printf("[%-9s] %-9s ok=%4d refused=%4d failed=%4d | ok p50=%8.1fms p99=%8.1fms%n",
+                mode, phase, result.ok(), result.refused(), result.failed(), result.p50(), result.p99());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private enum Result { OK, REFUSED, FAILED }
+
+    private record Outcome(long startedAtNanos, long nanos, Result result) {
+    }
+
+    private record Phase(long ok, long refused, long failed, double p50, double p99) {
+
+        // Calls started during the given phase, whenever they completed
+        static Phase of(List<Outcome> all, int phase) {
+            List<Outcome> outcomes = all.stream()
+                    .filter(outcome -> outcome.startedAtNanos() / PHASE.toNanos() == phase)
+                    .toList();
+            long[] latencies = outcomes.stream()
+                    .filter(outcome -> outcome.result() == Result.OK)
+                    .mapToLong(Outcome::nanos)
+                    .sorted()
+                    .toArray();
+            return new Phase(latencies.length,
+                    outcomes.stream().filter(outcome -> outcome.result() == Result.REFUSED).count(),
+                    outcomes.stream().filter(outcome -> outcome.result() == Result.FAILED).count(),
+                    percentile(latencies, 50), percentile(latencies, 99));
+        }
+
+        private static double percentile(long[] sortedNanos, int percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+            return sortedNanos[index] / 1_000_000.0;
+        }
+    }
+
+    private record Phases(Phase degraded, Phase recovered) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.saiteja.bookingservice.benchmark;
+
+import com.saiteja.bookingservice.auth.PasswordHasher;
+import com.saiteja.bookingservice.auth.PasswordHashingProperties;
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking latency on a server with {@link #EVENT_LOOPS} event loops while {@link #CONCURRENT_LOGINS}
+ * clients keep logging in: once with BCrypt run inline on the event loop, as before, and once through
+ * {@link PasswordHasher}. The booking route does no work of its own, so whatever latency it shows is
+ * time spent waiting behind logins for its event loop.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=LoginSpikeBenchmark}.
+ */
+class LoginSpikeBenchmark {
+
+    private static final int EVENT_LOOPS = 2;
+    private static final int CONCURRENT_LOGINS = 16;
+    private static final int SAMPLES = 100;
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(5);
+
+    private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder(10);
+    private static final String HASH = ENCODER.encode("password123");
+
+    private static LoopResources serverLoops;
+    private static PasswordHasher passwordHasher;
+    private static DisposableServer server;
+    private static HttpClient client;
+
+    @BeforeAll
+    static void startServer() {
+        serverLoops = LoopResources.create("spike-server", EVENT_LOOPS, true);
+        passwordHasher = new PasswordHasher(new PasswordHashingProperties(), new SimpleMeterRegistry());
+        server = HttpServer.create()
+                .port(0)
+                .runOn(serverLoops)
+                .route(routes -> routes
+                        .post("/login/inline", (request, response) -> response.sendString(
+                                Mono.fromCallable(() -> String.valueOf(ENCODER.matches("password123", HASH)))))
+                        .post("/login/offloaded", (request, response) -> response.sendString(
+                                passwordHasher.matches("password123", HASH)
+                                        .map(String::valueOf)
+                                        .onErrorResume(ServiceUnavailableException.class, e -> {
+                                            response.status(HttpResponseStatus.SERVICE_UNAVAILABLE);
+                                            return Mono.just(e.getMessage());
+                                        })))
+                        .get("/booking", (request, response) -> response.sendString(Mono.just("CONFIRMED"))))
+                .bindNow();
+        client = HttpClient.create(ConnectionProvider.builder("spike-client")
+                        .maxConnections(CONCURRENT_LOGINS * 2)
+                        .pendingAcquireMaxCount(-1)
+                        .build())
+                .runOn(LoopResources.create("spike-client", 4, true))
+                .port(server.port());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+        passwordHasher.destroy();
+        serverLoops.dispose();
+    }
+
+    @Test
+    void bookingLatencyDuringLoginSpike() {
+        // first pass warms up both routes and the connection pool
+        sampleBookings(null);
+        long[] quiet = sampleBookings(null);
+        long[] inline = sampleBookings("/login/inline");
+        long[] offloaded = sampleBookings("/login/offloaded");
+
+        report("no logins", quiet);
+        report("inline", inline);
+        report("offloaded", offloaded);
+
+        assertThat(percentile(offloaded, 99)).isLessThan(percentile(inline, 99));
+    }
+
+    // Booking round trips, each sampled while CONCURRENT_LOGINS logins are kept in flight against loginPath
+    private static long[] sampleBookings(String loginPath) {
+        Disposable spike = loginPath == null ? null : Flux.range(0, Integer.MAX_VALUE)
+                .flatMap(attempt -> client.post()
+                        .uri(loginPath)
+                        .response((response, body) -> body.then(Mono.just(response.status().code())))
+                        .onErrorResume(error -> Mono.empty()), CONCURRENT_LOGINS)
+                .subscribe();
+        try {
+            if (spike != null) {
+                // let the spike saturate the loops before measuring
+                Mono.delay(Duration.ofMillis(500)).block();
+            }
+            long[] latencies = new long[SAMPLES];
+            for (int sample = 0; sample < SAMPLES; sample++) {
+                long started = System.nanoTime();
+                client.get().uri("/booking").responseContent().aggregate().asString().block();
+                latencies[sample] = System.nanoTime() - started;
+                Mono.delay(SAMPLE_INTERVAL).block();
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        } finally {
+            if (spike != null) {
+                spike.dispose();
+            }
+        }
+    }
+
+    private static void report(String mode, long[] sortedNanos) {
+        System.out.printf("[%-10s] booking p50=%8.2fms p99=%8.2fms max=%8.2fms%n", mode,
+                percentile(sortedNanos, 50), percentile(sortedNanos, 99), sortedNanos[sortedNanos.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.saiteja.bookingservice.benchmark;
+
+import com.saiteja.bookingservice.model.PnrSequence;
+import com.saiteja.bookingservice.pnr.PnrGenerator;
+import com.saiteja.bookingservice.pnr.PnrProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of issuing one PNR: the old UUID substring against the block-leased generator, on one thread
+ * and with eight threads drawing from the same node. The sequence lease answers in memory, so this
+ * measures the generator itself; in production add one Mongo round trip per block.
+ * Run {@link #main} from the IDE or via {@code exec:java} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PnrGeneratorBenchmark {
+
+    private PnrGenerator generator;
+
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong();
+        PnrProperties properties = new PnrProperties();
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PnrSequence.class)))
+                .thenAnswer(invocation -> Mono.fromSupplier(() -> PnrSequence.builder()
+                        .id("pnr")
+                        .next(sequence.addAndGet(properties.getBlockSize()))
+                        .build()));
+        generator = new PnrGenerator(mongoTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+    }
+
+    @Benchmark
+    public String blockLeased() {
+        return generator.next().block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidSubstringContended() {
+        return uuidSubstring();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String blockLeasedContended() {
+        return blockLeased();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PnrGeneratorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,172 @@
+package com.saiteja.bookingservice.benchmark;
+
+import com.saiteja.bookingservice.client.AdaptiveConcurrencyLimiter;
+import com.saiteja.bookingservice.client.ConcurrencyLimitProperties;
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.FlightServiceClientProperties;
+import com.saiteja.bookingservice.loadbalancer.PeakEwmaLoadBalancer;
+import com.saiteja.bookingservice.loadbalancer.PeakEwmaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seat locks through the load-balanced {@link FlightServiceClient} against three local flight-service
+ * stubs, one of which takes {@link #SLOW_LATENCY} per call (a cold cache or a long GC pause) while the
+ * others take {@link #FAST_LATENCY}. Sent at {@link #CALLS_PER_SECOND} a second once with Spring Cloud's
+ * round robin and once with {@link PeakEwmaLoadBalancer}; round robin keeps sending a third of the calls
+ * to the slow instance, which is what its p99 shows.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=SlowInstanceBenchmark}.
+ */
+class SlowInstanceBenchmark {
+
+    private static final int CALLS_PER_SECOND = 100;
+    private static final Duration FAST_LATENCY = Duration.ofMillis(5);
+    private static final Duration SLOW_LATENCY = Duration.ofMillis(150);
+    private static final Duration RUN = Duration.ofSeconds(5);
+
+    private static final AtomicInteger slowCalls = new AtomicInteger();
+    private static DisposableServer[] flightServices;
+    private static ServiceInstance[] instances;
+
+    @BeforeAll
+    static void startStubs() {
+        flightServices = new DisposableServer[]{stub(FAST_LATENCY, null), stub(FAST_LATENCY, null), stub(SLOW_LATENCY, slowCalls)};
+        instances = new ServiceInstance[flightServices.length];
+        for (int i = 0; i < flightServices.length; i++) {
+            instances[i] = new DefaultServiceInstance("flight-service-" + i, "flight-service", "localhost",
+                    flightServices[i].port(), false);
+        }
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        for (DisposableServer flightService : flightServices) {
+            flightService.disposeNow();
+        }
+    }
+
+    @Test
+    void p99WithOneSlowInstance() {
+        ObjectProvider<ServiceInstanceListSupplier> supplier = ServiceInstanceListSuppliers.toProvider("flight-service", instances);
+
+        long[] roundRobin = run("round-robin", new RoundRobinLoadBalancer(supplier, "flight-service"));
+        long[] peakEwma = run("peak-ewma",
+                new PeakEwmaLoadBalancer(supplier, "flight-service", new PeakEwmaProperties(), new SimpleMeterRegistry()));
+
+        assertThat(percentile(peakEwma, 99)).isLessThan(percentile(roundRobin, 99));
+    }
+
+    private static long[] run(String mode, ReactorServiceInstanceLoadBalancer loadBalancer) {
+        FlightServiceClientProperties properties = new FlightServiceClientProperties();
+        properties.setBaseUrl("http://flight-service");
+        ConcurrencyLimitProperties unbounded = new ConcurrencyLimitProperties();
+        unbounded.setInitialLimit(100_000);
+        unbounded.setMinLimit(100_000);
+        unbounded.setMaxLimit(100_000);
+        WebClient.Builder builder = WebClient.builder()
+                .filter(new ReactorLoadBalancerExchangeFilterFunction(factory(loadBalancer), List.of()));
+        FlightServiceClient client = new FlightServiceClient(builder, properties,
+                new AdaptiveConcurrencyLimiter(unbounded, new SimpleMeterRegistry()));
+        try {
+            // warm up connections and let the load balancer learn each instance's latency
+            offer(client, Duration.ofSeconds(1));
+            slowCalls.set(0);
+            long[] latencies = offer(client, RUN);
+            System.out.printf("[%-11s] calls=%d to slow instance=%d | p50=%7.1fms p99=%7.1fms%n", mode, latencies.length,
+                    slowCalls.get(), percentile(latencies, 50), percentile(latencies, 99));
+            return latencies;
+        } finally {
+            client.destroy();
+        }
+    }
+
+    // Sends locks at a fixed rate for the duration and returns their latencies, sorted
+    private static long[] offer(FlightServiceClient client, Duration duration) {
+        Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        long calls = duration.toMillis() * CALLS_PER_SECOND / 1000;
+        Flux.interval(Duration.ofNanos(1_000_000_000L / CALLS_PER_SECOND))
+                .take(calls)
+                .flatMap(call -> {
+                    long started = System.nanoTime();
+                    return client.lockSeats("schedule-" + call, List.of("1A"))
+                            .then(Mono.fromRunnable(() -> latencies.add(System.nanoTime() - started)));
+                }, Integer.MAX_VALUE)
+                .blockLast();
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // What Spring Cloud's per-service context would hand the exchange filter: the balancer, and it again as lifecycle
+    private static ReactiveLoadBalancer.Factory<ServiceInstance> factory(ReactorServiceInstanceLoadBalancer loadBalancer) {
+        return new ReactiveLoadBalancer.Factory<>() {
+            @Override
+            public ReactiveLoadBalancer<ServiceInstance> getInstance(String serviceId) {
+                return loadBalancer;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> Map<String, X> getInstances(String name, Class<X> type) {
+                return type == LoadBalancerLifecycle.class && loadBalancer instanceof LoadBalancerLifecycle
+                        ? Map.of("loadBalancer", (X) loadBalancer) : Map.of();
+            }
+
+            @Override
+            public <X> X getInstance(String name, Class<?> clazz, Class<?>... generics) {
+                return null;
+            }
+
+            @Override
+            public LoadBalancerProperties getProperties(String serviceId) {
+                return new LoadBalancerProperties();
+            }
+        };
+    }
+
+    private static DisposableServer stub(Duration latency, AtomicInteger calls) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/api/v1.0/flight/admin/internal/schedules/{id}/lock-seats",
+                        (request, response) -> {
+                            if (calls != null) {
+                                calls.incrementAndGet();
+                            }
+                            return request.receive().then(Mono.delay(latency)).then(response.send());
+                        }))
+                .bindNow();
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
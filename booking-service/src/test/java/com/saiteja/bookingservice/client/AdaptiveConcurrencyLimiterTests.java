@@ -0,0 +1,100 @@
+package com.saiteja.bookingservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(400).toNanos();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(8);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+
+    @Test
+    void limit_shouldRefuseCallsOverLimitWithoutSubscribing() {
+        // Given four calls held open
+        List<Sinks.Empty<Void>> held = new ArrayList<>();
+        for (int call = 0; call < 4; call++) {
+            Sinks.Empty<Void> response = Sinks.empty();
+            held.add(response);
+            limiter.limit(response.asMono()).subscribe();
+        }
+
+        // When & Then
+        StepVerifier.create(limiter.limit(Mono.fromRunnable(() -> {
+                    throw new AssertionError("call over the limit must not be sent");
+                })))
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify();
+        assertThat(meterRegistry.get("booking.flight.concurrency.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.flight.concurrency.in_flight").gauge().value()).isEqualTo(4);
+
+        // and admits again once one completes
+        held.get(0).tryEmitEmpty();
+        StepVerifier.create(limiter.limit(Mono.just("locked")))
+                .expectNext("locked")
+                .verifyComplete();
+    }
+
+    @Test
+    void sample_shouldBackOffOnSlowResponseAndGrowBackWhenFast() {
+        // Given a learned no-load latency
+        for (int call = 0; call < 20; call++) {
+            limiter.sample(FAST, 1, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        // When
+        limiter.sample(SLOW, 4, false);
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(meterRegistry.get("booking.flight.concurrency.limit").gauge().value()).isEqualTo(3);
+
+        // and recovers while calls keep the limit in use
+        for (int call = 0; call < 20; call++) {
+            limiter.sample(FAST, limiter.getLimit(), false);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    void sample_shouldNotGrowWhileLimitIsUnused() {
+        for (int call = 0; call < 50; call++) {
+            limiter.sample(FAST, 1, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void isOverload_shouldCountServerErrorsButNotRejections() {
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(
+                WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null, null))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(
+                WebClientResponseException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null, null))).isFalse();
+    }
+}
@@ -0,0 +1,188 @@
+package com.saiteja.bookingservice.client;
+
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightServiceClientTests {
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final Set<String> remoteAddresses = ConcurrentHashMap.newKeySet();
+    private final List<String> deadlines = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DisposableServer flightService;
+    private FlightServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(meterRegistry);
+        flightService = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .post("/api/v1.0/flight/admin/internal/schedules/{id}/lock-seats", (request, response) -> {
+                            remoteAddresses.add(String.valueOf(request.remoteAddress()));
+                            deadlines.add(String.valueOf(request.requestHeaders().get(RequestDeadline.HEADER)));
+                            return request.receive().aggregate().asString()
+                                    .doOnNext(body -> requests.add("lock " + request.param("id") + " " + body))
+                                    .then(request.param("id").equals("slow")
+                                            ? Mono.delay(Duration.ofSeconds(2)).then(response.send())
+                                            : request.param("id").equals("full")
+                                            ? response.status(400).send()
+                                            : response.send());
+                        })
+                        .post("/api/v1.0/flight/admin/internal/schedules/lock-seats", (request, response) ->
+                                request.receive().aggregate().asString()
+                                        .doOnNext(body -> requests.add("lock itinerary " + body))
+                                        .then(response.send()))
+                        .post("/api/v1.0/flight/admin/internal/schedules/{id}/release-seats", (request, response) ->
+                                request.receive().aggregate().asString()
+                                        .doOnNext(body -> requests.add("release " + request.param("id") + " " + body))
+                                        .then(response.send())))
+                .bindNow();
+
+        FlightServiceClientProperties properties = new FlightServiceClientProperties();
+        properties.setBaseUrl("http://localhost:" + flightService.port());
+        properties.setLockSeatsTimeout(Duration.ofMillis(300));
+        client = new FlightServiceClient(WebClient.builder(), properties,
+                new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.destroy();
+        flightService.disposeNow();
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    void lockAndRelease_shouldPostSeatsToScheduleEndpoints() {
+        // When
+        StepVerifier.create(client.lockSeats("s1", List.of("1A", "1B"))
+                        .then(client.releaseSeats("s1", List.of("1B"))))
+                .verifyComplete();
+
+        // Then
+        assertThat(requests).containsExactly("lock s1 [\"1A\",\"1B\"]", "release s1 [\"1B\"]");
+    }
+
+    @Test
+    void lockSeats_shouldPostAllLegsInOneCall() {
+        // When
+        StepVerifier.create(client.lockSeats(List.of(
+                        new LegSeats("s1", List.of("1A"), "hold-7"),
+                        new LegSeats("s2", List.of("4C")))))
+                .verifyComplete();
+
+        // Then
+        assertThat(requests).containsExactly("lock itinerary [{\"scheduleId\":\"s1\",\"seatNumbers\":[\"1A\"],\"holdToken\":\"hold-7\"},"
+                + "{\"scheduleId\":\"s2\",\"seatNumbers\":[\"4C\"]}]");
+    }
+
+    @Test
+    void lockSeats_shouldReusePooledConnections() {
+        // When
+        for (int call = 0; call < 10; call++) {
+            client.lockSeats("s1", List.of("1A")).block();
+        }
+
+        // Then
+        // a connection is released asynchronously, so a call right behind another may still open a second one
+        assertThat(remoteAddresses).hasSizeLessThanOrEqualTo(2);
+        assertThat(meterRegistry.find("reactor.netty.connection.provider.total.connections")
+                .tag("name", "flight-service")
+                .gauge())
+                .isNotNull();
+    }
+
+    @Test
+    void lockSeats_shouldFailAfterOperationTimeout() {
+        // When & Then
+        StepVerifier.create(client.lockSeats("slow", List.of("1A")))
+                // a request error rather than a 4xx, so the saga leaves the outcome to the relay
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(WebClientRequestException.class)
+                        .hasCauseInstanceOf(ReadTimeoutException.class))
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void lockSeats_shouldSurfaceRejectionAsClientError() {
+        // When & Then
+        StepVerifier.create(client.lockSeats("full", List.of("1A")))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOfSatisfying(WebClientResponseException.class,
+                                response -> assertThat(response.getStatusCode().value()).isEqualTo(400)))
+                .verify();
+    }
+
+    @Test
+    void lockSeats_shouldPassTimeLeftOn() {
+        // Given
+        Instant deadline = Instant.now().plusMillis(200);
+
+        // When
+        StepVerifier.create(client.lockSeats("s1", List.of("1A"))
+                        .contextWrite(context -> context.put(RequestDeadline.class, deadline)))
+                .verifyComplete();
+
+        // Then
+        assertThat(deadlines).singleElement()
+                .satisfies(budget -> assertThat(Long.parseLong(budget)).isBetween(1L, 200L));
+    }
+
+    @Test
+    void lockSeats_shouldPassOperationTimeout_whenShorterThanTimeLeft() {
+        // When
+        StepVerifier.create(client.lockSeats("s1", List.of("1A"))
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusSeconds(5))))
+                .verifyComplete();
+
+        // Then
+        assertThat(deadlines).containsExactly("300");
+    }
+
+    @Test
+    void lockSeats_shouldNotCallFlightServiceOnceDeadlineHasPassed() {
+        // When & Then
+        StepVerifier.create(client.lockSeats("s1", List.of("1A"))
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().minusMillis(1))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void lockSeats_shouldGiveUpAtDeadlineBeforeOperationTimeout() {
+        // Given
+        long started = System.nanoTime();
+
+        // When & Then
+        StepVerifier.create(client.lockSeats("slow", List.of("1A"))
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusMillis(100))))
+                .expectErrorSatisfies(error -> assertThat(error).hasCauseInstanceOf(ReadTimeoutException.class))
+                .verify(Duration.ofSeconds(2));
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(300));
+    }
+}
@@ -3,6 +3,8 @@ package com.saiteja.bookingservice.controller;
 import com.saiteja.bookingservice.dto.auth.AuthResponse;
 import com.saiteja.bookingservice.dto.auth.UserLoginRequest;
 import com.saiteja.bookingservice.dto.auth.UserRegisterRequest;
+import com.saiteja.bookingservice.exception.GlobalExceptionHandler;
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
 import com.saiteja.bookingservice.service.AuthService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,5 +81,27 @@ class AuthControllerTests {
                 .exchange()
                 .expectStatus().isOk();
     }
-}
 
+    @Test
+    void login_shouldReturnServiceUnavailable_whenHashingPoolIsSaturated() {
+        // Given
+        UserLoginRequest request = new UserLoginRequest();
+        request.setEmail("test@example.com");
+        request.setPassword("password123");
+
+        when(authService.login(any(UserLoginRequest.class)))
+                .thenReturn(Mono.error(new ServiceUnavailableException("Too many sign-in attempts in progress, retry shortly")));
+
+        // When & Then
+        WebTestClient.bindToController(authController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build()
+                .post()
+                .uri("/api/v1.0/auth/login")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Too many sign-in attempts in progress, retry shortly");
+    }
+}
@@ -1,15 +1,20 @@
 package com.saiteja.bookingservice.controller;
 
 import com.saiteja.bookingservice.dto.ApiResponse;
+import com.saiteja.bookingservice.dto.PageResponse;
 import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
+import com.saiteja.bookingservice.dto.booking.BookingResponse;
 import com.saiteja.bookingservice.dto.passenger.PassengerRequest;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.exception.GlobalExceptionHandler;
 import com.saiteja.bookingservice.model.enums.Gender;
 import com.saiteja.bookingservice.model.enums.MealOption;
+import com.saiteja.bookingservice.pagination.Pagination;
 import com.saiteja.bookingservice.service.BookingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,8 +24,13 @@ import reactor.core.publisher.Mono;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +46,9 @@ class BookingControllerTests {
 
     @BeforeEach
     void setUp() {
-        webTestClient = WebTestClient.bindToController(bookingController).build();
+        webTestClient = WebTestClient.bindToController(bookingController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
     }
 
     @Test
@@ -72,6 +84,68 @@ class BookingControllerTests {
                 .expectStatus().isCreated();
     }
 
+    @Test
+    void bookFlight_shouldPassIdempotencyKey_whenHeaderPresent() {
+        // Given
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setContactEmail("test@example.com");
+        PassengerRequest p = new PassengerRequest();
+        p.setFullName("John Doe");
+        p.setGender(Gender.MALE);
+        p.setAge(30);
+        p.setSeatNumber("1A");
+        p.setMealOption(MealOption.VEG);
+        req.setPassengers(List.of(p));
+
+        when(bookingService.createBooking(any(BookingCreateRequest.class), eq("retry-42")))
+                .thenReturn(Mono.just(TicketResponse.builder().pnr("ABC123").build()));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/booking/abc123")
+                .header("Idempotency-Key", "retry-42")
+                .bodyValue(req)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.pnr").isEqualTo("ABC123");
+
+        verify(bookingService, never()).createBooking(any(BookingCreateRequest.class));
+    }
+
+    @Test
+    void bookItinerary_shouldPassEveryScheduleIdFromBody() {
+        // Given
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setContactEmail("test@example.com");
+        req.setScheduleIds(List.of("leg1", "leg2"));
+        PassengerRequest p = new PassengerRequest();
+        p.setFullName("John Doe");
+        p.setGender(Gender.MALE);
+        p.setAge(30);
+        p.setSeatNumber("1A");
+        p.setConnectingSeatNumbers(List.of("2C"));
+        p.setMealOption(MealOption.VEG);
+        req.setPassengers(List.of(p));
+
+        when(bookingService.createBooking(any(BookingCreateRequest.class)))
+                .thenReturn(Mono.just(TicketResponse.builder().pnr("PNR123").build()));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/booking")
+                .bodyValue(req)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.pnr").isEqualTo("PNR123");
+
+        ArgumentCaptor<BookingCreateRequest> request = ArgumentCaptor.forClass(BookingCreateRequest.class);
+        verify(bookingService).createBooking(request.capture());
+        assertThat(request.getValue().getScheduleIds()).containsExactly("leg1", "leg2");
+        assertThat(request.getValue().getPassengers().get(0).getConnectingSeatNumbers()).containsExactly("2C");
+    }
+
     @Test
     void cancelBooking_shouldReturnOk_whenValidPnr() {
         // Given
@@ -84,6 +158,65 @@ class BookingControllerTests {
                 .exchange()
                 .expectStatus().isOk();
     }
-}
 
+    @Test
+    void getBookingHistory_shouldReturnPageWithoutUnrequestedFields() {
+        // Given
+        when(bookingService.getBookingHistory("test@example.com", "abc", 5, "pnr"))
+                .thenReturn(Mono.just(PageResponse.<BookingResponse>builder()
+                        .items(List.of(BookingResponse.builder().pnr("ABC123").build()))
+                        .nextCursor("def")
+                        .build()));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1.0/flight/booking/history/test@example.com?cursor=abc&limit=5&fields=pnr")
+                .header("X-User-Email", "test@example.com")
+                .header("X-User-Role", "USER")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].pnr").isEqualTo("ABC123")
+                .jsonPath("$.items[0].status").doesNotExist()
+                .jsonPath("$.nextCursor").isEqualTo("def");
+    }
+
+    @Test
+    void getBookingHistory_shouldReturnUnauthorized_whenNoCaller() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1.0/flight/booking/history/test@example.com")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        verify(bookingService, never()).getBookingHistory(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void getBookingHistory_shouldReturnForbidden_whenUserAsksForSomeoneElse() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1.0/flight/booking/history/victim@example.com")
+                .header("X-User-Email", "test@example.com")
+                .header("X-User-Role", "USER")
+                .exchange()
+                .expectStatus().isForbidden();
+
+        verify(bookingService, never()).getBookingHistory(anyString(), any(), anyInt(), any());
+    }
 
+    @Test
+    void getBookingHistory_shouldLetAdminReadAnyHistory() {
+        // Given
+        when(bookingService.getBookingHistory("someone@example.com", null, Pagination.DEFAULT_LIMIT, null))
+                .thenReturn(Mono.just(PageResponse.<BookingResponse>builder().items(List.of()).build()));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1.0/flight/booking/history/someone@example.com")
+                .header("X-User-Email", "admin@example.com")
+                .header("X-User-Role", "ADMIN")
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
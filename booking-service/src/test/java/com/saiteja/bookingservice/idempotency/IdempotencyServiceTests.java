@@ -0,0 +1,279 @@
+package com.saiteja.bookingservice.idempotency;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.saiteja.bookingservice.deadline.RequestDeadline;
+import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.exception.BadRequestException;
+import com.saiteja.bookingservice.exception.DeadlineExceededException;
+import com.saiteja.bookingservice.exception.DuplicateResourceException;
+import com.saiteja.bookingservice.model.IdempotencyRecord;
+import com.saiteja.bookingservice.model.enums.IdempotencyStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTests {
+
+    private static final String KEY = "retry-7f3a";
+    private static final String HASH = "hash-1";
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setPollInterval(Duration.ofMillis(5));
+        properties.setWaitTimeout(Duration.ofMillis(200));
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(mongoTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void execute_shouldRunOnceAndStoreResponse_whenKeyIsNew() {
+        // Given
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR001")))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("PNR001"))
+                .verifyComplete();
+
+        assertThat(bookings).hasValue(1);
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().get("$set", Document.class)
+                        .get("status") == IdempotencyStatus.COMPLETED), eq(IdempotencyRecord.class));
+        assertThat(meterRegistry.get("booking.idempotency.requests").tag("outcome", "executed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_shouldReplayStoredResponse_whenKeyIsCompleted() {
+        // Given
+        keyAlreadyClaimed();
+        when(mongoTemplate.findById(KEY, IdempotencyRecord.class))
+                .thenReturn(Mono.just(record(IdempotencyStatus.COMPLETED, HASH, Instant.now().plusSeconds(30))));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR002")))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("ORIGINAL"))
+                .verifyComplete();
+
+        assertThat(bookings).hasValue(0);
+    }
+
+    @Test
+    void execute_shouldRejectKeyReusedWithDifferentRequest() {
+        // Given
+        keyAlreadyClaimed();
+        when(mongoTemplate.findById(KEY, IdempotencyRecord.class))
+                .thenReturn(Mono.just(record(IdempotencyStatus.COMPLETED, "other-hash", Instant.now())));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR003")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Idempotency-Key was already used for a different request"))
+                .verify();
+
+        assertThat(bookings).hasValue(0);
+    }
+
+    @Test
+    void execute_shouldCollapseConcurrentDuplicatesIntoOneExecution() {
+        // Given
+        Sinks.One<TicketResponse> slowBooking = Sinks.one();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        Supplier<Mono<TicketResponse>> action = () -> {
+            bookings.incrementAndGet();
+            return slowBooking.asMono();
+        };
+
+        // When
+        Mono<TicketResponse> first = idempotencyService.execute(KEY, HASH, action);
+        Mono<TicketResponse> second = idempotencyService.execute(KEY, HASH, action);
+
+        // Then
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> slowBooking.tryEmitValue(TicketResponse.builder().pnr("PNR004").build()))
+                .assertNext(responses -> {
+                    assertThat(responses.getT1().getPnr()).isEqualTo("PNR004");
+                    assertThat(responses.getT2()).isSameAs(responses.getT1());
+                })
+                .verifyComplete();
+
+        assertThat(bookings).hasValue(1);
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_shouldWaitForExecutionOnAnotherInstance() {
+        // Given
+        keyAlreadyClaimed();
+        when(mongoTemplate.findById(KEY, IdempotencyRecord.class))
+                .thenReturn(Mono.just(record(IdempotencyStatus.IN_PROGRESS, HASH, Instant.now().plusSeconds(30))))
+                .thenReturn(Mono.just(record(IdempotencyStatus.COMPLETED, HASH, Instant.now().plusSeconds(30))));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR005")))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("ORIGINAL"))
+                .verifyComplete();
+
+        assertThat(bookings).hasValue(0);
+    }
+
+    @Test
+    void execute_shouldAnswerConflict_whenOtherExecutionOutlastsWaitTimeout() {
+        // Given
+        keyAlreadyClaimed();
+        when(mongoTemplate.findById(KEY, IdempotencyRecord.class))
+                .thenReturn(Mono.just(record(IdempotencyStatus.IN_PROGRESS, HASH, Instant.now().plusSeconds(30))));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR006")))
+                .expectError(DuplicateResourceException.class)
+                .verify();
+
+        assertThat(bookings).hasValue(0);
+    }
+
+    @Test
+    void execute_shouldTakeOverAbandonedKey() {
+        // Given
+        keyAlreadyClaimed();
+        when(mongoTemplate.findById(KEY, IdempotencyRecord.class))
+                .thenReturn(Mono.just(record(IdempotencyStatus.IN_PROGRESS, HASH, Instant.now().minusSeconds(1))));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(record(IdempotencyStatus.IN_PROGRESS, HASH, Instant.now().minusSeconds(1))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR007")))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("PNR007"))
+                .verifyComplete();
+
+        assertThat(bookings).hasValue(1);
+    }
+
+    @Test
+    void execute_shouldReleaseKey_whenBookingFails() {
+        // Given
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.remove(any(Query.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH,
+                        () -> Mono.error(new BadRequestException("Seat already booked"))))
+                .expectErrorMatches(throwable -> throwable.getMessage().equals("Seat already booked"))
+                .verify();
+
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_shouldKeepCallersDeadline_whenRunningDetached() {
+        // Given
+        Instant deadline = Instant.now().plusSeconds(5);
+        AtomicReference<Instant> seenDeadline = new AtomicReference<>();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        Supplier<Mono<TicketResponse>> action = () -> Mono.deferContextual(context -> {
+            seenDeadline.set(RequestDeadline.of(context));
+            return Mono.just(TicketResponse.builder().pnr("PNR009").build());
+        });
+
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, action)
+                        .contextWrite(context -> context.put(RequestDeadline.class, deadline)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(seenDeadline).hasValue(deadline);
+    }
+
+    @Test
+    void execute_shouldNotClaimKey_whenDeadlineHasPassed() {
+        // When & Then
+        StepVerifier.create(idempotencyService.execute(KEY, HASH, booking("PNR010"))
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().minusMillis(1))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+
+        assertThat(bookings).hasValue(0);
+    }
+
+    @Test
+    void execute_shouldRejectOversizedKey() {
+        // When & Then
+        StepVerifier.create(idempotencyService.execute("k".repeat(129), HASH, booking("PNR008")))
+                .expectError(BadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void hash_shouldBeStableForEqualRequests() {
+        assertThat(IdempotencyService.hash(TicketResponse.builder().pnr("A").build()))
+                .isEqualTo(IdempotencyService.hash(TicketResponse.builder().pnr("A").build()))
+                .isNotEqualTo(IdempotencyService.hash(TicketResponse.builder().pnr("B").build()))
+                .hasSize(64);
+    }
+
+    private Supplier<Mono<TicketResponse>> booking(String pnr) {
+        return () -> {
+            bookings.incrementAndGet();
+            return Mono.just(TicketResponse.builder().pnr(pnr).build());
+        };
+    }
+
+    private void keyAlreadyClaimed() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+    }
+
+    private static IdempotencyRecord record(IdempotencyStatus status, String requestHash, Instant lockedUntil) {
+        return IdempotencyRecord.builder()
+                .key(KEY)
+                .requestHash(requestHash)
+                .status(status)
+                .owner("instance-a")
+                .lockedUntil(lockedUntil)
+                .response(status == IdempotencyStatus.COMPLETED ? TicketResponse.builder().pnr("ORIGINAL").build() : null)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.saiteja.bookingservice.index;
+
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.User;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.model.enums.TicketStatus;
+import com.saiteja.bookingservice.model.enums.UserRole;
+import com.saiteja.bookingservice.support.EmbeddedMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the queries behind the hot repository methods are answered from an index.
+ * Needs a downloadable mongod, so it runs with {@code mvn verify} rather than the unit test phase.
+ */
+class MongoIndexIT {
+
+    private static EmbeddedMongo mongo;
+    private static MongoMappingContext mappingContext;
+
+    @BeforeAll
+    static void createIndexes() {
+        mongo = EmbeddedMongo.start("index_it");
+        mappingContext = (MongoMappingContext) mongo.template().getConverter().getMappingContext();
+        mappingContext.getPersistentEntity(Booking.class);
+        mappingContext.getPersistentEntity(Ticket.class);
+        mappingContext.getPersistentEntity(User.class);
+
+        // enough documents that a collection scan would never be chosen by accident
+        Flux.range(0, 500)
+                .map(index -> Booking.builder()
+                        .pnr("PNR" + index)
+                        .scheduleIds(List.of("schedule" + index % 40))
+                        .contactEmail("user" + index % 100 + "@example.com")
+                        .status(BookingStatus.CONFIRMED)
+                        .build())
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+        Flux.range(0, 500)
+                .map(index -> Ticket.builder()
+                        .pnr("PNR" + index)
+                        .bookingId("booking" + index)
+                        .scheduleId("schedule" + index % 40)
+                        .status(TicketStatus.ACTIVE)
+                        .issuedAt(LocalDateTime.now())
+                        .build())
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+        Flux.range(0, 500)
+                .map(index -> {
+                    User user = new User();
+                    user.setEmail("user" + index + "@example.com");
+                    user.setPassword("hash");
+                    user.setRole(UserRole.USER);
+                    return user;
+                })
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+
+        new MongoIndexManager(mongo.template(), mappingContext).createIndexes().block();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void bookingFindByPnr_usesIndexScan() {
+        assertIndexScan(Booking.class, Criteria.where("pnr").is("PNR42"), "pnr_idx");
+    }
+
+    @Test
+    void bookingFindByContactEmail_usesIndexScan() {
+        assertIndexScan(Booking.class, Criteria.where("contactEmail").is("user7@example.com"), "contact_email_id_idx");
+    }
+
+    @Test
+    void ticketFindByPnr_usesIndexScan() {
+        assertIndexScan(Ticket.class, Criteria.where("pnr").is("PNR42"), "pnr_idx");
+    }
+
+    @Test
+    void userFindByEmail_usesIndexScan() {
+        assertIndexScan(User.class, Criteria.where("email").is("user42@example.com"), "email_idx");
+    }
+
+    @Test
+    void userEmail_isUnique() {
+        User duplicate = new User();
+        duplicate.setEmail("user42@example.com");
+        duplicate.setPassword("hash");
+        duplicate.setRole(UserRole.USER);
+
+        assertThatThrownBy(() -> mongo.template().insert(duplicate).block())
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void report_hasNoMissingIndexes() {
+        assertThat(new MongoIndexManager(mongo.template(), mappingContext).report().collectList().block())
+                .isNotEmpty()
+                .allSatisfy(report -> assertThat(report.getMissing()).isEmpty());
+    }
+
+    private static void assertIndexScan(Class<?> type, Criteria criteria, String indexName) {
+        Document filter = new QueryMapper(mongo.template().getConverter())
+                .getMappedObject(Query.query(criteria).getQueryObject(), mappingContext.getPersistentEntity(type));
+        Document explain = mongo.template().getCollection(mongo.template().getCollectionName(type))
+                .flatMap(collection -> Mono.from(collection.find(filter).explain(Document.class)))
+                .block();
+
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+        assertThat(winningPlan).contains("IXSCAN").contains(indexName).doesNotContain("COLLSCAN");
+    }
+}
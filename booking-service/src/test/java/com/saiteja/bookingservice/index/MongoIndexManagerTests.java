@@ -0,0 +1,183 @@
+package com.saiteja.bookingservice.index;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.reactivestreams.client.AggregatePublisher;
+import com.mongodb.reactivestreams.client.ListIndexesPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.User;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexManagerTests {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveIndexOperations bookingIndexOps;
+
+    @Mock
+    private ReactiveIndexOperations ticketIndexOps;
+
+    @Mock
+    private ReactiveIndexOperations userIndexOps;
+
+    @Mock
+    private MongoCollection<Document> bookingCollection;
+
+    @Test
+    void createIndexes_shouldCreateDeclaredIndexes() {
+        // Given
+        when(mongoTemplate.indexOps("bookings")).thenReturn(bookingIndexOps);
+        when(mongoTemplate.indexOps("tickets")).thenReturn(ticketIndexOps);
+        when(mongoTemplate.indexOps("users")).thenReturn(userIndexOps);
+        when(bookingIndexOps.createIndex(any(IndexDefinition.class))).thenReturn(Mono.just("created"));
+        when(ticketIndexOps.createIndex(any(IndexDefinition.class))).thenReturn(Mono.just("created"));
+        when(userIndexOps.createIndex(any(IndexDefinition.class))).thenReturn(Mono.just("created"));
+
+        // When & Then
+        StepVerifier.create(manager(Booking.class, Ticket.class, User.class).createIndexes())
+                .verifyComplete();
+
+        assertThat(created(bookingIndexOps, 2)).containsExactlyInAnyOrder("{pnr: 1} unique", "{contactEmail: 1, _id: -1}");
+        assertThat(created(ticketIndexOps, 1)).containsExactly("{pnr: 1} unique");
+        assertThat(created(userIndexOps, 1)).containsExactly("{email: 1} unique");
+    }
+
+    @Test
+    void createIndexes_shouldContinue_whenOneIndexFails() {
+        // Given
+        when(mongoTemplate.indexOps("bookings")).thenReturn(bookingIndexOps);
+        when(bookingIndexOps.createIndex(any(IndexDefinition.class)))
+                .thenReturn(Mono.error(new IllegalStateException("E11000 duplicate key")))
+                .thenReturn(Mono.just("created"));
+
+        // When & Then
+        StepVerifier.create(manager(Booking.class).createIndexes())
+                .verifyComplete();
+
+        verify(bookingIndexOps, times(2)).createIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void report_shouldListMissingAndUnusedIndexes() {
+        // Given
+        when(mongoTemplate.getCollection("bookings")).thenReturn(Mono.just(bookingCollection));
+        ListIndexesPublisher<Document> indexes = publisher(ListIndexesPublisher.class,
+                new Document("name", "_id_").append("key", new Document("_id", 1)),
+                new Document("name", "pnr_idx").append("key", new Document("pnr", 1)).append("unique", true),
+                new Document("name", "status_idx").append("key", new Document("status", 1)));
+        AggregatePublisher<Document> stats = publisher(AggregatePublisher.class,
+                indexStats("_id_", 0), indexStats("pnr_idx", 40), indexStats("status_idx", 0));
+        when(bookingCollection.listIndexes()).thenReturn(indexes);
+        when(bookingCollection.aggregate(anyList())).thenReturn(stats);
+
+        // When & Then
+        StepVerifier.create(manager(Booking.class).report())
+                .assertNext(report -> {
+                    assertThat(report.getCollection()).isEqualTo("bookings");
+                    assertThat(report.getDeclared()).hasSize(2);
+                    assertThat(report.getMissing()).containsExactly("{contactEmail: 1, _id: -1}");
+                    assertThat(report.getUnused()).containsExactly("status_idx");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void report_shouldTreatAllIndexesAsMissing_whenCollectionDoesNotExist() {
+        // Given
+        when(mongoTemplate.getCollection("bookings")).thenReturn(Mono.just(bookingCollection));
+        ListIndexesPublisher<Document> indexes = failingPublisher(ListIndexesPublisher.class,
+                new MongoCommandException(new BsonDocument(), null));
+        AggregatePublisher<Document> stats = publisher(AggregatePublisher.class);
+        when(bookingCollection.listIndexes()).thenReturn(indexes);
+        when(bookingCollection.aggregate(anyList())).thenReturn(stats);
+
+        // When & Then
+        StepVerifier.create(manager(Booking.class).report())
+                .assertNext(report -> {
+                    assertThat(report.getMissing()).containsExactlyElementsOf(report.getDeclared());
+                    assertThat(report.getUnused()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void endpoint_shouldCollectReports() {
+        // Given
+        MongoIndexManager indexManager = mock(MongoIndexManager.class);
+        CollectionIndexReport report = CollectionIndexReport.builder().collection("users").build();
+        when(indexManager.report()).thenReturn(Flux.just(report));
+
+        // When & Then
+        StepVerifier.create(new MongoIndexEndpoint(indexManager).indexes())
+                .expectNext(List.of(report))
+                .verifyComplete();
+    }
+
+    private MongoIndexManager manager(Class<?>... entities) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(entities));
+        mappingContext.initialize();
+        return new MongoIndexManager(mongoTemplate, mappingContext);
+    }
+
+    private static List<String> created(ReactiveIndexOperations indexOps, int count) {
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, times(count)).createIndex(indexes.capture());
+        return indexes.getAllValues().stream()
+                .map(index -> MongoIndexManager.signature(index.getIndexKeys(), index.getIndexOptions()))
+                .toList();
+    }
+
+    private static Document indexStats(String name, long ops) {
+        return new Document("name", name).append("accesses", new Document("ops", ops));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <P extends Publisher> P publisher(Class<P> type, Document... documents) {
+        P publisher = mock(type);
+        doAnswer(invocation -> {
+            Flux.just(documents).subscribe(invocation.<Subscriber<Document>>getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <P extends Publisher> P failingPublisher(Class<P> type, RuntimeException error) {
+        P publisher = mock(type);
+        doAnswer(invocation -> {
+            Flux.<Document>error(error).subscribe(invocation.<Subscriber<Document>>getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+}
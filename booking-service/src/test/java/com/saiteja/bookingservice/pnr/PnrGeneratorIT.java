@@ -0,0 +1,74 @@
+package com.saiteja.bookingservice.pnr;
+
+import com.saiteja.bookingservice.index.MongoIndexManager;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Several nodes lease PNR blocks from one real pnr_sequences document concurrently and insert a
+ * booking per code behind the unique pnr index; any collision would fail an insert. Runs with {@code mvn verify}.
+ */
+class PnrGeneratorIT {
+
+    private static final int NODES = 6;
+    private static final int BOOKINGS_PER_NODE = 5_000;
+
+    private static EmbeddedMongo mongo;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("pnr_generator_it");
+        MongoMappingContext mappingContext = (MongoMappingContext) mongo.template().getConverter().getMappingContext();
+        mappingContext.getPersistentEntity(Booking.class);
+        new MongoIndexManager(mongo.template(), mappingContext).createIndexes().block();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void nodes_shouldIssueUniquePnrsWithoutCoordinatingPerBooking() {
+        PnrProperties properties = new PnrProperties();
+        properties.setBlockSize(250);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<PnrGenerator> nodes = IntStream.range(0, NODES)
+                .mapToObj(node -> new PnrGenerator(mongo.template(), properties, meterRegistry))
+                .toList();
+
+        Long inserted = Flux.fromIterable(nodes)
+                .flatMap(node -> Flux.range(0, BOOKINGS_PER_NODE)
+                        .publishOn(Schedulers.parallel())
+                        .flatMap(i -> node.next(), 32)
+                        .map(pnr -> Booking.builder()
+                                .pnr(pnr)
+                                .contactEmail("load@example.com")
+                                .scheduleIds(List.of("schedule1"))
+                                .status(BookingStatus.CONFIRMED)
+                                .build())
+                        .buffer(500)
+                        .concatMap(mongo.template()::insertAll))
+                .count()
+                .block();
+
+        assertThat(inserted).isEqualTo((long) NODES * BOOKINGS_PER_NODE);
+        // one round trip per block, not per booking
+        assertThat(meterRegistry.get("booking.pnr.leases").counter().count())
+                .isEqualTo((double) NODES * BOOKINGS_PER_NODE / properties.getBlockSize(), within(NODES * 2.0));
+    }
+}
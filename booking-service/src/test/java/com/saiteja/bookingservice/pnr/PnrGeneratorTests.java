@@ -0,0 +1,145 @@
+package com.saiteja.bookingservice.pnr;
+
+import com.saiteja.bookingservice.model.PnrSequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PnrGeneratorTests {
+
+    private static final int BLOCK_SIZE = 100;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    // Stands in for the pnr_sequences document every node leases from
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                        eq(PnrSequence.class)))
+                .thenAnswer(invocation -> Mono.fromSupplier(() -> PnrSequence.builder()
+                        .id("pnr")
+                        .next(sequence.addAndGet(BLOCK_SIZE))
+                        .build()));
+    }
+
+    @Test
+    void next_shouldIssueUnambiguousBase32Codes() {
+        // When & Then
+        StepVerifier.create(generator().next())
+                .assertNext(pnr -> assertThat(pnr).hasSize(6).matches("[0-9A-HJKMNP-TV-Z]{6}").doesNotMatch("[0-9A-F]{6}"))
+                .verifyComplete();
+    }
+
+    @Test
+    void next_shouldLeaseOnceForAWholeBlock() {
+        // Given
+        PnrGenerator generator = generator();
+
+        // When
+        List<String> pnrs = Flux.range(0, BLOCK_SIZE / 2).concatMap(i -> generator.next()).collectList().block();
+
+        // Then
+        assertThat(pnrs).doesNotHaveDuplicates();
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PnrSequence.class));
+    }
+
+    @Test
+    void next_shouldShareOneLeaseBetweenCallersDrainingTheBlock() {
+        // Given
+        Sinks.One<PnrSequence> slowLease = Sinks.one();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PnrSequence.class))).thenReturn(slowLease.asMono());
+        PnrGenerator generator = generator();
+
+        // When & Then
+        StepVerifier.create(Flux.merge(generator.next(), generator.next(), generator.next()).collectList())
+                .then(() -> slowLease.tryEmitValue(PnrSequence.builder().id("pnr").next(BLOCK_SIZE).build()))
+                .assertNext(pnrs -> assertThat(pnrs).hasSize(3).doesNotHaveDuplicates())
+                .verifyComplete();
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PnrSequence.class));
+    }
+
+    @Test
+    void next_shouldNeverCollideAcrossConcurrentNodes() {
+        // Given
+        List<PnrGenerator> nodes = List.of(generator(), generator(), generator(), generator());
+
+        // When
+        List<String> pnrs = Flux.fromIterable(nodes)
+                .flatMap(node -> Flux.range(0, 25_000)
+                        .publishOn(Schedulers.parallel())
+                        .flatMap(i -> node.next(), 16))
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(pnrs).hasSize(100_000);
+        assertThat(new HashSet<>(pnrs)).hasSize(100_000);
+    }
+
+    @Test
+    void next_shouldFail_whenLeaseFails() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PnrSequence.class))).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        // When & Then
+        StepVerifier.create(generator().next())
+                .expectErrorMessage("mongo down")
+                .verify();
+    }
+
+    @Test
+    void permute_shouldBeBijectiveOverTheCodeSpacePrefix() {
+        Set<Long> seen = new HashSet<>();
+        for (long sequence = 0; sequence < 1 << 20; sequence++) {
+            long permuted = PnrGenerator.permute(sequence);
+            assertThat(permuted).isBetween(0L, PnrGenerator.SPACE - 1);
+            seen.add(permuted);
+        }
+        assertThat(seen).hasSize(1 << 20);
+    }
+
+    @Test
+    void encode_shouldUseCrockfordAlphabet() {
+        assertThat(PnrGenerator.encode(0)).isEqualTo("000000");
+        assertThat(PnrGenerator.encode(PnrGenerator.SPACE - 1)).isEqualTo("ZZZZZZ");
+        assertThat(PnrGenerator.isLegacy("3FA9C1")).isTrue();
+        assertThat(PnrGenerator.isLegacy("3FA9CZ")).isFalse();
+    }
+
+    private PnrGenerator generator() {
+        PnrProperties properties = new PnrProperties();
+        properties.setBlockSize(BLOCK_SIZE);
+        return new PnrGenerator(mongoTemplate, properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,93 @@
+package com.saiteja.bookingservice.repository;
+
+import com.saiteja.bookingservice.index.MongoIndexManager;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.support.EmbeddedMongo;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks a frequent flyer's booking history page by page and checks the page query seeks on the
+ * (contactEmail, _id) index without an in-memory sort. Runs with {@code mvn verify}.
+ */
+class BookingHistoryPaginationIT {
+
+    private static final String FREQUENT_FLYER = "frequent@example.com";
+    private static final int HISTORY_SIZE = 45;
+
+    private static EmbeddedMongo mongo;
+    private static BookingRepository bookingRepository;
+
+    @BeforeAll
+    static void seedBookings() {
+        mongo = EmbeddedMongo.start("booking_history_it");
+        bookingRepository = mongo.repository(BookingRepository.class, new BookingRepositoryCustomImpl(mongo.template(), mongo.client()));
+        MongoMappingContext mappingContext = (MongoMappingContext) mongo.template().getConverter().getMappingContext();
+        mappingContext.getPersistentEntity(Booking.class);
+        new MongoIndexManager(mongo.template(), mappingContext).createIndexes().block();
+
+        Flux.range(0, 600)
+                .map(index -> Booking.builder()
+                        .pnr("PNR" + index)
+                        .scheduleIds(List.of("schedule" + index % 40))
+                        .contactEmail(index % 13 == 0 && index / 13 < HISTORY_SIZE ? FREQUENT_FLYER : "user" + index % 50 + "@example.com")
+                        .status(BookingStatus.CONFIRMED)
+                        .build())
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void pages_shouldCoverHistoryNewestFirstWithoutGapsOrRepeats() {
+        List<Booking> walked = new ArrayList<>();
+        ObjectId before = null;
+        while (true) {
+            List<Booking> page = bookingRepository.findPageByContactEmail(FREQUENT_FLYER, before, 10, List.of("pnr"))
+                    .collectList()
+                    .block();
+            walked.addAll(page);
+            if (page.size() < 10) {
+                break;
+            }
+            before = new ObjectId(page.get(page.size() - 1).getId());
+        }
+
+        assertThat(walked).hasSize(HISTORY_SIZE);
+        assertThat(walked).extracting(Booking::getId).doesNotHaveDuplicates();
+        assertThat(walked).isSortedAccordingTo(Comparator.comparing((Booking booking) -> new ObjectId(booking.getId())).reversed());
+        assertThat(walked).allSatisfy(booking -> assertThat(booking.getPassengers()).isNull());
+    }
+
+    @Test
+    void pageQuery_shouldSeekOnIndexWithoutSort() {
+        Document filter = new Document("contactEmail", FREQUENT_FLYER).append("_id", new Document("$lt", new ObjectId()));
+        Document explain = mongo.template().getCollection("bookings")
+                .flatMap(collection -> Mono.from(collection.find(filter)
+                        .sort(new Document("_id", -1))
+                        .limit(11)
+                        .explain(Document.class)))
+                .block();
+
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+        assertThat(winningPlan).contains("IXSCAN").contains("contact_email_id_idx").doesNotContain("\"SORT\"");
+    }
+}
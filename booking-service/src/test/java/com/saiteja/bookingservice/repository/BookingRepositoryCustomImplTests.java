@@ -0,0 +1,232 @@
+package com.saiteja.bookingservice.repository;
+
+import com.mongodb.ClientBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.model.bulk.ClientBulkWriteOptions;
+import com.mongodb.client.model.bulk.ClientBulkWriteResult;
+import com.mongodb.client.model.bulk.ClientNamespacedWriteModel;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRepositoryCustomImplTests {
+
+    private static final List<String> OUTBOX_ENTRIES = List.of("entry-1");
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoClient mongoClient;
+
+    @InjectMocks
+    private BookingRepositoryCustomImpl bookingRepository;
+
+    @Test
+    void findPageByContactEmail_shouldSeekBeforeCursorNewestFirst() {
+        // Given
+        ObjectId beforeId = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(bookingRepository.findPageByContactEmail("test@example.com", beforeId, 21, Set.of("pnr")))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Booking.class));
+        assertThat(query.getValue().getQueryObject())
+                .isEqualTo(new Document("contactEmail", "test@example.com").append("_id", new Document("$lt", beforeId)));
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("_id", -1));
+        assertThat(query.getValue().getLimit()).isEqualTo(21);
+        assertThat(query.getValue().getFieldsObject()).isEqualTo(new Document("pnr", 1));
+    }
+
+    @Test
+    void findPageByContactEmail_shouldLoadWholeBookings_whenNoFieldsSelected() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(bookingRepository.findPageByContactEmail("test@example.com", null, 21, List.of()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Booking.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("contactEmail", "test@example.com"));
+        assertThat(query.getValue().getFieldsObject()).isEmpty();
+    }
+
+    @Test
+    void insertWithTicket_shouldSendBothInsertsWithoutWaitingForTheBookingAndThenCloseOutbox() {
+        // Given
+        Booking booking = Booking.builder().id(new ObjectId().toHexString()).pnr("ABC123").build();
+        Ticket ticket = Ticket.builder().pnr("ABC123").bookingId(booking.getId()).build();
+        Sinks.One<Booking> bookingInsert = Sinks.one();
+        serverWireVersion(21);
+        when(mongoTemplate.insert(booking)).thenReturn(bookingInsert.asMono());
+        when(mongoTemplate.insert(ticket)).thenReturn(Mono.just(ticket));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // When & Then
+        StepVerifier.create(bookingRepository.insertWithTicket(booking, ticket, OUTBOX_ENTRIES))
+                .then(() -> {
+                    verify(mongoTemplate).insert(ticket);
+                    verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class));
+                    bookingInsert.tryEmitValue(booking);
+                })
+                .expectNext(ticket)
+                .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(argThat((Query query) -> query.getQueryObject().equals(
+                new Document("id", new Document("$in", OUTBOX_ENTRIES)).append("status", OutboxStatus.ARMED))),
+                update.capture(), eq(OutboxEntry.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", OutboxStatus.DONE)
+                .containsEntry("step", SagaStep.COMPLETED);
+    }
+
+    @Test
+    void insertWithTicket_shouldReturnTicket_whenOnlyClosingOutboxFails() {
+        // Given
+        Booking booking = Booking.builder().id(new ObjectId().toHexString()).pnr("ABC123").build();
+        Ticket ticket = Ticket.builder().pnr("ABC123").bookingId(booking.getId()).build();
+        serverWireVersion(21);
+        when(mongoTemplate.insert(booking)).thenReturn(Mono.just(booking));
+        when(mongoTemplate.insert(ticket)).thenReturn(Mono.just(ticket));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        // When & Then the relay closes the entries later, finding the booking with its ticket
+        StepVerifier.create(bookingRepository.insertWithTicket(booking, ticket, OUTBOX_ENTRIES))
+                .expectNext(ticket)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertWithTicket_shouldWriteBothAndCloseOutboxInOneCommand_whenServerTakesClientBulkWrite() {
+        // Given
+        Booking booking = Booking.builder().id(new ObjectId().toHexString()).pnr("ABC123").build();
+        Ticket ticket = Ticket.builder().pnr("ABC123").bookingId(booking.getId()).build();
+        serverTakesClientBulkWrite();
+        when(mongoClient.bulkWrite(anyList(), any(ClientBulkWriteOptions.class)))
+                .thenReturn(Mono.just(mock(ClientBulkWriteResult.class)));
+
+        // When & Then
+        StepVerifier.create(bookingRepository.insertWithTicket(booking, ticket, OUTBOX_ENTRIES))
+                .assertNext(inserted -> {
+                    assertThat(inserted.getId()).isNotNull();
+                    assertThat(inserted.getCreatedAt()).isNotNull();
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<List<ClientNamespacedWriteModel>> models = ArgumentCaptor.captor();
+        verify(mongoClient).bulkWrite(models.capture(), any(ClientBulkWriteOptions.class));
+        assertThat(models.getValue()).hasSize(3);
+        verify(mongoTemplate, never()).insert(any(Object.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class));
+    }
+
+    @Test
+    void insertWithTicket_shouldReturnTicket_whenOnlyOutboxModelOfBulkWriteFails() {
+        // Given
+        Booking booking = Booking.builder().id(new ObjectId().toHexString()).pnr("ABC123").build();
+        Ticket ticket = Ticket.builder().pnr("ABC123").bookingId(booking.getId()).build();
+        serverTakesClientBulkWrite();
+        when(mongoClient.bulkWrite(anyList(), any(ClientBulkWriteOptions.class)))
+                .thenReturn(Mono.error(bulkWriteFailure(2)));
+
+        // When & Then
+        StepVerifier.create(bookingRepository.insertWithTicket(booking, ticket, OUTBOX_ENTRIES))
+                .expectNext(ticket)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertWithTicket_shouldFail_whenBookingModelOfBulkWriteFails() {
+        // Given
+        Booking booking = Booking.builder().id(new ObjectId().toHexString()).pnr("ABC123").build();
+        Ticket ticket = Ticket.builder().pnr("ABC123").bookingId(booking.getId()).build();
+        serverTakesClientBulkWrite();
+        when(mongoClient.bulkWrite(anyList(), any(ClientBulkWriteOptions.class)))
+                .thenReturn(Mono.error(bulkWriteFailure(0)));
+
+        // When & Then
+        StepVerifier.create(bookingRepository.insertWithTicket(booking, ticket, OUTBOX_ENTRIES))
+                .expectError()
+                .verify();
+    }
+
+    private void serverTakesClientBulkWrite() {
+        serverWireVersion(25);
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(database.getName()).thenReturn("booking");
+        when(mongoTemplate.getMongoDatabase()).thenReturn(Mono.just(database));
+        when(mongoTemplate.getCollectionName(Booking.class)).thenReturn("bookings");
+        when(mongoTemplate.getCollectionName(Ticket.class)).thenReturn("tickets");
+        when(mongoTemplate.getCollectionName(OutboxEntry.class)).thenReturn("booking_outbox");
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+    }
+
+    private static ClientBulkWriteException bulkWriteFailure(int model) {
+        return new ClientBulkWriteException(null, List.of(),
+                Map.of(model, new WriteError(11000, "E11000 duplicate key", new BsonDocument())),
+                null, new ServerAddress());
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private void serverWireVersion(int maxWireVersion) {
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(Mono.just(new Document("maxWireVersion", maxWireVersion)));
+    }
+}
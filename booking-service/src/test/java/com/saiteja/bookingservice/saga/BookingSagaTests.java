@@ -0,0 +1,302 @@
+package com.saiteja.bookingservice.saga;
+
+import com.mongodb.client.result.UpdateResult;
+import com.saiteja.bookingservice.client.ConcurrencyLimitExceededException;
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.LegSeats;
+import com.saiteja.bookingservice.dto.ticket.TicketResponse;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.model.enums.SagaType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingSagaTests {
+
+    private static final List<String> SEATS = List.of("1A", "1B");
+    private static final List<LegSeats> LEGS = List.of(new LegSeats("schedule123", SEATS));
+    private static final List<LegSeats> ITINERARY = List.of(
+            new LegSeats("schedule123", SEATS),
+            new LegSeats("schedule456", List.of("4C", "4D")));
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private FlightServiceClient flightServiceClient;
+
+    private BookingSaga bookingSaga;
+    private final AtomicInteger persisted = new AtomicInteger();
+    private final List<String> persistedWith = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookingSaga = new BookingSaga(mongoTemplate, flightServiceClient, new SagaProperties());
+    }
+
+    @Test
+    void book_shouldArmCompensationBeforeLockingSeatsAndLeaveClosingItToBookingWrite() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(LEGS)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", LEGS, ticket()))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("ABC123"))
+                .verifyComplete();
+
+        InOrder inOrder = inOrder(mongoTemplate, flightServiceClient);
+        inOrder.verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> entry.getStatus() == OutboxStatus.ARMED
+                && entry.getType() == SagaType.CREATE_BOOKING
+                && entry.getSeats().equals(SEATS)
+                && entry.getNextAttemptAt().isAfter(Instant.now())));
+        inOrder.verify(flightServiceClient).lockSeats(LEGS);
+        assertThat(persisted).hasValue(1);
+        // the booking write closes the entry, so the saga adds no write of its own
+        assertThat(persistedWith).containsExactly("entry-1");
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class));
+    }
+
+    @Test
+    void book_shouldCloseEntryWithoutCompensation_whenLockIsRejected() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(LEGS))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null, null)));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", LEGS, ticket()))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        assertThat(persisted).hasValue(0);
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE);
+            assertThat(update.get("step")).isEqualTo(SagaStep.LOCK_REJECTED);
+        });
+    }
+
+    @Test
+    void book_shouldCloseEntryWithoutCompensation_whenLimiterRefusesLock() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(LEGS))
+                .thenReturn(Mono.error(new ConcurrencyLimitExceededException("Flight service is busy, retry shortly")));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", LEGS, ticket()))
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify();
+
+        assertThat(persisted).hasValue(0);
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE);
+            assertThat(update.get("step")).isEqualTo(SagaStep.LOCK_REJECTED);
+        });
+    }
+
+    @Test
+    void book_shouldQueueCompensation_whenBookingCannotBePersisted() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(LEGS)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", LEGS,
+                        entryIds -> Mono.error(new IllegalStateException("mongo down"))))
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update.get("status")).isEqualTo(OutboxStatus.PENDING);
+            assertThat(update.get("step")).isEqualTo(SagaStep.SEATS_LOCKED);
+            assertThat(update.get("lastError").toString()).contains("mongo down");
+        });
+    }
+
+    @Test
+    void book_shouldNotLockSeats_whenOutboxIsUnavailable() {
+        // Given
+        when(mongoTemplate.insert(any(OutboxEntry.class))).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", LEGS, ticket()))
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        verifyNoInteractions(flightServiceClient);
+        assertThat(persisted).hasValue(0);
+    }
+
+    @Test
+    void book_shouldArmOneEntryPerLegAndLockAllLegsInOneCall() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(ITINERARY)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", ITINERARY, ticket()))
+                .assertNext(response -> assertThat(response.getPnr()).isEqualTo("ABC123"))
+                .verifyComplete();
+
+        verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> entry.getScheduleId().equals("schedule123")
+                && entry.getSeats().equals(SEATS)));
+        verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> entry.getScheduleId().equals("schedule456")
+                && entry.getSeats().equals(List.of("4C", "4D"))));
+        verify(flightServiceClient, times(1)).lockSeats(anyList());
+        assertThat(persistedWith).containsExactly("entry-1", "entry-2");
+    }
+
+    @Test
+    void book_shouldCloseEveryEntry_whenAnyLegIsRejected() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.lockSeats(ITINERARY))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null, null)));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.book("ABC123", ITINERARY, ticket()))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        assertThat(persisted).hasValue(0);
+        assertThat(updates()).singleElement().satisfies(update -> assertThat(update.get("step")).isEqualTo(SagaStep.LOCK_REJECTED));
+        assertThat(updatedIds()).singleElement().satisfies(ids -> assertThat(ids).containsExactly("entry-1", "entry-2"));
+    }
+
+    @Test
+    void cancel_shouldReleaseEveryLegAndQueueOnlyTheOneThatFails() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.releaseSeats("schedule123", SEATS)).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule456", List.of("4C", "4D")))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null, null)));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.cancel("ABC123", ITINERARY, Mono.empty()))
+                .verifyComplete();
+
+        List<Document> updates = updates();
+        List<List<Object>> ids = updatedIds();
+        assertThat(updates).hasSize(3);
+        for (int i = 1; i < updates.size(); i++) {
+            OutboxStatus status = (OutboxStatus) updates.get(i).get("status");
+            assertThat(ids.get(i)).containsExactly(status == OutboxStatus.DONE ? "entry-1" : "entry-2");
+        }
+        assertThat(updates).extracting(update -> update.get("status")).contains(OutboxStatus.DONE, OutboxStatus.PENDING);
+    }
+
+    @Test
+    void cancel_shouldPersistCancellationBeforeReleasingSeats() {
+        // Given
+        outboxAcceptsWrites();
+        AtomicInteger cancelled = new AtomicInteger();
+        when(flightServiceClient.releaseSeats("schedule123", SEATS))
+                .thenAnswer(invocation -> {
+                    assertThat(cancelled).hasValue(1);
+                    return Mono.empty();
+                });
+
+        // When & Then
+        StepVerifier.create(bookingSaga.cancel("ABC123", LEGS,
+                        Mono.fromRunnable(cancelled::incrementAndGet)))
+                .verifyComplete();
+
+        verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> entry.getType() == SagaType.CANCEL_BOOKING));
+        assertThat(updates()).last().satisfies(update -> assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE));
+    }
+
+    @Test
+    void cancel_shouldSucceedAndQueueRelease_whenFlightServiceFails() {
+        // Given
+        outboxAcceptsWrites();
+        when(flightServiceClient.releaseSeats(anyString(), anyList()))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null, null)));
+
+        // When & Then
+        StepVerifier.create(bookingSaga.cancel("ABC123", LEGS, Mono.empty()))
+                .verifyComplete();
+
+        assertThat(updates()).last().satisfies(update -> assertThat(update.get("status")).isEqualTo(OutboxStatus.PENDING));
+    }
+
+    @Test
+    void cancel_shouldNotReleaseSeats_whenCancellationCannotBePersisted() {
+        // Given
+        outboxAcceptsWrites();
+
+        // When & Then
+        StepVerifier.create(bookingSaga.cancel("ABC123", LEGS,
+                        Mono.error(new IllegalStateException("mongo down"))))
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        verifyNoInteractions(flightServiceClient);
+        assertThat(updates()).last().satisfies(update -> assertThat(update.get("status")).isEqualTo(OutboxStatus.PENDING));
+    }
+
+    private void outboxAcceptsWrites() {
+        AtomicInteger ids = new AtomicInteger();
+        when(mongoTemplate.insert(any(OutboxEntry.class))).thenAnswer(invocation -> {
+            OutboxEntry entry = invocation.getArgument(0);
+            entry.setId("entry-" + ids.incrementAndGet());
+            return Mono.just(entry);
+        });
+        lenient().when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    private List<Document> updates() {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateMulti(any(Query.class), captor.capture(), eq(OutboxEntry.class));
+        return captor.getAllValues().stream()
+                .map(update -> update.getUpdateObject().get("$set", Document.class))
+                .toList();
+    }
+
+    // The entry ids each update was scoped to, in call order
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> updatedIds() {
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).updateMulti(captor.capture(), any(Update.class), eq(OutboxEntry.class));
+        return captor.getAllValues().stream()
+                .map(query -> (List<Object>) query.getQueryObject().get("id", Document.class).get("$in"))
+                .toList();
+    }
+
+    private Function<List<String>, Mono<TicketResponse>> ticket() {
+        return entryIds -> {
+            persisted.incrementAndGet();
+            persistedWith.addAll(entryIds);
+            return Mono.just(TicketResponse.builder().pnr("ABC123").build());
+        };
+    }
+}
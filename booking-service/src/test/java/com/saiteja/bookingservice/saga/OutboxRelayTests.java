@@ -0,0 +1,384 @@
+package com.saiteja.bookingservice.saga;
+
+import com.mongodb.client.result.UpdateResult;
+import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.OutboxEntry;
+import com.saiteja.bookingservice.model.Passenger;
+import com.saiteja.bookingservice.model.Ticket;
+import com.saiteja.bookingservice.model.enums.BookingStatus;
+import com.saiteja.bookingservice.model.enums.OutboxStatus;
+import com.saiteja.bookingservice.model.enums.SagaStep;
+import com.saiteja.bookingservice.model.enums.SagaType;
+import com.saiteja.bookingservice.model.enums.TicketStatus;
+import com.saiteja.bookingservice.repository.BookingRepository;
+import com.saiteja.bookingservice.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTests {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private FlightServiceClient flightServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(mongoTemplate, bookingRepository, ticketRepository, flightServiceClient,
+                new SagaProperties(), meterRegistry);
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(Flux.empty());
+        lenient().when(ticketRepository.findByPnr(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void relayBatch_shouldReleaseSeatsOfSagaAbandonedBeforeBookingWasSaved() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A", "1B"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A", "1B"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE);
+            assertThat(update.get("step")).isEqualTo(SagaStep.COMPENSATED);
+        });
+        assertThat(meterRegistry.get("booking.saga.compensations").tag("outcome", "released").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_shouldLeaveBookingAlone_whenSagaActuallyCompleted() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.just(booking("PNR1", BookingStatus.CONFIRMED, "1A")));
+        when(ticketRepository.findByPnr("PNR1")).thenReturn(Mono.just(Ticket.builder().pnr("PNR1").build()));
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verifyNoInteractions(flightServiceClient);
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertThat(updates()).singleElement().satisfies(update -> assertThat(update.get("step")).isEqualTo(SagaStep.COMPLETED));
+    }
+
+    @Test
+    void relayBatch_shouldCancelBookingWithoutTicketAndReleaseSeats() {
+        // Given
+        Booking booking = booking("PNR1", BookingStatus.CONFIRMED, "1A");
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.just(booking));
+        when(bookingRepository.save(booking)).thenReturn(Mono.just(booking));
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void relayBatch_shouldFinishCancellationAndCancelTicket() {
+        // Given
+        Ticket ticket = Ticket.builder().pnr("PNR1").status(TicketStatus.ACTIVE).build();
+        OutboxEntry entry = entry("e1", SagaType.CANCEL_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.just(booking("PNR1", BookingStatus.CANCELLED, "1A")));
+        when(ticketRepository.findByPnr("PNR1")).thenReturn(Mono.just(ticket));
+        when(ticketRepository.save(ticket)).thenReturn(Mono.just(ticket));
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(ticket.getStatus()).isEqualTo(TicketStatus.CANCELLED);
+    }
+
+    @Test
+    void relayBatch_shouldDropCancellation_whenItWasNeverPersisted() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CANCEL_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.just(booking("PNR1", BookingStatus.CONFIRMED, "1A")));
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verifyNoInteractions(flightServiceClient);
+        assertThat(updates()).singleElement().satisfies(update -> assertThat(update.get("step")).isEqualTo(SagaStep.ABORTED));
+    }
+
+    @Test
+    void relayBatch_shouldNotReleaseSeatsHeldByAnotherBooking() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A", "1B"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class)))
+                .thenReturn(Flux.just(booking("PNR2", BookingStatus.CONFIRMED, "1A")));
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1B"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(flightServiceClient).releaseSeats("schedule1", List.of("1B"));
+    }
+
+    @Test
+    void relayBatch_shouldNotReleaseConnectingSeatsHeldByAnotherBooking() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule2", List.of("1A", "1B"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        // 1B is held on the second leg; 1A is this booking's seat on its first leg, another flight
+        Booking connecting = Booking.builder()
+                .pnr("PNR2")
+                .scheduleIds(List.of("schedule1", "schedule2"))
+                .passengers(List.of(Passenger.builder().seatNumber("1A").connectingSeatNumbers(List.of("1B")).build()))
+                .status(BookingStatus.CONFIRMED)
+                .build();
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(Flux.just(connecting));
+        when(flightServiceClient.releaseSeats("schedule2", List.of("1A"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(flightServiceClient).releaseSeats("schedule2", List.of("1A"));
+    }
+
+    @Test
+    void relayBatch_shouldReleaseSeatsOfOneScheduleInOneCall() {
+        // Given
+        OutboxEntry first = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        OutboxEntry second = entry("e2", SagaType.CREATE_BOOKING, "PNR2", "schedule1", List.of("2C"));
+        due(first, second);
+        when(bookingRepository.findByPnr(anyString())).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A", "2C"))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        verify(flightServiceClient, times(1)).releaseSeats(anyString(), anyList());
+        assertThat(updates()).hasSize(2).allSatisfy(update -> assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE));
+    }
+
+    @Test
+    void relayBatch_shouldReleaseEntryByEntry_whenBatchedReleaseIsRejected() {
+        // Given
+        OutboxEntry first = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        OutboxEntry second = entry("e2", SagaType.CREATE_BOOKING, "PNR2", "schedule1", List.of("2C"));
+        due(first, second);
+        when(bookingRepository.findByPnr(anyString())).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A", "2C"))).thenReturn(Mono.error(rejected()));
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A"))).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule1", List.of("2C"))).thenReturn(Mono.error(rejected()));
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        assertThat(updates()).hasSize(2).allSatisfy(update -> assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE));
+        assertThat(meterRegistry.get("booking.saga.compensations").tag("outcome", "released").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.saga.compensations").tag("outcome", "discarded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_shouldKeepReleasing_whenTimedOutLockMayStillLand() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        entry.setCreatedAt(Instant.now().minusSeconds(5));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        // the lock timed out and has not reached flight-service yet, so there is nothing to release so far
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A"))).thenReturn(Mono.error(rejected()));
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update).doesNotContainKey("status");
+            assertThat((Instant) update.get("nextAttemptAt")).isAfter(Instant.now());
+        });
+    }
+
+    @Test
+    void relayBatch_shouldReleaseLateLandingLockOnRetry() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        entry.setCreatedAt(Instant.now().minusSeconds(5));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class))).thenReturn(Flux.just(entry), Flux.empty(),
+                Flux.just(entry), Flux.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.just(entry));
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        // rejected while the lock is still on its way, then released once it has landed
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A")))
+                .thenReturn(Mono.error(rejected()), Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch().then(Mono.defer(outboxRelay::relayBatch)))
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(flightServiceClient, times(2)).releaseSeats("schedule1", List.of("1A"));
+        assertThat(updates()).last().satisfies(update -> {
+            assertThat(update.get("status")).isEqualTo(OutboxStatus.DONE);
+            assertThat(update.get("step")).isEqualTo(SagaStep.COMPENSATED);
+        });
+        assertThat(meterRegistry.get("booking.saga.compensations").tag("outcome", "released").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_shouldRetryLater_whenFlightServiceIsUnavailable() {
+        // Given
+        OutboxEntry entry = entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"));
+        due(entry);
+        when(bookingRepository.findByPnr("PNR1")).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseSeats("schedule1", List.of("1A")))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null, null)));
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(updates()).singleElement().satisfies(update -> {
+            assertThat(update).doesNotContainKey("status");
+            assertThat((Instant) update.get("nextAttemptAt")).isAfter(Instant.now());
+        });
+    }
+
+    @Test
+    void relayBatch_shouldSkipEntriesClaimedByAnotherInstance() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class)))
+                .thenReturn(Flux.just(entry("e1", SagaType.CREATE_BOOKING, "PNR1", "schedule1", List.of("1A"))));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxEntry.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(0)
+                .verifyComplete();
+
+        verifyNoInteractions(bookingRepository, flightServiceClient);
+    }
+
+    @Test
+    void backoff_shouldDoublePerAttemptUpToMaximum() {
+        assertThat(outboxRelay.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(outboxRelay.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(outboxRelay.backoff(40)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    // Due entries first, then no running sagas holding the same seats
+    private void due(OutboxEntry... entries) {
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class)))
+                .thenReturn(Flux.just(entries))
+                .thenReturn(Flux.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxEntry.class)))
+                .thenAnswer(invocation -> {
+                    String id = invocation.<Query>getArgument(0).getQueryObject().getString("id");
+                    return Mono.justOrEmpty(List.of(entries).stream().filter(entry -> entry.getId().equals(id)).findFirst());
+                });
+    }
+
+    private List<Document> updates() {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), captor.capture(), eq(OutboxEntry.class));
+        return captor.getAllValues().stream()
+                .map(update -> update.getUpdateObject().get("$set", Document.class))
+                .toList();
+    }
+
+    private static OutboxEntry entry(String id, SagaType type, String pnr, String scheduleId, List<String> seats) {
+        return OutboxEntry.builder()
+                .id(id)
+                .type(type)
+                .pnr(pnr)
+                .scheduleId(scheduleId)
+                .seats(seats)
+                .status(OutboxStatus.PENDING)
+                .step(SagaStep.STARTED)
+                .attempts(1)
+                .nextAttemptAt(Instant.now().minusSeconds(1))
+                .createdAt(Instant.now().minusSeconds(120))
+                .build();
+    }
+
+    private static Booking booking(String pnr, BookingStatus status, String seat) {
+        return Booking.builder()
+                .pnr(pnr)
+                .scheduleIds(List.of("schedule1"))
+                .passengers(List.of(Passenger.builder().seatNumber(seat).build()))
+                .status(status)
+                .build();
+    }
+
+    private static WebClientResponseException rejected() {
+        return WebClientResponseException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null, null);
+    }
+}
@@ -1,27 +1,38 @@
 package com.saiteja.bookingservice.service.impl;
 
+import com.saiteja.bookingservice.auth.PasswordHasher;
+import com.saiteja.bookingservice.auth.PasswordHashingProperties;
+import com.saiteja.bookingservice.auth.TokenIssuer;
+import com.saiteja.bookingservice.auth.TokenProperties;
 import com.saiteja.bookingservice.dto.auth.AuthResponse;
 import com.saiteja.bookingservice.dto.auth.UserLoginRequest;
 import com.saiteja.bookingservice.dto.auth.UserRegisterRequest;
 import com.saiteja.bookingservice.exception.BadRequestException;
 import com.saiteja.bookingservice.exception.DuplicateResourceException;
 import com.saiteja.bookingservice.exception.ResourceNotFoundException;
+import com.saiteja.bookingservice.exception.ServiceUnavailableException;
 import com.saiteja.bookingservice.model.User;
 import com.saiteja.bookingservice.model.enums.UserRole;
 import com.saiteja.bookingservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Base64;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +41,12 @@ class AuthServiceImplTests {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new PasswordHashingProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private TokenIssuer tokenIssuer = new TokenIssuer(tokenProperties());
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -150,6 +167,9 @@ class AuthServiceImplTests {
                     assertThat(response.getEmail()).isEqualTo("test@example.com");
                     assertThat(response.getRole()).isEqualTo("USER");
                     assertThat(response.getMessage()).isEqualTo("Login successful");
+                    assertThat(response.getAccessToken()).startsWith("k1.");
+                    assertThat(response.getTokenType()).isEqualTo("Bearer");
+                    assertThat(response.getExpiresIn()).isEqualTo(900);
                 })
                 .verifyComplete();
     }
@@ -184,5 +204,28 @@ class AuthServiceImplTests {
                         && throwable.getMessage().equals("Invalid credentials"))
                 .verify();
     }
-}
 
+    @Test
+    void login_shouldPropagateRejection_whenHashingPoolIsSaturated() {
+        // Given
+        when(userRepository.findByEmail(anyString())).thenReturn(Mono.just(testUser));
+        doReturn(Mono.error(new ServiceUnavailableException("Too many sign-in attempts in progress, retry shortly")))
+                .when(passwordHasher).matches(anyString(), anyString());
+
+        // When
+        Mono<AuthResponse> result = authService.login(loginRequest);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        verify(passwordHasher).matches("password123", testUser.getPassword());
+    }
+
+    private static TokenProperties tokenProperties() {
+        TokenProperties properties = new TokenProperties();
+        properties.setSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        return properties;
+    }
+}
@@ -1,25 +1,32 @@
 package com.saiteja.bookingservice.service.impl;
 
-import com.saiteja.bookingservice.client.FlightServiceClient;
+import com.saiteja.bookingservice.client.LegSeats;
 import com.saiteja.bookingservice.dto.booking.BookingCreateRequest;
 import com.saiteja.bookingservice.dto.booking.BookingResponse;
 import com.saiteja.bookingservice.dto.passenger.PassengerRequest;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
 import com.saiteja.bookingservice.exception.BadRequestException;
 import com.saiteja.bookingservice.exception.ResourceNotFoundException;
+import com.saiteja.bookingservice.idempotency.IdempotencyService;
 import com.saiteja.bookingservice.model.Booking;
+import com.saiteja.bookingservice.model.Coupon;
 import com.saiteja.bookingservice.model.Passenger;
 import com.saiteja.bookingservice.model.Ticket;
 import com.saiteja.bookingservice.model.enums.BookingStatus;
 import com.saiteja.bookingservice.model.enums.Gender;
 import com.saiteja.bookingservice.model.enums.MealOption;
 import com.saiteja.bookingservice.model.enums.TicketStatus;
+import com.saiteja.bookingservice.pagination.Pagination;
+import com.saiteja.bookingservice.pnr.PnrGenerator;
 import com.saiteja.bookingservice.repository.BookingRepository;
 import com.saiteja.bookingservice.repository.TicketRepository;
+import com.saiteja.bookingservice.saga.BookingSaga;
 import com.saiteja.bookingservice.service.TicketService;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -29,10 +36,14 @@ import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,7 +59,13 @@ class BookingServiceImplTests {
     private TicketRepository ticketRepository;
 
     @Mock
-    private FlightServiceClient flightServiceClient;
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private BookingSaga bookingSaga;
+
+    @Mock
+    private PnrGenerator pnrGenerator;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -104,9 +121,10 @@ class BookingServiceImplTests {
     @Test
     void createBooking_shouldReturnTicketResponse_whenValidRequest() {
         // Given
-        when(flightServiceClient.lockSeats(anyString(), anyList())).thenReturn(Mono.empty());
-        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(savedBooking));
-        when(ticketService.generateTicket(anyString())).thenReturn(Mono.just(ticketResponse));
+        when(pnrGenerator.next()).thenReturn(Mono.just("ABC123"));
+        when(bookingSaga.book(eq("ABC123"), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Function<List<String>, Mono<TicketResponse>>>getArgument(2).apply(List.of("entry-1")));
+        when(ticketService.issueTicket(any(Booking.class), anyList())).thenReturn(Mono.just(ticketResponse));
 
         // When
         Mono<TicketResponse> result = bookingService.createBooking(bookingRequest);
@@ -119,9 +137,12 @@ class BookingServiceImplTests {
                 })
                 .verifyComplete();
 
-        verify(flightServiceClient).lockSeats(eq("schedule123"), anyList());
-        verify(bookingRepository).save(any(Booking.class));
-        verify(ticketService).generateTicket("booking123");
+        verify(bookingSaga).book(eq("ABC123"), eq(List.of(new LegSeats("schedule123", List.of("1A")))), any());
+        verify(ticketService).issueTicket(argThat((Booking booking) -> booking.getPnr().equals("ABC123")
+                && ObjectId.isValid(booking.getId())
+                && booking.getCreatedAt() != null), eq(List.of("entry-1")));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).findById(anyString());
     }
 
     @Test
@@ -138,7 +159,7 @@ class BookingServiceImplTests {
                         && throwable.getMessage().equals("At least one schedule id is required"))
                 .verify();
 
-        verify(flightServiceClient, never()).lockSeats(anyString(), anyList());
+        verify(bookingSaga, never()).book(anyString(), anyList(), any());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -156,7 +177,7 @@ class BookingServiceImplTests {
                         && throwable.getMessage().equals("At least one schedule id is required"))
                 .verify();
 
-        verify(flightServiceClient, never()).lockSeats(anyString(), anyList());
+        verify(bookingSaga, never()).book(anyString(), anyList(), any());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -174,7 +195,77 @@ class BookingServiceImplTests {
                         && throwable.getMessage().equals("At least one passenger is required"))
                 .verify();
 
-        verify(flightServiceClient, never()).lockSeats(anyString(), anyList());
+        verify(bookingSaga, never()).book(anyString(), anyList(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_shouldLockEveryLegOfItinerary() {
+        // Given
+        bookingRequest.setScheduleIds(List.of("schedule123", "schedule456"));
+        passengerRequest.setConnectingSeatNumbers(List.of("7C"));
+        when(pnrGenerator.next()).thenReturn(Mono.just("ABC123"));
+        when(bookingSaga.book(eq("ABC123"), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Function<List<String>, Mono<TicketResponse>>>getArgument(2).apply(List.of("entry-1")));
+        when(ticketService.issueTicket(any(Booking.class), anyList())).thenReturn(Mono.just(ticketResponse));
+
+        // When & Then
+        StepVerifier.create(bookingService.createBooking(bookingRequest))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(bookingSaga).book(eq("ABC123"), eq(List.of(
+                new LegSeats("schedule123", List.of("1A")),
+                new LegSeats("schedule456", List.of("7C")))), any());
+        // one booking and one ticket for the whole itinerary
+        ArgumentCaptor<Booking> booking = ArgumentCaptor.forClass(Booking.class);
+        verify(ticketService).issueTicket(booking.capture(), eq(List.of("entry-1")));
+        assertThat(booking.getValue().getScheduleIds()).containsExactly("schedule123", "schedule456");
+        assertThat(booking.getValue().getPassengers().get(0).seatOnLeg(1)).isEqualTo("7C");
+    }
+
+    @Test
+    void createBooking_shouldThrowBadRequestException_whenConnectingSeatIsMissing() {
+        // Given
+        bookingRequest.setScheduleIds(List.of("schedule123", "schedule456"));
+
+        // When & Then
+        StepVerifier.create(bookingService.createBooking(bookingRequest))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Each passenger needs one connecting seat per leg after the first"))
+                .verify();
+
+        verify(bookingSaga, never()).book(anyString(), anyList(), any());
+    }
+
+    @Test
+    void createBooking_shouldThrowBadRequestException_whenHoldTokenGivenForItinerary() {
+        // Given
+        bookingRequest.setScheduleIds(List.of("schedule123", "schedule456"));
+        bookingRequest.setHoldToken("hold-1");
+        passengerRequest.setConnectingSeatNumbers(List.of("7C"));
+
+        // When & Then
+        StepVerifier.create(bookingService.createBooking(bookingRequest))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("A seat hold covers a single leg"))
+                .verify();
+
+        verify(bookingSaga, never()).book(anyString(), anyList(), any());
+    }
+
+    @Test
+    void createBookingWithIdempotencyKey_shouldReturnRecordedResponseWithoutLockingSeats() {
+        // Given
+        when(idempotencyService.execute(eq("retry-1"), eq(IdempotencyService.hash(bookingRequest)), any()))
+                .thenReturn(Mono.just(ticketResponse));
+
+        // When & Then
+        StepVerifier.create(bookingService.createBooking(bookingRequest, "retry-1"))
+                .expectNext(ticketResponse)
+                .verifyComplete();
+
+        verifyNoInteractions(bookingSaga);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -213,47 +304,53 @@ class BookingServiceImplTests {
     }
 
     @Test
-    void getBookingsByEmail_shouldReturnFluxOfBookingResponses() {
+    void getBookingHistory_shouldReturnNewestPageAndCursor_whenMoreBookingsExist() {
         // Given
-        Booking booking2 = Booking.builder()
-                .id("booking456")
-                .pnr("XYZ789")
-                .contactEmail("test@example.com")
-                .scheduleIds(List.of("schedule456"))
-                .passengers(List.of())
-                .status(BookingStatus.CONFIRMED)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-
-        when(bookingRepository.findByContactEmail("test@example.com"))
-                .thenReturn(Flux.just(savedBooking, booking2));
-
-        // When
-        Flux<BookingResponse> result = bookingService.getBookingsByEmail("test@example.com");
-
-        // Then
-        StepVerifier.create(result)
-                .assertNext(response -> {
-                    assertThat(response.getPnr()).isEqualTo("ABC123");
-                })
-                .assertNext(response -> {
-                    assertThat(response.getPnr()).isEqualTo("XYZ789");
+        ObjectId newest = new ObjectId();
+        ObjectId older = new ObjectId();
+        when(bookingRepository.findPageByContactEmail(eq("test@example.com"), isNull(), eq(2), eq(Set.of())))
+                .thenReturn(Flux.just(
+                        historyBooking(newest, "NEW001"),
+                        historyBooking(older, "OLD001")));
+
+        // When & Then
+        StepVerifier.create(bookingService.getBookingHistory("test@example.com", null, 1, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting("pnr").containsExactly("NEW001");
+                    assertThat(Pagination.decodeCursor(page.getNextCursor(), 1)).containsExactly(newest.toHexString());
                 })
                 .verifyComplete();
     }
 
     @Test
-    void getBookingsByEmail_shouldReturnEmptyFlux_whenNoBookingsFound() {
+    void getBookingHistory_shouldSeekPastCursorAndMapProjectedBookings() {
         // Given
-        when(bookingRepository.findByContactEmail("test@example.com")).thenReturn(Flux.empty());
+        ObjectId last = new ObjectId();
+        when(bookingRepository.findPageByContactEmail("test@example.com", last, 21, Set.of("pnr", "status")))
+                .thenReturn(Flux.just(Booking.builder().id(new ObjectId().toHexString()).pnr("OLD002")
+                        .status(BookingStatus.CANCELLED).build()));
+
+        // When & Then
+        StepVerifier.create(bookingService.getBookingHistory("test@example.com",
+                        Pagination.encodeCursor(last.toHexString()), 20, "pnr,status"))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getItems().get(0).getStatus()).isEqualTo("CANCELLED");
+                    assertThat(page.getItems().get(0).getPassengers()).isNull();
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
 
-        // When
-        Flux<BookingResponse> result = bookingService.getBookingsByEmail("test@example.com");
+    @Test
+    void getBookingHistory_shouldThrowBadRequestException_whenCursorIsInvalid() {
+        // When & Then
+        StepVerifier.create(bookingService.getBookingHistory("test@example.com", "bm90LWFuLWlk", 20, null))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Invalid page cursor"))
+                .verify();
 
-        // Then
-        StepVerifier.create(result)
-                .verifyComplete();
+        verify(bookingRepository, never()).findPageByContactEmail(anyString(), any(), anyInt(), any());
     }
 
     @Test
@@ -272,7 +369,8 @@ class BookingServiceImplTests {
                 .build();
 
         when(bookingRepository.findByPnr("ABC123")).thenReturn(Mono.just(savedBooking));
-        when(flightServiceClient.releaseSeats(anyString(), anyList())).thenReturn(Mono.empty());
+        when(bookingSaga.cancel(eq("ABC123"), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Mono<Void>>getArgument(2));
         when(ticketRepository.findByPnr("ABC123")).thenReturn(Mono.just(ticket));
         when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.just(ticket));
         when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(savedBooking));
@@ -287,11 +385,41 @@ class BookingServiceImplTests {
                 })
                 .verifyComplete();
 
-        verify(flightServiceClient).releaseSeats(eq("schedule123"), anyList());
+        verify(bookingSaga).cancel(eq("ABC123"), eq(List.of(new LegSeats("schedule123", List.of("1A")))), any());
         verify(ticketRepository).findByPnr("ABC123");
         verify(bookingRepository).save(any(Booking.class));
     }
 
+    @Test
+    void cancelBooking_shouldReleaseEveryLegAndCancelCoupons() {
+        // Given
+        savedBooking.setScheduleIds(List.of("schedule123", "schedule456"));
+        savedBooking.getPassengers().get(0).setConnectingSeatNumbers(List.of("7C"));
+        Ticket ticket = Ticket.builder()
+                .pnr("ABC123")
+                .status(TicketStatus.ACTIVE)
+                .coupons(List.of(
+                        Coupon.builder().scheduleId("schedule123").seatNumbers(List.of("1A")).status(TicketStatus.ACTIVE).build(),
+                        Coupon.builder().scheduleId("schedule456").seatNumbers(List.of("7C")).status(TicketStatus.ACTIVE).build()))
+                .build();
+        when(bookingRepository.findByPnr("ABC123")).thenReturn(Mono.just(savedBooking));
+        when(bookingSaga.cancel(eq("ABC123"), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Mono<Void>>getArgument(2));
+        when(ticketRepository.findByPnr("ABC123")).thenReturn(Mono.just(ticket));
+        when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.just(ticket));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(savedBooking));
+
+        // When & Then
+        StepVerifier.create(bookingService.cancelBooking("ABC123"))
+                .expectNext("Booking and Ticket Cancelled")
+                .verifyComplete();
+
+        verify(bookingSaga).cancel(eq("ABC123"), eq(List.of(
+                new LegSeats("schedule123", List.of("1A")),
+                new LegSeats("schedule456", List.of("7C")))), any());
+        assertThat(ticket.getCoupons()).extracting(Coupon::getStatus).containsOnly(TicketStatus.CANCELLED);
+    }
+
     @Test
     void cancelBooking_shouldThrowResourceNotFoundException_whenBookingNotFound() {
         // Given
@@ -306,7 +434,7 @@ class BookingServiceImplTests {
                         && throwable.getMessage().equals("Booking not found"))
                 .verify();
 
-        verify(flightServiceClient, never()).releaseSeats(anyString(), anyList());
+        verify(bookingSaga, never()).cancel(anyString(), anyList(), any());
     }
 
     @Test
@@ -324,7 +452,7 @@ class BookingServiceImplTests {
                         && throwable.getMessage().equals("Booking already cancelled"))
                 .verify();
 
-        verify(flightServiceClient, never()).releaseSeats(anyString(), anyList());
+        verify(bookingSaga, never()).cancel(anyString(), anyList(), any());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -332,7 +460,8 @@ class BookingServiceImplTests {
     void cancelBooking_shouldHandleTicketNotFoundGracefully() {
         // Given
         when(bookingRepository.findByPnr("ABC123")).thenReturn(Mono.just(savedBooking));
-        when(flightServiceClient.releaseSeats(anyString(), anyList())).thenReturn(Mono.empty());
+        when(bookingSaga.cancel(eq("ABC123"), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Mono<Void>>getArgument(2));
         when(ticketRepository.findByPnr("ABC123")).thenReturn(Mono.empty());
         when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(savedBooking));
 
@@ -346,8 +475,18 @@ class BookingServiceImplTests {
                 })
                 .verifyComplete();
 
-        verify(flightServiceClient).releaseSeats(anyString(), anyList());
+        verify(bookingSaga).cancel(anyString(), anyList(), any());
         verify(bookingRepository).save(any(Booking.class));
     }
-}
 
+    private static Booking historyBooking(ObjectId id, String pnr) {
+        return Booking.builder()
+                .id(id.toHexString())
+                .pnr(pnr)
+                .contactEmail("test@example.com")
+                .scheduleIds(List.of("schedule123"))
+                .passengers(List.of())
+                .status(BookingStatus.CONFIRMED)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.saiteja.bookingservice.service.impl;
 
+import com.saiteja.bookingservice.dto.ticket.CouponResponse;
 import com.saiteja.bookingservice.dto.ticket.TicketResponse;
 import com.saiteja.bookingservice.exception.ResourceNotFoundException;
 import com.saiteja.bookingservice.model.Booking;
@@ -26,6 +27,7 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -153,6 +155,49 @@ class TicketServiceImplTests {
                 .verifyComplete();
     }
 
+    @Test
+    void issueTicket_shouldWriteBookingAndTicketTogetherWithoutReadingBack() {
+        // Given
+        when(bookingRepository.insertWithTicket(eq(booking), any(Ticket.class), eq(List.of("entry-1"))))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(1)));
+
+        // When & Then
+        StepVerifier.create(ticketService.issueTicket(booking, List.of("entry-1")))
+                .assertNext(response -> {
+                    assertThat(response.getPnr()).isEqualTo("ABC123");
+                    assertThat(response.getBookingId()).isEqualTo("booking123");
+                    assertThat(response.getPassengers()).hasSize(1);
+                    assertThat(response.getIssuedAt()).isNotNull();
+                })
+                .verifyComplete();
+
+        verify(bookingRepository).insertWithTicket(eq(booking), argThat(issued -> issued.getScheduleId().equals("schedule123")),
+                eq(List.of("entry-1")));
+        verify(bookingRepository, never()).findById(anyString());
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void issueTicket_shouldIssueOneCouponPerLeg() {
+        // Given
+        booking.setScheduleIds(List.of("schedule123", "schedule456"));
+        passenger.setConnectingSeatNumbers(List.of("7C"));
+        when(bookingRepository.insertWithTicket(eq(booking), any(Ticket.class), eq(List.of("entry-1"))))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(1)));
+
+        // When & Then
+        StepVerifier.create(ticketService.issueTicket(booking, List.of("entry-1")))
+                .assertNext(response -> {
+                    assertThat(response.getCoupons()).extracting(CouponResponse::getScheduleId)
+                            .containsExactly("schedule123", "schedule456");
+                    assertThat(response.getCoupons()).extracting(CouponResponse::getSeatNumbers)
+                            .containsExactly(List.of("1A"), List.of("7C"));
+                    assertThat(response.getCoupons()).extracting(CouponResponse::getStatus).containsOnly("ACTIVE");
+                    assertThat(response.getPassengers().get(0).getConnectingSeatNumbers()).containsExactly("7C");
+                })
+                .verifyComplete();
+    }
+
     @Test
     void getTicketByPnr_shouldReturnTicketResponse_whenTicketExists() {
         // Given
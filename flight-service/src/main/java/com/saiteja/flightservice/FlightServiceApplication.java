@@ -2,12 +2,16 @@ package com.saiteja.flightservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableReactiveMongoAuditing
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class FlightServiceApplication {
 
     public static void main(String[] args) {
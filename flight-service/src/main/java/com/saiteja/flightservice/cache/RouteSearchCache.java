@@ -0,0 +1,94 @@
+package com.saiteja.flightservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.model.FlightSchedule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results per (origin, destination, date).
+ * Concurrent misses for the same key share one Mongo query. Seat locks and releases done by this
+ * instance patch the cached seat count in place, new schedules drop the entry for their route and
+ * date, and entries expire a fixed time after they were loaded regardless of patches.
+ */
+@Component
+public class RouteSearchCache {
+
+    private final RouteSearchCacheProperties properties;
+    private final AsyncCache<RouteKey, List<FlightScheduleResponse>> cache;
+
+    // Which cached entry a schedule appears in, so a seat update can find it without a lookup
+    private final Map<String, RouteKey> scheduleRoutes = new ConcurrentHashMap<>();
+
+    public RouteSearchCache(RouteSearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(Expiry.creating((RouteKey key, List<FlightScheduleResponse> value) -> properties.getTtl()))
+                .removalListener(this::forgetSchedules)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "flight_search");
+    }
+
+    public Flux<FlightScheduleResponse> get(String origin, String destination, LocalDate date,
+                                            Supplier<Flux<FlightScheduleResponse>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        RouteKey key = new RouteKey(origin, destination, date);
+        // the load is shared by every waiting subscriber, so one of them cancelling must not cancel it
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.get()
+                        .collectList()
+                        .doOnNext(results -> results.forEach(result -> scheduleRoutes.put(result.getScheduleId(), key)))
+                        .toFuture()), true)
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    public void invalidate(String origin, String destination, LocalDate date) {
+        cache.synchronous().invalidate(new RouteKey(origin, destination, date));
+    }
+
+    public void updateSeats(FlightSchedule schedule) {
+        RouteKey key = scheduleRoutes.get(schedule.getId());
+        if (key == null) {
+            return;
+        }
+        cache.asMap().computeIfPresent(key, (k, results) -> {
+            if (!results.isDone() || results.isCompletedExceptionally()) {
+                // a load that started before this write may have read the old count
+                return null;
+            }
+            return CompletableFuture.completedFuture(results.join().stream()
+                    .map(result -> result.getScheduleId().equals(schedule.getId())
+                            ? result.toBuilder().availableSeats(schedule.getAvailableSeats()).build()
+                            : result)
+                    .toList());
+        });
+    }
+
+    private void forgetSchedules(RouteKey key, List<FlightScheduleResponse> results, RemovalCause cause) {
+        // a patched entry replaces itself and still covers the same schedules
+        if (cause == RemovalCause.REPLACED || key == null || results == null) {
+            return;
+        }
+        results.forEach(result -> scheduleRoutes.remove(result.getScheduleId(), key));
+    }
+
+    private record RouteKey(String origin, String destination, LocalDate date) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.saiteja.flightservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flight.search.cache")
+public class RouteSearchCacheProperties {
+
+    private boolean enabled = true;
+
+    // Number of (origin, destination, date) entries kept before least-used ones are evicted
+    private long maximumSize = 10_000;
+
+    // Upper bound on staleness for writes this instance does not see (other instances, direct DB edits)
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,60 @@
+package com.saiteja.flightservice.cache;
+
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Tells the api-gateway how long it may cache a search result. A JSON result is collected before it is
+ * written, so its headers can carry a max-age that drops once seats run low and list its schedules in
+ * X-Cache-Tags; responses that change seats name their schedule in X-Cache-Invalidate, which evicts
+ * every cached search tagged with it. NDJSON and SSE results keep streaming and are never cached.
+ */
+@Component
+public class SearchCacheControl {
+
+    public static final String CACHE_TAGS_HEADER = "X-Cache-Tags";
+    public static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+
+    private final SearchCacheControlProperties properties;
+
+    public SearchCacheControl(SearchCacheControlProperties properties) {
+        this.properties = properties;
+    }
+
+    public Flux<FlightScheduleResponse> apply(Flux<FlightScheduleResponse> results, ServerWebExchange exchange) {
+        if (!properties.isEnabled() || streaming(exchange.getRequest().getHeaders().getAccept())) {
+            return results;
+        }
+        // the results come from the route cache as a list anyway, so holding them back costs no latency
+        return results.collectList()
+                .doOnNext(list -> tag(exchange.getResponse().getHeaders(), list))
+                .flatMapIterable(list -> list);
+    }
+
+    public void invalidate(ServerHttpResponse response, String scheduleId) {
+        response.getHeaders().add(INVALIDATE_HEADER, scheduleId);
+    }
+
+    private void tag(HttpHeaders headers, List<FlightScheduleResponse> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        boolean lowSeats = results.stream().anyMatch(result -> result.getAvailableSeats() != null
+                && result.getAvailableSeats() <= properties.getLowSeatsThreshold());
+        headers.setCacheControl(CacheControl.maxAge(lowSeats ? properties.getLowSeatsMaxAge() : properties.getMaxAge()));
+        headers.set(CACHE_TAGS_HEADER, String.join(",", results.stream().map(FlightScheduleResponse::getScheduleId).toList()));
+    }
+
+    private static boolean streaming(List<MediaType> accept) {
+        return accept.stream().anyMatch(type -> MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(type)
+                || MediaType.TEXT_EVENT_STREAM.equalsTypeAndSubtype(type));
+    }
+}
@@ -0,0 +1,21 @@
+package com.saiteja.flightservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flight.search.http-cache")
+public class SearchCacheControlProperties {
+
+    private boolean enabled = true;
+
+    // How long the gateway may answer a search from its cache
+    private Duration maxAge = Duration.ofSeconds(10);
+
+    // Shorter lifetime once any flight in the result is close to selling out
+    private Duration lowSeatsMaxAge = Duration.ofSeconds(2);
+
+    private int lowSeatsThreshold = 9;
+}
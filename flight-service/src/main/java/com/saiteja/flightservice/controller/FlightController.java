@@ -1,10 +1,13 @@
 package com.saiteja.flightservice.controller;
 
+import com.saiteja.flightservice.dto.PageResponse;
 import com.saiteja.flightservice.dto.flight.FlightCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightResponse;
+import com.saiteja.flightservice.pagination.Pagination;
 import com.saiteja.flightservice.service.FlightService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -23,9 +26,21 @@ public class FlightController {
                 .map(response -> ResponseEntity.status(201).body(response));
     }
 
-    @GetMapping
-    public Mono<ResponseEntity<Flux<FlightResponse>>> getAllFlights() {
-        return Mono.just(ResponseEntity.ok(flightService.getAllFlights()));
+    // One keyset page; pass the returned nextCursor to continue, and fields=a,b to trim each flight
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PageResponse<FlightResponse>>> getFlights(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        return flightService.getFlightPage(cursor, limit, fields)
+                .map(ResponseEntity::ok);
+    }
+
+    // Full catalog export; NDJSON and SSE clients get each flight flushed as soon as it is read
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<FlightResponse> getAllFlights() {
+        return flightService.getAllFlights();
     }
 
     @GetMapping("/{flightNumber}")
@@ -1,14 +1,27 @@
 package com.saiteja.flightservice.controller;
 
+import com.saiteja.flightservice.cache.SearchCacheControl;
+import com.saiteja.flightservice.dto.PageResponse;
+import com.saiteja.flightservice.dto.flight.ConnectionSearchRequest;
+import com.saiteja.flightservice.dto.flight.FareCalendarDayResponse;
+import com.saiteja.flightservice.dto.flight.FareCalendarRequest;
 import com.saiteja.flightservice.dto.flight.FlightScheduleCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
 import com.saiteja.flightservice.dto.flight.FlightSearchRequest;
+import com.saiteja.flightservice.dto.flight.ItineraryResponse;
+import com.saiteja.flightservice.dto.flight.SeatHoldResponse;
+import com.saiteja.flightservice.dto.flight.SeatLockRequest;
+import com.saiteja.flightservice.pagination.Pagination;
 import com.saiteja.flightservice.service.FlightScheduleService;
+import com.saiteja.flightservice.service.ItineraryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -19,6 +32,8 @@ import reactor.core.publisher.Mono;
 public class FlightScheduleController {
 
     private final FlightScheduleService flightScheduleService;
+    private final ItineraryService itineraryService;
+    private final SearchCacheControl searchCacheControl;
 
     @PostMapping("/inventory")
     public Mono<ResponseEntity<FlightScheduleResponse>> addInventory(@Valid @RequestBody FlightScheduleCreateRequest request) {
@@ -26,19 +41,60 @@ public class FlightScheduleController {
                 .map(response -> ResponseEntity.status(201).body(response));
     }
 
-    @PostMapping("/search")
-    public Mono<ResponseEntity<Flux<FlightScheduleResponse>>> searchFlights(@Valid @RequestBody FlightSearchRequest request) {
+    // JSON array by default, tagged for the gateway's cache; NDJSON and SSE flush each schedule as soon as it is mapped
+    @PostMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<FlightScheduleResponse> searchFlights(@Valid @RequestBody FlightSearchRequest request,
+                                                     ServerWebExchange exchange) {
+        return searchCacheControl.apply(flightScheduleService.searchFlights(
+                request.getOriginAirport().trim().toUpperCase(),
+                request.getDestinationAirport().trim().toUpperCase(),
+                request.getFlightDate()
+        ), exchange);
+    }
+
+    // Cheapest fare and remaining seats per day for a date range, e.g. +/- 3 days or a whole month
+    @PostMapping("/search/calendar")
+    public Mono<ResponseEntity<Flux<FareCalendarDayResponse>>> fareCalendar(@Valid @RequestBody FareCalendarRequest request) {
+        return Mono.just(
+                ResponseEntity.ok(
+                        flightScheduleService.fareCalendar(
+                                request.getOriginAirport().trim().toUpperCase(),
+                                request.getDestinationAirport().trim().toUpperCase(),
+                                request.getFromDate(),
+                                request.getToDate()
+                        )
+                )
+        );
+    }
+
+    // Nonstop plus one- and two-stop itineraries, shortest first
+    @PostMapping("/search/connections")
+    public Mono<ResponseEntity<Flux<ItineraryResponse>>> searchConnections(@Valid @RequestBody ConnectionSearchRequest request) {
         return Mono.just(
                 ResponseEntity.ok(
-                        flightScheduleService.searchFlights(
+                        itineraryService.searchItineraries(
                                 request.getOriginAirport().trim().toUpperCase(),
                                 request.getDestinationAirport().trim().toUpperCase(),
-                                request.getFlightDate()
+                                request.getFlightDate(),
+                                request.getMaxStops()
                         )
                 )
         );
     }
 
+    // Schedules of one flight by date, one keyset page at a time
+    @GetMapping("/flights/{flightId}/schedules")
+    public Mono<ResponseEntity<PageResponse<FlightScheduleResponse>>> getSchedules(
+            @PathVariable String flightId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        return flightScheduleService.getSchedulePage(flightId, cursor, limit, fields)
+                .map(ResponseEntity::ok);
+    }
+
     // Internal endpoint for booking-service to fetch schedule by id
     @GetMapping("/internal/schedules/{id}")
     public Mono<ResponseEntity<FlightScheduleResponse>> getScheduleById(@PathVariable String id) {
@@ -46,10 +102,39 @@ public class FlightScheduleController {
                 .map(ResponseEntity::ok);
     }
 
-    // Internal endpoint for booking-service to lock seats
+    // Reserves seats while the customer pays; the returned token is passed on with the booking.
+    // X-User-Id is set by the gateway from the caller's token and stripped from anything the client sent
+    @PostMapping("/schedules/{id}/holds")
+    public Mono<ResponseEntity<SeatHoldResponse>> holdSeats(@PathVariable String id, @RequestBody java.util.List<String> seatNumbers,
+                                                           @RequestHeader(value = "X-User-Id", required = false) String userId,
+                                                           ServerHttpResponse response) {
+        return flightScheduleService.holdSeats(id, userId, seatNumbers)
+                .doOnNext(hold -> searchCacheControl.invalidate(response, id))
+                .map(hold -> ResponseEntity.status(201).body(hold));
+    }
+
+    @DeleteMapping("/schedules/{id}/holds/{holdToken}")
+    public Mono<ResponseEntity<Void>> releaseHold(@PathVariable String id, @PathVariable String holdToken,
+                                                  ServerHttpResponse response) {
+        return flightScheduleService.releaseHold(id, holdToken)
+                .then(Mono.fromRunnable(() -> searchCacheControl.invalidate(response, id)))
+                .thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+
+    // Internal endpoint for booking-service to lock seats, or to confirm the hold they are under
     @PostMapping("/internal/schedules/{id}/lock-seats")
-    public Mono<ResponseEntity<Void>> lockSeats(@PathVariable String id, @RequestBody java.util.List<String> seatNumbers) {
-        return flightScheduleService.lockSeats(id, seatNumbers)
+    public Mono<ResponseEntity<Void>> lockSeats(@PathVariable String id, @RequestParam(required = false) String holdToken,
+                                                @RequestBody java.util.List<String> seatNumbers) {
+        return (holdToken == null
+                ? flightScheduleService.lockSeats(id, seatNumbers)
+                : flightScheduleService.confirmHold(id, holdToken, seatNumbers))
+                .thenReturn(ResponseEntity.ok().<Void>build());
+    }
+
+    // Internal endpoint for booking-service to lock the seats of every leg of an itinerary in one call
+    @PostMapping("/internal/schedules/lock-seats")
+    public Mono<ResponseEntity<Void>> lockItinerarySeats(@RequestBody java.util.List<@Valid SeatLockRequest> legs) {
+        return flightScheduleService.lockSeats(legs)
                 .thenReturn(ResponseEntity.ok().<Void>build());
     }
 
@@ -0,0 +1,125 @@
+package com.saiteja.flightservice.deadline;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.saiteja.flightservice.exception.DeadlineExceededException;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * The instant by which the caller stops waiting for a request. It travels as the milliseconds the
+ * caller still waits in {@link #HEADER}, set by api-gateway on its flight routes and by booking-service
+ * on seat calls, so no two hosts need agreeing clocks. {@link RequestDeadlineFilter} turns it into a
+ * local instant in the request's Reactor context, and the schedule, search and seat inventory reads
+ * and seat writes made for it pass what is left of it to MongoDB as maxTimeMS. Seat writes batched
+ * across requests run under the earliest deadline of the batch, see
+ * {@link com.saiteja.flightservice.seat.SeatUpdateBatcher}.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private RequestDeadline() {
+    }
+
+    // Null when the request carries no deadline
+    public static Instant of(ContextView context) {
+        return context.getOrDefault(RequestDeadline.class, null);
+    }
+
+    // The context of a call made under the deadline; a null deadline leaves the context as it is
+    public static Function<Context, Context> until(Instant deadline) {
+        return context -> deadline == null ? context : context.put(RequestDeadline.class, deadline);
+    }
+
+    // Runs the query with maxTimeMS set to what is left of the request's deadline; once that has passed, it is not run at all
+    public static <T> Flux<T> find(Query query, Function<Query, Publisher<T>> find) {
+        return within(remaining -> find.apply(remaining == null ? query : query.maxTime(remaining)));
+    }
+
+    // As find, for an aggregation; whatever options it already has are kept
+    public static <T> Flux<T> aggregate(Aggregation aggregation, Function<Aggregation, Publisher<T>> aggregate) {
+        return within(remaining -> aggregate.apply(remaining == null ? aggregation
+                : aggregation.withOptions(withMaxTime(aggregation.getOptions(), remaining))));
+    }
+
+    // As find, for a findAndModify, which takes its maxTime outside the query; null when there is no deadline
+    public static <T> Mono<T> modify(Function<Duration, Publisher<T>> modify) {
+        return within(modify).singleOrEmpty();
+    }
+
+    // AggregationOptions has no copy builder, so each option is carried over; a shorter maxTime of its own wins
+    static AggregationOptions withMaxTime(AggregationOptions options, Duration remaining) {
+        AggregationOptions.Builder builder = AggregationOptions.builder()
+                .explain(options.isExplain())
+                .maxTime(options.hasExecutionTimeLimit() && options.getMaxTime().compareTo(remaining) < 0
+                        ? options.getMaxTime() : remaining);
+        if (options.isAllowDiskUseSet()) {
+            builder.allowDiskUse(options.isAllowDiskUse());
+        }
+        options.getCursor().ifPresent(builder::cursor);
+        options.getCollation().ifPresent(builder::collation);
+        options.getComment().ifPresent(builder::comment);
+        options.getHintObject().ifPresent(hint -> {
+            if (hint instanceof Document document) {
+                builder.hint(document);
+            } else {
+                builder.hint(hint.toString());
+            }
+        });
+        if (options.hasReadConcern()) {
+            builder.readConcern(options.getReadConcern());
+        }
+        if (options.hasReadPreference()) {
+            builder.readPreference(options.getReadPreference());
+        }
+        if (options.isSkipResults()) {
+            builder.skipOutput();
+        }
+        switch (options.getDomainTypeMapping()) {
+            case STRICT -> builder.strictMapping();
+            case NONE -> builder.noMapping();
+            case RELAXED -> builder.relaxedMapping();
+        }
+        return builder.build();
+    }
+
+    private static <T> Flux<T> within(Function<Duration, Publisher<T>> call) {
+        return Flux.deferContextual(context -> {
+            Instant deadline = of(context);
+            if (deadline == null) {
+                return call.apply(null);
+            }
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (!remaining.isPositive()) {
+                return Flux.error(new DeadlineExceededException("Request deadline passed before querying MongoDB"));
+            }
+            return Flux.from(call.apply(remaining))
+                    .onErrorMap(e -> NestedExceptionUtils.getMostSpecificCause(e) instanceof MongoExecutionTimeoutException,
+                            e -> new DeadlineExceededException("Request deadline passed while querying MongoDB"));
+        });
+    }
+
+    // The local deadline for a request that arrived at now; null when the header is missing or not a number
+    static Instant parse(String header, Instant now) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return now.plusMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.saiteja.flightservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PageResponse<T> {
+
+    private List<T> items;
+
+    // Opaque token for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.saiteja.flightservice.dto.flight;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ConnectionSearchRequest {
+
+    @NotBlank
+    private String originAirport;
+
+    @NotBlank
+    private String destinationAirport;
+
+    @NotNull
+    private LocalDate flightDate;
+
+    @Min(value = 0, message = "maxStops cannot be negative")
+    @Max(value = 2, message = "At most two stops are supported")
+    private int maxStops = 1;
+}
@@ -0,0 +1,17 @@
+package com.saiteja.flightservice.dto.flight;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class FareCalendarDayResponse {
+
+    private LocalDate date;
+    private BigDecimal lowestFare;
+    private Integer availableSeats;
+    private Integer flights;
+}
@@ -0,0 +1,23 @@
+package com.saiteja.flightservice.dto.flight;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class FareCalendarRequest {
+
+    @NotBlank
+    private String originAirport;
+
+    @NotBlank
+    private String destinationAirport;
+
+    @NotNull
+    private LocalDate fromDate;
+
+    @NotNull
+    private LocalDate toDate;
+}
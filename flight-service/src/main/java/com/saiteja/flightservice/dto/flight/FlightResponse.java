@@ -1,10 +1,12 @@
 package com.saiteja.flightservice.dto.flight;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.saiteja.flightservice.model.enums.Airline;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
 public class FlightResponse {
     private String id;
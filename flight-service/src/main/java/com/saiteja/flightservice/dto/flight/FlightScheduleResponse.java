@@ -1,5 +1,6 @@
 package com.saiteja.flightservice.dto.flight;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,7 +9,8 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Data
-@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
 public class FlightScheduleResponse {
 
     private String scheduleId;
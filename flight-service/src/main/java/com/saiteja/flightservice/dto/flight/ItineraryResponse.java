@@ -0,0 +1,22 @@
+package com.saiteja.flightservice.dto.flight;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ItineraryResponse {
+
+    private int stops;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private long durationMinutes;
+    private BigDecimal totalFare;
+    // Seats bookable end to end, i.e. the fewest left on any leg
+    private Integer availableSeats;
+    private List<FlightScheduleResponse> legs;
+}
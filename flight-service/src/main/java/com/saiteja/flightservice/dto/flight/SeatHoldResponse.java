@@ -0,0 +1,17 @@
+package com.saiteja.flightservice.dto.flight;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class SeatHoldResponse {
+
+    private String holdToken;
+    private String scheduleId;
+    private List<String> seats;
+    private Instant expiresAt;
+}
@@ -0,0 +1,27 @@
+package com.saiteja.flightservice.dto.flight;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Seats to lock on one leg of an itinerary
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatLockRequest {
+
+    @NotBlank
+    private String scheduleId;
+
+    @NotEmpty
+    private List<String> seatNumbers;
+
+    // Confirms this seat hold instead of locking the seats afresh
+    private String holdToken;
+}
@@ -0,0 +1,22 @@
+package com.saiteja.flightservice.index;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CollectionIndexReport {
+
+    private String collection;
+
+    // Index keys declared on the mapped model, e.g. "{flightNumber: 1} unique"
+    private List<String> declared;
+
+    // Declared indexes that do not exist on the collection yet
+    private List<String> missing;
+
+    // Existing secondary indexes with no recorded use since the mongod last started
+    private List<String> unused;
+}
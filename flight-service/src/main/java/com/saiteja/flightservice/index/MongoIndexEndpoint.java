@@ -0,0 +1,23 @@
+package com.saiteja.flightservice.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// GET /actuator/mongoindexes on flight-service - declared vs. missing vs. unused indexes of flights and schedules
+@Component
+@Endpoint(id = "mongoindexes")
+@RequiredArgsConstructor
+public class MongoIndexEndpoint {
+
+    private final MongoIndexManager indexManager;
+
+    @ReadOperation
+    public Mono<List<CollectionIndexReport>> indexes() {
+        return indexManager.report().collectList();
+    }
+}
@@ -0,0 +1,24 @@
+package com.saiteja.flightservice.itinerary;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flight.itinerary")
+public class ItineraryProperties {
+
+    // Shortest layover a connection may have between arrival and the next departure
+    private Duration minConnection = Duration.ofMinutes(45);
+
+    private Duration maxConnection = Duration.ofHours(6);
+
+    // Cap on airport sequences explored per search, so a dense hub network cannot blow up a request
+    private int maxRoutes = 200;
+
+    private int maxResults = 50;
+
+    // How often the route graph is rebuilt from Mongo to pick up flights changed by other instances
+    private Duration graphRefreshInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,140 @@
+package com.saiteja.flightservice.itinerary;
+
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Airport-level view of the {@code flights} collection used to enumerate connecting routes without
+ * touching Mongo. Local flight changes are applied immediately; a periodic reload picks up changes
+ * made through other instances. Readers work on an immutable snapshot and never block.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteGraph {
+
+    private final FlightRepository flightRepository;
+
+    private final Map<String, Flight> flightsById = new HashMap<>();
+    private long version;
+
+    private volatile Snapshot snapshot = Snapshot.of(List.of());
+
+    @Scheduled(fixedDelayString = "${flight.itinerary.graph-refresh-interval:PT5M}")
+    public void refresh() {
+        reload().subscribe(null, e -> log.warn("Route graph reload failed, keeping the current graph", e));
+    }
+
+    public Mono<Void> reload() {
+        long startedAt;
+        synchronized (this) {
+            startedAt = version;
+        }
+        return flightRepository.findAll()
+                .collectList()
+                .doOnNext(flights -> {
+                    synchronized (this) {
+                        // a local change raced the load; the load may predate it, so wait for the next refresh
+                        if (version != startedAt) {
+                            return;
+                        }
+                        flightsById.clear();
+                        flights.forEach(flight -> flightsById.put(flight.getId(), flight));
+                        publish();
+                    }
+                })
+                .then();
+    }
+
+    public synchronized void addFlight(Flight flight) {
+        flightsById.put(flight.getId(), flight);
+        publish();
+    }
+
+    public synchronized void removeFlight(Flight flight) {
+        flightsById.remove(flight.getId());
+        publish();
+    }
+
+    public List<Flight> flights(String origin, String destination) {
+        return snapshot.outbound.getOrDefault(origin, Map.of()).getOrDefault(destination, List.of());
+    }
+
+    /**
+     * Airport sequences from origin to destination with at most {@code maxStops} intermediate
+     * airports and no airport visited twice, nonstop first, e.g. {@code [DEL, BOM, GOI]}.
+     */
+    public List<List<String>> routes(String origin, String destination, int maxStops, int maxRoutes) {
+        Snapshot graph = snapshot;
+        Map<String, List<Flight>> fromOrigin = graph.outbound.getOrDefault(origin, Map.of());
+        Set<String> intoDestination = graph.inbound.getOrDefault(destination, Set.of());
+        List<List<String>> routes = new ArrayList<>();
+
+        if (fromOrigin.containsKey(destination)) {
+            routes.add(List.of(origin, destination));
+        }
+        if (maxStops >= 1) {
+            for (String stop : fromOrigin.keySet()) {
+                if (routes.size() >= maxRoutes) {
+                    return routes;
+                }
+                if (!stop.equals(destination) && intoDestination.contains(stop)) {
+                    routes.add(List.of(origin, stop, destination));
+                }
+            }
+        }
+        if (maxStops >= 2) {
+            // meet in the middle: first hops out of the origin against last hops into the destination
+            for (String first : fromOrigin.keySet()) {
+                if (first.equals(destination)) {
+                    continue;
+                }
+                Map<String, List<Flight>> fromFirst = graph.outbound.getOrDefault(first, Map.of());
+                for (String second : intoDestination) {
+                    if (routes.size() >= maxRoutes) {
+                        return routes;
+                    }
+                    if (!second.equals(origin) && !second.equals(first) && fromFirst.containsKey(second)) {
+                        routes.add(List.of(origin, first, second, destination));
+                    }
+                }
+            }
+        }
+        return routes;
+    }
+
+    private void publish() {
+        version++;
+        snapshot = Snapshot.of(flightsById.values());
+    }
+
+    private record Snapshot(Map<String, Map<String, List<Flight>>> outbound, Map<String, Set<String>> inbound) {
+
+        static Snapshot of(Collection<Flight> flights) {
+            Map<String, Map<String, List<Flight>>> outbound = new HashMap<>();
+            Map<String, Set<String>> inbound = new HashMap<>();
+            for (Flight flight : flights) {
+                outbound.computeIfAbsent(flight.getOriginAirport(), airport -> new LinkedHashMap<>())
+                        .computeIfAbsent(flight.getDestinationAirport(), airport -> new ArrayList<>())
+                        .add(flight);
+                inbound.computeIfAbsent(flight.getDestinationAirport(), airport -> new LinkedHashSet<>())
+                        .add(flight.getOriginAirport());
+            }
+            return new Snapshot(outbound, inbound);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.saiteja.flightservice.migration;
+
+import com.saiteja.flightservice.model.SeatMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Converts schedules written before the bitmap seat inventory, which kept a {@code bookedSeats}
+ * array of labels, into {@code seatBitmap}. Runs in the background at startup; the seat lock path
+ * also migrates a single schedule on demand if it gets there first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatBitmapMigration implements ApplicationRunner {
+
+    private static final String COLLECTION = "flight_schedules";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.find(Query.query(Criteria.where("seatBitmap").exists(false)), Document.class, COLLECTION)
+                .concatMap(this::migrate)
+                .filter(Boolean::booleanValue)
+                .count()
+                .subscribe(
+                        migrated -> {
+                            if (migrated > 0) {
+                                log.info("Migrated {} flight schedules to bitmap seat inventory", migrated);
+                            }
+                        },
+                        e -> log.error("Seat inventory migration failed", e)
+                );
+    }
+
+    public Mono<Void> migrate(String scheduleId) {
+        Object id = ObjectId.isValid(scheduleId) ? new ObjectId(scheduleId) : scheduleId;
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("seatBitmap").exists(false));
+        return mongoTemplate.findOne(query, Document.class, COLLECTION)
+                .flatMap(this::migrate)
+                .then();
+    }
+
+    private Mono<Boolean> migrate(Document legacy) {
+        if (!(legacy.get("totalSeats") instanceof Number totalSeats)) {
+            // without a capacity there is no layout to map seats onto; the schedule stays as it is
+            log.warn("Schedule {} has no totalSeats, left unmigrated", legacy.get("_id"));
+            return Mono.just(false);
+        }
+        SeatMap seatMap = SeatMap.forCapacity(totalSeats.intValue());
+        List<String> bookedSeats = legacy.getList("bookedSeats", String.class, List.of());
+
+        List<String> mappable = bookedSeats.stream()
+                .filter(seat -> seatMap.indexOf(seat) >= 0)
+                .toList();
+        if (mappable.size() != bookedSeats.size()) {
+            // availableSeats is left untouched, so these seats stay out of sale rather than being double sold
+            log.warn("Schedule {} has booked seats outside its layout, dropped from bitmap: {}",
+                    legacy.get("_id"), bookedSeats.stream().filter(seat -> !mappable.contains(seat)).toList());
+        }
+
+        List<Long> bitmap = Arrays.stream(seatMap.mask(mappable)).boxed().toList();
+
+        // guarded on the bitmap still being absent so concurrent migrations cannot clobber later locks
+        Query guard = Query.query(Criteria.where("_id").is(legacy.get("_id")).and("seatBitmap").exists(false));
+        Update update = new Update()
+                .set("seatBitmap", bitmap)
+                .unset("bookedSeats");
+
+        return mongoTemplate.updateFirst(guard, update, COLLECTION)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+}
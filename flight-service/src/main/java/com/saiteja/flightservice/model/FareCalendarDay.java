@@ -0,0 +1,24 @@
+package com.saiteja.flightservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One day of a route's fare calendar, grouped server-side from that day's schedules
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareCalendarDay {
+
+    private LocalDate date;
+
+    // Cheapest fare among schedules that still have seats; null when the day is sold out
+    private BigDecimal lowestFare;
+
+    private Integer availableSeats;
+
+    private Integer flights;
+}
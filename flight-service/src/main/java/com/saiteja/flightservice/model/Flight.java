@@ -9,6 +9,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -18,11 +20,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Data
 @Document(collection = "flights")
+@CompoundIndex(name = "route_idx", def = "{'originAirport': 1, 'destinationAirport': 1}")
 public class Flight {
 
     @Id
     private String id;
 
+    @Indexed(name = "flight_number_idx", unique = true)
     @NotBlank(message = "flight number cannot be empty")
     @Pattern(
             regexp = "^[A-Z]{1,3}\\d{2,4}$",
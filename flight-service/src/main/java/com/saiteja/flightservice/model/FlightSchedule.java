@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -21,6 +22,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "flight_schedules")
+// _id as the last key lets paged listings seek and sort on the index alone
+@CompoundIndex(name = "flight_date_id_idx", def = "{'flightId': 1, 'flightDate': 1, '_id': 1}")
 public class FlightSchedule {
 
     @Id
@@ -42,7 +45,11 @@ public class FlightSchedule {
 
     private FlightStatus status;
 
-    private List<String> bookedSeats;
+    // Packed occupancy bitset, one 64-bit word per 64 seats of the SeatMap layout
+    private List<Long> seatBitmap;
+
+    // Unexpired and not yet reaped holds; their seats are set in seatBitmap and excluded from availableSeats
+    private List<SeatHold> holds;
 
     @CreatedDate
     private LocalDateTime createdAt;
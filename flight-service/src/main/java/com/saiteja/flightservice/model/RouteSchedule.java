@@ -0,0 +1,16 @@
+package com.saiteja.flightservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One row of a route search: a schedule joined with the flight it belongs to
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteSchedule {
+
+    private Flight flight;
+
+    private FlightSchedule schedule;
+}
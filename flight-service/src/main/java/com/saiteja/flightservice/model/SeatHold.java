@@ -0,0 +1,34 @@
+package com.saiteja.flightservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.Instant;
+import java.util.List;
+
+// Seats reserved on a schedule while the customer pays; embedded so the hold and its seats change in one write
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+
+    // Handed to the client and required to confirm or drop the hold
+    private String token;
+
+    // X-User-Id of the customer who took the hold, as forwarded by the gateway
+    @Indexed(name = "hold_owner_idx", sparse = true)
+    private String owner;
+
+    private List<String> seats;
+
+    // Held seats in the layout of FlightSchedule.seatBitmap
+    private List<Long> seatMask;
+
+    // lets the reaper find schedules with expired holds without scanning
+    @Indexed(name = "hold_expiry_idx", sparse = true)
+    private Instant expiresAt;
+}
@@ -0,0 +1,152 @@
+package com.saiteja.flightservice.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cabin layout derived from a flight's seat capacity. Seat labels such as "12C" map to a dense
+ * index (row-major), and occupancy is kept as a packed bitset of 64-bit words so the schedule
+ * document can be updated with {@code $bit} and guarded with {@code $bitsAllClear}.
+ */
+public final class SeatMap {
+
+    public static final int WORD_BITS = Long.SIZE;
+
+    private static final String SEAT_LETTERS = "ABCDEFGHJK";
+    private static final int NARROW_BODY_MAX_CAPACITY = 200;
+
+    private final int capacity;
+    private final int seatsPerRow;
+
+    private SeatMap(int capacity, int seatsPerRow) {
+        this.capacity = capacity;
+        this.seatsPerRow = seatsPerRow;
+    }
+
+    public static SeatMap forCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Seat capacity must be at least 1");
+        }
+        // six abreast (A-F) up to narrow-body sizes, ten abreast (A-K without I) above
+        return new SeatMap(capacity, capacity <= NARROW_BODY_MAX_CAPACITY ? 6 : 10);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int wordCount() {
+        return (capacity + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    public List<Long> emptyBitmap() {
+        return new ArrayList<>(Collections.nCopies(wordCount(), 0L));
+    }
+
+    // Returns -1 for labels that are malformed or outside this layout
+    public int indexOf(String seatLabel) {
+        if (seatLabel == null) {
+            return -1;
+        }
+        String label = seatLabel.trim().toUpperCase(Locale.ROOT);
+        if (label.length() < 2) {
+            return -1;
+        }
+        int column = SEAT_LETTERS.indexOf(label.charAt(label.length() - 1));
+        if (column < 0 || column >= seatsPerRow) {
+            return -1;
+        }
+        int row;
+        try {
+            row = Integer.parseInt(label.substring(0, label.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (row < 1) {
+            return -1;
+        }
+        long index = (long) (row - 1) * seatsPerRow + column;
+        return index < capacity ? (int) index : -1;
+    }
+
+    public String labelOf(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IllegalArgumentException("Seat index out of range: " + index);
+        }
+        return (index / seatsPerRow + 1) + String.valueOf(SEAT_LETTERS.charAt(index % seatsPerRow));
+    }
+
+    /**
+     * Builds the occupancy mask for the given labels.
+     *
+     * @throws IllegalArgumentException if a label is not part of this layout
+     */
+    public long[] mask(Collection<String> seatLabels) {
+        long[] mask = new long[wordCount()];
+        for (String seatLabel : seatLabels) {
+            int index = indexOf(seatLabel);
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid seat number: " + seatLabel);
+            }
+            mask[index / WORD_BITS] |= 1L << (index % WORD_BITS);
+        }
+        return mask;
+    }
+
+    public List<String> labels(List<Long> bitmap) {
+        List<String> labels = new ArrayList<>();
+        if (bitmap == null) {
+            return labels;
+        }
+        for (int word = 0; word < bitmap.size(); word++) {
+            long bits = bitmap.get(word);
+            while (bits != 0) {
+                int index = word * WORD_BITS + Long.numberOfTrailingZeros(bits);
+                if (index < capacity) {
+                    labels.add(labelOf(index));
+                }
+                bits &= bits - 1;
+            }
+        }
+        return labels;
+    }
+
+    public static boolean isAnySet(List<Long> bitmap, long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            if (mask[word] != 0 && (word >= bitmap.size() || (bitmap.get(word) & mask[word]) != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isAllSet(List<Long> bitmap, long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            if (mask[word] != 0 && (word >= bitmap.size() || (bitmap.get(word) & mask[word]) != mask[word])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int bitCount(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Bit positions inside one word, the form $bitsAllClear / $bitsAllSet accept for 64-bit masks
+    public static List<Integer> positions(long word) {
+        List<Integer> positions = new ArrayList<>(Long.bitCount(word));
+        while (word != 0) {
+            positions.add(Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,92 @@
+package com.saiteja.flightservice.pagination;
+
+import com.saiteja.flightservice.dto.PageResponse;
+import com.saiteja.flightservice.exception.BadRequestException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination helpers. A cursor is the sort key of the last item of a page, base64url encoded
+ * so clients treat it as opaque; the next page seeks past it on the index instead of skipping rows.
+ * Flights page on _id, and a flight's schedules on (flightDate, _id) along flight_date_id_idx.
+ */
+public final class Pagination {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private Pagination() {
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    public static String encodeCursor(String... keys) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Sort key parts of the cursor, or null for the first page
+    public static String[] decodeCursor(String cursor, int parts) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (keys.length == parts) {
+                return keys;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // falls through to the same error as a cursor with the wrong shape
+        }
+        throw new BadRequestException("Invalid page cursor");
+    }
+
+    public static ObjectId objectId(String key) {
+        if (!ObjectId.isValid(key)) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+        return new ObjectId(key);
+    }
+
+    // Comma separated field names from the request; an empty set means every field
+    public static Set<String> selectFields(String fields, Set<String> allowed) {
+        Set<String> selected = new LinkedHashSet<>();
+        if (fields == null || fields.isBlank()) {
+            return selected;
+        }
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BadRequestException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    // rows holds up to limit + 1 items; the extra one only tells whether another page exists
+    public static <E, T> PageResponse<T> page(List<E> rows, int limit, Function<E, String> cursorOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> items = hasMore ? rows.subList(0, limit) : rows;
+        return PageResponse.<T>builder()
+                .items(items.stream().map(mapper).toList())
+                .nextCursor(hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null)
+                .build();
+    }
+}
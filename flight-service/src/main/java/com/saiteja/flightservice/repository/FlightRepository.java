@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface FlightRepository extends ReactiveMongoRepository<Flight, String> {
+public interface FlightRepository extends ReactiveMongoRepository<Flight, String>, FlightRepositoryCustom {
 
     Flux<Flight> findByOriginAirportAndDestinationAirport(String origin, String destination);
 
@@ -0,0 +1,25 @@
+package com.saiteja.flightservice.repository;
+
+import com.saiteja.flightservice.model.FareCalendarDay;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.RouteSchedule;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface FlightRepositoryCustom {
+
+    // Flights on the route joined with their schedules for the date, in one aggregation round trip
+    Flux<RouteSchedule> findRouteSchedules(String origin, String destination, LocalDate date);
+
+    // Per-day cheapest fare and seat totals for the route over [from, to], grouped in the same aggregation
+    Flux<FareCalendarDay> findFareCalendar(String origin, String destination, LocalDate from, LocalDate to);
+
+    // Whole catalog in _id order, read in small cursor batches so the first flights go out before the rest are fetched
+    Flux<Flight> streamAll();
+
+    // Up to limit flights after afterId (null for the first page) in _id order; empty fields loads every field
+    Flux<Flight> findPage(ObjectId afterId, int limit, Collection<String> fields);
+}
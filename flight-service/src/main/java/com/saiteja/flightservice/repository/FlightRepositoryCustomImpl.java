@@ -0,0 +1,143 @@
+package com.saiteja.flightservice.repository;
+
+import com.saiteja.flightservice.deadline.RequestDeadline;
+import com.saiteja.flightservice.model.FareCalendarDay;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.RouteSchedule;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+
+    // schedules reference flights by the hex string of their ObjectId
+    private static final AggregationOperation FLIGHT_KEY = context -> new Document("$addFields",
+            new Document("flightKey", new Document("$toString", "$_id")));
+
+    // a full catalog listing holds at most this many flights between the cursor and the client
+    private static final int STREAM_BATCH_SIZE = 256;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<RouteSchedule> findRouteSchedules(String origin, String destination, LocalDate date) {
+        Object flightDate = mongoTemplate.getConverter().convertToMongoType(date);
+
+        AggregationOperation lookupSchedules = context -> new Document("$lookup", new Document()
+                .append("from", "flight_schedules")
+                .append("localField", "flightKey")
+                .append("foreignField", "flightId")
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("flightDate", flightDate)),
+                        new Document("$project", new Document("seatBitmap", 0).append("holds", 0))))
+                .append("as", "schedule"));
+
+        AggregationOperation toRow = context -> new Document("$project", new Document()
+                .append("_id", 0)
+                .append("schedule", 1)
+                .append("flight", new Document()
+                        .append("_id", "$_id")
+                        .append("flightNumber", "$flightNumber")
+                        .append("airline", "$airline")
+                        .append("originAirport", "$originAirport")
+                        .append("destinationAirport", "$destinationAirport")
+                        .append("seatCapacity", "$seatCapacity")));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                matchRoute(origin, destination),
+                FLIGHT_KEY,
+                lookupSchedules,
+                Aggregation.unwind("schedule"),
+                toRow
+        );
+
+        return RequestDeadline.aggregate(aggregation, bounded -> mongoTemplate.aggregate(bounded, "flights", RouteSchedule.class));
+    }
+
+    @Override
+    public Flux<FareCalendarDay> findFareCalendar(String origin, String destination, LocalDate from, LocalDate to) {
+        Object fromDate = mongoTemplate.getConverter().convertToMongoType(from);
+        Object toDate = mongoTemplate.getConverter().convertToMongoType(to);
+
+        // only the fields the group needs come back from the (flightId, flightDate) range scan
+        AggregationOperation lookupSchedules = context -> new Document("$lookup", new Document()
+                .append("from", "flight_schedules")
+                .append("localField", "flightKey")
+                .append("foreignField", "flightId")
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("flightDate",
+                                new Document("$gte", fromDate).append("$lte", toDate))),
+                        new Document("$project", new Document("_id", 0)
+                                .append("flightDate", 1)
+                                .append("fare", 1)
+                                .append("availableSeats", 1))))
+                .append("as", "schedule"));
+
+        // $min skips nulls, so sold-out schedules never count as the cheapest fare
+        AggregationOperation groupByDay = context -> new Document("$group", new Document()
+                .append("_id", "$schedule.flightDate")
+                .append("lowestFare", new Document("$min", new Document("$cond", Arrays.asList(
+                        new Document("$gt", List.of("$schedule.availableSeats", 0)), "$schedule.fare", null))))
+                .append("availableSeats", new Document("$sum", "$schedule.availableSeats"))
+                .append("flights", new Document("$sum", 1)));
+
+        AggregationOperation toDay = context -> new Document("$project", new Document()
+                .append("_id", 0)
+                .append("date", "$_id")
+                .append("lowestFare", 1)
+                .append("availableSeats", 1)
+                .append("flights", 1));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                matchRoute(origin, destination),
+                FLIGHT_KEY,
+                lookupSchedules,
+                Aggregation.unwind("schedule"),
+                groupByDay,
+                context -> new Document("$sort", new Document("_id", 1)),
+                toDay
+        );
+
+        return RequestDeadline.aggregate(aggregation, bounded -> mongoTemplate.aggregate(bounded, "flights", FareCalendarDay.class));
+    }
+
+    @Override
+    public Flux<Flight> streamAll() {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        // a listing is consumed as it streams, so it may well outlast the deadline of the request that opened it
+        return mongoTemplate.find(query, Flight.class);
+    }
+
+    @Override
+    public Flux<Flight> findPage(ObjectId afterId, int limit, Collection<String> fields) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        if (!fields.isEmpty()) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return RequestDeadline.find(query, bounded -> mongoTemplate.find(bounded, Flight.class));
+    }
+
+    private static AggregationOperation matchRoute(String origin, String destination) {
+        return Aggregation.match(Criteria.where("originAirport").is(origin).and("destinationAirport").is(destination));
+    }
+}
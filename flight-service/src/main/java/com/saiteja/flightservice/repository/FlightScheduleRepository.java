@@ -6,9 +6,7 @@ import reactor.core.publisher.Flux;
 
 import java.time.LocalDate;
 
-public interface FlightScheduleRepository extends ReactiveMongoRepository<FlightSchedule, String> {
+public interface FlightScheduleRepository extends ReactiveMongoRepository<FlightSchedule, String>, FlightScheduleRepositoryCustom {
 
     Flux<FlightSchedule> findByFlightIdAndFlightDate(String flightId, LocalDate date);
 }
-
-
@@ -0,0 +1,61 @@
+package com.saiteja.flightservice.repository;
+
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+// Seat inventory updates run as single conditional writes so concurrent bookings never overwrite each other;
+// each is sent with maxTimeMS from the RequestDeadline in its Reactor context, if there is one
+public interface FlightScheduleRepositoryCustom {
+
+    // Only totalSeats, availableSeats, seatBitmap and holds are populated
+    Mono<FlightSchedule> findSeatInventory(String scheduleId);
+
+    // Returns the updated schedule, or empty if it is missing, a seat in the mask is taken or too few seats remain
+    Mono<FlightSchedule> lockSeats(String scheduleId, long[] seatMask);
+
+    // Returns the updated schedule, or empty if it is missing, any seat in the mask is not booked or is held
+    Mono<FlightSchedule> releaseSeats(String scheduleId, long[] seatMask);
+
+    // Books lockMask and frees releaseMask in one write; the masks must not overlap. Returns the updated
+    // schedule, or empty if it is missing, a lock seat is taken or a release seat is not booked or is held
+    Mono<FlightSchedule> applySeatChanges(String scheduleId, long[] lockMask, long[] releaseMask);
+
+    // Locks the seats and records the hold in one write; empty if it is missing or any seat is taken
+    Mono<FlightSchedule> holdSeats(String scheduleId, long[] seatMask, SeatHold hold);
+
+    // Turns an unexpired hold over exactly these seats into a plain lock; returns the schedule as it was before,
+    // with only id and holds loaded, or empty if there is no such hold
+    Mono<FlightSchedule> confirmHold(String scheduleId, String token, long[] seatMask, Instant now);
+
+    // Puts a confirmed hold back over its still booked seats; empty if it is missing, the hold is already
+    // there or a seat has been freed since
+    Mono<FlightSchedule> restoreHold(String scheduleId, SeatHold hold);
+
+    // Drops the holds and frees their seats; empty if any of them is no longer on the schedule
+    Mono<FlightSchedule> releaseHolds(String scheduleId, List<SeatHold> holds);
+
+    // Only id and holds are loaded
+    Mono<FlightSchedule> findHolds(String scheduleId);
+
+    // Schedules with a hold of the owner that expires after now; only id and holds are loaded
+    Flux<FlightSchedule> findActiveHolds(String owner, Instant now);
+
+    // Schedules with at least one hold that expired before now; only id and holds are loaded
+    Flux<FlightSchedule> findExpiredHolds(Instant now, int limit);
+
+    // Bookable schedules of any of the flights within [from, to], in one query; seatBitmap is not loaded
+    Flux<FlightSchedule> findLegCandidates(Collection<String> flightIds, LocalDate from, LocalDate to);
+
+    // Up to limit schedules of the flight after (afterDate, afterId) in (flightDate, _id) order, seeking on flight_date_id_idx;
+    // empty fields loads every field except seatBitmap
+    Flux<FlightSchedule> findPageByFlightId(String flightId, LocalDate afterDate, ObjectId afterId, int limit,
+                                            Collection<String> fields);
+}
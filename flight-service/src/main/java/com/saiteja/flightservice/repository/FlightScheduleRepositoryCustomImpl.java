@@ -0,0 +1,279 @@
+package com.saiteja.flightservice.repository;
+
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.saiteja.flightservice.deadline.RequestDeadline;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.model.SeatMap;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class FlightScheduleRepositoryCustomImpl implements FlightScheduleRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<FlightSchedule> findSeatInventory(String scheduleId) {
+        Query query = Query.query(Criteria.where("id").is(scheduleId));
+        query.fields().include("totalSeats", "availableSeats", "seatBitmap", "holds");
+        return RequestDeadline.find(query, bounded -> mongoTemplate.findOne(bounded, FlightSchedule.class)).singleOrEmpty();
+    }
+
+    @Override
+    public Mono<FlightSchedule> lockSeats(String scheduleId, long[] seatMask) {
+        return lock(scheduleId, seatMask, new Update());
+    }
+
+    @Override
+    public Mono<FlightSchedule> holdSeats(String scheduleId, long[] seatMask, SeatHold hold) {
+        return lock(scheduleId, seatMask, new Update().push("holds", hold));
+    }
+
+    private Mono<FlightSchedule> lock(String scheduleId, long[] seatMask, Update update) {
+        int seatCount = SeatMap.bitCount(seatMask);
+        Criteria criteria = Criteria.where("id").is(scheduleId)
+                .and("availableSeats").gte(seatCount);
+        update.inc("availableSeats", -seatCount)
+                .currentDate("updatedAt");
+
+        for (int word = 0; word < seatMask.length; word++) {
+            if (seatMask[word] != 0) {
+                String key = "seatBitmap." + word;
+                criteria.and(key).bits().allClear(SeatMap.positions(seatMask[word]));
+                update.bitwise(key).or(seatMask[word]);
+            }
+        }
+
+        return findAndModify(Query.query(criteria), update, true);
+    }
+
+    @Override
+    public Mono<FlightSchedule> confirmHold(String scheduleId, String token, long[] seatMask, Instant now) {
+        // the seats are already set in the bitmap, so confirming only forgets the hold
+        Query query = Query.query(Criteria.where("id").is(scheduleId)
+                .and("holds").elemMatch(Criteria.where("token").is(token)
+                        .and("expiresAt").gt(now)
+                        .and("seatMask").is(Arrays.stream(seatMask).boxed().toList())));
+        query.fields().include("holds");
+        Update update = new Update()
+                .pull("holds", new Document("token", token))
+                .currentDate("updatedAt");
+        // the old document still carries the hold, so a failed itinerary can put it back
+        return findAndModify(query, update, false);
+    }
+
+    @Override
+    public Mono<FlightSchedule> restoreHold(String scheduleId, SeatHold hold) {
+        // the seats stayed booked when the hold was confirmed, so only the record goes back
+        Query query = Query.query(Criteria.where("id").is(scheduleId).and("holds.token").ne(hold.getToken()));
+        List<Long> words = hold.getSeatMask();
+        for (int word = 0; word < words.size(); word++) {
+            if (words.get(word) != 0) {
+                query.addCriteria(Criteria.where("seatBitmap." + word).bits().allSet(SeatMap.positions(words.get(word))));
+            }
+        }
+        Update update = new Update()
+                .push("holds", hold)
+                .currentDate("updatedAt");
+        return findAndModify(query, update, true);
+    }
+
+    @Override
+    public Mono<FlightSchedule> releaseHolds(String scheduleId, List<SeatHold> holds) {
+        List<String> tokens = holds.stream().map(SeatHold::getToken).toList();
+        long[] seatMask = new long[0];
+        for (SeatHold hold : holds) {
+            List<Long> words = hold.getSeatMask();
+            if (words.size() > seatMask.length) {
+                seatMask = Arrays.copyOf(seatMask, words.size());
+            }
+            for (int word = 0; word < words.size(); word++) {
+                seatMask[word] |= words.get(word);
+            }
+        }
+
+        // releases skip held seats, so every hold still being there means nobody else has freed its
+        // seats; the bit guard backs that up, leaving the holds in place rather than counting seats back twice
+        Query query = Query.query(Criteria.where("id").is(scheduleId).and("holds.token").all(tokens));
+        Update update = new Update()
+                .pull("holds", new Document("token", new Document("$in", tokens)))
+                .inc("availableSeats", SeatMap.bitCount(seatMask))
+                .currentDate("updatedAt");
+        for (int word = 0; word < seatMask.length; word++) {
+            if (seatMask[word] != 0) {
+                String key = "seatBitmap." + word;
+                query.addCriteria(Criteria.where(key).bits().allSet(SeatMap.positions(seatMask[word])));
+                update.bitwise(key).and(~seatMask[word]);
+            }
+        }
+
+        return findAndModify(query, update, true);
+    }
+
+    @Override
+    public Mono<FlightSchedule> findHolds(String scheduleId) {
+        Query query = Query.query(Criteria.where("id").is(scheduleId));
+        query.fields().include("holds");
+        return RequestDeadline.find(query, bounded -> mongoTemplate.findOne(bounded, FlightSchedule.class)).singleOrEmpty();
+    }
+
+    @Override
+    public Flux<FlightSchedule> findActiveHolds(String owner, Instant now) {
+        Query query = Query.query(Criteria.where("holds").elemMatch(Criteria.where("owner").is(owner)
+                .and("expiresAt").gt(now)));
+        query.fields().include("holds");
+        return RequestDeadline.find(query, bounded -> mongoTemplate.find(bounded, FlightSchedule.class));
+    }
+
+    @Override
+    public Flux<FlightSchedule> findExpiredHolds(Instant now, int limit) {
+        Query query = Query.query(Criteria.where("holds.expiresAt").lt(now)).limit(limit);
+        query.fields().include("holds");
+        return mongoTemplate.find(query, FlightSchedule.class);
+    }
+
+    @Override
+    public Mono<FlightSchedule> releaseSeats(String scheduleId, long[] seatMask) {
+        int seatCount = SeatMap.bitCount(seatMask);
+        Criteria criteria = Criteria.where("id").is(scheduleId).andOperator(notHeld(seatMask));
+        Update update = new Update()
+                .inc("availableSeats", seatCount)
+                .currentDate("updatedAt");
+
+        for (int word = 0; word < seatMask.length; word++) {
+            if (seatMask[word] != 0) {
+                String key = "seatBitmap." + word;
+                criteria.and(key).bits().allSet(SeatMap.positions(seatMask[word]));
+                update.bitwise(key).and(~seatMask[word]);
+            }
+        }
+
+        return findAndModify(Query.query(criteria), update, true);
+    }
+
+    @Override
+    public Mono<FlightSchedule> applySeatChanges(String scheduleId, long[] lockMask, long[] releaseMask) {
+        int netLocked = SeatMap.bitCount(lockMask) - SeatMap.bitCount(releaseMask);
+        Query query = Query.query(Criteria.where("id").is(scheduleId));
+        if (netLocked > 0) {
+            query.addCriteria(Criteria.where("availableSeats").gte(netLocked));
+        }
+        if (SeatMap.bitCount(releaseMask) > 0) {
+            query.addCriteria(notHeld(releaseMask));
+        }
+        Update update = new Update()
+                .inc("availableSeats", -netLocked)
+                .currentDate("updatedAt");
+
+        for (int word = 0; word < Math.max(lockMask.length, releaseMask.length); word++) {
+            long lock = word < lockMask.length ? lockMask[word] : 0;
+            long release = word < releaseMask.length ? releaseMask[word] : 0;
+            if ((lock | release) == 0) {
+                continue;
+            }
+            String key = "seatBitmap." + word;
+            Criteria guard = Criteria.where(key);
+            if (lock != 0) {
+                guard = guard.bits().allClear(SeatMap.positions(lock));
+            }
+            if (release != 0) {
+                guard = guard.bits().allSet(SeatMap.positions(release));
+            }
+            query.addCriteria(guard);
+            // the guard pins every touched bit to a known value, so one xor sets the locks and clears the releases
+            update.bitwise(key).xor(lock | release);
+        }
+
+        return findAndModify(query, update, true);
+    }
+
+    // Bounded by the deadline in the context, the request's own or a seat batch's earliest. The template's
+    // findAndModify sends no maxTimeMS, so a bounded one goes to the driver, mapped as the template would
+    private Mono<FlightSchedule> findAndModify(Query query, Update update, boolean returnNew) {
+        return RequestDeadline.modify(remaining -> remaining == null
+                ? mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(returnNew), FlightSchedule.class)
+                : findAndModify(query, update, returnNew, remaining));
+    }
+
+    private Mono<FlightSchedule> findAndModify(Query query, Update update, boolean returnNew, Duration maxTime) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(FlightSchedule.class);
+        QueryMapper queryMapper = new QueryMapper(converter);
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .returnDocument(returnNew ? ReturnDocument.AFTER : ReturnDocument.BEFORE)
+                // under a millisecond left still must not read as 0, which means no limit
+                .maxTime(Math.max(1, maxTime.toMillis()), TimeUnit.MILLISECONDS);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document mappedUpdate = new UpdateMapper(converter).getMappedObject(update.getUpdateObject(), entity);
+        return mongoTemplate.getCollection(entity.getCollection())
+                .flatMap(collection -> Mono.from(collection.findOneAndUpdate(filter, mappedUpdate, options)))
+                .map(document -> converter.read(FlightSchedule.class, document));
+    }
+
+    // A held seat stays set in the bitmap until confirmHold keeps it or the reaper clears it with the hold,
+    // expired or not; a release that cleared it first would let the seat be sold twice
+    private static Criteria notHeld(long[] seatMask) {
+        List<Criteria> overlaps = new ArrayList<>();
+        for (int word = 0; word < seatMask.length; word++) {
+            if (seatMask[word] != 0) {
+                overlaps.add(Criteria.where("seatMask." + word).bits().anySet(SeatMap.positions(seatMask[word])));
+            }
+        }
+        return Criteria.where("holds").not().elemMatch(new Criteria().orOperator(overlaps));
+    }
+
+    @Override
+    public Flux<FlightSchedule> findLegCandidates(Collection<String> flightIds, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("flightId").in(flightIds)
+                .and("flightDate").gte(from).lte(to)
+                .and("availableSeats").gt(0));
+        query.fields().exclude("seatBitmap");
+        return RequestDeadline.find(query, bounded -> mongoTemplate.find(bounded, FlightSchedule.class));
+    }
+
+    @Override
+    public Flux<FlightSchedule> findPageByFlightId(String flightId, LocalDate afterDate, ObjectId afterId, int limit,
+                                                   Collection<String> fields) {
+        Criteria criteria = Criteria.where("flightId").is(flightId);
+        if (afterDate != null) {
+            criteria.orOperator(
+                    Criteria.where("flightDate").gt(afterDate),
+                    Criteria.where("flightDate").is(afterDate).and("_id").gt(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "flightDate", "_id"))
+                .limit(limit);
+        if (fields.isEmpty()) {
+            query.fields().exclude("seatBitmap");
+        } else {
+            // the sort keys always come back so the page can hand out a cursor
+            query.fields().include(fields.toArray(String[]::new)).include("flightDate");
+        }
+        return RequestDeadline.find(query, bounded -> mongoTemplate.find(bounded, FlightSchedule.class));
+    }
+}
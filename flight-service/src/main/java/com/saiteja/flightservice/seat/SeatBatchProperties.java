@@ -0,0 +1,22 @@
+package com.saiteja.flightservice.seat;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flight.seats.batch")
+public class SeatBatchProperties {
+
+    private boolean enabled = true;
+
+    // How long the first request for an idle schedule waits for others to join its batch
+    private Duration window = Duration.ofMillis(2);
+
+    // A batch is written as soon as this many requests are waiting, and never grows beyond it
+    private int maxBatchSize = 64;
+
+    // Conflicting batch writes retried against a fresh seat bitmap before falling back to one write per request
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,151 @@
+package com.saiteja.flightservice.seat;
+
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.exception.BadRequestException;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Temporary seat holds for a customer who picked seats and is paying. A hold books its seats in the
+ * schedule's bitmap and records itself on the schedule in the same write, so held seats are already
+ * missing from availableSeats in search. Confirming the hold at booking drops the record and keeps
+ * the seats booked; a booking whose other legs then fail puts the record back. Holds that run out are freed by {@link #reapExpiredHolds()}, one write per schedule
+ * for all of its expired holds, guarded on those holds still being there so a hold confirmed
+ * concurrently is never freed. A customer may hold at most {@link SeatHoldProperties#getMaxSeats()} seats
+ * at once and have at most {@link SeatHoldProperties#getMaxHoldsPerUser()} unexpired holds; the latter is
+ * counted before the write, so holds taken concurrently by the same customer can overshoot it by the
+ * requests in flight, which the gateway's per-client rate limit keeps small.
+ */
+@Slf4j
+@Component
+public class SeatHoldManager {
+
+    private final FlightScheduleRepository flightScheduleRepository;
+    private final RouteSearchCache routeSearchCache;
+    private final SeatHoldProperties properties;
+    private final Counter created;
+    private final Counter confirmed;
+    private final Counter restored;
+    private final Counter released;
+    private final Counter expired;
+
+    public SeatHoldManager(FlightScheduleRepository flightScheduleRepository, RouteSearchCache routeSearchCache,
+                           SeatHoldProperties properties, MeterRegistry meterRegistry) {
+        this.flightScheduleRepository = flightScheduleRepository;
+        this.routeSearchCache = routeSearchCache;
+        this.properties = properties;
+        this.created = event(meterRegistry, "created");
+        this.confirmed = event(meterRegistry, "confirmed");
+        this.restored = event(meterRegistry, "restored");
+        this.released = event(meterRegistry, "released");
+        this.expired = event(meterRegistry, "expired");
+    }
+
+    // Empty when a seat is taken or the schedule is missing
+    public Mono<SeatHold> hold(String scheduleId, String owner, List<String> seats, long[] seatMask) {
+        if (seats.size() > properties.getMaxSeats()) {
+            return Mono.error(new BadRequestException("At most " + properties.getMaxSeats() + " seats can be held at once"));
+        }
+
+        Instant now = Instant.now();
+        SeatHold hold = SeatHold.builder()
+                .token(UUID.randomUUID().toString())
+                .owner(owner)
+                .seats(List.copyOf(seats))
+                .seatMask(Arrays.stream(seatMask).boxed().toList())
+                .expiresAt(now.plus(properties.getTtl()))
+                .build();
+        return activeHolds(owner, now)
+                .filter(count -> count < properties.getMaxHoldsPerUser())
+                .switchIfEmpty(Mono.error(new BadRequestException(
+                        "At most " + properties.getMaxHoldsPerUser() + " seat holds can be active at once")))
+                .flatMap(count -> flightScheduleRepository.holdSeats(scheduleId, seatMask, hold))
+                .doOnNext(routeSearchCache::updateSeats)
+                .doOnNext(updated -> created.increment())
+                .map(updated -> hold);
+    }
+
+    // The hold as it was before confirming; empty when the hold expired, is unknown or covers other seats
+    public Mono<SeatHold> confirm(String scheduleId, String token, long[] seatMask) {
+        return flightScheduleRepository.confirmHold(scheduleId, token, seatMask, Instant.now())
+                .flatMap(before -> Mono.justOrEmpty(holds(before).stream()
+                        .filter(hold -> hold.getToken().equals(token))
+                        .findFirst()))
+                .doOnNext(hold -> confirmed.increment());
+    }
+
+    // Undoes confirm when the rest of a booking failed; empty when the seats were freed meanwhile
+    public Mono<FlightSchedule> restore(String scheduleId, SeatHold hold) {
+        return flightScheduleRepository.restoreHold(scheduleId, hold)
+                .doOnNext(updated -> restored.increment());
+    }
+
+    // Empty when the hold is unknown, or was confirmed or reaped meanwhile
+    public Mono<FlightSchedule> release(String scheduleId, String token) {
+        return flightScheduleRepository.findHolds(scheduleId)
+                .flatMap(schedule -> Mono.justOrEmpty(holds(schedule).stream()
+                        .filter(hold -> hold.getToken().equals(token))
+                        .findFirst()))
+                .flatMap(hold -> flightScheduleRepository.releaseHolds(scheduleId, List.of(hold)))
+                .doOnNext(routeSearchCache::updateSeats)
+                .doOnNext(updated -> released.increment());
+    }
+
+    @Scheduled(fixedDelayString = "${flight.seats.hold.reap-interval:PT15S}")
+    public void reapExpiredHolds() {
+        reap().subscribe(
+                count -> {
+                    if (count > 0) {
+                        log.debug("Released {} expired seat holds", count);
+                    }
+                },
+                e -> log.warn("Seat hold reaper pass failed", e));
+    }
+
+    // Number of holds freed in this pass
+    public Mono<Long> reap() {
+        Instant now = Instant.now();
+        return flightScheduleRepository.findExpiredHolds(now, properties.getReapBatchSize())
+                .concatMap(schedule -> {
+                    List<SeatHold> due = holds(schedule).stream()
+                            .filter(hold -> hold.getExpiresAt().isBefore(now))
+                            .toList();
+                    // empty when one of them was confirmed or dropped since the read; the next pass retries the rest
+                    return flightScheduleRepository.releaseHolds(schedule.getId(), due)
+                            .doOnNext(routeSearchCache::updateSeats)
+                            .doOnNext(updated -> expired.increment(due.size()))
+                            .map(updated -> (long) due.size());
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> activeHolds(String owner, Instant now) {
+        return flightScheduleRepository.findActiveHolds(owner, now)
+                .flatMapIterable(SeatHoldManager::holds)
+                .filter(hold -> owner.equals(hold.getOwner()) && hold.getExpiresAt().isAfter(now))
+                .count();
+    }
+
+    private static List<SeatHold> holds(FlightSchedule schedule) {
+        return schedule.getHolds() != null ? schedule.getHolds() : List.of();
+    }
+
+    private static Counter event(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("flight.seats.holds")
+                .description("Seat holds by lifecycle event")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.saiteja.flightservice.seat;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flight.seats.hold")
+public class SeatHoldProperties {
+
+    // How long held seats stay reserved for the customer to pay
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // Most seats one hold may take, so a single request cannot empty a flight
+    private int maxSeats = 9;
+
+    // Most unexpired holds one customer may have across all schedules
+    private int maxHoldsPerUser = 3;
+
+    // Schedules the reaper frees per pass; the next pass continues with the rest
+    private int reapBatchSize = 100;
+}
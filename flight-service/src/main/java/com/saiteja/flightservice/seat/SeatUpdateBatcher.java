@@ -0,0 +1,311 @@
+package com.saiteja.flightservice.seat;
+
+import com.saiteja.flightservice.deadline.RequestDeadline;
+import com.saiteja.flightservice.exception.DeadlineExceededException;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the seat locks and releases this instance receives for one schedule into a single write.
+ * The first request for an idle schedule opens a batch, written after {@link SeatBatchProperties#getWindow()}
+ * or as soon as {@link SeatBatchProperties#getMaxBatchSize()} requests wait; requests arriving while
+ * that write is in flight form the next batch, written the moment it returns. Each schedule thus has at
+ * most one write in flight per instance, and batches grow with load instead of writes queueing on the
+ * document.
+ * <p>
+ * Inside a batch, a request touching a seat an earlier request in the same batch touches is deferred
+ * to the next batch, so a release right after a lock still sees that lock applied. The rest go out as
+ * one update guarded on every lock seat being free and every release seat being booked. If the guard
+ * fails, the seat bitmap is read, requests that no longer fit it are rejected and the others written
+ * again. Every caller gets the updated schedule, or empty when its own request was rejected.
+ * <p>
+ * The write runs apart from the requests that make it up, so each request carries its caller's
+ * {@link RequestDeadline}. When a batch is written, requests whose deadline has passed fail with
+ * {@link DeadlineExceededException} and are left out, and the write is bounded by the earliest
+ * deadline of the rest; if that runs out, every request in the write fails with it.
+ */
+@Slf4j
+@Component
+public class SeatUpdateBatcher {
+
+    private final FlightScheduleRepository flightScheduleRepository;
+    private final SeatBatchProperties properties;
+    private final DistributionSummary batchSizes;
+    private final Counter conflicts;
+
+    // Guarded by the map: a lane is only read or changed inside compute for its schedule
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public SeatUpdateBatcher(FlightScheduleRepository flightScheduleRepository, SeatBatchProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.flightScheduleRepository = flightScheduleRepository;
+        this.properties = properties;
+        this.batchSizes = DistributionSummary.builder("flight.seats.batch.size")
+                .description("Seat lock and release requests written together in one schedule update")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("flight.seats.batch.conflicts")
+                .description("Batched seat updates whose guard failed and were retried against a fresh seat bitmap")
+                .register(meterRegistry);
+    }
+
+    // Empty when a seat is taken, too few seats remain or the schedule is missing
+    public Mono<FlightSchedule> lock(String scheduleId, long[] seatMask) {
+        if (!properties.isEnabled()) {
+            return flightScheduleRepository.lockSeats(scheduleId, seatMask);
+        }
+        return Mono.deferContextual(context -> submit(scheduleId,
+                new SeatRequest(true, seatMask, RequestDeadline.of(context), new CompletableFuture<>())));
+    }
+
+    // Empty when a seat is not booked or the schedule is missing
+    public Mono<FlightSchedule> release(String scheduleId, long[] seatMask) {
+        if (!properties.isEnabled()) {
+            return flightScheduleRepository.releaseSeats(scheduleId, seatMask);
+        }
+        return Mono.deferContextual(context -> submit(scheduleId,
+                new SeatRequest(false, seatMask, RequestDeadline.of(context), new CompletableFuture<>())));
+    }
+
+    private Mono<FlightSchedule> submit(String scheduleId, SeatRequest request) {
+        return Mono.defer(() -> {
+            Step[] step = {Step.NONE};
+            lanes.compute(scheduleId, (id, lane) -> {
+                Lane current = lane != null ? lane : new Lane();
+                current.pending.add(request);
+                if (!current.busy) {
+                    current.busy = true;
+                    current.collecting = true;
+                    step[0] = Step.OPEN_WINDOW;
+                } else if (current.collecting && current.pending.size() >= properties.getMaxBatchSize()) {
+                    step[0] = Step.WRITE;
+                }
+                return current;
+            });
+            if (step[0] == Step.OPEN_WINDOW) {
+                Schedulers.parallel().schedule(() -> closeWindow(scheduleId),
+                        properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            } else if (step[0] == Step.WRITE) {
+                closeWindow(scheduleId);
+            }
+            // the write is shared with the rest of the batch, so one caller cancelling must not cancel it
+            return Mono.fromFuture(request.result(), true);
+        });
+    }
+
+    private void closeWindow(String scheduleId) {
+        List<SeatRequest> batch = new ArrayList<>();
+        lanes.computeIfPresent(scheduleId, (id, lane) -> {
+            if (lane.collecting) {
+                lane.collecting = false;
+                drain(lane, batch);
+            }
+            return lane;
+        });
+        if (!batch.isEmpty()) {
+            write(scheduleId, batch);
+        }
+    }
+
+    // Writes the batch, then either takes the next one or retires the lane
+    private void write(String scheduleId, List<SeatRequest> batch) {
+        batchSizes.record(batch.size());
+        List<SeatRequest> accepted = new ArrayList<>(batch.size());
+        List<SeatRequest> deferred = new ArrayList<>();
+        long[] touched = new long[0];
+        for (SeatRequest request : unexpired(batch)) {
+            if (overlaps(touched, request.mask())) {
+                deferred.add(request);
+            } else {
+                touched = or(touched, request.mask());
+                accepted.add(request);
+            }
+        }
+
+        apply(scheduleId, accepted, 1)
+                .onErrorResume(error -> {
+                    log.warn("Batched seat update on schedule {} failed", scheduleId, error);
+                    accepted.forEach(request -> request.result().completeExceptionally(error));
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    List<SeatRequest> next = new ArrayList<>();
+                    lanes.computeIfPresent(scheduleId, (id, lane) -> {
+                        for (int index = deferred.size() - 1; index >= 0; index--) {
+                            lane.pending.addFirst(deferred.get(index));
+                        }
+                        if (lane.pending.isEmpty()) {
+                            return null;
+                        }
+                        drain(lane, next);
+                        return lane;
+                    });
+                    if (!next.isEmpty()) {
+                        write(scheduleId, next);
+                    }
+                })
+                .subscribe();
+    }
+
+    private Mono<Void> apply(String scheduleId, List<SeatRequest> batch, int attempt) {
+        // a retry comes after another round trip, by which time more of the batch may have run out
+        List<SeatRequest> requests = attempt > 1 ? unexpired(batch) : batch;
+        if (requests.isEmpty()) {
+            return Mono.empty();
+        }
+        if (attempt > properties.getMaxAttempts()) {
+            // contention from other instances kept beating the batch; settle each request on its own, under its own deadline
+            return Flux.fromIterable(requests)
+                    .concatMap(request -> (request.lock()
+                            ? flightScheduleRepository.lockSeats(scheduleId, request.mask())
+                            : flightScheduleRepository.releaseSeats(scheduleId, request.mask()))
+                            .contextWrite(RequestDeadline.until(request.deadline()))
+                            .doOnNext(request.result()::complete)
+                            .switchIfEmpty(Mono.fromRunnable(request::reject))
+                            .onErrorResume(error -> {
+                                request.result().completeExceptionally(error);
+                                return Mono.empty();
+                            }))
+                    .then();
+        }
+        long[] lockMask = new long[0];
+        long[] releaseMask = new long[0];
+        for (SeatRequest request : requests) {
+            if (request.lock()) {
+                lockMask = or(lockMask, request.mask());
+            } else {
+                releaseMask = or(releaseMask, request.mask());
+            }
+        }
+        return flightScheduleRepository.applySeatChanges(scheduleId, lockMask, releaseMask)
+                .doOnNext(updated -> requests.forEach(request -> request.result().complete(updated)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    conflicts.increment();
+                    return flightScheduleRepository.findSeatInventory(scheduleId)
+                            .map(inventory -> {
+                                // releases go first so the seats they free count towards this batch's locks
+                                List<SeatRequest> ordered = new ArrayList<>(requests);
+                                ordered.sort(Comparator.comparing(SeatRequest::lock));
+                                int available = inventory.getAvailableSeats() != null ? inventory.getAvailableSeats() : 0;
+                                List<SeatRequest> fitting = new ArrayList<>(requests.size());
+                                for (SeatRequest request : ordered) {
+                                    if (request.fits(inventory, available)) {
+                                        fitting.add(request);
+                                        available += request.lock() ? -request.seatCount() : request.seatCount();
+                                    } else {
+                                        request.reject();
+                                    }
+                                }
+                                return fitting;
+                            })
+                            // the schedule is gone
+                            .switchIfEmpty(Mono.fromRunnable(() -> requests.forEach(SeatRequest::reject)))
+                            .flatMap(fitting -> apply(scheduleId, fitting, attempt + 1))
+                            .then(Mono.empty());
+                }))
+                .then()
+                .contextWrite(RequestDeadline.until(earliestDeadline(requests)));
+    }
+
+    // Fails the requests whose deadline has passed and returns the rest
+    private static List<SeatRequest> unexpired(List<SeatRequest> requests) {
+        Instant now = Instant.now();
+        List<SeatRequest> unexpired = new ArrayList<>(requests.size());
+        for (SeatRequest request : requests) {
+            if (request.deadline() != null && !request.deadline().isAfter(now)) {
+                request.result().completeExceptionally(
+                        new DeadlineExceededException("Request deadline passed before its seats were written"));
+            } else {
+                unexpired.add(request);
+            }
+        }
+        return unexpired;
+    }
+
+    // Null when no request in the batch has a deadline
+    private static Instant earliestDeadline(List<SeatRequest> requests) {
+        return requests.stream()
+                .map(SeatRequest::deadline)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    private void drain(Lane lane, List<SeatRequest> batch) {
+        while (!lane.pending.isEmpty() && batch.size() < properties.getMaxBatchSize()) {
+            batch.add(lane.pending.pollFirst());
+        }
+    }
+
+    private static boolean overlaps(long[] touched, long[] mask) {
+        for (int word = 0; word < Math.min(touched.length, mask.length); word++) {
+            if ((touched[word] & mask[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] or(long[] target, long[] mask) {
+        long[] result = target.length >= mask.length ? target : Arrays.copyOf(target, mask.length);
+        for (int word = 0; word < mask.length; word++) {
+            result[word] |= mask[word];
+        }
+        return result;
+    }
+
+    private enum Step { NONE, OPEN_WINDOW, WRITE }
+
+    // busy from the first request until the lane runs empty; collecting while the window is open
+    private static final class Lane {
+        private final Deque<SeatRequest> pending = new ArrayDeque<>();
+        private boolean busy;
+        private boolean collecting;
+    }
+
+    // Completes with the updated schedule, or null when rejected; deadline is null when the caller set none
+    private record SeatRequest(boolean lock, long[] mask, Instant deadline, CompletableFuture<FlightSchedule> result) {
+
+        // a held seat is set in the bitmap but only the hold's owner or the reaper may clear it
+        boolean fits(FlightSchedule inventory, int availableSeats) {
+            List<Long> current = inventory.getSeatBitmap() != null ? inventory.getSeatBitmap() : List.of();
+            if (lock) {
+                return seatCount() <= availableSeats && !SeatMap.isAnySet(current, mask);
+            }
+            List<SeatHold> holds = inventory.getHolds() != null ? inventory.getHolds() : List.of();
+            return SeatMap.isAllSet(current, mask)
+                    && holds.stream().noneMatch(hold ->
+                            overlaps(hold.getSeatMask().stream().mapToLong(Long::longValue).toArray(), mask));
+        }
+
+        int seatCount() {
+            return SeatMap.bitCount(mask);
+        }
+
+        void reject() {
+            result.complete(null);
+        }
+    }
+}
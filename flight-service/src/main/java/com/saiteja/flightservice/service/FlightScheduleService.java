@@ -1,23 +1,43 @@
 package com.saiteja.flightservice.service;
 
+import com.saiteja.flightservice.dto.PageResponse;
+import com.saiteja.flightservice.dto.flight.FareCalendarDayResponse;
 import com.saiteja.flightservice.dto.flight.FlightScheduleCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.dto.flight.SeatHoldResponse;
+import com.saiteja.flightservice.dto.flight.SeatLockRequest;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public interface FlightScheduleService {
 
     Flux<FlightScheduleResponse> searchFlights(String origin, String destination, LocalDate date);
 
+    Flux<FareCalendarDayResponse> fareCalendar(String origin, String destination, LocalDate fromDate, LocalDate toDate);
+
     Mono<FlightScheduleResponse> createSchedule(FlightScheduleCreateRequest request);
 
     Mono<FlightScheduleResponse> getScheduleById(String id);
 
-    Mono<Void> lockSeats(String scheduleId, java.util.List<String> seatNumbers);
+    Mono<PageResponse<FlightScheduleResponse>> getSchedulePage(String flightId, String cursor, int limit, String fields);
+
+    Mono<Void> lockSeats(String scheduleId, List<String> seatNumbers);
+
+    // Locks every leg or none: legs locked before another one failed are released again
+    Mono<Void> lockSeats(List<SeatLockRequest> legs);
+
+    Mono<Void> releaseSeats(String scheduleId, List<String> seatNumbers);
+
+    // owner is the X-User-Id the gateway resolved from the caller's token; holds are not taken anonymously
+    Mono<SeatHoldResponse> holdSeats(String scheduleId, String owner, List<String> seatNumbers);
+
+    // Books the seats of a hold for good; they must be exactly the seats the hold was taken for
+    Mono<Void> confirmHold(String scheduleId, String holdToken, List<String> seatNumbers);
 
-    Mono<Void> releaseSeats(String scheduleId, java.util.List<String> seatNumbers);
+    Mono<Void> releaseHold(String scheduleId, String holdToken);
 }
 
 
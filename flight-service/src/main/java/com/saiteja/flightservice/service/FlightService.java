@@ -1,5 +1,6 @@
 package com.saiteja.flightservice.service;
 
+import com.saiteja.flightservice.dto.PageResponse;
 import com.saiteja.flightservice.dto.flight.FlightCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightResponse;
 import reactor.core.publisher.Flux;
@@ -11,6 +12,8 @@ public interface FlightService {
 
     Flux<FlightResponse> getAllFlights();
 
+    Mono<PageResponse<FlightResponse>> getFlightPage(String cursor, int limit, String fields);
+
     Mono<FlightResponse> getFlightByFlightNumber(String flightNumber);
 
     Mono<String> deleteFlight(String id);
@@ -0,0 +1,11 @@
+package com.saiteja.flightservice.service;
+
+import com.saiteja.flightservice.dto.flight.ItineraryResponse;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+public interface ItineraryService {
+
+    Flux<ItineraryResponse> searchItineraries(String origin, String destination, LocalDate date, int maxStops);
+}
@@ -1,39 +1,88 @@
 package com.saiteja.flightservice.service.impl;
 
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.dto.PageResponse;
+import com.saiteja.flightservice.dto.flight.FareCalendarDayResponse;
 import com.saiteja.flightservice.dto.flight.FlightScheduleCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.dto.flight.SeatHoldResponse;
+import com.saiteja.flightservice.dto.flight.SeatLockRequest;
+import com.saiteja.flightservice.exception.BadRequestException;
 import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.exception.UnauthorizedException;
+import com.saiteja.flightservice.migration.SeatBitmapMigration;
+import com.saiteja.flightservice.model.FareCalendarDay;
 import com.saiteja.flightservice.model.Flight;
 import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.model.SeatMap;
 import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.pagination.Pagination;
 import com.saiteja.flightservice.repository.FlightRepository;
 import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.seat.SeatHoldManager;
+import com.saiteja.flightservice.seat.SeatUpdateBatcher;
 import com.saiteja.flightservice.service.FlightScheduleService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FlightScheduleServiceImpl implements FlightScheduleService {
 
+    // a month view in one request; wider ranges go through separate calls
+    static final int MAX_CALENDAR_DAYS = 31;
+
+    static final Set<String> SCHEDULE_FIELDS = Set.of("scheduleId", "flightNumber", "airline", "originAirport",
+            "destinationAirport", "flightDate", "departureTime", "arrivalTime", "fare", "availableSeats");
+
+    // response fields that come from the flight rather than the schedule document
+    private static final Set<String> FLIGHT_LEVEL_FIELDS = Set.of("flightNumber", "airline", "originAirport", "destinationAirport");
+
     private final FlightScheduleRepository flightScheduleRepository;
     private final FlightRepository flightRepository;
+    private final SeatBitmapMigration seatBitmapMigration;
+    private final RouteSearchCache routeSearchCache;
+    private final SeatUpdateBatcher seatUpdateBatcher;
+    private final SeatHoldManager seatHoldManager;
 
     @Override
     public Flux<FlightScheduleResponse> searchFlights(String origin, String destination, LocalDate date) {
 
-        return flightRepository.findByOriginAirportAndDestinationAirport(origin, destination)
-                .flatMap(flight ->
-                        flightScheduleRepository.findByFlightIdAndFlightDate(flight.getId(), date)
-                                .map(schedule -> toResponse(schedule, flight))
-                )
+        return routeSearchCache.get(origin, destination, date,
+                        () -> flightRepository.findRouteSchedules(origin, destination, date)
+                                .map(row -> toResponse(row.getSchedule(), row.getFlight())))
                 .switchIfEmpty(Flux.error(new ResourceNotFoundException("No schedule found for given criteria")));
     }
 
+    @Override
+    public Flux<FareCalendarDayResponse> fareCalendar(String origin, String destination, LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            return Flux.error(new BadRequestException("toDate must not be before fromDate"));
+        }
+        long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        if (days > MAX_CALENDAR_DAYS) {
+            return Flux.error(new BadRequestException("Fare calendar can span at most " + MAX_CALENDAR_DAYS + " days"));
+        }
+
+        // days without any schedule still get an entry so the calendar has no gaps
+        return flightRepository.findFareCalendar(origin, destination, fromDate, toDate)
+                .collectMap(FareCalendarDay::getDate)
+                .flatMapMany(byDate -> Flux.fromStream(fromDate.datesUntil(toDate.plusDays(1)))
+                        .map(date -> toCalendarResponse(date, byDate.get(date))));
+    }
+
     @Override
     public Mono<FlightScheduleResponse> createSchedule(FlightScheduleCreateRequest request) {
 
@@ -51,10 +100,13 @@ public class FlightScheduleServiceImpl implements FlightScheduleService {
                             .fare(request.getFare())
                             .totalSeats(flight.getSeatCapacity())
                             .availableSeats(flight.getSeatCapacity())
+                            .seatBitmap(SeatMap.forCapacity(flight.getSeatCapacity()).emptyBitmap())
                             .status(FlightStatus.SCHEDULED)
                             .build();
 
                     return flightScheduleRepository.save(schedule)
+                            .doOnNext(saved -> routeSearchCache.invalidate(
+                                    flight.getOriginAirport(), flight.getDestinationAirport(), saved.getFlightDate()))
                             .map(saved -> toResponse(saved, flight));
                 });
     }
@@ -70,39 +122,187 @@ public class FlightScheduleServiceImpl implements FlightScheduleService {
     }
 
     @Override
-    public Mono<Void> lockSeats(String scheduleId, java.util.List<String> seatNumbers) {
-        int seatsToBook = seatNumbers.size();
-        return flightScheduleRepository.findById(scheduleId)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Flight schedule not found: " + scheduleId)))
-                .flatMap(schedule -> {
-                    if (schedule.getAvailableSeats() < seatsToBook) {
-                        return Mono.error(new com.saiteja.flightservice.exception.BadRequestException("Not enough seats available"));
-                    }
-                    java.util.List<String> booked = schedule.getBookedSeats();
-                    if (booked == null) {
-                        booked = new java.util.ArrayList<>();
-                        schedule.setBookedSeats(booked);
-                    }
-                    booked.addAll(seatNumbers);
-                    schedule.setAvailableSeats(schedule.getAvailableSeats() - seatsToBook);
-                    return flightScheduleRepository.save(schedule).then();
-                });
+    public Mono<PageResponse<FlightScheduleResponse>> getSchedulePage(String flightId, String cursor, int limit, String fields) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            Set<String> selected = Pagination.selectFields(fields, SCHEDULE_FIELDS);
+            String[] after = Pagination.decodeCursor(cursor, 2);
+            LocalDate afterDate = after == null ? null : parseCursorDate(after[0]);
+            List<String> documentFields = selected.stream()
+                    .filter(field -> !FLIGHT_LEVEL_FIELDS.contains(field))
+                    .map(field -> field.equals("scheduleId") ? "id" : field)
+                    .toList();
+
+            return flightRepository.findById(flightId)
+                    .switchIfEmpty(Mono.error(new ResourceNotFoundException("Flight not found: " + flightId)))
+                    .flatMap(flight -> flightScheduleRepository
+                            .findPageByFlightId(flightId, afterDate, after == null ? null : Pagination.objectId(after[1]),
+                                    limit + 1, documentFields)
+                            .collectList()
+                            .map(schedules -> Pagination.page(schedules, limit,
+                                    schedule -> Pagination.encodeCursor(schedule.getFlightDate().toString(), schedule.getId()),
+                                    schedule -> toPageItem(schedule, flight, selected))));
+        });
+    }
+
+    private static LocalDate parseCursorDate(String key) {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+
+    @Override
+    public Mono<Void> lockSeats(String scheduleId, List<String> seatNumbers) {
+        return seatMask(scheduleId, seatNumbers)
+                .flatMap(mask -> seatUpdateBatcher.lock(scheduleId, mask))
+                .switchIfEmpty(Mono.error(new BadRequestException("Requested seats are not available")))
+                .doOnNext(routeSearchCache::updateSeats)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> lockSeats(List<SeatLockRequest> legs) {
+        if (legs == null || legs.isEmpty()) {
+            return Mono.error(new BadRequestException("At least one schedule is required"));
+        }
+        if (legs.stream().map(SeatLockRequest::getScheduleId).distinct().count() != legs.size()) {
+            return Mono.error(new BadRequestException("Each schedule can appear only once"));
+        }
+
+        // all legs at once; a failure is collected rather than cancelling the legs still in flight,
+        // so every leg has settled before deciding what to give back
+        return Flux.fromIterable(legs)
+                .flatMap(leg -> lockLeg(leg)
+                        .onErrorResume(e -> Mono.just(new LegOutcome(leg, null, e))))
+                .collectList()
+                .flatMap(outcomes -> outcomes.stream()
+                        .map(LegOutcome::error)
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .map(failure -> compensate(outcomes).then(Mono.<Void>error(failure)))
+                        .orElse(Mono.empty()));
+    }
+
+    private Mono<LegOutcome> lockLeg(SeatLockRequest leg) {
+        if (leg.getHoldToken() == null) {
+            return lockSeats(leg.getScheduleId(), leg.getSeatNumbers())
+                    .thenReturn(new LegOutcome(leg, null, null));
+        }
+        return confirm(leg.getScheduleId(), leg.getHoldToken(), leg.getSeatNumbers())
+                .map(hold -> new LegOutcome(leg, hold, null));
+    }
+
+    // Gives back what the locked legs took: a confirmed hold goes back to its customer, plain seats back on sale.
+    // Every leg is tried; if any cannot be given back, this fails with a server error rather than letting the
+    // caller see the leg's own rejection, so booking-service hands the legs to its relay instead of closing them
+    private Mono<Void> compensate(List<LegOutcome> outcomes) {
+        return Flux.fromIterable(outcomes)
+                .filter(outcome -> outcome.error() == null)
+                .flatMap(outcome -> {
+                    String scheduleId = outcome.leg().getScheduleId();
+                    Mono<?> undo = outcome.hold() != null
+                            ? seatHoldManager.restore(scheduleId, outcome.hold())
+                                    .switchIfEmpty(Mono.error(new IllegalStateException("Held seats were freed meanwhile")))
+                            : releaseSeats(scheduleId, outcome.leg().getSeatNumbers());
+                    return undo.then(Mono.<Throwable>empty())
+                            .onErrorResume(e -> {
+                                log.error("Could not give back seats {} on schedule {} after a failed booking",
+                                        outcome.leg().getSeatNumbers(), scheduleId, e);
+                                return Mono.just(e);
+                            });
+                })
+                .collectList()
+                .flatMap(failures -> failures.isEmpty()
+                        ? Mono.empty()
+                        : Mono.error(new IllegalStateException("Could not give back the seats of a failed booking", failures.get(0))));
+    }
+
+    @Override
+    public Mono<Void> releaseSeats(String scheduleId, List<String> seatNumbers) {
+        return seatMask(scheduleId, seatNumbers)
+                .flatMap(mask -> seatUpdateBatcher.release(scheduleId, mask))
+                .switchIfEmpty(Mono.error(new BadRequestException("Seats are not booked on this schedule")))
+                .doOnNext(routeSearchCache::updateSeats)
+                .then();
     }
 
     @Override
-    public Mono<Void> releaseSeats(String scheduleId, java.util.List<String> seatNumbers) {
-        int seatsToRelease = seatNumbers.size();
-        return flightScheduleRepository.findById(scheduleId)
+    public Mono<SeatHoldResponse> holdSeats(String scheduleId, String owner, List<String> seatNumbers) {
+        if (owner == null || owner.isBlank()) {
+            return Mono.error(new UnauthorizedException("Sign in to hold seats"));
+        }
+
+        return seatMask(scheduleId, seatNumbers)
+                .flatMap(mask -> seatHoldManager.hold(scheduleId, owner, seatNumbers, mask))
+                .switchIfEmpty(Mono.error(new BadRequestException("Requested seats are not available")))
+                .map(hold -> SeatHoldResponse.builder()
+                        .holdToken(hold.getToken())
+                        .scheduleId(scheduleId)
+                        .seats(hold.getSeats())
+                        .expiresAt(hold.getExpiresAt())
+                        .build());
+    }
+
+    @Override
+    public Mono<Void> confirmHold(String scheduleId, String holdToken, List<String> seatNumbers) {
+        return confirm(scheduleId, holdToken, seatNumbers).then();
+    }
+
+    private Mono<SeatHold> confirm(String scheduleId, String holdToken, List<String> seatNumbers) {
+        return seatMask(scheduleId, seatNumbers)
+                .flatMap(mask -> seatHoldManager.confirm(scheduleId, holdToken, mask))
+                .switchIfEmpty(Mono.error(new BadRequestException("Seat hold has expired or does not cover the requested seats")));
+    }
+
+    @Override
+    public Mono<Void> releaseHold(String scheduleId, String holdToken) {
+        return seatHoldManager.release(scheduleId, holdToken)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Seat hold not found: " + holdToken)))
+                .then();
+    }
+
+    private Mono<long[]> seatMask(String scheduleId, List<String> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            return Mono.error(new BadRequestException("At least one seat number is required"));
+        }
+
+        return flightScheduleRepository.findSeatInventory(scheduleId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Flight schedule not found: " + scheduleId)))
-                .flatMap(schedule -> {
-                    if (schedule.getBookedSeats() != null) {
-                        schedule.getBookedSeats().removeIf(seatNumbers::contains);
+                // legacy schedules without a capacity are left unmigrated and have no seat layout to map onto
+                .filter(inventory -> inventory.getTotalSeats() != null && inventory.getTotalSeats() > 0)
+                .switchIfEmpty(Mono.error(new BadRequestException("Flight schedule has no seat capacity: " + scheduleId)))
+                .flatMap(inventory -> inventory.getSeatBitmap() != null
+                        ? Mono.just(inventory)
+                        : seatBitmapMigration.migrate(scheduleId).thenReturn(inventory))
+                .flatMap(inventory -> {
+                    long[] mask;
+                    try {
+                        mask = SeatMap.forCapacity(inventory.getTotalSeats()).mask(seatNumbers);
+                    } catch (IllegalArgumentException e) {
+                        return Mono.error(new BadRequestException(e.getMessage()));
+                    }
+                    if (SeatMap.bitCount(mask) != seatNumbers.size()) {
+                        return Mono.error(new BadRequestException("Duplicate seat numbers in request"));
                     }
-                    schedule.setAvailableSeats(schedule.getAvailableSeats() + seatsToRelease);
-                    return flightScheduleRepository.save(schedule).then();
+                    return Mono.just(mask);
                 });
     }
 
+    // hold is the hold a leg confirmed, error why the leg failed
+    private record LegOutcome(SeatLockRequest leg, SeatHold hold, Throwable error) {
+    }
+
+    private FareCalendarDayResponse toCalendarResponse(LocalDate date, FareCalendarDay day) {
+        return FareCalendarDayResponse.builder()
+                .date(date)
+                .lowestFare(day != null ? day.getLowestFare() : null)
+                .availableSeats(day != null ? day.getAvailableSeats() : 0)
+                .flights(day != null ? day.getFlights() : 0)
+                .build();
+    }
+
     private FlightScheduleResponse toResponse(FlightSchedule schedule, Flight flight) {
         return FlightScheduleResponse.builder()
                 .scheduleId(schedule.getId())
@@ -117,6 +317,24 @@ public class FlightScheduleServiceImpl implements FlightScheduleService {
                 .availableSeats(schedule.getAvailableSeats())
                 .build();
     }
-}
-
 
+    // only the requested fields are set, so unrequested ones drop out of the JSON
+    private FlightScheduleResponse toPageItem(FlightSchedule schedule, Flight flight, Set<String> selected) {
+        FlightScheduleResponse response = toResponse(schedule, flight);
+        if (selected.isEmpty()) {
+            return response;
+        }
+        return FlightScheduleResponse.builder()
+                .scheduleId(selected.contains("scheduleId") ? response.getScheduleId() : null)
+                .flightNumber(selected.contains("flightNumber") ? response.getFlightNumber() : null)
+                .airline(selected.contains("airline") ? response.getAirline() : null)
+                .originAirport(selected.contains("originAirport") ? response.getOriginAirport() : null)
+                .destinationAirport(selected.contains("destinationAirport") ? response.getDestinationAirport() : null)
+                .flightDate(selected.contains("flightDate") ? response.getFlightDate() : null)
+                .departureTime(selected.contains("departureTime") ? response.getDepartureTime() : null)
+                .arrivalTime(selected.contains("arrivalTime") ? response.getArrivalTime() : null)
+                .fare(selected.contains("fare") ? response.getFare() : null)
+                .availableSeats(selected.contains("availableSeats") ? response.getAvailableSeats() : null)
+                .build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.saiteja.flightservice.service.impl;
 
+import com.saiteja.flightservice.dto.PageResponse;
 import com.saiteja.flightservice.dto.flight.FlightCreateRequest;
 import com.saiteja.flightservice.dto.flight.FlightResponse;
 import com.saiteja.flightservice.exception.DuplicateResourceException;
 import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.itinerary.RouteGraph;
 import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.pagination.Pagination;
 import com.saiteja.flightservice.repository.FlightRepository;
 import com.saiteja.flightservice.service.FlightService;
 import lombok.RequiredArgsConstructor;
@@ -12,11 +15,17 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class FlightServiceImpl implements FlightService {
 
+    static final Set<String> FLIGHT_FIELDS = Set.of("id", "flightNumber", "airline", "originAirport",
+            "destinationAirport", "seatCapacity");
+
     private final FlightRepository flightRepository;
+    private final RouteGraph routeGraph;
 
     @Override
     public Mono<FlightResponse> createFlight(FlightCreateRequest request) {
@@ -35,16 +44,32 @@ public class FlightServiceImpl implements FlightService {
                             .build();
 
                     return flightRepository.save(flight)
+                            .doOnNext(routeGraph::addFlight)
                             .map(this::toResponse);
                 });
     }
 
     @Override
     public Flux<FlightResponse> getAllFlights() {
-        return flightRepository.findAll()
+        return flightRepository.streamAll()
                 .map(this::toResponse);
     }
 
+    @Override
+    public Mono<PageResponse<FlightResponse>> getFlightPage(String cursor, int limit, String fields) {
+        return Mono.defer(() -> {
+            Pagination.checkLimit(limit);
+            Set<String> selected = Pagination.selectFields(fields, FLIGHT_FIELDS);
+            String[] after = Pagination.decodeCursor(cursor, 1);
+
+            return flightRepository.findPage(after == null ? null : Pagination.objectId(after[0]), limit + 1, selected)
+                    .collectList()
+                    .map(flights -> Pagination.page(flights, limit,
+                            flight -> Pagination.encodeCursor(flight.getId()),
+                            flight -> toPageItem(flight, selected)));
+        });
+    }
+
     @Override
     public Mono<FlightResponse> getFlightByFlightNumber(String flightNumber) {
         return flightRepository.findByFlightNumber(flightNumber.trim().toUpperCase())
@@ -58,7 +83,9 @@ public class FlightServiceImpl implements FlightService {
     public Mono<String> deleteFlight(String id) {
         return flightRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Flight not found: " + id)))
-                .flatMap(flight -> flightRepository.delete(flight).thenReturn("Deleted"));
+                .flatMap(flight -> flightRepository.delete(flight)
+                        .then(Mono.fromRunnable(() -> routeGraph.removeFlight(flight)))
+                        .thenReturn("Deleted"));
     }
 
     private FlightResponse toResponse(Flight flight) {
@@ -71,6 +98,19 @@ public class FlightServiceImpl implements FlightService {
                 .seatCapacity(flight.getSeatCapacity())
                 .build();
     }
-}
-
 
+    // only the requested fields are set, so unrequested ones drop out of the JSON
+    private FlightResponse toPageItem(Flight flight, Set<String> selected) {
+        if (selected.isEmpty()) {
+            return toResponse(flight);
+        }
+        return FlightResponse.builder()
+                .id(selected.contains("id") ? flight.getId() : null)
+                .flightNumber(selected.contains("flightNumber") ? flight.getFlightNumber() : null)
+                .airline(selected.contains("airline") ? flight.getAirline() : null)
+                .originAirport(selected.contains("originAirport") ? flight.getOriginAirport() : null)
+                .destinationAirport(selected.contains("destinationAirport") ? flight.getDestinationAirport() : null)
+                .seatCapacity(selected.contains("seatCapacity") ? flight.getSeatCapacity() : null)
+                .build();
+    }
+}
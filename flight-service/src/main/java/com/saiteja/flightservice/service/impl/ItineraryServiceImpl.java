@@ -0,0 +1,154 @@
+package com.saiteja.flightservice.service.impl;
+
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.dto.flight.ItineraryResponse;
+import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.itinerary.ItineraryProperties;
+import com.saiteja.flightservice.itinerary.RouteGraph;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.service.ItineraryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class ItineraryServiceImpl implements ItineraryService {
+
+    private static final Comparator<List<Leg>> SHORTEST_THEN_CHEAPEST = Comparator
+            .<List<Leg>, Duration>comparing(legs -> Duration.between(legs.get(0).departure(), legs.get(legs.size() - 1).arrival()))
+            .thenComparing(ItineraryServiceImpl::totalFare);
+
+    private final RouteGraph routeGraph;
+    private final FlightScheduleRepository flightScheduleRepository;
+    private final ItineraryProperties properties;
+
+    @Override
+    public Flux<ItineraryResponse> searchItineraries(String origin, String destination, LocalDate date, int maxStops) {
+        List<List<String>> routes = routeGraph.routes(origin, destination, maxStops, properties.getMaxRoutes());
+        if (routes.isEmpty()) {
+            return Flux.error(new ResourceNotFoundException("No route found from " + origin + " to " + destination));
+        }
+
+        Set<String> flightIds = new HashSet<>();
+        int maxLegs = 0;
+        for (List<String> route : routes) {
+            maxLegs = Math.max(maxLegs, route.size() - 1);
+            for (int hop = 0; hop < route.size() - 1; hop++) {
+                routeGraph.flights(route.get(hop), route.get(hop + 1)).forEach(flight -> flightIds.add(flight.getId()));
+            }
+        }
+
+        // all candidate legs of all routes in one query; later legs can depart a day or two after the first
+        LocalDate lastDate = date.plusDays(Duration.ofDays(1).plus(properties.getMaxConnection())
+                .multipliedBy(maxLegs - 1L).toDays() + 1);
+
+        return flightScheduleRepository.findLegCandidates(flightIds, date, lastDate)
+                .collectMultimap(FlightSchedule::getFlightId)
+                .flatMapMany(schedulesByFlight -> {
+                    List<List<Leg>> itineraries = new ArrayList<>();
+                    for (List<String> route : routes) {
+                        connect(route, date, new ArrayList<>(), schedulesByFlight, itineraries);
+                    }
+                    return Flux.fromStream(itineraries.stream()
+                            .sorted(SHORTEST_THEN_CHEAPEST)
+                            .limit(properties.getMaxResults())
+                            .map(this::toResponse));
+                })
+                .switchIfEmpty(Flux.error(new ResourceNotFoundException("No itinerary found for given criteria")));
+    }
+
+    private void connect(List<String> route, LocalDate date, List<Leg> legs,
+                         Map<String, Collection<FlightSchedule>> schedulesByFlight, List<List<Leg>> itineraries) {
+        int hop = legs.size();
+        if (hop == route.size() - 1) {
+            itineraries.add(List.copyOf(legs));
+            return;
+        }
+        for (Flight flight : routeGraph.flights(route.get(hop), route.get(hop + 1))) {
+            for (FlightSchedule schedule : schedulesByFlight.getOrDefault(flight.getId(), List.of())) {
+                Leg leg = Leg.of(flight, schedule);
+                if (hop == 0 ? !schedule.getFlightDate().equals(date) : !connects(legs.get(hop - 1), leg)) {
+                    continue;
+                }
+                legs.add(leg);
+                connect(route, date, legs, schedulesByFlight, itineraries);
+                legs.remove(legs.size() - 1);
+            }
+        }
+    }
+
+    private boolean connects(Leg inbound, Leg outbound) {
+        Duration layover = Duration.between(inbound.arrival(), outbound.departure());
+        return layover.compareTo(properties.getMinConnection()) >= 0
+                && layover.compareTo(properties.getMaxConnection()) <= 0;
+    }
+
+    private static BigDecimal totalFare(List<Leg> legs) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Leg leg : legs) {
+            if (leg.schedule().getFare() != null) {
+                total = total.add(leg.schedule().getFare());
+            }
+        }
+        return total;
+    }
+
+    private ItineraryResponse toResponse(List<Leg> legs) {
+        Leg first = legs.get(0);
+        Leg last = legs.get(legs.size() - 1);
+        return ItineraryResponse.builder()
+                .stops(legs.size() - 1)
+                .departure(first.departure())
+                .arrival(last.arrival())
+                .durationMinutes(Duration.between(first.departure(), last.arrival()).toMinutes())
+                .totalFare(totalFare(legs))
+                .availableSeats(legs.stream().mapToInt(leg -> leg.schedule().getAvailableSeats()).min().orElse(0))
+                .legs(legs.stream().map(this::toLegResponse).toList())
+                .build();
+    }
+
+    private FlightScheduleResponse toLegResponse(Leg leg) {
+        FlightSchedule schedule = leg.schedule();
+        Flight flight = leg.flight();
+        return FlightScheduleResponse.builder()
+                .scheduleId(schedule.getId())
+                .flightNumber(flight.getFlightNumber())
+                .airline(flight.getAirline().name())
+                .originAirport(flight.getOriginAirport())
+                .destinationAirport(flight.getDestinationAirport())
+                .flightDate(schedule.getFlightDate())
+                .departureTime(schedule.getDepartureTime())
+                .arrivalTime(schedule.getArrivalTime())
+                .fare(schedule.getFare())
+                .availableSeats(schedule.getAvailableSeats())
+                .build();
+    }
+
+    private record Leg(Flight flight, FlightSchedule schedule, LocalDateTime departure, LocalDateTime arrival) {
+
+        static Leg of(Flight flight, FlightSchedule schedule) {
+            LocalDateTime departure = schedule.getFlightDate().atTime(schedule.getDepartureTime());
+            LocalDateTime arrival = schedule.getFlightDate().atTime(schedule.getArrivalTime());
+            // an arrival clock time before the departure means the flight lands the next day
+            if (!arrival.isAfter(departure)) {
+                arrival = arrival.plusDays(1);
+            }
+            return new Leg(flight, schedule, departure, arrival);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.index.MongoIndexManager;
+import com.saiteja.flightservice.itinerary.ItineraryProperties;
+import com.saiteja.flightservice.itinerary.RouteGraph;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.service.impl.ItineraryServiceImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Connecting-itinerary search on a synthetic hub-and-spoke network: {@link #AIRPORTS} airports, of
+ * which {@link #HUBS} hubs are fully meshed and every spoke links to a few hubs and spokes.
+ * Reports route enumeration on the in-memory graph alone and the full search, per stop count.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=ConnectionSearchBenchmark}.
+ */
+class ConnectionSearchBenchmark {
+
+    private static final int AIRPORTS = 300;
+    private static final int HUBS = 12;
+    private static final int HUBS_PER_SPOKE = 3;
+    private static final int SPOKE_LINKS = 2;
+    private static final int DAYS_SCHEDULED = 4;
+    private static final int DEPARTURES_PER_DAY = 3;
+    private static final int SAMPLES = 300;
+    private static final LocalDate SEARCH_DATE = LocalDate.now().plusDays(1);
+
+    private static EmbeddedMongo mongo;
+    private static RouteGraph routeGraph;
+    private static ItineraryServiceImpl itineraryService;
+
+    @BeforeAll
+    static void buildNetwork() {
+        mongo = EmbeddedMongo.start("connection_search_benchmark");
+        FlightRepository flightRepository = mongo.repository(FlightRepository.class,
+                new FlightRepositoryCustomImpl(mongo.template()));
+        FlightScheduleRepository flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+
+        List<Flight> flights = flightRepository.saveAll(network()).collectList().block();
+        SeatMap seatMap = SeatMap.forCapacity(180);
+        Random random = new Random(11);
+        Flux.fromIterable(flights)
+                .flatMap(flight -> Flux.range(0, DAYS_SCHEDULED * DEPARTURES_PER_DAY)
+                        .map(slot -> {
+                            int departureHour = 5 + (slot % DEPARTURES_PER_DAY) * 6 + random.nextInt(3);
+                            return FlightSchedule.builder()
+                                    .flightId(flight.getId())
+                                    .flightDate(SEARCH_DATE.plusDays(slot / DEPARTURES_PER_DAY))
+                                    .departureTime(LocalTime.of(departureHour, random.nextInt(4) * 15))
+                                    .arrivalTime(LocalTime.of((departureHour + 1 + random.nextInt(3)) % 24, 30))
+                                    .fare(BigDecimal.valueOf(1500 + random.nextInt(6000)))
+                                    .totalSeats(180)
+                                    .availableSeats(1 + random.nextInt(180))
+                                    .status(FlightStatus.SCHEDULED)
+                                    .seatBitmap(seatMap.emptyBitmap())
+                                    .build();
+                        })
+                        .collectList()
+                        .flatMapMany(flightScheduleRepository::saveAll), 8)
+                .blockLast();
+        new MongoIndexManager(mongo.template(), (MongoMappingContext) mongo.template().getConverter().getMappingContext())
+                .createIndexes().block();
+
+        routeGraph = new RouteGraph(flightRepository);
+        routeGraph.reload().block();
+        itineraryService = new ItineraryServiceImpl(routeGraph, flightScheduleRepository, new ItineraryProperties());
+        System.out.printf("network: %d airports, %d flights, %d schedules%n",
+                AIRPORTS, flights.size(), flights.size() * DAYS_SCHEDULED * DEPARTURES_PER_DAY);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void searchLatencyByMaxStops() {
+        Random random = new Random(5);
+        for (int maxStops = 0; maxStops <= 2; maxStops++) {
+            int stops = maxStops;
+            long[] graphOnly = new long[SAMPLES];
+            long[] fullSearch = new long[SAMPLES];
+            int found = 0;
+            for (int sample = 0; sample < SAMPLES; sample++) {
+                // spoke to spoke, the case connections exist for
+                String origin = airport(HUBS + random.nextInt(AIRPORTS - HUBS));
+                String destination = airport(HUBS + random.nextInt(AIRPORTS - HUBS));
+
+                long started = System.nanoTime();
+                routeGraph.routes(origin, destination, stops, new ItineraryProperties().getMaxRoutes());
+                graphOnly[sample] = System.nanoTime() - started;
+
+                started = System.nanoTime();
+                Long itineraries = itineraryService.searchItineraries(origin, destination, SEARCH_DATE, stops)
+                        .count()
+                        .onErrorReturn(0L)
+                        .block();
+                fullSearch[sample] = System.nanoTime() - started;
+                if (itineraries != null && itineraries > 0) {
+                    found++;
+                }
+            }
+            Arrays.sort(graphOnly);
+            Arrays.sort(fullSearch);
+            System.out.printf("[maxStops=%d] graph p50=%7.3fms p99=%7.3fms | search p50=%7.2fms p99=%7.2fms | %d/%d pairs connected%n",
+                    stops, percentile(graphOnly, 50), percentile(graphOnly, 99),
+                    percentile(fullSearch, 50), percentile(fullSearch, 99), found, SAMPLES);
+            if (stops == 2) {
+                assertThat(found).isGreaterThan(SAMPLES / 2);
+            }
+        }
+    }
+
+    private static List<Flight> network() {
+        Random random = new Random(3);
+        List<Flight> flights = new ArrayList<>();
+        for (int from = 0; from < HUBS; from++) {
+            for (int to = 0; to < HUBS; to++) {
+                if (from != to) {
+                    flights.add(flight(flights.size(), from, to));
+                }
+            }
+        }
+        for (int spoke = HUBS; spoke < AIRPORTS; spoke++) {
+            for (int link = 0; link < HUBS_PER_SPOKE; link++) {
+                int hub = (spoke + link * 5) % HUBS;
+                flights.add(flight(flights.size(), spoke, hub));
+                flights.add(flight(flights.size(), hub, spoke));
+            }
+            for (int link = 0; link < SPOKE_LINKS; link++) {
+                int other = HUBS + random.nextInt(AIRPORTS - HUBS);
+                if (other != spoke) {
+                    flights.add(flight(flights.size(), spoke, other));
+                }
+            }
+        }
+        return flights;
+    }
+
+    private static Flight flight(int number, int from, int to) {
+        return Flight.builder()
+                .flightNumber("SY" + (1000 + number))
+                .airline(Airline.values()[number % Airline.values().length])
+                .originAirport(airport(from))
+                .destinationAirport(airport(to))
+                .seatCapacity(180)
+                .build();
+    }
+
+    private static String airport(int index) {
+        return "A" + String.format("%02d", index / 26) + (char) ('A' + index % 26);
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.model.FareCalendarDay;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.RouteSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fare calendar latency for a +/- 3 day window and a full month: the grouped aggregation versus one
+ * route search per day. The month view has to stay inside {@link #MONTH_P99_BUDGET_MS}.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=FareCalendarBenchmark}.
+ */
+class FareCalendarBenchmark {
+
+    private static final int FLIGHTS_ON_ROUTE = 40;
+    private static final int DAYS_SCHEDULED = 90;
+    private static final int WARMUP = 30;
+    private static final int SAMPLES = 200;
+    private static final double MONTH_P99_BUDGET_MS = 50;
+    private static final LocalDate CENTER = LocalDate.now().plusDays(30);
+
+    private static EmbeddedMongo mongo;
+    private static FlightRepository flightRepository;
+    private static FlightScheduleRepository flightScheduleRepository;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("fare_calendar_benchmark");
+        flightRepository = mongo.repository(FlightRepository.class,
+                new FlightRepositoryCustomImpl(mongo.template()));
+        flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+        seedRoute();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void calendarLatency() {
+        LocalDate weekFrom = CENTER.minusDays(3);
+        LocalDate weekTo = CENTER.plusDays(3);
+        LocalDate monthFrom = CENTER.withDayOfMonth(1);
+        LocalDate monthTo = monthFrom.plusMonths(1).minusDays(1);
+
+        assertMatchesPerDaySearch(monthFrom, monthTo);
+
+        long[] weekPerDay = measure(() -> perDaySearch(weekFrom, weekTo).size());
+        long[] weekGrouped = measure(() -> flightRepository.findFareCalendar("DEL", "BOM", weekFrom, weekTo).count().block());
+        long[] monthPerDay = measure(() -> perDaySearch(monthFrom, monthTo).size());
+        long[] monthGrouped = measure(() -> flightRepository.findFareCalendar("DEL", "BOM", monthFrom, monthTo).count().block());
+
+        report("+/-3 days", weekPerDay, weekGrouped);
+        report("month", monthPerDay, monthGrouped);
+        assertThat(percentile(monthGrouped, 99)).isLessThan(MONTH_P99_BUDGET_MS);
+    }
+
+    // the grouped result has to agree with what a day-by-day search would have shown
+    private static void assertMatchesPerDaySearch(LocalDate from, LocalDate to) {
+        List<FareCalendarDay> grouped = flightRepository.findFareCalendar("DEL", "BOM", from, to).collectList().block();
+        List<FareCalendarDay> perDay = perDaySearch(from, to);
+        assertThat(grouped).hasSameSizeAs(perDay);
+        for (int day = 0; day < grouped.size(); day++) {
+            assertThat(grouped.get(day).getDate()).isEqualTo(perDay.get(day).getDate());
+            assertThat(grouped.get(day).getLowestFare()).isEqualByComparingTo(perDay.get(day).getLowestFare());
+            assertThat(grouped.get(day).getAvailableSeats()).isEqualTo(perDay.get(day).getAvailableSeats());
+        }
+    }
+
+    private static List<FareCalendarDay> perDaySearch(LocalDate from, LocalDate to) {
+        return Flux.fromStream(from.datesUntil(to.plusDays(1)))
+                .concatMap(date -> flightRepository.findRouteSchedules("DEL", "BOM", date)
+                        .map(RouteSchedule::getSchedule)
+                        .collectList()
+                        .filter(schedules -> !schedules.isEmpty())
+                        .map(schedules -> new FareCalendarDay(date,
+                                schedules.stream()
+                                        .filter(schedule -> schedule.getAvailableSeats() > 0)
+                                        .map(FlightSchedule::getFare)
+                                        .filter(Objects::nonNull)
+                                        .min(Comparator.naturalOrder())
+                                        .orElse(null),
+                                schedules.stream().mapToInt(FlightSchedule::getAvailableSeats).sum(),
+                                schedules.size())))
+                .collectList()
+                .block();
+    }
+
+    private static void seedRoute() {
+        SeatMap seatMap = SeatMap.forCapacity(180);
+        Flux.range(0, FLIGHTS_ON_ROUTE)
+                .concatMap(index -> flightRepository.save(Flight.builder()
+                        .flightNumber("AI" + (100 + index))
+                        .airline(Airline.values()[index % Airline.values().length])
+                        .originAirport("DEL")
+                        .destinationAirport("BOM")
+                        .seatCapacity(180)
+                        .build()))
+                .index()
+                .flatMap(flight -> Flux.range(0, DAYS_SCHEDULED)
+                        .map(day -> FlightSchedule.builder()
+                                .flightId(flight.getT2().getId())
+                                .flightDate(LocalDate.now().plusDays(day))
+                                .departureTime(LocalTime.of(6 + (int) (flight.getT1() % 14), 0))
+                                .arrivalTime(LocalTime.of(8 + (int) (flight.getT1() % 14), 0))
+                                .fare(BigDecimal.valueOf(2500 + (flight.getT1() * 37 + day * 53) % 4000))
+                                // every seventh flight-day is sold out
+                                .totalSeats(180)
+                                .availableSeats((flight.getT1() + day) % 7 == 0 ? 0 : 180 - day % 60)
+                                .status(FlightStatus.SCHEDULED)
+                                .seatBitmap(seatMap.emptyBitmap())
+                                .build())
+                        .collectList()
+                        .flatMapMany(flightScheduleRepository::saveAll))
+                .blockLast();
+    }
+
+    private static long[] measure(Supplier<?> calendar) {
+        for (int i = 0; i < WARMUP; i++) {
+            calendar.get();
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            calendar.get();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String window, long[] perDay, long[] grouped) {
+        System.out.printf("[%-9s] per-day searches p50=%6.2fms p99=%6.2fms | grouped p50=%6.2fms p99=%6.2fms%n",
+                window, percentile(perDay, 50), percentile(perDay, 99), percentile(grouped, 50), percentile(grouped, 99));
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.controller.FlightController;
+import com.saiteja.flightservice.itinerary.RouteGraph;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.service.impl.FlightServiceImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full catalog listing of {@link #CATALOG_SIZE} flights as one JSON array versus NDJSON: time until
+ * the client holds its first flight, total time, and peak heap while the listing is served and read.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=FlightStreamingBenchmark}.
+ */
+class FlightStreamingBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int ROUNDS = 3;
+
+    private static EmbeddedMongo mongo;
+    private static WebTestClient webTestClient;
+
+    @BeforeAll
+    static void seedCatalog() {
+        mongo = EmbeddedMongo.start("flight_streaming_benchmark");
+        FlightRepository flightRepository = mongo.repository(FlightRepository.class,
+                new FlightRepositoryCustomImpl(mongo.template()));
+        Flux.range(0, CATALOG_SIZE)
+                .map(index -> Flight.builder()
+                        .flightNumber("SY" + index)
+                        .airline(Airline.values()[index % Airline.values().length])
+                        .originAirport("A" + index % 400)
+                        .destinationAirport("B" + index % 397)
+                        .seatCapacity(180)
+                        .build())
+                .buffer(5_000)
+                .concatMap(flightRepository::saveAll)
+                .blockLast();
+
+        FlightServiceImpl flightService = new FlightServiceImpl(flightRepository, new RouteGraph(flightRepository));
+        webTestClient = WebTestClient.bindToController(new FlightController(flightService))
+                .configureClient()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(256 * 1024 * 1024))
+                .responseTimeout(Duration.ofMinutes(2))
+                .build();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void catalogListing() {
+        // first round of each warms up codecs and the cursor path
+        Result array = null;
+        Result ndjson = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            array = jsonArray();
+            ndjson = ndjson();
+        }
+        report("json array", array);
+        report("ndjson", ndjson);
+
+        assertThat(array.flights()).isEqualTo(CATALOG_SIZE);
+        assertThat(ndjson.flights()).isEqualTo(CATALOG_SIZE);
+        assertThat(ndjson.firstFlightNanos()).isLessThan(array.firstFlightNanos());
+    }
+
+    // a JSON array client only has flights once the whole body is decoded
+    private static Result jsonArray() {
+        resetPeakHeap();
+        long started = System.nanoTime();
+        List<Map> flights = webTestClient.get()
+                .uri("/api/v1.0/flight/admin/flights")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBodyList(Map.class)
+                .returnResult()
+                .getResponseBody();
+        long elapsed = System.nanoTime() - started;
+        return new Result(flights.size(), elapsed, elapsed, peakHeap());
+    }
+
+    private static Result ndjson() {
+        resetPeakHeap();
+        long started = System.nanoTime();
+        AtomicLong firstFlight = new AtomicLong();
+        Long flights = webTestClient.get()
+                .uri("/api/v1.0/flight/admin/flights")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .returnResult(Map.class)
+                .getResponseBody()
+                .doOnNext(flight -> firstFlight.compareAndSet(0, System.nanoTime() - started))
+                .count()
+                .block();
+        return new Result(flights, firstFlight.get(), System.nanoTime() - started, peakHeap());
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long peakHeap() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("[%-10s] %d flights | first flight %8.1fms | total %8.1fms | peak heap %6.1fMB%n",
+                mode, result.flights(), result.firstFlightNanos() / 1_000_000.0,
+                result.totalNanos() / 1_000_000.0, result.peakHeapBytes() / (1024.0 * 1024.0));
+    }
+
+    private record Result(long flights, long firstFlightNanos, long totalNanos, long peakHeapBytes) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of one {@link #PAGE_SIZE} flight page at increasing depth in a {@link #CATALOG_SIZE} catalog:
+ * keyset seek versus skip/limit. Keyset pages have to stay flat, so the deepest one may be at most
+ * {@link #MAX_DEEP_TO_SHALLOW} times the first.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=KeysetPaginationBenchmark}.
+ */
+class KeysetPaginationBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] DEPTHS = {0, 1_000, 10_000, 50_000, 99_000};
+    private static final int WARMUP = 20;
+    private static final int SAMPLES = 100;
+    private static final double MAX_DEEP_TO_SHALLOW = 3.0;
+
+    private static EmbeddedMongo mongo;
+    private static FlightRepository flightRepository;
+    private static List<String> ids;
+
+    @BeforeAll
+    static void seedCatalog() {
+        mongo = EmbeddedMongo.start("keyset_pagination_benchmark");
+        flightRepository = mongo.repository(FlightRepository.class, new FlightRepositoryCustomImpl(mongo.template()));
+        Flux.range(0, CATALOG_SIZE)
+                .map(index -> Flight.builder()
+                        .flightNumber("SY" + index)
+                        .airline(Airline.values()[index % Airline.values().length])
+                        .originAirport("A" + index % 400)
+                        .destinationAirport("B" + index % 397)
+                        .seatCapacity(180)
+                        .build())
+                .buffer(5_000)
+                .concatMap(flightRepository::saveAll)
+                .blockLast();
+        Query idsOnly = new Query().with(Sort.by("_id"));
+        idsOnly.fields().include("_id");
+        ids = mongo.template().find(idsOnly, Flight.class).map(Flight::getId).collectList().block();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void pageCostByDepth() {
+        double shallowKeyset = 0;
+        double deepKeyset = 0;
+        for (int depth : DEPTHS) {
+            ObjectId after = depth == 0 ? null : new ObjectId(ids.get(depth - 1));
+            long[] keyset = measure(() -> flightRepository.findPage(after, PAGE_SIZE + 1, Set.of()).count().block());
+            long[] offset = measure(() -> mongo.template()
+                    .find(new Query().with(Sort.by("_id")).skip(depth).limit(PAGE_SIZE + 1), Flight.class)
+                    .count()
+                    .block());
+            System.out.printf("[depth %6d] keyset p50=%6.2fms p99=%6.2fms | skip/limit p50=%7.2fms p99=%7.2fms%n",
+                    depth, percentile(keyset, 50), percentile(keyset, 99), percentile(offset, 50), percentile(offset, 99));
+            if (depth == 0) {
+                shallowKeyset = percentile(keyset, 50);
+            }
+            deepKeyset = percentile(keyset, 50);
+        }
+        assertThat(deepKeyset).isLessThan(shallowKeyset * MAX_DEEP_TO_SHALLOW);
+    }
+
+    private static long[] measure(Supplier<?> page) {
+        for (int i = 0; i < WARMUP; i++) {
+            page.get();
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            page.get();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
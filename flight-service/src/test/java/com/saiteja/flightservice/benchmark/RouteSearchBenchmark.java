@@ -0,0 +1,126 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Route search latency against the number of flights on the route: the previous N+1 lookup
+ * (route query, then one schedule query per flight) versus the single $lookup aggregation.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=RouteSearchBenchmark}.
+ */
+class RouteSearchBenchmark {
+
+    private static final int[] FLIGHTS_PER_ROUTE = {1, 10, 40, 80};
+    private static final int DAYS_SCHEDULED = 30;
+    private static final int WARMUP = 50;
+    private static final int SAMPLES = 300;
+    private static final LocalDate SEARCH_DATE = LocalDate.now().plusDays(10);
+
+    private static EmbeddedMongo mongo;
+    private static FlightRepository flightRepository;
+    private static FlightScheduleRepository flightScheduleRepository;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("route_search_benchmark");
+        flightRepository = mongo.repository(FlightRepository.class,
+                new FlightRepositoryCustomImpl(mongo.template()));
+        flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void searchLatencyByFlightsPerRoute() {
+        for (int flights : FLIGHTS_PER_ROUTE) {
+            String origin = "O" + flights;
+            String destination = "D" + flights;
+            seedRoute(origin, destination, flights);
+
+            long[] nPlusOne = measure(() -> flightRepository.findByOriginAirportAndDestinationAirport(origin, destination)
+                    .flatMap(flight -> flightScheduleRepository.findByFlightIdAndFlightDate(flight.getId(), SEARCH_DATE))
+                    .count()
+                    .block());
+            long[] aggregation = measure(() -> flightRepository.findRouteSchedules(origin, destination, SEARCH_DATE)
+                    .count()
+                    .block());
+
+            assertThat(flightRepository.findRouteSchedules(origin, destination, SEARCH_DATE).count().block())
+                    .isEqualTo(flights);
+
+            System.out.printf("[%3d flights] N+1 p50=%6.2fms p99=%6.2fms | aggregation p50=%6.2fms p99=%6.2fms%n",
+                    flights, percentile(nPlusOne, 50), percentile(nPlusOne, 99),
+                    percentile(aggregation, 50), percentile(aggregation, 99));
+        }
+    }
+
+    private static void seedRoute(String origin, String destination, int flights) {
+        SeatMap seatMap = SeatMap.forCapacity(180);
+        Flux.range(0, flights)
+                .concatMap(index -> flightRepository.save(Flight.builder()
+                        .flightNumber(origin + index)
+                        .airline(Airline.values()[index % Airline.values().length])
+                        .originAirport(origin)
+                        .destinationAirport(destination)
+                        .seatCapacity(180)
+                        .build()))
+                .flatMap(flight -> Flux.range(0, DAYS_SCHEDULED)
+                        .map(day -> FlightSchedule.builder()
+                                .flightId(flight.getId())
+                                .flightDate(LocalDate.now().plusDays(day))
+                                .departureTime(LocalTime.of(6 + day % 12, 0))
+                                .arrivalTime(LocalTime.of(8 + day % 12, 0))
+                                .fare(BigDecimal.valueOf(3000 + day * 10L))
+                                .totalSeats(180)
+                                .availableSeats(180)
+                                .status(FlightStatus.SCHEDULED)
+                                .seatBitmap(seatMap.emptyBitmap())
+                                .build())
+                        .collectList()
+                        .flatMapMany(flightScheduleRepository::saveAll))
+                .blockLast();
+    }
+
+    private static long[] measure(Supplier<Long> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            search.get();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.cache.RouteSearchCacheProperties;
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.migration.SeatBitmapMigration;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightRepositoryCustomImpl;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.seat.SeatBatchProperties;
+import com.saiteja.flightservice.seat.SeatHoldManager;
+import com.saiteja.flightservice.seat.SeatHoldProperties;
+import com.saiteja.flightservice.seat.SeatUpdateBatcher;
+import com.saiteja.flightservice.service.impl.FlightScheduleServiceImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search p50/p99 through the service with the route cache on and off, on a skewed mix of routes
+ * with one seat lock for every nine searches. Not part of the regular test run; start it with
+ * {@code mvn test -Dtest=RouteSearchCacheBenchmark}.
+ */
+class RouteSearchCacheBenchmark {
+
+    private static final int ROUTES = 50;
+    private static final int FLIGHTS_PER_ROUTE = 12;
+    private static final int OPERATIONS = 5_000;
+    private static final int SEARCHES_PER_LOCK = 9;
+    private static final LocalDate SEARCH_DATE = LocalDate.now().plusDays(5);
+
+    private static EmbeddedMongo mongo;
+    private static FlightRepository flightRepository;
+    private static FlightScheduleRepository flightScheduleRepository;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("route_cache_benchmark");
+        flightRepository = mongo.repository(FlightRepository.class,
+                new FlightRepositoryCustomImpl(mongo.template()));
+        flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+        seedRoutes();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void searchLatencyWithAndWithoutCache() {
+        long[] uncached = run(false);
+        long[] cached = run(true);
+
+        System.out.printf("[cache off] p50=%6.3fms p99=%6.3fms%n", percentile(uncached, 50), percentile(uncached, 99));
+        System.out.printf("[cache on ] p50=%6.3fms p99=%6.3fms%n", percentile(cached, 50), percentile(cached, 99));
+    }
+
+    private static long[] run(boolean cacheEnabled) {
+        RouteSearchCacheProperties properties = new RouteSearchCacheProperties();
+        properties.setEnabled(cacheEnabled);
+        RouteSearchCache routeSearchCache = new RouteSearchCache(properties, new SimpleMeterRegistry());
+        FlightScheduleServiceImpl service = new FlightScheduleServiceImpl(flightScheduleRepository, flightRepository,
+                new SeatBitmapMigration(mongo.template()), routeSearchCache,
+                new SeatUpdateBatcher(flightScheduleRepository, new SeatBatchProperties(), new SimpleMeterRegistry()),
+                new SeatHoldManager(flightScheduleRepository, routeSearchCache, new SeatHoldProperties(), new SimpleMeterRegistry()));
+
+        Random random = new Random(7);
+        SeatMap seatMap = SeatMap.forCapacity(180);
+        List<Long> samples = new ArrayList<>();
+        int nextSeat = 0;
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            int route = skewedRoute(random);
+            if (operation % (SEARCHES_PER_LOCK + 1) == SEARCHES_PER_LOCK) {
+                List<FlightScheduleResponse> results = search(service, route);
+                String scheduleId = results.get(random.nextInt(results.size())).getScheduleId();
+                service.lockSeats(scheduleId, List.of(seatMap.labelOf(nextSeat++ % 180)))
+                        .onErrorComplete()
+                        .block();
+                continue;
+            }
+            long started = System.nanoTime();
+            List<FlightScheduleResponse> results = search(service, route);
+            samples.add(System.nanoTime() - started);
+            assertThat(results).hasSize(FLIGHTS_PER_ROUTE);
+        }
+        return samples.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static List<FlightScheduleResponse> search(FlightScheduleServiceImpl service, int route) {
+        return service.searchFlights("O" + route, "D" + route, SEARCH_DATE).collectList().block();
+    }
+
+    // Roughly Zipfian: a handful of routes take most of the traffic
+    private static int skewedRoute(Random random) {
+        return (int) Math.min(ROUTES - 1, Math.floor(Math.pow(random.nextDouble(), 3) * ROUTES));
+    }
+
+    private static void seedRoutes() {
+        SeatMap seatMap = SeatMap.forCapacity(180);
+        Flux.range(0, ROUTES)
+                .flatMap(route -> Flux.range(0, FLIGHTS_PER_ROUTE)
+                        .map(index -> Flight.builder()
+                                .flightNumber("R" + route + "F" + index)
+                                .airline(Airline.values()[index % Airline.values().length])
+                                .originAirport("O" + route)
+                                .destinationAirport("D" + route)
+                                .seatCapacity(180)
+                                .build()))
+                .concatMap(flightRepository::save)
+                .map(flight -> FlightSchedule.builder()
+                        .flightId(flight.getId())
+                        .flightDate(SEARCH_DATE)
+                        .departureTime(LocalTime.of(9, 0))
+                        .arrivalTime(LocalTime.of(11, 0))
+                        .fare(BigDecimal.valueOf(4200))
+                        .totalSeats(180)
+                        .availableSeats(180)
+                        .status(FlightStatus.SCHEDULED)
+                        .seatBitmap(seatMap.emptyBitmap())
+                        .build())
+                .concatMap(flightScheduleRepository::save)
+                .blockLast();
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
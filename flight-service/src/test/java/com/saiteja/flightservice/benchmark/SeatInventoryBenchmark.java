@@ -0,0 +1,111 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.model.SeatMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old {@code List<String> bookedSeats} inventory with the packed {@link SeatMap} bitmap
+ * for a nearly full cabin: the availability check for a booking, and a full lock + release cycle.
+ * Run {@link #main} from the IDE or via {@code exec:java} on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatInventoryBenchmark {
+
+    @Param({"180", "400"})
+    private int capacity;
+
+    private SeatMap seatMap;
+    private List<String> bookedList;
+    private List<Long> bitmap;
+    private List<String> request;
+
+    @Setup
+    public void setUp() {
+        seatMap = SeatMap.forCapacity(capacity);
+
+        // everything booked except the last four seats, which a party of four then books
+        List<String> allSeats = new ArrayList<>(capacity);
+        for (int index = 0; index < capacity; index++) {
+            allSeats.add(seatMap.labelOf(index));
+        }
+        Collections.shuffle(allSeats, new Random(42));
+        request = new ArrayList<>(allSeats.subList(capacity - 4, capacity));
+        bookedList = new ArrayList<>(allSeats.subList(0, capacity - 4));
+
+        bitmap = new ArrayList<>();
+        for (long word : seatMap.mask(bookedList)) {
+            bitmap.add(word);
+        }
+    }
+
+    @Benchmark
+    public boolean listAvailabilityCheck() {
+        for (String seat : request) {
+            if (bookedList.contains(seat)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean bitmapAvailabilityCheck() {
+        return !SeatMap.isAnySet(bitmap, seatMap.mask(request));
+    }
+
+    @Benchmark
+    public int listLockRelease() {
+        if (!Collections.disjoint(bookedList, request)) {
+            return -1;
+        }
+        bookedList.addAll(request);
+        bookedList.removeIf(request::contains);
+        return bookedList.size();
+    }
+
+    @Benchmark
+    public long bitmapLockRelease() {
+        long[] mask = seatMap.mask(request);
+        if (SeatMap.isAnySet(bitmap, mask)) {
+            return -1;
+        }
+        for (int word = 0; word < mask.length; word++) {
+            bitmap.set(word, bitmap.get(word) | mask[word]);
+        }
+        for (int word = 0; word < mask.length; word++) {
+            bitmap.set(word, bitmap.get(word) & ~mask[word]);
+        }
+        return bitmap.get(0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SeatInventoryBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.seat.SeatBatchProperties;
+import com.saiteja.flightservice.seat.SeatUpdateBatcher;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lock/release throughput on one schedule as the number of concurrent bookers grows, with every seat
+ * change written on its own and with {@link SeatUpdateBatcher} folding them into shared writes. Each
+ * booker owns one seat, so every lock and release succeeds and throughput is bound by the document
+ * alone; a final check makes sure no seat was lost or double counted.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=SeatLockBatchingBenchmark}.
+ */
+class SeatLockBatchingBenchmark {
+
+    private static final int SEAT_CAPACITY = 300;
+    private static final int[] BOOKERS = {1, 8, 64, 256};
+    private static final int OPERATIONS = 4_000;
+    private static final SeatMap SEAT_MAP = SeatMap.forCapacity(SEAT_CAPACITY);
+
+    private static EmbeddedMongo mongo;
+    private static FlightScheduleRepository flightScheduleRepository;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("seat_batch_benchmark");
+        flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void throughputByConcurrentBookers() {
+        // warm up the driver and both paths
+        run(false, 8);
+        run(true, 8);
+
+        for (int bookers : BOOKERS) {
+            double single = run(false, bookers);
+            double batched = run(true, bookers);
+            System.out.printf("[%3d bookers] single=%7.0f ops/s batched=%7.0f ops/s (x%.1f)%n",
+                    bookers, single, batched, batched / single);
+            if (bookers >= 64) {
+                assertThat(batched).isGreaterThan(single);
+            }
+        }
+    }
+
+    // Operations per second for lock/release cycles spread across the given number of bookers
+    private static double run(boolean batched, int bookers) {
+        SeatBatchProperties properties = new SeatBatchProperties();
+        properties.setEnabled(batched);
+        SeatUpdateBatcher batcher = new SeatUpdateBatcher(flightScheduleRepository, properties, new SimpleMeterRegistry());
+        String scheduleId = createSchedule();
+        int cycles = Math.max(1, OPERATIONS / 2 / bookers);
+        AtomicInteger rejected = new AtomicInteger();
+
+        long started = System.nanoTime();
+        Flux.range(0, bookers)
+                .flatMap(booker -> {
+                    long[] seat = SEAT_MAP.mask(List.of(SEAT_MAP.labelOf(booker)));
+                    return Flux.range(0, cycles)
+                            .concatMap(cycle -> batcher.lock(scheduleId, seat)
+                                    .switchIfEmpty(Mono.fromRunnable(rejected::incrementAndGet))
+                                    .then(batcher.release(scheduleId, seat)
+                                            .switchIfEmpty(Mono.fromRunnable(rejected::incrementAndGet))));
+                }, bookers)
+                .blockLast();
+        long elapsedNanos = System.nanoTime() - started;
+
+        FlightSchedule result = flightScheduleRepository.findById(scheduleId).block();
+        assertThat(rejected).hasValue(0);
+        assertThat(SEAT_MAP.labels(result.getSeatBitmap())).isEmpty();
+        assertThat(result.getAvailableSeats()).isEqualTo(SEAT_CAPACITY);
+
+        return bookers * cycles * 2 / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private static String createSchedule() {
+        FlightSchedule schedule = FlightSchedule.builder()
+                .flightId("hot-flight")
+                .flightDate(LocalDate.now().plusDays(7))
+                .departureTime(LocalTime.of(6, 0))
+                .arrivalTime(LocalTime.of(8, 30))
+                .fare(new BigDecimal("3999.00"))
+                .totalSeats(SEAT_CAPACITY)
+                .availableSeats(SEAT_CAPACITY)
+                .status(FlightStatus.SCHEDULED)
+                .seatBitmap(SEAT_MAP.emptyBitmap())
+                .build();
+        return flightScheduleRepository.save(schedule).block().getId();
+    }
+}
@@ -0,0 +1,155 @@
+package com.saiteja.flightservice.benchmark;
+
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.cache.RouteSearchCacheProperties;
+import com.saiteja.flightservice.migration.SeatBitmapMigration;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepositoryCustomImpl;
+import com.saiteja.flightservice.seat.SeatBatchProperties;
+import com.saiteja.flightservice.seat.SeatHoldManager;
+import com.saiteja.flightservice.seat.SeatHoldProperties;
+import com.saiteja.flightservice.seat.SeatUpdateBatcher;
+import com.saiteja.flightservice.service.impl.FlightScheduleServiceImpl;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single hot schedule with concurrent lock requests against a real mongod.
+ * Not part of the regular test run; start it with {@code mvn test -Dtest=SeatLockConcurrencyBenchmark}.
+ */
+class SeatLockConcurrencyBenchmark {
+
+    private static final int SEAT_CAPACITY = 180;
+    private static final int CONCURRENCY = 64;
+    private static final int ATTEMPTS = 5_000;
+    private static final SeatMap SEAT_MAP = SeatMap.forCapacity(SEAT_CAPACITY);
+
+    private static EmbeddedMongo mongo;
+    private static FlightScheduleRepository flightScheduleRepository;
+    private static FlightScheduleServiceImpl flightScheduleService;
+
+    private String scheduleId;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("seat_lock_benchmark");
+        flightScheduleRepository = mongo.repository(FlightScheduleRepository.class,
+                new FlightScheduleRepositoryCustomImpl(mongo.template()));
+        RouteSearchCache routeSearchCache = new RouteSearchCache(new RouteSearchCacheProperties(), new SimpleMeterRegistry());
+        flightScheduleService = new FlightScheduleServiceImpl(flightScheduleRepository,
+                mongo.repository(FlightRepository.class), new SeatBitmapMigration(mongo.template()), routeSearchCache,
+                new SeatUpdateBatcher(flightScheduleRepository, new SeatBatchProperties(), new SimpleMeterRegistry()),
+                new SeatHoldManager(flightScheduleRepository, routeSearchCache, new SeatHoldProperties(), new SimpleMeterRegistry()));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @BeforeEach
+    void createHotSchedule() {
+        FlightSchedule schedule = FlightSchedule.builder()
+                .flightId("hot-flight")
+                .flightDate(LocalDate.now().plusDays(7))
+                .departureTime(LocalTime.of(6, 0))
+                .arrivalTime(LocalTime.of(8, 30))
+                .fare(new BigDecimal("3999.00"))
+                .totalSeats(SEAT_CAPACITY)
+                .availableSeats(SEAT_CAPACITY)
+                .status(FlightStatus.SCHEDULED)
+                .seatBitmap(SEAT_MAP.emptyBitmap())
+                .build();
+        scheduleId = flightScheduleRepository.save(schedule).block().getId();
+    }
+
+    @Test
+    void randomSeatRush_neverOversells() {
+        AtomicInteger seatsAccepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long started = System.nanoTime();
+        Flux.range(0, ATTEMPTS)
+                .flatMap(attempt -> {
+                    List<String> seats = randomSeats(1 + attempt % 3);
+                    return flightScheduleService.lockSeats(scheduleId, seats)
+                            .doOnSuccess(ignored -> seatsAccepted.addAndGet(seats.size()))
+                            .onErrorResume(e -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, CONCURRENCY)
+                .blockLast();
+        long elapsedNanos = System.nanoTime() - started;
+
+        FlightSchedule result = flightScheduleRepository.findById(scheduleId).block();
+        List<String> booked = SEAT_MAP.labels(result.getSeatBitmap());
+
+        assertThat(booked).hasSize(seatsAccepted.get());
+        assertThat(result.getAvailableSeats()).isEqualTo(SEAT_CAPACITY - booked.size());
+        assertThat(result.getAvailableSeats()).isGreaterThanOrEqualTo(0);
+
+        report("random seat rush", ATTEMPTS, elapsedNanos,
+                "accepted seats=" + seatsAccepted.get() + " rejected requests=" + rejected.get());
+    }
+
+    @Test
+    void lockReleaseChurn_throughputOnOneDocument() {
+        int cycles = ATTEMPTS / CONCURRENCY;
+
+        long started = System.nanoTime();
+        Flux.range(0, CONCURRENCY)
+                .flatMap(worker -> {
+                    // every worker owns one seat pair so all contention is on the document itself
+                    List<String> seats = List.of(SEAT_MAP.labelOf(worker * 2), SEAT_MAP.labelOf(worker * 2 + 1));
+                    return Flux.range(0, cycles)
+                            .concatMap(cycle -> flightScheduleService.lockSeats(scheduleId, seats)
+                                    .then(flightScheduleService.releaseSeats(scheduleId, seats)));
+                }, CONCURRENCY)
+                .blockLast();
+        long elapsedNanos = System.nanoTime() - started;
+
+        FlightSchedule result = flightScheduleRepository.findById(scheduleId).block();
+        assertThat(SEAT_MAP.labels(result.getSeatBitmap())).isEmpty();
+        assertThat(result.getAvailableSeats()).isEqualTo(SEAT_CAPACITY);
+
+        report("lock/release churn", CONCURRENCY * cycles * 2, elapsedNanos, "");
+    }
+
+    private static List<String> randomSeats(int count) {
+        List<String> seats = new ArrayList<>(count);
+        while (seats.size() < count) {
+            String seat = SEAT_MAP.labelOf(ThreadLocalRandom.current().nextInt(SEAT_CAPACITY));
+            if (!seats.contains(seat)) {
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    private static void report(String scenario, int operations, long elapsedNanos, String detail) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[%s] %d ops in %.2fs -> %.0f ops/s %s%n",
+                scenario, operations, seconds, operations / seconds, detail);
+    }
+}
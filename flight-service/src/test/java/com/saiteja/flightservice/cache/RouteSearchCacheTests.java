@@ -0,0 +1,158 @@
+package com.saiteja.flightservice.cache;
+
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.model.FlightSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteSearchCacheTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private RouteSearchCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RouteSearchCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldServeRepeatedSearchFromCache() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+
+        // When & Then
+        StepVerifier.create(search(cache)).expectNextCount(2).verifyComplete();
+        StepVerifier.create(search(cache)).expectNextCount(2).verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "flight_search").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldShareOneLoadBetweenConcurrentMisses() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+        Sinks.One<FlightScheduleResponse> slowQuery = Sinks.one();
+
+        // When
+        Flux<FlightScheduleResponse> first = cache.get("DEL", "BOM", DATE, () -> {
+            loads.incrementAndGet();
+            return slowQuery.asMono().flux();
+        });
+        Flux<FlightScheduleResponse> second = cache.get("DEL", "BOM", DATE, () -> {
+            loads.incrementAndGet();
+            return slowQuery.asMono().flux();
+        });
+
+        // Then
+        StepVerifier.create(Flux.merge(first, second))
+                .then(() -> slowQuery.tryEmitValue(response("s1", 100)))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void updateSeats_shouldPatchCachedSeatCount() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+        search(cache).blockLast();
+
+        // When
+        cache.updateSeats(FlightSchedule.builder().id("s2").availableSeats(37).build());
+
+        // Then
+        StepVerifier.create(search(cache))
+                .assertNext(response -> assertThat(response.getAvailableSeats()).isEqualTo(100))
+                .assertNext(response -> assertThat(response.getAvailableSeats()).isEqualTo(37))
+                .verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void updateSeats_shouldIgnoreSchedulesThatAreNotCached() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+        search(cache).blockLast();
+
+        // When
+        cache.updateSeats(FlightSchedule.builder().id("other").availableSeats(1).build());
+
+        // Then
+        StepVerifier.create(search(cache)).expectNextCount(2).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidate_shouldReloadRouteAndDate() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+        search(cache).blockLast();
+
+        // When
+        cache.invalidate("DEL", "BOM", DATE);
+
+        // Then
+        StepVerifier.create(search(cache)).expectNextCount(2).verifyComplete();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_shouldNotKeepFailedLoads() {
+        // Given
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+
+        // When & Then
+        StepVerifier.create(cache.get("DEL", "BOM", DATE, () -> Flux.error(new IllegalStateException("mongo down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(search(cache)).expectNextCount(2).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_shouldCallLoaderEveryTime_whenDisabled() {
+        // Given
+        properties.setEnabled(false);
+        RouteSearchCache cache = new RouteSearchCache(properties, meterRegistry);
+
+        // When
+        search(cache).blockLast();
+        search(cache).blockLast();
+
+        // Then
+        assertThat(loads).hasValue(2);
+    }
+
+    private Flux<FlightScheduleResponse> search(RouteSearchCache cache) {
+        return cache.get("DEL", "BOM", DATE, () -> {
+            loads.incrementAndGet();
+            return Flux.just(response("s1", 100), response("s2", 40));
+        });
+    }
+
+    private static FlightScheduleResponse response(String scheduleId, int availableSeats) {
+        return FlightScheduleResponse.builder()
+                .scheduleId(scheduleId)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .flightDate(DATE)
+                .availableSeats(availableSeats)
+                .build();
+    }
+}
@@ -0,0 +1,225 @@
+package com.saiteja.flightservice.controller;
+
+import com.saiteja.flightservice.cache.SearchCacheControl;
+import com.saiteja.flightservice.cache.SearchCacheControlProperties;
+import com.saiteja.flightservice.dto.PageResponse;
+import com.saiteja.flightservice.dto.flight.FlightResponse;
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.dto.flight.FlightSearchRequest;
+import com.saiteja.flightservice.exception.GlobalExceptionHandler;
+import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.service.FlightScheduleService;
+import com.saiteja.flightservice.service.FlightService;
+import com.saiteja.flightservice.service.ItineraryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingControllerTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Mock
+    private FlightService flightService;
+
+    @Mock
+    private FlightScheduleService flightScheduleService;
+
+    @Mock
+    private ItineraryService itineraryService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient
+                .bindToController(new FlightController(flightService),
+                        new FlightScheduleController(flightScheduleService, itineraryService,
+                                new SearchCacheControl(new SearchCacheControlProperties())))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getAllFlights_shouldStreamNdjson_whenRequested() {
+        // Given
+        when(flightService.getAllFlights()).thenReturn(Flux.just(flight("AI101"), flight("AI102")));
+
+        // When & Then
+        Flux<Map> flights = webTestClient.get()
+                .uri("/api/v1.0/flight/admin/flights")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Map.class)
+                .getResponseBody();
+
+        StepVerifier.create(flights)
+                .expectNextMatches(flight -> flight.get("flightNumber").equals("AI101"))
+                .expectNextMatches(flight -> flight.get("flightNumber").equals("AI102"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlights_shouldReturnJsonPage_byDefault() {
+        // Given
+        when(flightService.getFlightPage(null, 20, null)).thenReturn(Mono.just(PageResponse.<FlightResponse>builder()
+                .items(List.of(flight("AI101"), flight("AI102")))
+                .nextCursor("next")
+                .build()));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1.0/flight/admin/flights")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[1].flightNumber").isEqualTo("AI102")
+                .jsonPath("$.nextCursor").isEqualTo("next");
+    }
+
+    @Test
+    void searchFlights_shouldStreamServerSentEvents_whenRequested() {
+        // Given
+        when(flightScheduleService.searchFlights(eq("DEL"), eq("BOM"), eq(DATE)))
+                .thenReturn(Flux.just(schedule("s1"), schedule("s2")));
+
+        // When & Then
+        Flux<String> events = webTestClient.post()
+                .uri("/api/v1.0/flight/admin/search")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(searchRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(String.class)
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .expectNextMatches(event -> event.contains("\"scheduleId\":\"s1\""))
+                .expectNextMatches(event -> event.contains("\"scheduleId\":\"s2\""))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchFlights_shouldTagJsonResultForGatewayCache() {
+        // Given
+        when(flightScheduleService.searchFlights(eq("DEL"), eq("BOM"), eq(DATE)))
+                .thenReturn(Flux.just(schedule("s1"), schedule("s2")));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/admin/search")
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(searchRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(10)))
+                .expectHeader().valueEquals(SearchCacheControl.CACHE_TAGS_HEADER, "s1,s2");
+    }
+
+    @Test
+    void searchFlights_shouldShortenMaxAge_whenSeatsRunLow() {
+        // Given
+        FlightScheduleResponse almostFull = schedule("s2").toBuilder().availableSeats(3).build();
+        when(flightScheduleService.searchFlights(eq("DEL"), eq("BOM"), eq(DATE)))
+                .thenReturn(Flux.just(schedule("s1"), almostFull));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/admin/search")
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(searchRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void searchFlights_shouldNotTagStreamedResult() {
+        // Given
+        when(flightScheduleService.searchFlights(eq("DEL"), eq("BOM"), eq(DATE)))
+                .thenReturn(Flux.just(schedule("s1")));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/admin/search")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(searchRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(SearchCacheControl.CACHE_TAGS_HEADER)
+                .expectHeader().doesNotExist(HttpHeaders.CACHE_CONTROL);
+    }
+
+    @Test
+    void searchFlights_shouldReturnNotFound_beforeStreamStarts() {
+        // Given
+        when(flightScheduleService.searchFlights(any(), any(), any()))
+                .thenReturn(Flux.error(new ResourceNotFoundException("No flights found for given criteria")));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1.0/flight/admin/search")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(searchRequest())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static FlightSearchRequest searchRequest() {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOriginAirport("del");
+        request.setDestinationAirport("bom");
+        request.setFlightDate(DATE);
+        return request;
+    }
+
+    private static FlightResponse flight(String flightNumber) {
+        return FlightResponse.builder()
+                .id(flightNumber.toLowerCase())
+                .flightNumber(flightNumber)
+                .airline(Airline.AIR_INDIA)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .seatCapacity(180)
+                .build();
+    }
+
+    private static FlightScheduleResponse schedule(String scheduleId) {
+        return FlightScheduleResponse.builder()
+                .scheduleId(scheduleId)
+                .flightNumber("AI101")
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .flightDate(DATE)
+                .fare(new BigDecimal("4500"))
+                .availableSeats(120)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.saiteja.flightservice.deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter(meterRegistry);
+    private final AtomicReference<Instant> seenDeadline = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        seenDeadline.set(RequestDeadline.of(context));
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    });
+
+    @Test
+    void filter_shouldPutLocalDeadlineIntoContext() {
+        // Given
+        MockServerWebExchange exchange = exchange("5000");
+        Instant before = Instant.now();
+
+        // When
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Then the budget counts from arrival on this host's clock
+        assertThat(seenDeadline.get()).isBetween(before.plusMillis(5000), Instant.now().plusMillis(5000));
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void filter_shouldDropRequestWithNoBudgetLeft() {
+        // Given
+        MockServerWebExchange exchange = exchange("0");
+
+        // When
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(seenDeadline).hasNullValue();
+        assertThat(meterRegistry.get("flight.deadline.expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_shouldIgnoreMissingOrMalformedHeader() {
+        // When & Then
+        for (String header : new String[]{null, "soon"}) {
+            MockServerWebExchange exchange = exchange(header);
+            StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(seenDeadline).hasNullValue();
+        }
+        assertThat(meterRegistry.get("flight.deadline.expired").counter().count()).isZero();
+    }
+
+    private static MockServerWebExchange exchange(String budget) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post("/api/v1.0/flight/admin/internal/schedules/s1/lock-seats");
+        if (budget != null) {
+            request.header(RequestDeadline.HEADER, budget);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
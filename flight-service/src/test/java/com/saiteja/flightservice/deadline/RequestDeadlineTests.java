@@ -0,0 +1,166 @@
+package com.saiteja.flightservice.deadline;
+
+import com.saiteja.flightservice.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineTests {
+
+    private final List<Object> executed = new ArrayList<>();
+
+    @Test
+    void find_shouldBoundQueryByRemainingTime() {
+        // Given
+        Query query = Query.query(Criteria.where("id").is("s1"));
+
+        // When
+        StepVerifier.create(RequestDeadline.find(query, this::run)
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusSeconds(2))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        assertThat(executed).containsExactly(query);
+        assertThat(query.getMeta().getMaxTimeMsec()).isBetween(1L, 2_000L);
+    }
+
+    @Test
+    void find_shouldLeaveQueryUnboundedWithoutDeadline() {
+        // Given
+        Query query = Query.query(Criteria.where("id").is("s1"));
+
+        // When
+        StepVerifier.create(RequestDeadline.find(query, this::run))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        assertThat(query.getMeta().getMaxTimeMsec()).isNull();
+    }
+
+    @Test
+    void find_shouldNotRunQueryOnceDeadlineHasPassed() {
+        // When & Then
+        StepVerifier.create(RequestDeadline.find(new Query(), this::run)
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().minusMillis(1))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+        assertThat(executed).isEmpty();
+    }
+
+    @Test
+    void modify_shouldPassRemainingTimeToWrite() {
+        // Given
+        List<Duration> maxTimes = new ArrayList<>();
+
+        // When
+        StepVerifier.create(RequestDeadline.modify(remaining -> {
+                            maxTimes.add(remaining);
+                            return Mono.just("updated");
+                        })
+                        .contextWrite(RequestDeadline.until(Instant.now().plusSeconds(2))))
+                .expectNext("updated")
+                .verifyComplete();
+
+        // Then
+        assertThat(maxTimes).singleElement().satisfies(remaining ->
+                assertThat(remaining).isBetween(Duration.ofMillis(1), Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void modify_shouldPassNoTimeWithoutDeadline() {
+        // Given
+        List<Duration> maxTimes = new ArrayList<>();
+
+        // When
+        StepVerifier.create(RequestDeadline.modify(remaining -> {
+                            maxTimes.add(remaining);
+                            return Mono.just("updated");
+                        })
+                        .contextWrite(RequestDeadline.until(null)))
+                .expectNext("updated")
+                .verifyComplete();
+
+        // Then
+        assertThat(maxTimes).containsExactly((Duration) null);
+    }
+
+    @Test
+    void aggregate_shouldBoundAggregationByRemainingTime() {
+        // Given
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(Criteria.where("originAirport").is("HYD")));
+
+        // When
+        StepVerifier.create(RequestDeadline.aggregate(aggregation, this::run)
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusSeconds(2))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        Aggregation bounded = (Aggregation) executed.get(0);
+        assertThat(bounded.getOptions().getMaxTime()).isBetween(Duration.ofMillis(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void aggregate_shouldKeepOptionsOfItsOwn() {
+        // Given
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(Criteria.where("originAirport").is("HYD")))
+                .withOptions(AggregationOptions.builder()
+                        .allowDiskUse(true)
+                        .collation(Collation.of("en"))
+                        .comment("fare-calendar")
+                        .hint("originAirport_1")
+                        .cursorBatchSize(50)
+                        .build());
+
+        // When
+        StepVerifier.create(RequestDeadline.aggregate(aggregation, this::run)
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusSeconds(2))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        AggregationOptions options = ((Aggregation) executed.get(0)).getOptions();
+        assertThat(options.isAllowDiskUse()).isTrue();
+        assertThat(options.getCollation()).contains(Collation.of("en"));
+        assertThat(options.getComment()).contains("fare-calendar");
+        assertThat(options.getHintObject()).contains("originAirport_1");
+        assertThat(options.getCursorBatchSize()).isEqualTo(50);
+        assertThat(options.getMaxTime()).isBetween(Duration.ofMillis(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void aggregate_shouldKeepShorterMaxTimeOfItsOwn() {
+        // Given
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(Criteria.where("originAirport").is("HYD")))
+                .withOptions(AggregationOptions.builder().maxTime(Duration.ofMillis(100)).build());
+
+        // When
+        StepVerifier.create(RequestDeadline.aggregate(aggregation, this::run)
+                        .contextWrite(context -> context.put(RequestDeadline.class, Instant.now().plusSeconds(2))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        assertThat(((Aggregation) executed.get(0)).getOptions().getMaxTime()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    private Flux<String> run(Object operation) {
+        executed.add(operation);
+        return Flux.just("result");
+    }
+}
@@ -0,0 +1,118 @@
+package com.saiteja.flightservice.index;
+
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the queries behind the hot repository methods are answered from an index.
+ * Needs a downloadable mongod, so it runs with {@code mvn verify} rather than the unit test phase.
+ */
+class MongoIndexIT {
+
+    private static EmbeddedMongo mongo;
+    private static MongoMappingContext mappingContext;
+
+    @BeforeAll
+    static void createIndexes() {
+        mongo = EmbeddedMongo.start("index_it");
+        mappingContext = (MongoMappingContext) mongo.template().getConverter().getMappingContext();
+        mappingContext.getPersistentEntity(Flight.class);
+        mappingContext.getPersistentEntity(FlightSchedule.class);
+
+        // enough documents that a collection scan would never be chosen by accident
+        Flux.range(0, 500)
+                .map(index -> Flight.builder()
+                        .flightNumber("AI" + (1000 + index))
+                        .airline(Airline.AIR_INDIA)
+                        .originAirport("O" + index % 25)
+                        .destinationAirport("D" + index % 20)
+                        .seatCapacity(180)
+                        .build())
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+        Flux.range(0, 500)
+                .map(index -> FlightSchedule.builder()
+                        .flightId("flight" + index % 50)
+                        .flightDate(LocalDate.now().plusDays(index / 50))
+                        .build())
+                .collectList()
+                .flatMapMany(mongo.template()::insertAll)
+                .blockLast();
+
+        new MongoIndexManager(mongo.template(), mappingContext).createIndexes().block();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    void findByFlightNumber_usesIndexScan() {
+        assertIndexScan(Flight.class, Criteria.where("flightNumber").is("AI1042"), "flight_number_idx");
+    }
+
+    @Test
+    void findByOriginAirportAndDestinationAirport_usesIndexScan() {
+        assertIndexScan(Flight.class, Criteria.where("originAirport").is("O3").and("destinationAirport").is("D3"),
+                "route_idx");
+    }
+
+    @Test
+    void findByFlightIdAndFlightDate_usesIndexScan() {
+        assertIndexScan(FlightSchedule.class,
+                Criteria.where("flightId").is("flight7").and("flightDate").is(LocalDate.now().plusDays(3)),
+                "flight_date_id_idx");
+    }
+
+    @Test
+    void flightNumber_isUnique() {
+        Flight duplicate = Flight.builder()
+                .flightNumber("AI1042")
+                .airline(Airline.INDIGO)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .seatCapacity(180)
+                .build();
+
+        assertThatThrownBy(() -> mongo.template().insert(duplicate).block())
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void report_hasNoMissingIndexes() {
+        assertThat(new MongoIndexManager(mongo.template(), mappingContext).report().collectList().block())
+                .isNotEmpty()
+                .allSatisfy(report -> assertThat(report.getMissing()).isEmpty());
+    }
+
+    private static void assertIndexScan(Class<?> type, Criteria criteria, String indexName) {
+        Document filter = new QueryMapper(mongo.template().getConverter())
+                .getMappedObject(Query.query(criteria).getQueryObject(), mappingContext.getPersistentEntity(type));
+        Document explain = mongo.template().getCollection(mongo.template().getCollectionName(type))
+                .flatMap(collection -> Mono.from(collection.find(filter).explain(Document.class)))
+                .block();
+
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+        assertThat(winningPlan).contains("IXSCAN").contains(indexName).doesNotContain("COLLSCAN");
+    }
+}
@@ -0,0 +1,165 @@
+package com.saiteja.flightservice.index;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.reactivestreams.client.AggregatePublisher;
+import com.mongodb.reactivestreams.client.ListIndexesPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexManagerTests {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveIndexOperations flightIndexOps;
+
+    @Mock
+    private ReactiveIndexOperations scheduleIndexOps;
+
+    @Mock
+    private MongoCollection<Document> flightCollection;
+
+    @Test
+    void createIndexes_shouldCreateDeclaredIndexes() {
+        // Given
+        when(mongoTemplate.indexOps("flights")).thenReturn(flightIndexOps);
+        when(mongoTemplate.indexOps("flight_schedules")).thenReturn(scheduleIndexOps);
+        when(flightIndexOps.createIndex(any(IndexDefinition.class))).thenReturn(Mono.just("created"));
+        when(scheduleIndexOps.createIndex(any(IndexDefinition.class))).thenReturn(Mono.just("created"));
+
+        // When & Then
+        StepVerifier.create(manager(Flight.class, FlightSchedule.class).createIndexes())
+                .verifyComplete();
+
+        ArgumentCaptor<IndexDefinition> flightIndexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(flightIndexOps, times(2)).createIndex(flightIndexes.capture());
+        assertThat(flightIndexes.getAllValues())
+                .extracting(index -> MongoIndexManager.signature(index.getIndexKeys(), index.getIndexOptions()))
+                .containsExactlyInAnyOrder("{flightNumber: 1} unique", "{originAirport: 1, destinationAirport: 1}");
+
+        ArgumentCaptor<IndexDefinition> scheduleIndexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(scheduleIndexOps, times(3)).createIndex(scheduleIndexes.capture());
+        assertThat(scheduleIndexes.getAllValues())
+                .extracting(index -> MongoIndexManager.signature(index.getIndexKeys(), index.getIndexOptions()))
+                .containsExactlyInAnyOrder("{flightId: 1, flightDate: 1, _id: 1}", "{holds.expiresAt: 1}",
+                        "{holds.owner: 1}");
+    }
+
+    @Test
+    void createIndexes_shouldContinue_whenOneIndexFails() {
+        // Given
+        when(mongoTemplate.indexOps("flights")).thenReturn(flightIndexOps);
+        when(flightIndexOps.createIndex(any(IndexDefinition.class)))
+                .thenReturn(Mono.error(new IllegalStateException("E11000 duplicate key")))
+                .thenReturn(Mono.just("created"));
+
+        // When & Then
+        StepVerifier.create(manager(Flight.class).createIndexes())
+                .verifyComplete();
+
+        verify(flightIndexOps, times(2)).createIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void report_shouldListMissingAndUnusedIndexes() {
+        // Given
+        when(mongoTemplate.getCollection("flights")).thenReturn(Mono.just(flightCollection));
+        ListIndexesPublisher<Document> indexes = publisher(ListIndexesPublisher.class,
+                new Document("name", "_id_").append("key", new Document("_id", 1)),
+                new Document("name", "flight_number_idx").append("key", new Document("flightNumber", 1)).append("unique", true),
+                new Document("name", "legacy_idx").append("key", new Document("airline", 1)));
+        AggregatePublisher<Document> stats = publisher(AggregatePublisher.class,
+                indexStats("_id_", 0), indexStats("flight_number_idx", 12), indexStats("legacy_idx", 0));
+        when(flightCollection.listIndexes()).thenReturn(indexes);
+        when(flightCollection.aggregate(anyList())).thenReturn(stats);
+
+        // When & Then
+        StepVerifier.create(manager(Flight.class).report())
+                .assertNext(report -> {
+                    assertThat(report.getCollection()).isEqualTo("flights");
+                    assertThat(report.getDeclared()).hasSize(2);
+                    assertThat(report.getMissing()).containsExactly("{originAirport: 1, destinationAirport: 1}");
+                    assertThat(report.getUnused()).containsExactly("legacy_idx");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void report_shouldTreatAllIndexesAsMissing_whenCollectionDoesNotExist() {
+        // Given
+        when(mongoTemplate.getCollection("flights")).thenReturn(Mono.just(flightCollection));
+        ListIndexesPublisher<Document> indexes = failingPublisher(ListIndexesPublisher.class,
+                new MongoCommandException(new BsonDocument(), null));
+        AggregatePublisher<Document> stats = publisher(AggregatePublisher.class);
+        when(flightCollection.listIndexes()).thenReturn(indexes);
+        when(flightCollection.aggregate(anyList())).thenReturn(stats);
+
+        // When & Then
+        StepVerifier.create(manager(Flight.class).report())
+                .assertNext(report -> {
+                    assertThat(report.getMissing()).containsExactlyElementsOf(report.getDeclared());
+                    assertThat(report.getUnused()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    private MongoIndexManager manager(Class<?>... entities) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(entities));
+        mappingContext.initialize();
+        return new MongoIndexManager(mongoTemplate, mappingContext);
+    }
+
+    private static Document indexStats(String name, long ops) {
+        return new Document("name", name).append("accesses", new Document("ops", ops));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <P extends Publisher> P publisher(Class<P> type, Document... documents) {
+        P publisher = mock(type);
+        doAnswer(invocation -> {
+            Flux.just(documents).subscribe(invocation.<Subscriber<Document>>getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <P extends Publisher> P failingPublisher(Class<P> type, RuntimeException error) {
+        P publisher = mock(type);
+        doAnswer(invocation -> {
+            Flux.<Document>error(error).subscribe(invocation.<Subscriber<Document>>getArgument(0));
+            return null;
+        }).when(publisher).subscribe(any());
+        return publisher;
+    }
+}
@@ -0,0 +1,127 @@
+package com.saiteja.flightservice.itinerary;
+
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteGraphTests {
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @InjectMocks
+    private RouteGraph routeGraph;
+
+    @Test
+    void routes_shouldFindNonstopOneStopAndTwoStopRoutes() {
+        // Given
+        routeGraph.addFlight(flight("f1", "DEL", "GOI"));
+        routeGraph.addFlight(flight("f2", "DEL", "BOM"));
+        routeGraph.addFlight(flight("f3", "BOM", "GOI"));
+        routeGraph.addFlight(flight("f4", "DEL", "BLR"));
+        routeGraph.addFlight(flight("f5", "BLR", "HYD"));
+        routeGraph.addFlight(flight("f6", "HYD", "GOI"));
+
+        // When
+        List<List<String>> routes = routeGraph.routes("DEL", "GOI", 2, 100);
+
+        // Then
+        assertThat(routes).containsExactly(
+                List.of("DEL", "GOI"),
+                List.of("DEL", "BOM", "GOI"),
+                List.of("DEL", "BLR", "HYD", "GOI"));
+    }
+
+    @Test
+    void routes_shouldRespectMaxStopsAndNeverRevisitAirports() {
+        // Given
+        routeGraph.addFlight(flight("f1", "DEL", "BOM"));
+        routeGraph.addFlight(flight("f2", "BOM", "DEL"));
+        routeGraph.addFlight(flight("f3", "BOM", "GOI"));
+
+        // When & Then
+        assertThat(routeGraph.routes("DEL", "GOI", 0, 100)).isEmpty();
+        assertThat(routeGraph.routes("DEL", "GOI", 2, 100)).containsExactly(List.of("DEL", "BOM", "GOI"));
+    }
+
+    @Test
+    void routes_shouldStopAtMaxRoutes() {
+        // Given
+        for (int hub = 0; hub < 10; hub++) {
+            routeGraph.addFlight(flight("in" + hub, "DEL", "H" + hub));
+            routeGraph.addFlight(flight("out" + hub, "H" + hub, "GOI"));
+        }
+
+        // When & Then
+        assertThat(routeGraph.routes("DEL", "GOI", 1, 4)).hasSize(4);
+    }
+
+    @Test
+    void removeFlight_shouldDropEdge() {
+        // Given
+        Flight flight = flight("f1", "DEL", "BOM");
+        routeGraph.addFlight(flight);
+
+        // When
+        routeGraph.removeFlight(flight);
+
+        // Then
+        assertThat(routeGraph.flights("DEL", "BOM")).isEmpty();
+        assertThat(routeGraph.routes("DEL", "BOM", 2, 100)).isEmpty();
+    }
+
+    @Test
+    void reload_shouldReplaceGraphFromRepository() {
+        // Given
+        routeGraph.addFlight(flight("stale", "DEL", "BOM"));
+        when(flightRepository.findAll()).thenReturn(Flux.just(flight("f1", "DEL", "GOI")));
+
+        // When & Then
+        StepVerifier.create(routeGraph.reload()).verifyComplete();
+
+        assertThat(routeGraph.flights("DEL", "BOM")).isEmpty();
+        assertThat(routeGraph.flights("DEL", "GOI")).extracting(Flight::getId).containsExactly("f1");
+    }
+
+    @Test
+    void reload_shouldKeepLocalChangeThatRacedTheLoad() {
+        // Given
+        Sinks.Many<Flight> slowLoad = Sinks.many().unicast().onBackpressureBuffer();
+        when(flightRepository.findAll()).thenReturn(slowLoad.asFlux());
+
+        // When & Then
+        StepVerifier.create(routeGraph.reload())
+                .then(() -> {
+                    routeGraph.addFlight(flight("new", "DEL", "BOM"));
+                    slowLoad.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        assertThat(routeGraph.flights("DEL", "BOM")).extracting(Flight::getId).containsExactly("new");
+    }
+
+    private static Flight flight(String id, String origin, String destination) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber("AI" + Math.abs(id.hashCode() % 1000))
+                .airline(Airline.AIR_INDIA)
+                .originAirport(origin)
+                .destinationAirport(destination)
+                .seatCapacity(180)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.saiteja.flightservice.migration;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatBitmapMigrationTests {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SeatBitmapMigration migration;
+
+    @Test
+    void migrate_shouldWriteBitmapFromBookedSeats() {
+        // Given
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("flight_schedules")))
+                .thenReturn(Mono.just(new Document("_id", id).append("totalSeats", 12).append("bookedSeats", List.of("1A"))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("flight_schedules")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // When
+        StepVerifier.create(migration.migrate(id.toHexString())).verifyComplete();
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq("flight_schedules"));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("seatBitmap")).isEqualTo(List.of(1L));
+    }
+
+    @Test
+    void migrate_shouldSkipScheduleWithoutTotalSeats() {
+        // Given
+        ObjectId id = new ObjectId();
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("flight_schedules")))
+                .thenReturn(Mono.just(new Document("_id", id).append("bookedSeats", List.of("1A"))));
+
+        // When & Then
+        StepVerifier.create(migration.migrate(id.toHexString())).verifyComplete();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+}
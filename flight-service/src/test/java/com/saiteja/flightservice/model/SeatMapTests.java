@@ -0,0 +1,70 @@
+package com.saiteja.flightservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatMapTests {
+
+    @Test
+    void indexOf_shouldMapLabelsRowMajor_forNarrowBody() {
+        SeatMap seatMap = SeatMap.forCapacity(180);
+
+        assertThat(seatMap.indexOf("1A")).isEqualTo(0);
+        assertThat(seatMap.indexOf("1F")).isEqualTo(5);
+        assertThat(seatMap.indexOf("12c")).isEqualTo(68);
+        assertThat(seatMap.indexOf("30F")).isEqualTo(179);
+    }
+
+    @Test
+    void indexOf_shouldRejectLabelsOutsideLayout() {
+        SeatMap seatMap = SeatMap.forCapacity(180);
+
+        assertThat(seatMap.indexOf("31A")).isEqualTo(-1);
+        assertThat(seatMap.indexOf("1G")).isEqualTo(-1);
+        assertThat(seatMap.indexOf("0A")).isEqualTo(-1);
+        assertThat(seatMap.indexOf("A")).isEqualTo(-1);
+        assertThat(seatMap.indexOf("XYZ")).isEqualTo(-1);
+    }
+
+    @Test
+    void indexOf_shouldUseTenAbreast_forWideBody() {
+        SeatMap seatMap = SeatMap.forCapacity(400);
+
+        assertThat(seatMap.indexOf("1K")).isEqualTo(9);
+        assertThat(seatMap.indexOf("1I")).isEqualTo(-1);
+        assertThat(seatMap.indexOf("40K")).isEqualTo(399);
+        assertThat(seatMap.wordCount()).isEqualTo(7);
+    }
+
+    @Test
+    void mask_shouldRoundTripThroughLabels() {
+        SeatMap seatMap = SeatMap.forCapacity(400);
+        long[] mask = seatMap.mask(List.of("1A", "7E", "40K"));
+        List<Long> bitmap = seatMap.emptyBitmap();
+        for (int word = 0; word < mask.length; word++) {
+            bitmap.set(word, mask[word]);
+        }
+
+        assertThat(SeatMap.bitCount(mask)).isEqualTo(3);
+        assertThat(seatMap.labels(bitmap)).containsExactly("1A", "7E", "40K");
+        assertThat(SeatMap.isAllSet(bitmap, seatMap.mask(List.of("7E")))).isTrue();
+        assertThat(SeatMap.isAnySet(bitmap, seatMap.mask(List.of("7F")))).isFalse();
+    }
+
+    @Test
+    void mask_shouldThrow_whenLabelInvalid() {
+        assertThatThrownBy(() -> SeatMap.forCapacity(180).mask(List.of("1A", "99Z")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid seat number: 99Z");
+    }
+
+    @Test
+    void positions_shouldListSetBits() {
+        assertThat(SeatMap.positions(0b1010L)).containsExactly(1, 3);
+        assertThat(SeatMap.positions(Long.MIN_VALUE)).containsExactly(63);
+    }
+}
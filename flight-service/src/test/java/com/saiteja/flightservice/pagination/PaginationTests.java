@@ -0,0 +1,46 @@
+package com.saiteja.flightservice.pagination;
+
+import com.saiteja.flightservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaginationTests {
+
+    @Test
+    void cursor_shouldRoundTripSortKeys() {
+        // When
+        String cursor = Pagination.encodeCursor("2026-01-31", "65a1f0c2e4b0a1b2c3d4e5f6");
+
+        // Then
+        assertThat(cursor).doesNotContain("=", "/", "+");
+        assertThat(Pagination.decodeCursor(cursor, 2)).containsExactly("2026-01-31", "65a1f0c2e4b0a1b2c3d4e5f6");
+        assertThat(Pagination.decodeCursor(null, 2)).isNull();
+    }
+
+    @Test
+    void decodeCursor_shouldRejectTamperedCursor() {
+        // Given
+        String wrongShape = Base64.getUrlEncoder().encodeToString("only-one-key".getBytes());
+
+        // When & Then
+        assertThatThrownBy(() -> Pagination.decodeCursor("%%%", 1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> Pagination.decodeCursor(wrongShape, 2)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> Pagination.objectId("not-an-object-id")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void page_shouldOnlyHandOutCursorWhenExtraRowWasFetched() {
+        // When & Then
+        assertThat(Pagination.page(List.of("a", "b", "c"), 2, row -> row, String::toUpperCase))
+                .satisfies(page -> {
+                    assertThat(page.getItems()).containsExactly("A", "B");
+                    assertThat(page.getNextCursor()).isEqualTo("b");
+                });
+        assertThat(Pagination.page(List.of("a", "b"), 2, row -> row, String::toUpperCase).getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,144 @@
+package com.saiteja.flightservice.repository;
+
+import com.saiteja.flightservice.deadline.RequestDeadline;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.support.EmbeddedMongo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the seat writes that race a hold against a real mongod, since the guards live in the filters.
+ * Needs a downloadable mongod, so it runs with {@code mvn verify} rather than the unit test phase.
+ */
+class SeatHoldReleaseIT {
+
+    private static final long[] SEAT_1A = {0b01L};
+
+    private static EmbeddedMongo mongo;
+    private static FlightScheduleRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo = EmbeddedMongo.start("seat_hold_it");
+        repository = new FlightScheduleRepositoryCustomImpl(mongo.template());
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongo.template().dropCollection(FlightSchedule.class)
+                .then(mongo.template().insert(FlightSchedule.builder()
+                        .id("schedule123")
+                        .flightId("flight123")
+                        .flightDate(LocalDate.now().plusDays(1))
+                        .totalSeats(10)
+                        .availableSeats(10)
+                        .seatBitmap(List.of(0L))
+                        .build()))
+                .block();
+    }
+
+    @Test
+    void reaper_shouldNotClearSeatBookedAfterUnheldRelease() {
+        // Given a hold that expired before the reaper got to it
+        SeatHold hold = hold("hold1");
+        assertThat(repository.holdSeats("schedule123", SEAT_1A, hold).block()).isNotNull();
+
+        // When the relay releases the seat for a booking whose lock never landed
+        FlightSchedule released = repository.releaseSeats("schedule123", SEAT_1A).block();
+        FlightSchedule batchReleased = repository.applySeatChanges("schedule123", new long[0], SEAT_1A).block();
+        // and another customer tries to book it
+        FlightSchedule rebooked = repository.lockSeats("schedule123", SEAT_1A).block();
+
+        // Then nothing but the reaper frees the seat, and it frees it exactly once
+        assertThat(released).isNull();
+        assertThat(batchReleased).isNull();
+        assertThat(rebooked).isNull();
+        FlightSchedule reaped = repository.releaseHolds("schedule123", List.of(hold)).block();
+        assertThat(reaped.getSeatBitmap()).containsExactly(0L);
+        assertThat(reaped.getAvailableSeats()).isEqualTo(10);
+        assertThat(repository.lockSeats("schedule123", SEAT_1A).block().getAvailableSeats()).isEqualTo(9);
+    }
+
+    @Test
+    void releaseHolds_shouldLeaveSchedule_whenHeldSeatsAreNoLongerSet() {
+        // Given a hold whose seat was cleared outside the hold's lifecycle
+        SeatHold hold = hold("hold1");
+        repository.holdSeats("schedule123", SEAT_1A, hold).block();
+        mongo.template().updateFirst(Query.query(Criteria.where("id").is("schedule123")),
+                new Update().set("seatBitmap.0", 0L), FlightSchedule.class).block();
+
+        // When
+        FlightSchedule reaped = repository.releaseHolds("schedule123", List.of(hold)).block();
+
+        // Then the seat is not counted back a second time
+        assertThat(reaped).isNull();
+        assertThat(mongo.template().findById("schedule123", FlightSchedule.class).block().getAvailableSeats())
+                .isEqualTo(9);
+    }
+
+    @Test
+    void restoreHold_shouldPutConfirmedHoldBack() {
+        // Given
+        SeatHold hold = hold("hold1");
+        hold.setExpiresAt(Instant.now().plusSeconds(300));
+        repository.holdSeats("schedule123", SEAT_1A, hold).block();
+        FlightSchedule before = repository.confirmHold("schedule123", "hold1", SEAT_1A, Instant.now()).block();
+
+        // When
+        FlightSchedule restored = repository.restoreHold("schedule123", before.getHolds().get(0)).block();
+
+        // Then the seat stays booked and is held again, without being counted twice
+        assertThat(restored.getHolds()).extracting(SeatHold::getToken).containsExactly("hold1");
+        assertThat(restored.getSeatBitmap()).containsExactly(0b01L);
+        assertThat(restored.getAvailableSeats()).isEqualTo(9);
+        assertThat(repository.restoreHold("schedule123", hold).block()).isNull();
+    }
+
+    @Test
+    void seatWrites_shouldMapAsTemplateDoes_whenBoundedByDeadline() {
+        // Given the driver path that carries maxTimeMS; MongoDB keeps instants to the millisecond
+        SeatHold hold = hold("hold1");
+        hold.setExpiresAt(Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.MILLIS));
+
+        // When
+        FlightSchedule held = repository.holdSeats("schedule123", SEAT_1A, hold)
+                .contextWrite(RequestDeadline.until(Instant.now().plusSeconds(5))).block();
+        FlightSchedule before = repository.confirmHold("schedule123", "hold1", SEAT_1A, Instant.now())
+                .contextWrite(RequestDeadline.until(Instant.now().plusSeconds(5))).block();
+
+        // Then the returned documents read back as with the template, projection included
+        assertThat(held.getSeatBitmap()).containsExactly(0b01L);
+        assertThat(held.getAvailableSeats()).isEqualTo(9);
+        assertThat(held.getHolds()).extracting(SeatHold::getToken).containsExactly("hold1");
+        assertThat(before.getId()).isEqualTo("schedule123");
+        assertThat(before.getHolds()).extracting(SeatHold::getExpiresAt).containsExactly(hold.getExpiresAt());
+        assertThat(before.getSeatBitmap()).isNull();
+    }
+
+    private static SeatHold hold(String token) {
+        return SeatHold.builder()
+                .token(token)
+                .seats(List.of("1A"))
+                .seatMask(List.of(SEAT_1A[0]))
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build();
+    }
+}
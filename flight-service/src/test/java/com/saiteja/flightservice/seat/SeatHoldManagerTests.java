@@ -0,0 +1,217 @@
+package com.saiteja.flightservice.seat;
+
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.exception.BadRequestException;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldManagerTests {
+
+    @Mock
+    private FlightScheduleRepository flightScheduleRepository;
+
+    @Mock
+    private RouteSearchCache routeSearchCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SeatHoldManager seatHoldManager;
+
+    @BeforeEach
+    void setUp() {
+        SeatHoldProperties properties = new SeatHoldProperties();
+        properties.setTtl(Duration.ofMinutes(5));
+        properties.setMaxSeats(2);
+        properties.setMaxHoldsPerUser(2);
+        meterRegistry = new SimpleMeterRegistry();
+        seatHoldManager = new SeatHoldManager(flightScheduleRepository, routeSearchCache, properties, meterRegistry);
+    }
+
+    @Test
+    void hold_shouldRecordHoldWithTtlAlongsideSeats() {
+        // Given
+        FlightSchedule updated = FlightSchedule.builder().id("schedule123").availableSeats(178).build();
+        when(flightScheduleRepository.findActiveHolds(eq("user-1"), any(Instant.class))).thenReturn(Flux.empty());
+        when(flightScheduleRepository.holdSeats(eq("schedule123"), any(long[].class), any(SeatHold.class)))
+                .thenReturn(Mono.just(updated));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.hold("schedule123", "user-1", List.of("1A", "1B"), new long[]{0b11L, 0L}))
+                .assertNext(hold -> {
+                    assertThat(hold.getToken()).isNotBlank();
+                    assertThat(hold.getOwner()).isEqualTo("user-1");
+                    assertThat(hold.getSeatMask()).containsExactly(0b11L, 0L);
+                    assertThat(hold.getExpiresAt()).isBetween(Instant.now().plusSeconds(290), Instant.now().plusSeconds(300));
+                })
+                .verifyComplete();
+
+        verify(routeSearchCache).updateSeats(updated);
+        assertThat(meterRegistry.get("flight.seats.holds").tag("event", "created").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hold_shouldBeEmpty_whenSeatsAreTaken() {
+        // Given
+        when(flightScheduleRepository.findActiveHolds(eq("user-1"), any(Instant.class))).thenReturn(Flux.empty());
+        when(flightScheduleRepository.holdSeats(eq("schedule123"), any(long[].class), any(SeatHold.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.hold("schedule123", "user-1", List.of("1A"), new long[]{0b1L}))
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("flight.seats.holds").tag("event", "created").counter().count()).isZero();
+    }
+
+    @Test
+    void hold_shouldThrowBadRequestException_whenTooManySeatsRequested() {
+        // When & Then
+        StepVerifier.create(seatHoldManager.hold("schedule123", "user-1", List.of("1A", "1B", "1C"), new long[]{0b111L}))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("At most 2 seats can be held at once"))
+                .verify();
+
+        verifyNoInteractions(flightScheduleRepository);
+    }
+
+    @Test
+    void hold_shouldThrowBadRequestException_whenOwnerHasTooManyActiveHolds() {
+        // Given
+        SeatHold other = hold("b", Instant.now().plusSeconds(60));
+        other.setOwner("user-2");
+        when(flightScheduleRepository.findActiveHolds(eq("user-1"), any(Instant.class))).thenReturn(Flux.just(
+                FlightSchedule.builder().id("schedule1").holds(List.of(owned("a", "user-1"), other)).build(),
+                FlightSchedule.builder().id("schedule2").holds(List.of(owned("c", "user-1"))).build()));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.hold("schedule123", "user-1", List.of("1A"), new long[]{0b1L}))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("At most 2 seat holds can be active at once"))
+                .verify();
+
+        verify(flightScheduleRepository, never()).holdSeats(anyString(), any(long[].class), any(SeatHold.class));
+    }
+
+    @Test
+    void hold_shouldNotCountExpiredHoldsOfOwner() {
+        // Given
+        SeatHold expired = owned("b", "user-1");
+        expired.setExpiresAt(Instant.now().minusSeconds(5));
+        when(flightScheduleRepository.findActiveHolds(eq("user-1"), any(Instant.class))).thenReturn(Flux.just(
+                FlightSchedule.builder().id("schedule1").holds(List.of(owned("a", "user-1"), expired)).build()));
+        when(flightScheduleRepository.holdSeats(eq("schedule123"), any(long[].class), any(SeatHold.class)))
+                .thenReturn(Mono.just(FlightSchedule.builder().id("schedule123").build()));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.hold("schedule123", "user-1", List.of("1A"), new long[]{0b1L}))
+                .assertNext(hold -> assertThat(hold.getOwner()).isEqualTo("user-1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void reap_shouldReleaseOnlyExpiredHoldsInOneWritePerSchedule() {
+        // Given
+        SeatHold expiredA = hold("a", Instant.now().minusSeconds(5));
+        SeatHold expiredB = hold("b", Instant.now().minusSeconds(1));
+        SeatHold active = hold("c", Instant.now().plusSeconds(60));
+        FlightSchedule schedule = FlightSchedule.builder().id("schedule123").holds(List.of(expiredA, active, expiredB)).build();
+        FlightSchedule updated = FlightSchedule.builder().id("schedule123").availableSeats(180).build();
+        when(flightScheduleRepository.findExpiredHolds(any(Instant.class), anyInt())).thenReturn(Flux.just(schedule));
+        when(flightScheduleRepository.releaseHolds(eq("schedule123"), anyList())).thenReturn(Mono.just(updated));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.reap())
+                .expectNext(2L)
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SeatHold>> released = ArgumentCaptor.forClass(List.class);
+        verify(flightScheduleRepository, times(1)).releaseHolds(eq("schedule123"), released.capture());
+        assertThat(released.getValue()).containsExactly(expiredA, expiredB);
+        verify(routeSearchCache).updateSeats(updated);
+        assertThat(meterRegistry.get("flight.seats.holds").tag("event", "expired").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void reap_shouldSkipSchedule_whenHoldWasConfirmedMeanwhile() {
+        // Given
+        FlightSchedule schedule = FlightSchedule.builder().id("schedule123")
+                .holds(List.of(hold("a", Instant.now().minusSeconds(5)))).build();
+        when(flightScheduleRepository.findExpiredHolds(any(Instant.class), anyInt())).thenReturn(Flux.just(schedule));
+        when(flightScheduleRepository.releaseHolds(eq("schedule123"), anyList())).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.reap())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verifyNoInteractions(routeSearchCache);
+    }
+
+    @Test
+    void confirm_shouldReturnTheConsumedHold() {
+        // Given
+        SeatHold held = hold("a", Instant.now().plusSeconds(60));
+        when(flightScheduleRepository.confirmHold(eq("schedule123"), eq("a"), any(long[].class), any(Instant.class)))
+                .thenReturn(Mono.just(FlightSchedule.builder().id("schedule123")
+                        .holds(List.of(hold("b", Instant.now().plusSeconds(60)), held)).build()));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.confirm("schedule123", "a", new long[]{0b01L}))
+                .expectNext(held)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("flight.seats.holds").tag("event", "confirmed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void release_shouldBeEmpty_whenTokenIsUnknown() {
+        // Given
+        when(flightScheduleRepository.findHolds("schedule123")).thenReturn(Mono.just(FlightSchedule.builder()
+                .id("schedule123").holds(List.of(hold("a", Instant.now().plusSeconds(60)))).build()));
+
+        // When & Then
+        StepVerifier.create(seatHoldManager.release("schedule123", "other"))
+                .verifyComplete();
+
+        verify(flightScheduleRepository, never()).releaseHolds(anyString(), anyList());
+    }
+
+    private static SeatHold owned(String token, String owner) {
+        SeatHold hold = hold(token, Instant.now().plusSeconds(60));
+        hold.setOwner(owner);
+        return hold;
+    }
+
+    private static SeatHold hold(String token, Instant expiresAt) {
+        return SeatHold.builder()
+                .token(token)
+                .seats(List.of("1A"))
+                .seatMask(List.of(0b1L))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
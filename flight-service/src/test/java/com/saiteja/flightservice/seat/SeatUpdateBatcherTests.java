@@ -0,0 +1,282 @@
+package com.saiteja.flightservice.seat;
+
+import com.saiteja.flightservice.deadline.RequestDeadline;
+import com.saiteja.flightservice.exception.DeadlineExceededException;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatUpdateBatcherTests {
+
+    private static final long[] SEAT_1A = {0b01L};
+    private static final long[] SEAT_1B = {0b10L};
+
+    @Mock
+    private FlightScheduleRepository flightScheduleRepository;
+
+    private SeatBatchProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private SeatUpdateBatcher seatUpdateBatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SeatBatchProperties();
+        properties.setWindow(Duration.ofMillis(20));
+        meterRegistry = new SimpleMeterRegistry();
+        seatUpdateBatcher = new SeatUpdateBatcher(flightScheduleRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void lock_shouldWriteConcurrentRequestsAsOneUpdate() {
+        // Given
+        FlightSchedule updated = schedule(0b11L);
+        when(flightScheduleRepository.applySeatChanges(eq("schedule123"), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.just(updated));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B)))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).isSameAs(updated);
+                    assertThat(results.getT2()).isSameAs(updated);
+                })
+                .verifyComplete();
+
+        verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b11L),
+                argThat((long[] mask) -> mask.length == 0));
+        assertThat(meterRegistry.get("flight.seats.batch.size").summary().max()).isEqualTo(2);
+    }
+
+    @Test
+    void lock_shouldWriteWithoutWaiting_whenBatchIsFull() {
+        // Given
+        properties.setWindow(Duration.ofSeconds(30));
+        properties.setMaxBatchSize(2);
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.just(schedule(0b11L)));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void lock_shouldRejectOnlyConflictingRequest_whenGuardFails() {
+        // Given 1A was booked by another instance in the meantime
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(schedule(0b11L)));
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule(0b01L)));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B).map(Optional::of).defaultIfEmpty(Optional.empty())))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).isEmpty();
+                    assertThat(results.getT2()).isPresent();
+                })
+                .verifyComplete();
+
+        verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b10L), any(long[].class));
+        assertThat(meterRegistry.get("flight.seats.batch.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void lock_shouldRejectRequestsBeyondAvailableSeats_whenGuardFails() {
+        // Given both seats are free in the bitmap but only one seat is left for sale
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(schedule(0b01L, 0)));
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule(0L, 1)));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B).map(Optional::of).defaultIfEmpty(Optional.empty())))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).isPresent();
+                    assertThat(results.getT2()).isEmpty();
+                })
+                .verifyComplete();
+
+        verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b01L), any(long[].class));
+    }
+
+    @Test
+    void release_shouldBeRejected_whenSeatIsHeld() {
+        // Given 1A is set in the bitmap because another customer holds it
+        FlightSchedule inventory = schedule(0b01L, 9);
+        inventory.setHolds(List.of(SeatHold.builder().token("hold1").seatMask(List.of(0b01L)).build()));
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.empty());
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(inventory));
+
+        // When & Then
+        StepVerifier.create(seatUpdateBatcher.release("schedule123", SEAT_1A))
+                .verifyComplete();
+
+        verify(flightScheduleRepository, times(1)).applySeatChanges(anyString(), any(long[].class), any(long[].class));
+    }
+
+    @Test
+    void release_shouldSeePrecedingLock_whenBothLandInOneBatch() {
+        // Given
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.just(schedule(0b01L)))
+                .thenReturn(Mono.just(schedule(0L)));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A),
+                        seatUpdateBatcher.release("schedule123", SEAT_1A)))
+                .assertNext(results -> assertThat(results.getT2().getSeatBitmap()).containsExactly(0L))
+                .verifyComplete();
+
+        // the release collides with the lock, so it goes out in the next write instead of being rejected
+        var inOrder = inOrder(flightScheduleRepository);
+        inOrder.verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b01L), argThat((long[] mask) -> mask.length == 0));
+        inOrder.verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 0), argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b01L));
+    }
+
+    @Test
+    void lock_shouldFailEveryCaller_whenWriteFails() {
+        // Given
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.error(new IllegalStateException("mongod unavailable")));
+
+        // When & Then
+        StepVerifier.create(seatUpdateBatcher.lock("schedule123", SEAT_1A))
+                .expectErrorMessage("mongod unavailable")
+                .verify();
+
+        // the lane is retired, so a later request still goes through
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.just(schedule(0b10L)));
+        StepVerifier.create(seatUpdateBatcher.lock("schedule123", SEAT_1B))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void lock_shouldFailExpiredRequestAndLeaveItOutOfWrite() {
+        // Given 1A's caller stops waiting before the window closes
+        Instant lateDeadline = Instant.now().plusSeconds(10);
+        AtomicReference<Instant> writeDeadline = new AtomicReference<>();
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.deferContextual(context -> {
+                    writeDeadline.set(RequestDeadline.of(context));
+                    return Mono.just(schedule(0b10L));
+                }));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A)
+                                .contextWrite(RequestDeadline.until(Instant.now().plusMillis(1)))
+                                .map(Optional::of)
+                                .onErrorResume(DeadlineExceededException.class, e -> Mono.just(Optional.empty())),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B)
+                                .contextWrite(RequestDeadline.until(lateDeadline))))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).isEmpty();
+                    assertThat(results.getT2()).isNotNull();
+                })
+                .verifyComplete();
+
+        verify(flightScheduleRepository).applySeatChanges(eq("schedule123"),
+                argThat((long[] mask) -> mask.length == 1 && mask[0] == 0b10L), any(long[].class));
+        assertThat(writeDeadline.get()).isEqualTo(lateDeadline);
+    }
+
+    @Test
+    void lock_shouldBoundWriteByEarliestDeadline() {
+        // Given
+        Instant earliest = Instant.now().plusSeconds(5);
+        AtomicReference<Instant> writeDeadline = new AtomicReference<>();
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.deferContextual(context -> {
+                    writeDeadline.set(RequestDeadline.of(context));
+                    return Mono.just(schedule(0b11L));
+                }));
+
+        // When & Then
+        StepVerifier.create(Mono.zip(
+                        seatUpdateBatcher.lock("schedule123", SEAT_1A).contextWrite(RequestDeadline.until(earliest.plusSeconds(5))),
+                        seatUpdateBatcher.lock("schedule123", SEAT_1B).contextWrite(RequestDeadline.until(earliest)),
+                        seatUpdateBatcher.lock("schedule123", new long[]{0b100L})))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(writeDeadline.get()).isEqualTo(earliest);
+    }
+
+    @Test
+    void lock_shouldFailEveryCallerInWrite_whenEarliestDeadlinePassesDuringIt() {
+        // Given
+        when(flightScheduleRepository.applySeatChanges(anyString(), any(long[].class), any(long[].class)))
+                .thenReturn(Mono.error(new DeadlineExceededException("Request deadline passed while querying MongoDB")));
+
+        // When & Then
+        StepVerifier.create(seatUpdateBatcher.lock("schedule123", SEAT_1A)
+                        .contextWrite(RequestDeadline.until(Instant.now().plusSeconds(5))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void lock_shouldUseSingleWrites_whenBatchingDisabled() {
+        // Given
+        properties.setEnabled(false);
+        when(flightScheduleRepository.lockSeats("schedule123", SEAT_1A)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(seatUpdateBatcher.lock("schedule123", SEAT_1A))
+                .verifyComplete();
+
+        verify(flightScheduleRepository).lockSeats("schedule123", SEAT_1A);
+        verify(flightScheduleRepository, never()).applySeatChanges(anyString(), any(long[].class), any(long[].class));
+    }
+
+    private static FlightSchedule schedule(long word) {
+        return schedule(word, 10);
+    }
+
+    private static FlightSchedule schedule(long word, int availableSeats) {
+        return FlightSchedule.builder()
+                .id("schedule123")
+                .availableSeats(availableSeats)
+                .seatBitmap(List.of(word))
+                .build();
+    }
+}
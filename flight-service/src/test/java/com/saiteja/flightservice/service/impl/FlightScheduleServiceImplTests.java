@@ -0,0 +1,584 @@
+package com.saiteja.flightservice.service.impl;
+
+import com.saiteja.flightservice.cache.RouteSearchCache;
+import com.saiteja.flightservice.dto.flight.FlightScheduleCreateRequest;
+import com.saiteja.flightservice.dto.flight.FlightScheduleResponse;
+import com.saiteja.flightservice.dto.flight.SeatLockRequest;
+import com.saiteja.flightservice.exception.BadRequestException;
+import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.exception.UnauthorizedException;
+import com.saiteja.flightservice.migration.SeatBitmapMigration;
+import com.saiteja.flightservice.model.FareCalendarDay;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.RouteSchedule;
+import com.saiteja.flightservice.model.SeatHold;
+import com.saiteja.flightservice.model.SeatMap;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.model.enums.FlightStatus;
+import com.saiteja.flightservice.pagination.Pagination;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import com.saiteja.flightservice.seat.SeatHoldManager;
+import com.saiteja.flightservice.seat.SeatUpdateBatcher;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightScheduleServiceImplTests {
+
+    @Mock
+    private FlightScheduleRepository flightScheduleRepository;
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private SeatBitmapMigration seatBitmapMigration;
+
+    @Mock
+    private RouteSearchCache routeSearchCache;
+
+    @Mock
+    private SeatUpdateBatcher seatUpdateBatcher;
+
+    @Mock
+    private SeatHoldManager seatHoldManager;
+
+    @InjectMocks
+    private FlightScheduleServiceImpl flightScheduleService;
+
+    private FlightSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        schedule = FlightSchedule.builder()
+                .id("schedule123")
+                .flightId("flight123")
+                .flightDate(LocalDate.now().plusDays(1))
+                .departureTime(LocalTime.of(10, 0))
+                .arrivalTime(LocalTime.of(12, 0))
+                .fare(new BigDecimal("4500.00"))
+                .totalSeats(180)
+                .availableSeats(178)
+                .status(FlightStatus.SCHEDULED)
+                .seatBitmap(SeatMap.forCapacity(180).emptyBitmap())
+                .build();
+    }
+
+    @Test
+    void searchFlights_shouldMapJoinedRows() {
+        // Given
+        Flight flight = Flight.builder()
+                .id("flight123")
+                .flightNumber("AI101")
+                .airline(Airline.AIR_INDIA)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .seatCapacity(180)
+                .build();
+        when(flightRepository.findRouteSchedules("DEL", "BOM", schedule.getFlightDate()))
+                .thenReturn(Flux.just(new RouteSchedule(flight, schedule)));
+        passThroughCache();
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.searchFlights("DEL", "BOM", schedule.getFlightDate()))
+                .assertNext(response -> {
+                    assertThat(response.getScheduleId()).isEqualTo("schedule123");
+                    assertThat(response.getFlightNumber()).isEqualTo("AI101");
+                    assertThat(response.getAirline()).isEqualTo("AIR_INDIA");
+                    assertThat(response.getAvailableSeats()).isEqualTo(178);
+                })
+                .verifyComplete();
+
+        verify(flightScheduleRepository, never()).findByFlightIdAndFlightDate(anyString(), any(LocalDate.class));
+    }
+
+    @Test
+    void searchFlights_shouldThrowResourceNotFoundException_whenNoRows() {
+        // Given
+        when(flightRepository.findRouteSchedules(anyString(), anyString(), any(LocalDate.class))).thenReturn(Flux.empty());
+        passThroughCache();
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.searchFlights("DEL", "BOM", LocalDate.now()))
+                .expectErrorMatches(throwable -> throwable instanceof ResourceNotFoundException
+                        && throwable.getMessage().equals("No schedule found for given criteria"))
+                .verify();
+    }
+
+    @Test
+    void fareCalendar_shouldReturnEveryDayInRange() {
+        // Given
+        LocalDate from = LocalDate.now().plusDays(10);
+        when(flightRepository.findFareCalendar("DEL", "BOM", from, from.plusDays(2)))
+                .thenReturn(Flux.just(
+                        new FareCalendarDay(from, new BigDecimal("3999.00"), 210, 2),
+                        new FareCalendarDay(from.plusDays(2), null, 0, 1)));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.fareCalendar("DEL", "BOM", from, from.plusDays(2)))
+                .assertNext(day -> {
+                    assertThat(day.getDate()).isEqualTo(from);
+                    assertThat(day.getLowestFare()).isEqualByComparingTo("3999.00");
+                    assertThat(day.getAvailableSeats()).isEqualTo(210);
+                    assertThat(day.getFlights()).isEqualTo(2);
+                })
+                .assertNext(day -> {
+                    assertThat(day.getDate()).isEqualTo(from.plusDays(1));
+                    assertThat(day.getLowestFare()).isNull();
+                    assertThat(day.getFlights()).isZero();
+                })
+                .assertNext(day -> {
+                    assertThat(day.getDate()).isEqualTo(from.plusDays(2));
+                    assertThat(day.getLowestFare()).isNull();
+                    assertThat(day.getFlights()).isEqualTo(1);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void fareCalendar_shouldThrowBadRequestException_whenRangeIsReversed() {
+        // Given
+        LocalDate from = LocalDate.now().plusDays(10);
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.fareCalendar("DEL", "BOM", from, from.minusDays(1)))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("toDate must not be before fromDate"))
+                .verify();
+    }
+
+    @Test
+    void fareCalendar_shouldThrowBadRequestException_whenRangeIsTooWide() {
+        // Given
+        LocalDate from = LocalDate.now();
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.fareCalendar("DEL", "BOM", from, from.plusDays(31)))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Fare calendar can span at most 31 days"))
+                .verify();
+
+        verify(flightRepository, never()).findFareCalendar(anyString(), anyString(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void lockSeats_shouldComplete_whenConditionalUpdateMatches() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("2A", "2B")))
+                .verifyComplete();
+
+        ArgumentCaptor<long[]> mask = ArgumentCaptor.forClass(long[].class);
+        verify(seatUpdateBatcher).lock(eq("schedule123"), mask.capture());
+        assertThat(mask.getValue()[0]).isEqualTo(0b11L << 6);
+        verify(flightScheduleRepository, never()).save(any(FlightSchedule.class));
+        verify(routeSearchCache).updateSeats(schedule);
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenSeatsAreTaken() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(anyString(), any(long[].class))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("1A")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Requested seats are not available"))
+                .verify();
+
+        verify(routeSearchCache, never()).updateSeats(any(FlightSchedule.class));
+    }
+
+    @Test
+    void lockSeats_shouldThrowResourceNotFoundException_whenScheduleMissing() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("missing")).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("missing", List.of("1A")))
+                .expectErrorMatches(throwable -> throwable instanceof ResourceNotFoundException
+                        && throwable.getMessage().equals("Flight schedule not found: missing"))
+                .verify();
+
+        verify(seatUpdateBatcher, never()).lock(anyString(), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenScheduleHasNoCapacity() {
+        // Given
+        schedule.setTotalSeats(null);
+        schedule.setSeatBitmap(null);
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("1A")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Flight schedule has no seat capacity: schedule123"))
+                .verify();
+
+        verify(seatBitmapMigration, never()).migrate(anyString());
+        verify(seatUpdateBatcher, never()).lock(anyString(), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenSeatNumbersRepeat() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("1A", "1a")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Duplicate seat numbers in request"))
+                .verify();
+
+        verify(seatUpdateBatcher, never()).lock(anyString(), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenSeatIsOutsideLayout() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("31A")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Invalid seat number: 31A"))
+                .verify();
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenNoSeatsGiven() {
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of()))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("At least one seat number is required"))
+                .verify();
+    }
+
+    @Test
+    void lockSeats_shouldMigrateLegacySchedule_whenBitmapMissing() {
+        // Given
+        schedule.setSeatBitmap(null);
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatBitmapMigration.migrate("schedule123")).thenReturn(Mono.empty());
+        when(seatUpdateBatcher.lock(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats("schedule123", List.of("5C")))
+                .verifyComplete();
+
+        verify(seatBitmapMigration).migrate("schedule123");
+    }
+
+    @Test
+    void releaseSeats_shouldComplete_whenSeatsAreBooked() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.release(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.releaseSeats("schedule123", List.of("1A")))
+                .verifyComplete();
+
+        verify(routeSearchCache).updateSeats(schedule);
+    }
+
+    @Test
+    void lockSeats_shouldLockEveryLeg_whenAllAreAvailable() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory(anyString())).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(anyString(), any(long[].class))).thenReturn(Mono.just(schedule));
+        when(seatHoldManager.confirm(eq("schedule456"), eq("hold-1"), any(long[].class)))
+                .thenReturn(Mono.just(SeatHold.builder().token("hold-1").build()));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats(List.of(
+                        leg("schedule123", null, "1A"),
+                        leg("schedule456", "hold-1", "2A"))))
+                .verifyComplete();
+
+        verify(seatUpdateBatcher).lock(eq("schedule123"), any(long[].class));
+        verify(seatUpdateBatcher, never()).lock(eq("schedule456"), any(long[].class));
+        verify(seatUpdateBatcher, never()).release(anyString(), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldReleaseLockedLegs_whenAnotherLegIsTaken() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory(anyString())).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(eq("schedule456"), any(long[].class))).thenReturn(Mono.empty());
+        when(seatUpdateBatcher.release(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats(List.of(
+                        leg("schedule123", null, "1A"),
+                        leg("schedule456", null, "1A"))))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Requested seats are not available"))
+                .verify();
+
+        verify(seatUpdateBatcher).release(eq("schedule123"), any(long[].class));
+        verify(seatUpdateBatcher, never()).release(eq("schedule456"), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldRestoreConfirmedHold_whenAnotherLegIsTaken() {
+        // Given leg 1 is confirmed from the customer's hold before leg 2 turns out to be taken
+        SeatHold hold = SeatHold.builder().token("hold-1").seats(List.of("1A")).seatMask(List.of(0b01L)).build();
+        when(flightScheduleRepository.findSeatInventory(anyString())).thenReturn(Mono.just(schedule));
+        when(seatHoldManager.confirm(eq("schedule123"), eq("hold-1"), any(long[].class))).thenReturn(Mono.just(hold));
+        when(seatUpdateBatcher.lock(eq("schedule456"), any(long[].class))).thenReturn(Mono.empty());
+        when(seatHoldManager.restore("schedule123", hold)).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats(List.of(
+                        leg("schedule123", "hold-1", "1A"),
+                        leg("schedule456", null, "1A"))))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Requested seats are not available"))
+                .verify();
+
+        // the held seats stay with the customer instead of going back on sale
+        verify(seatHoldManager).restore("schedule123", hold);
+        verify(seatUpdateBatcher, never()).release(anyString(), any(long[].class));
+    }
+
+    @Test
+    void lockSeats_shouldFailWithServerError_whenGivingBackAnotherLegFails() {
+        // Given leg 2 is rejected and leg 1, which did lock, cannot be released
+        IllegalStateException releaseFailure = new IllegalStateException("connection reset");
+        when(flightScheduleRepository.findSeatInventory(anyString())).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(eq("schedule123"), any(long[].class))).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.lock(eq("schedule456"), any(long[].class))).thenReturn(Mono.empty());
+        when(seatUpdateBatcher.release(eq("schedule123"), any(long[].class))).thenReturn(Mono.error(releaseFailure));
+
+        // When & Then the caller must not take it for a clean rejection that locked nothing
+        StepVerifier.create(flightScheduleService.lockSeats(List.of(
+                        leg("schedule123", null, "1A"),
+                        leg("schedule456", null, "1A"))))
+                .expectErrorMatches(throwable -> throwable instanceof IllegalStateException
+                        && throwable.getCause() == releaseFailure)
+                .verify();
+    }
+
+    @Test
+    void lockSeats_shouldThrowBadRequestException_whenScheduleRepeats() {
+        // When & Then
+        StepVerifier.create(flightScheduleService.lockSeats(List.of(
+                        leg("schedule123", null, "1A"),
+                        leg("schedule123", null, "2A"))))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Each schedule can appear only once"))
+                .verify();
+
+        verifyNoInteractions(seatUpdateBatcher);
+    }
+
+    @Test
+    void holdSeats_shouldReturnHoldToken() {
+        // Given
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatHoldManager.hold(eq("schedule123"), eq("user-1"), eq(List.of("2A")), any(long[].class)))
+                .thenReturn(Mono.just(SeatHold.builder().token("hold-1").seats(List.of("2A")).expiresAt(expiresAt).build()));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.holdSeats("schedule123", "user-1", List.of("2A")))
+                .assertNext(response -> {
+                    assertThat(response.getHoldToken()).isEqualTo("hold-1");
+                    assertThat(response.getSeats()).containsExactly("2A");
+                    assertThat(response.getExpiresAt()).isEqualTo(expiresAt);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void holdSeats_shouldThrowBadRequestException_whenSeatsAreTaken() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatHoldManager.hold(anyString(), anyString(), anyList(), any(long[].class))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.holdSeats("schedule123", "user-1", List.of("2A")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Requested seats are not available"))
+                .verify();
+    }
+
+    @Test
+    void holdSeats_shouldThrowUnauthorizedException_whenCallerIsAnonymous() {
+        // When & Then
+        StepVerifier.create(flightScheduleService.holdSeats("schedule123", null, List.of("2A")))
+                .expectErrorMatches(throwable -> throwable instanceof UnauthorizedException
+                        && throwable.getMessage().equals("Sign in to hold seats"))
+                .verify();
+
+        verifyNoInteractions(flightScheduleRepository, seatHoldManager);
+    }
+
+    @Test
+    void confirmHold_shouldThrowBadRequestException_whenHoldExpired() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatHoldManager.confirm(eq("schedule123"), eq("hold-1"), any(long[].class))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.confirmHold("schedule123", "hold-1", List.of("2A")))
+                .expectError(BadRequestException.class)
+                .verify();
+
+        verify(seatUpdateBatcher, never()).lock(anyString(), any(long[].class));
+    }
+
+    @Test
+    void releaseHold_shouldThrowResourceNotFoundException_whenHoldUnknown() {
+        // Given
+        when(seatHoldManager.release("schedule123", "hold-1")).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.releaseHold("schedule123", "hold-1"))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void createSchedule_shouldInvalidateCachedRouteAndDate() {
+        // Given
+        Flight flight = Flight.builder()
+                .id("flight123")
+                .flightNumber("AI101")
+                .airline(Airline.AIR_INDIA)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .seatCapacity(180)
+                .build();
+        FlightScheduleCreateRequest request = new FlightScheduleCreateRequest();
+        request.setFlightNumber("ai101");
+        request.setFlightDate(schedule.getFlightDate());
+        request.setDepartureTime(LocalTime.of(10, 0));
+        request.setArrivalTime(LocalTime.of(12, 0));
+        request.setFare(new BigDecimal("4500.00"));
+        when(flightRepository.findByFlightNumber("AI101")).thenReturn(Mono.just(flight));
+        when(flightScheduleRepository.save(any(FlightSchedule.class))).thenReturn(Mono.just(schedule));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.createSchedule(request))
+                .assertNext(response -> assertThat(response.getScheduleId()).isEqualTo("schedule123"))
+                .verifyComplete();
+
+        verify(routeSearchCache).invalidate("DEL", "BOM", schedule.getFlightDate());
+    }
+
+    @Test
+    void releaseSeats_shouldThrowBadRequestException_whenSeatsAreNotBooked() {
+        // Given
+        when(flightScheduleRepository.findSeatInventory("schedule123")).thenReturn(Mono.just(schedule));
+        when(seatUpdateBatcher.release(anyString(), any(long[].class))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.releaseSeats("schedule123", List.of("9F")))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Seats are not booked on this schedule"))
+                .verify();
+    }
+
+    @Test
+    void getSchedulePage_shouldReturnRequestedFieldsAndNextCursor_whenMoreRowsExist() {
+        // Given
+        Flight flight = Flight.builder().id("flight123").flightNumber("AI101").airline(Airline.AIR_INDIA)
+                .originAirport("DEL").destinationAirport("BOM").seatCapacity(180).build();
+        FlightSchedule next = FlightSchedule.builder().id("schedule456").flightId("flight123")
+                .flightDate(schedule.getFlightDate().plusDays(1)).fare(new BigDecimal("5200.00")).build();
+        when(flightRepository.findById("flight123")).thenReturn(Mono.just(flight));
+        when(flightScheduleRepository.findPageByFlightId(eq("flight123"), isNull(), isNull(), eq(2), eq(List.of("fare"))))
+                .thenReturn(Flux.just(schedule, next));
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.getSchedulePage("flight123", null, 1, "flightNumber,fare"))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getItems().get(0).getFlightNumber()).isEqualTo("AI101");
+                    assertThat(page.getItems().get(0).getFare()).isEqualByComparingTo("4500.00");
+                    assertThat(page.getItems().get(0).getScheduleId()).isNull();
+                    assertThat(page.getItems().get(0).getFlightDate()).isNull();
+                    assertThat(Pagination.decodeCursor(page.getNextCursor(), 2))
+                            .containsExactly(schedule.getFlightDate().toString(), "schedule123");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getSchedulePage_shouldSeekPastCursor() {
+        // Given
+        ObjectId lastId = new ObjectId();
+        LocalDate lastDate = schedule.getFlightDate();
+        when(flightRepository.findById("flight123")).thenReturn(Mono.just(Flight.builder().id("flight123")
+                .flightNumber("AI101").airline(Airline.AIR_INDIA).build()));
+        when(flightScheduleRepository.findPageByFlightId("flight123", lastDate, lastId, 21, List.of()))
+                .thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(flightScheduleService.getSchedulePage("flight123",
+                        Pagination.encodeCursor(lastDate.toString(), lastId.toHexString()), 20, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).isEmpty();
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getSchedulePage_shouldThrowBadRequestException_whenCursorIsInvalid() {
+        // When & Then
+        StepVerifier.create(flightScheduleService.getSchedulePage("flight123", "not-a-cursor", 20, null))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Invalid page cursor"))
+                .verify();
+
+        verify(flightScheduleRepository, never()).findPageByFlightId(anyString(), any(), any(), anyInt(), any());
+    }
+
+    private static SeatLockRequest leg(String scheduleId, String holdToken, String... seatNumbers) {
+        return SeatLockRequest.builder()
+                .scheduleId(scheduleId)
+                .seatNumbers(List.of(seatNumbers))
+                .holdToken(holdToken)
+                .build();
+    }
+
+    private void passThroughCache() {
+        when(routeSearchCache.get(anyString(), anyString(), any(LocalDate.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Flux<FlightScheduleResponse>>>getArgument(3).get());
+    }
+}
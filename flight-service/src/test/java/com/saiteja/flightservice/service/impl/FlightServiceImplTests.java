@@ -0,0 +1,125 @@
+package com.saiteja.flightservice.service.impl;
+
+import com.saiteja.flightservice.exception.BadRequestException;
+import com.saiteja.flightservice.itinerary.RouteGraph;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.pagination.Pagination;
+import com.saiteja.flightservice.repository.FlightRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlightServiceImplTests {
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private RouteGraph routeGraph;
+
+    @InjectMocks
+    private FlightServiceImpl flightService;
+
+    @Test
+    void getFlightPage_shouldReturnNextCursor_whenMoreRowsExist() {
+        // Given
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        when(flightRepository.findPage(isNull(), eq(3), eq(Set.of())))
+                .thenReturn(Flux.just(flight(first, "AI101"), flight(second, "AI102"), flight(new ObjectId(), "AI103")));
+
+        // When & Then
+        StepVerifier.create(flightService.getFlightPage(null, 2, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting("flightNumber").containsExactly("AI101", "AI102");
+                    assertThat(Pagination.decodeCursor(page.getNextCursor(), 1)).containsExactly(second.toHexString());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlightPage_shouldSeekPastCursorAndTrimFields() {
+        // Given
+        ObjectId last = new ObjectId();
+        when(flightRepository.findPage(eq(last), eq(21), eq(Set.of("flightNumber"))))
+                .thenReturn(Flux.just(Flight.builder().id(new ObjectId().toHexString()).flightNumber("AI104").build()));
+
+        // When & Then
+        StepVerifier.create(flightService.getFlightPage(Pagination.encodeCursor(last.toHexString()), 20, "flightNumber"))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getItems().get(0).getFlightNumber()).isEqualTo("AI104");
+                    assertThat(page.getItems().get(0).getId()).isNull();
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlightPage_shouldDropUnrequestedFields_evenWhenLoaded() {
+        // Given a document that came back with more than the projection asked for
+        when(flightRepository.findPage(isNull(), eq(21), eq(Set.of("flightNumber"))))
+                .thenReturn(Flux.just(flight(new ObjectId(), "AI105")));
+
+        // When & Then
+        StepVerifier.create(flightService.getFlightPage(null, 20, "flightNumber"))
+                .assertNext(page -> assertThat(page.getItems()).singleElement().satisfies(item -> {
+                    assertThat(item.getFlightNumber()).isEqualTo("AI105");
+                    assertThat(item.getId()).isNull();
+                    assertThat(item.getAirline()).isNull();
+                    assertThat(item.getOriginAirport()).isNull();
+                    assertThat(item.getDestinationAirport()).isNull();
+                    assertThat(item.getSeatCapacity()).isNull();
+                }))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlightPage_shouldThrowBadRequestException_whenFieldIsUnknown() {
+        // When & Then
+        StepVerifier.create(flightService.getFlightPage(null, 20, "flightNumber,password"))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Unknown field: password"))
+                .verify();
+
+        verify(flightRepository, never()).findPage(any(), anyInt(), any());
+    }
+
+    @Test
+    void getFlightPage_shouldThrowBadRequestException_whenLimitIsTooLarge() {
+        // When & Then
+        StepVerifier.create(flightService.getFlightPage(null, 500, null))
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("limit must be between 1 and 100"))
+                .verify();
+    }
+
+    private static Flight flight(ObjectId id, String flightNumber) {
+        return Flight.builder()
+                .id(id.toHexString())
+                .flightNumber(flightNumber)
+                .airline(Airline.AIR_INDIA)
+                .originAirport("DEL")
+                .destinationAirport("BOM")
+                .seatCapacity(180)
+                .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.saiteja.flightservice.service.impl;
+
+import com.saiteja.flightservice.exception.ResourceNotFoundException;
+import com.saiteja.flightservice.itinerary.ItineraryProperties;
+import com.saiteja.flightservice.itinerary.RouteGraph;
+import com.saiteja.flightservice.model.Flight;
+import com.saiteja.flightservice.model.FlightSchedule;
+import com.saiteja.flightservice.model.enums.Airline;
+import com.saiteja.flightservice.repository.FlightRepository;
+import com.saiteja.flightservice.repository.FlightScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItineraryServiceImplTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(5);
+
+    @Mock
+    private FlightScheduleRepository flightScheduleRepository;
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    private RouteGraph routeGraph;
+    private ItineraryServiceImpl itineraryService;
+
+    @BeforeEach
+    void setUp() {
+        routeGraph = new RouteGraph(flightRepository);
+        routeGraph.addFlight(flight("delBom", "AI101", "DEL", "BOM"));
+        routeGraph.addFlight(flight("bomGoi", "AI202", "BOM", "GOI"));
+        routeGraph.addFlight(flight("delGoi", "AI303", "DEL", "GOI"));
+        itineraryService = new ItineraryServiceImpl(routeGraph, flightScheduleRepository, new ItineraryProperties());
+    }
+
+    @Test
+    void searchItineraries_shouldConnectLegsWithinLayoverWindow() {
+        // Given
+        when(flightScheduleRepository.findLegCandidates(anyCollection(), eq(DATE), any(LocalDate.class)))
+                .thenReturn(Flux.just(
+                        schedule("s1", "delBom", DATE, "06:00", "08:10", "4000"),
+                        // 40 minute layover, too short
+                        schedule("s2", "bomGoi", DATE, "08:50", "10:00", "2000"),
+                        // 2 hour layover
+                        schedule("s3", "bomGoi", DATE, "10:10", "11:20", "2500"),
+                        // 10 hour layover, too long
+                        schedule("s4", "bomGoi", DATE, "18:10", "19:20", "1500")));
+
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("DEL", "GOI", DATE, 1))
+                .assertNext(itinerary -> {
+                    assertThat(itinerary.getStops()).isEqualTo(1);
+                    assertThat(itinerary.getLegs()).extracting("scheduleId").containsExactly("s1", "s3");
+                    assertThat(itinerary.getDurationMinutes()).isEqualTo(320);
+                    assertThat(itinerary.getTotalFare()).isEqualByComparingTo("6500");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void searchItineraries_shouldLoadAllLegsInOneBatchedQuery() {
+        // Given
+        when(flightScheduleRepository.findLegCandidates(anyCollection(), eq(DATE), any(LocalDate.class)))
+                .thenReturn(Flux.just(schedule("s5", "delGoi", DATE, "07:00", "09:00", "5200")));
+
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("DEL", "GOI", DATE, 1))
+                .assertNext(itinerary -> assertThat(itinerary.getStops()).isZero())
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> flightIds = ArgumentCaptor.forClass(Collection.class);
+        verify(flightScheduleRepository, times(1)).findLegCandidates(flightIds.capture(), eq(DATE), eq(DATE.plusDays(2)));
+        assertThat(flightIds.getValue()).containsExactlyInAnyOrder("delBom", "bomGoi", "delGoi");
+    }
+
+    @Test
+    void searchItineraries_shouldConnectOvernightArrivalToNextDayDeparture() {
+        // Given
+        when(flightScheduleRepository.findLegCandidates(anyCollection(), eq(DATE), any(LocalDate.class)))
+                .thenReturn(Flux.just(
+                        schedule("s1", "delBom", DATE, "22:30", "00:40", "3000"),
+                        schedule("s2", "bomGoi", DATE.plusDays(1), "02:00", "03:10", "1800")));
+
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("DEL", "GOI", DATE, 1))
+                .assertNext(itinerary -> {
+                    assertThat(itinerary.getArrival()).isEqualTo(DATE.plusDays(1).atTime(3, 10));
+                    assertThat(itinerary.getLegs()).extracting("scheduleId").containsExactly("s1", "s2");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void searchItineraries_shouldSortShortestFirst() {
+        // Given
+        when(flightScheduleRepository.findLegCandidates(anyCollection(), eq(DATE), any(LocalDate.class)))
+                .thenReturn(Flux.just(
+                        schedule("s1", "delBom", DATE, "06:00", "08:00", "2000"),
+                        schedule("s2", "bomGoi", DATE, "09:00", "10:00", "1000"),
+                        schedule("s3", "delGoi", DATE, "12:00", "14:00", "9000")));
+
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("DEL", "GOI", DATE, 1))
+                .assertNext(itinerary -> assertThat(itinerary.getStops()).isZero())
+                .assertNext(itinerary -> assertThat(itinerary.getStops()).isEqualTo(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchItineraries_shouldThrowResourceNotFoundException_whenNoRoute() {
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("GOI", "CCU", DATE, 2))
+                .expectErrorMatches(throwable -> throwable instanceof ResourceNotFoundException
+                        && throwable.getMessage().equals("No route found from GOI to CCU"))
+                .verify();
+
+        verifyNoInteractions(flightScheduleRepository);
+    }
+
+    @Test
+    void searchItineraries_shouldThrowResourceNotFoundException_whenNothingConnects() {
+        // Given
+        when(flightScheduleRepository.findLegCandidates(anyCollection(), eq(DATE), any(LocalDate.class)))
+                .thenReturn(Flux.just(schedule("s1", "delBom", DATE, "06:00", "08:00", "2000")));
+
+        // When & Then
+        StepVerifier.create(itineraryService.searchItineraries("DEL", "GOI", DATE, 1))
+                .expectErrorMatches(throwable -> throwable instanceof ResourceNotFoundException
+                        && throwable.getMessage().equals("No itinerary found for given criteria"))
+                .verify();
+    }
+
+    private static Flight flight(String id, String flightNumber, String origin, String destination) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber(flightNumber)
+                .airline(Airline.AIR_INDIA)
+                .originAirport(origin)
+                .destinationAirport(destination)
+                .seatCapacity(180)
+                .build();
+    }
+
+    private static FlightSchedule schedule(String id, String flightId, LocalDate date,
+                                           String departure, String arrival, String fare) {
+        return FlightSchedule.builder()
+                .id(id)
+                .flightId(flightId)
+                .flightDate(date)
+                .departureTime(LocalTime.parse(departure))
+                .arrivalTime(LocalTime.parse(arrival))
+                .fare(new BigDecimal(fare))
+                .totalSeats(180)
+                .availableSeats(50)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.saiteja.flightservice.support;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+// Throwaway mongod for integration tests and benchmarks that need real server-side semantics
+public final class EmbeddedMongo implements AutoCloseable {
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private final MongoClient client;
+    private final ReactiveMongoTemplate template;
+
+    private EmbeddedMongo(TransitionWalker.ReachedState<RunningMongodProcess> mongod, String database) {
+        this.mongod = mongod;
+        this.client = MongoClients.create("mongodb://" + mongod.current().getServerAddress());
+        this.template = new ReactiveMongoTemplate(client, database);
+    }
+
+    public static EmbeddedMongo start(String database) {
+        return new EmbeddedMongo(Mongod.instance().start(Version.Main.V7_0), database);
+    }
+
+    public ReactiveMongoTemplate template() {
+        return template;
+    }
+
+    public <T> T repository(Class<T> repositoryType, Object... fragments) {
+        return new ReactiveMongoRepositoryFactory(template)
+                .getRepository(repositoryType, RepositoryFragments.just(fragments));
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        mongod.close();
+    }
+}